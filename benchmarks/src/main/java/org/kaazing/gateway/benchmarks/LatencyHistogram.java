@@ -0,0 +1,115 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.benchmarks;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies, in microseconds, which can be recorded to concurrently from the I/O threads.
+ * <p/>
+ * Values are counted in buckets covering powers of two, each split in 32 linear sub-buckets, so that percentiles are
+ * reported with a relative error below 1/32 whatever the magnitude of the latency.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = Long.SIZE - SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray((BUCKET_COUNT + 1) * SUB_BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalValue = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * Records a latency
+     * @param value  latency in microseconds, negative values are recorded as 0
+     */
+    public void record(long value) {
+        value = Math.max(value, 0);
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(value);
+        long max = maxValue.get();
+        while (value > max && !maxValue.compareAndSet(max, value)) {
+            max = maxValue.get();
+        }
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    public double getMean() {
+        long count = totalCount.get();
+        return (count != 0) ? (double) totalValue.get() / count : 0.0;
+    }
+
+    /**
+     * Method returning the latency below which the given percentage of the recorded latencies fall
+     * @param percentile  between 0 and 100
+     * @return the highest value of the sub-bucket holding the percentile, or 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long countAtPercentile = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int index = 0; index < counts.length(); index++) {
+            seen += counts.get(index);
+            if (seen >= countAtPercentile) {
+                return Math.min(highestValueAt(index), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    public void reset() {
+        for (int index = 0; index < counts.length(); index++) {
+            counts.set(index, 0);
+        }
+        totalCount.set(0);
+        totalValue.set(0);
+        maxValue.set(0);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // bucket 1 holds [32, 64), bucket 2 holds [64, 128), ... each with 32 sub-buckets
+        int bucket = (Long.SIZE - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> (bucket - 1)) - SUB_BUCKET_COUNT;
+        return bucket * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long highestValueAt(int index) {
+        int bucket = index / SUB_BUCKET_COUNT;
+        int subBucket = index % SUB_BUCKET_COUNT;
+        if (bucket == 0) {
+            return subBucket;
+        }
+        long lowestValue = (long) (SUB_BUCKET_COUNT + subBucket) << (bucket - 1);
+        return lowestValue + (1L << (bucket - 1)) - 1;
+    }
+}
@@ -0,0 +1,334 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.benchmarks;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.cli.PosixParser;
+import org.apache.mina.core.future.ConnectFuture;
+import org.kaazing.gateway.resource.address.ResourceAddress;
+import org.kaazing.gateway.resource.address.ResourceAddressFactory;
+import org.kaazing.gateway.server.test.Gateway;
+import org.kaazing.gateway.server.test.config.GatewayConfiguration;
+import org.kaazing.gateway.server.test.config.builder.GatewayConfigurationBuilder;
+import org.kaazing.gateway.transport.BridgeAcceptor;
+import org.kaazing.gateway.transport.BridgeConnector;
+import org.kaazing.gateway.transport.BridgeServiceFactory;
+import org.kaazing.gateway.transport.Transport;
+import org.kaazing.gateway.transport.TransportFactory;
+import org.kaazing.gateway.util.scheduler.SchedulerProvider;
+
+/**
+ * End to end load test: starts a gateway in process, connects a number of clients to it through the gateway's own
+ * connectors over loopback, and reports the connect rate, message throughput and latency percentiles as a JSON line.
+ * <p/>
+ * Scenarios:
+ * <ul>
+ * <li>echo: each client sends a record to the echo service and sends the next one when it comes back</li>
+ * <li>proxy: same closed loop, through the proxy service to a TCP echo backend run by the load test</li>
+ * <li>broadcast: the load test publishes records at a fixed rate to the broadcast service, which fans them out</li>
+ * </ul>
+ * Clients connect with wsn, wseb or, for the broadcast scenario only, sse.
+ */
+public final class LoadTest {
+    private static final String SCENARIO_ARG = "scenario";
+    private static final String TRANSPORT_ARG = "transport";
+    private static final String CLIENTS_ARG = "clients";
+    private static final String CONNECT_CONCURRENCY_ARG = "connect-concurrency";
+    private static final String MESSAGE_SIZE_ARG = "message-size";
+    private static final String RATE_ARG = "rate";
+    private static final String WARMUP_ARG = "warmup";
+    private static final String DURATION_ARG = "duration";
+    private static final String PORT_ARG = "port";
+    private static final String OUTPUT_ARG = "output";
+    private static final String HELP_ARG = "help";
+
+    private static final int BACKEND_PORT_OFFSET = 100;
+    private static final long BACKEND_CONNECT_TIMEOUT_MILLIS = SECONDS.toMillis(10);
+
+    enum Scenario {
+        ECHO("echo", true), PROXY("proxy", true), BROADCAST("broadcast", false);
+
+        private final String serviceType;
+        private final boolean closedLoop;
+
+        Scenario(String serviceType, boolean closedLoop) {
+            this.serviceType = serviceType;
+            this.closedLoop = closedLoop;
+        }
+    }
+
+    private final Scenario scenario;
+    private final String transport;
+    private final int clients;
+    private final int connectConcurrency;
+    private final int messageSize;
+    private final double rate;
+    private final long warmupSeconds;
+    private final long durationSeconds;
+    private final int port;
+
+    LoadTest(Scenario scenario, String transport, int clients, int connectConcurrency, int messageSize, double rate,
+             long warmupSeconds, long durationSeconds, int port) {
+        if ("sse".equals(transport) && scenario != Scenario.BROADCAST) {
+            throw new IllegalArgumentException("sse clients can only receive, use the broadcast scenario");
+        }
+        if (!"wsn".equals(transport) && !"wseb".equals(transport) && !"sse".equals(transport)) {
+            throw new IllegalArgumentException("Unsupported transport " + transport + ", expected wsn, wseb or sse");
+        }
+        if (messageSize < TimestampedRecord.MIN_SIZE) {
+            throw new IllegalArgumentException("Message size must be at least " + TimestampedRecord.MIN_SIZE);
+        }
+        this.scenario = scenario;
+        this.transport = transport;
+        this.clients = clients;
+        this.connectConcurrency = connectConcurrency;
+        this.messageSize = messageSize;
+        this.rate = rate;
+        this.warmupSeconds = warmupSeconds;
+        this.durationSeconds = durationSeconds;
+        this.port = port;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = createOptions();
+        CommandLine cmd;
+        try {
+            cmd = new PosixParser().parse(options, args);
+        }
+        catch (ParseException ex) {
+            System.out.println("There was a problem with a command-line argument:\n" + ex.getMessage());
+            new HelpFormatter().printHelp("gateway.load.test", options, true);
+            return;
+        }
+        if (cmd.hasOption(HELP_ARG)) {
+            new HelpFormatter().printHelp("gateway.load.test", options, true);
+            return;
+        }
+
+        LoadTest loadTest = new LoadTest(
+                Scenario.valueOf(cmd.getOptionValue(SCENARIO_ARG, "echo").toUpperCase()),
+                cmd.getOptionValue(TRANSPORT_ARG, "wsn"),
+                Integer.parseInt(cmd.getOptionValue(CLIENTS_ARG, "100")),
+                Integer.parseInt(cmd.getOptionValue(CONNECT_CONCURRENCY_ARG, "100")),
+                Integer.parseInt(cmd.getOptionValue(MESSAGE_SIZE_ARG, "64")),
+                Double.parseDouble(cmd.getOptionValue(RATE_ARG, "100")),
+                Long.parseLong(cmd.getOptionValue(WARMUP_ARG, "5")),
+                Long.parseLong(cmd.getOptionValue(DURATION_ARG, "10")),
+                Integer.parseInt(cmd.getOptionValue(PORT_ARG, "8000")));
+
+        LoadTestReport report = loadTest.run();
+        String json = report.toJson();
+        System.out.println(json);
+        if (cmd.hasOption(OUTPUT_ARG)) {
+            try (Writer output = new FileWriter(cmd.getOptionValue(OUTPUT_ARG), true)) {
+                output.write(json);
+                output.write(System.lineSeparator());
+            }
+        }
+        // transports leave non daemon I/O threads behind
+        System.exit(0);
+    }
+
+    /**
+     * Method running the load test from start to end
+     * @return the results, once the gateway and the clients have been shut down
+     */
+    LoadTestReport run() throws Exception {
+        LoadTestMetrics metrics = new LoadTestMetrics();
+        SchedulerProvider schedulerProvider = new SchedulerProvider();
+        TransportFactory transportFactory = TransportFactory.newTransportFactory(Collections.emptyMap());
+        ResourceAddressFactory resourceAddressFactory = ResourceAddressFactory.newResourceAddressFactory();
+
+        Map<String, Object> resources = new HashMap<>();
+        resources.put("schedulerProvider", schedulerProvider);
+        resources.put("configuration", new Properties());
+        resources.put("bridgeServiceFactory", new BridgeServiceFactory(transportFactory));
+        resources.put("resourceAddressFactory", resourceAddressFactory);
+        transportFactory.injectResources(resources);
+
+        LoadTestBackend backend = null;
+        Gateway gateway = new Gateway();
+        try {
+            if (scenario != Scenario.ECHO) {
+                backend = (scenario == Scenario.BROADCAST) ? LoadTestBackend.publisher(metrics, messageSize, rate)
+                                                           : LoadTestBackend.echo(metrics);
+                ResourceAddress backendAddress = resourceAddressFactory.newResourceAddress(backendURI());
+                BridgeAcceptor backendAcceptor = transportFactory.getAcceptor(backendAddress);
+                backendAcceptor.bind(backendAddress, backend, null);
+            }
+
+            gateway.start(newGatewayConfiguration());
+
+            if (backend != null && scenario == Scenario.BROADCAST) {
+                // the broadcast service connects to the backend when it starts
+                long deadline = System.currentTimeMillis() + BACKEND_CONNECT_TIMEOUT_MILLIS;
+                while (!backend.isConnected() && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                if (!backend.isConnected()) {
+                    throw new IllegalStateException("Broadcast service did not connect to " + backendURI());
+                }
+            }
+
+            long connectStart = System.nanoTime();
+            connectClients(transportFactory, resourceAddressFactory, metrics);
+            double connectSeconds = (System.nanoTime() - connectStart) / (double) SECONDS.toNanos(1);
+
+            Thread.sleep(SECONDS.toMillis(warmupSeconds));
+            metrics.startRecording();
+            long recordingStart = System.nanoTime();
+            Thread.sleep(SECONDS.toMillis(durationSeconds));
+            metrics.stopRecording();
+            double recordedSeconds = (System.nanoTime() - recordingStart) / (double) SECONDS.toNanos(1);
+            metrics.stop();
+
+            return LoadTestReport.newReport(scenario.name().toLowerCase(), transport, clients, messageSize, metrics,
+                    connectSeconds, recordedSeconds);
+        }
+        finally {
+            metrics.stop();
+            gateway.stop();
+            if (backend != null) {
+                backend.dispose();
+            }
+            dispose(transportFactory);
+            schedulerProvider.shutdownNow();
+        }
+    }
+
+    private void connectClients(TransportFactory transportFactory, ResourceAddressFactory resourceAddressFactory,
+                                final LoadTestMetrics metrics) throws InterruptedException {
+        ResourceAddress connectAddress = resourceAddressFactory.newResourceAddress(clientURI());
+        BridgeConnector connector = transportFactory.getConnector(connectAddress);
+        LoadTestClientHandler handler = new LoadTestClientHandler(metrics, messageSize, scenario.closedLoop);
+
+        // bound the number of pending handshakes, so the connect rate is measured rather than the backlog size
+        final Semaphore pending = new Semaphore(connectConcurrency);
+        for (int i = 0; i < clients; i++) {
+            pending.acquire();
+            ConnectFuture connectFuture = connector.connect(connectAddress, handler, null);
+            connectFuture.addListener(future -> {
+                if (connectFuture.isConnected()) {
+                    metrics.connected();
+                }
+                else {
+                    metrics.connectFailed();
+                }
+                pending.release();
+            });
+        }
+        pending.acquire(connectConcurrency);
+        pending.release(connectConcurrency);
+    }
+
+    private GatewayConfiguration newGatewayConfiguration() {
+        String host = "localhost:" + port;
+        switch (scenario) {
+        case ECHO:
+            // @formatter:off
+            return new GatewayConfigurationBuilder()
+                    .service()
+                        .accept("ws://" + host + "/echo")
+                        .type(scenario.serviceType)
+                    .done()
+                .done();
+            // @formatter:on
+        case PROXY:
+            // @formatter:off
+            return new GatewayConfigurationBuilder()
+                    .service()
+                        .accept("ws://" + host + "/proxy")
+                        .connect(backendURI())
+                        .type(scenario.serviceType)
+                    .done()
+                .done();
+            // @formatter:on
+        case BROADCAST:
+            // @formatter:off
+            return new GatewayConfigurationBuilder()
+                    .service()
+                        .accept("ws://" + host + "/broadcast")
+                        .accept("sse://" + host + "/sse")
+                        .connect(backendURI())
+                        .type(scenario.serviceType)
+                        .property("reconnect.delay", "100")
+                    .done()
+                .done();
+            // @formatter:on
+        default:
+            throw new IllegalStateException("Unexpected scenario " + scenario);
+        }
+    }
+
+    private String clientURI() {
+        String host = "localhost:" + port;
+        switch (transport) {
+        case "sse":
+            return "sse://" + host + "/sse";
+        case "wseb":
+            return "wse://" + host + "/" + scenario.serviceType;
+        default:
+            return "wsn://" + host + "/" + scenario.serviceType;
+        }
+    }
+
+    private String backendURI() {
+        return "tcp://localhost:" + (port + BACKEND_PORT_OFFSET);
+    }
+
+    private static void dispose(TransportFactory transportFactory) {
+        for (String transportName : transportFactory.getTransportNames()) {
+            Transport transport = transportFactory.getTransport(transportName);
+            if (transport.getConnector() != null) {
+                transport.getConnector().dispose();
+            }
+            if (transport.getAcceptor() != null) {
+                transport.getAcceptor().dispose();
+            }
+        }
+    }
+
+    private static Options createOptions() {
+        Options options = new Options();
+        options.addOption(null, SCENARIO_ARG, true, "echo, proxy or broadcast (default echo)");
+        options.addOption(null, TRANSPORT_ARG, true, "client transport, wsn, wseb or sse (default wsn)");
+        options.addOption(null, CLIENTS_ARG, true, "number of concurrent clients (default 100)");
+        options.addOption(null, CONNECT_CONCURRENCY_ARG, true, "maximum number of pending connects (default 100)");
+        options.addOption(null, MESSAGE_SIZE_ARG, true, "message size in bytes, at least 20 (default 64)");
+        options.addOption(null, RATE_ARG, true, "messages published per second, broadcast scenario only (default 100)");
+        options.addOption(null, WARMUP_ARG, true, "seconds to run before recording (default 5)");
+        options.addOption(null, DURATION_ARG, true, "seconds to record (default 10)");
+        options.addOption(null, PORT_ARG, true, "gateway port, the backend listens on port + 100 (default 8000)");
+        options.addOption(null, OUTPUT_ARG, true, "file the JSON results line is appended to");
+        options.addOption(null, HELP_ARG, false, "print the help text");
+        return options;
+    }
+
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.benchmarks;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.kaazing.gateway.transport.IoHandlerAdapter;
+import org.kaazing.mina.core.buffer.IoBufferAllocatorEx;
+import org.kaazing.mina.core.buffer.IoBufferEx;
+import org.kaazing.mina.core.session.IoSessionEx;
+
+/**
+ * TCP backend the gateway connects to in the proxy and broadcast scenarios: it either echoes whatever it receives or
+ * publishes records at a fixed rate to every connected session.
+ */
+final class LoadTestBackend extends IoHandlerAdapter<IoSessionEx> {
+
+    private static final long PUBLISH_INTERVAL_MILLIS = 1;
+    private static final int MAX_RECORDS_PER_WRITE = 1024;
+
+    private final LoadTestMetrics metrics;
+    private final Set<IoSessionEx> sessions = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService publisher;
+    private final int messageSize;
+    private final double rate;
+
+    private long published;
+    private long publishStart = -1;
+
+    /**
+     * Method returning a backend echoing every received byte back
+     * @param metrics
+     * @return
+     */
+    static LoadTestBackend echo(LoadTestMetrics metrics) {
+        return new LoadTestBackend(metrics, 0, 0);
+    }
+
+    /**
+     * Method returning a backend publishing records to the sessions connected to it
+     * @param metrics
+     * @param messageSize
+     * @param rate  records per second
+     * @return
+     */
+    static LoadTestBackend publisher(LoadTestMetrics metrics, int messageSize, double rate) {
+        return new LoadTestBackend(metrics, messageSize, rate);
+    }
+
+    private LoadTestBackend(LoadTestMetrics metrics, int messageSize, double rate) {
+        this.metrics = metrics;
+        this.messageSize = messageSize;
+        this.rate = rate;
+        if (rate > 0) {
+            this.publisher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "load-test-publisher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.publisher.scheduleAtFixedRate(this::publish, PUBLISH_INTERVAL_MILLIS, PUBLISH_INTERVAL_MILLIS, MILLISECONDS);
+        }
+        else {
+            this.publisher = null;
+        }
+    }
+
+    boolean isConnected() {
+        return !sessions.isEmpty();
+    }
+
+    void dispose() {
+        if (publisher != null) {
+            publisher.shutdownNow();
+        }
+    }
+
+    @Override
+    protected void doSessionOpened(IoSessionEx session) throws Exception {
+        sessions.add(session);
+    }
+
+    @Override
+    protected void doSessionClosed(IoSessionEx session) throws Exception {
+        sessions.remove(session);
+    }
+
+    @Override
+    protected void doMessageReceived(IoSessionEx session, Object message) throws Exception {
+        if (publisher == null) {
+            // the received buffer may be reused once this method returns, so echo a copy
+            ByteBuffer buf = ((IoBufferEx) message).buf();
+            ByteBuffer copy = ByteBuffer.allocate(buf.remaining());
+            copy.put(buf.duplicate()).flip();
+            IoBufferAllocatorEx<?> allocator = session.getBufferAllocator();
+            session.write(allocator.wrap(copy));
+        }
+    }
+
+    @Override
+    protected void doExceptionCaught(IoSessionEx session, Throwable cause) throws Exception {
+        session.close(true);
+    }
+
+    private void publish() {
+        if (sessions.isEmpty() || !metrics.isRunning()) {
+            return;
+        }
+
+        long now = metrics.now();
+        if (publishStart < 0) {
+            publishStart = now;
+        }
+        long due = (long) ((now - publishStart) * rate / SECONDS.toNanos(1)) - published;
+        int records = (int) Math.min(due, MAX_RECORDS_PER_WRITE);
+        if (records <= 0) {
+            return;
+        }
+
+        for (IoSessionEx session : sessions) {
+            ByteBuffer buf = ByteBuffer.allocate(records * messageSize);
+            for (int i = 0; i < records; i++) {
+                TimestampedRecord.encode(buf, messageSize, now);
+            }
+            buf.flip();
+            IoBufferAllocatorEx<?> allocator = session.getBufferAllocator();
+            session.write(allocator.wrap(buf));
+        }
+        published += records;
+        metrics.messagesSent(records);
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.benchmarks;
+
+import java.nio.ByteBuffer;
+
+import org.kaazing.gateway.transport.IoHandlerAdapter;
+import org.kaazing.gateway.transport.TypedAttributeKey;
+import org.kaazing.mina.core.buffer.IoBufferAllocatorEx;
+import org.kaazing.mina.core.buffer.IoBufferEx;
+import org.kaazing.mina.core.session.IoSessionEx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Handler shared by all the client connections of a run.
+ * <p/>
+ * In closed loop mode (echo and proxy scenarios) each connection has a single record in flight, the next one being sent
+ * as soon as the previous one comes back. Otherwise (broadcast scenario) connections only receive.
+ */
+final class LoadTestClientHandler extends IoHandlerAdapter<IoSessionEx> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadTestClientHandler.class);
+
+    private static final TypedAttributeKey<TimestampedRecord.Parser> PARSER_KEY =
+            new TypedAttributeKey<>(LoadTestClientHandler.class, "parser");
+
+    private final LoadTestMetrics metrics;
+    private final int messageSize;
+    private final boolean closedLoop;
+
+    LoadTestClientHandler(LoadTestMetrics metrics, int messageSize, boolean closedLoop) {
+        this.metrics = metrics;
+        this.messageSize = messageSize;
+        this.closedLoop = closedLoop;
+    }
+
+    @Override
+    protected void doSessionOpened(final IoSessionEx session) throws Exception {
+        PARSER_KEY.set(session, new TimestampedRecord.Parser(timestamp -> {
+            metrics.recordReceived(timestamp);
+            if (closedLoop) {
+                send(session);
+            }
+        }));
+        if (closedLoop) {
+            send(session);
+        }
+    }
+
+    @Override
+    protected void doMessageReceived(IoSessionEx session, Object message) throws Exception {
+        TimestampedRecord.Parser parser = PARSER_KEY.get(session);
+        if (parser != null) {
+            parser.parse(((IoBufferEx) message).buf());
+        }
+    }
+
+    @Override
+    protected void doSessionClosed(IoSessionEx session) throws Exception {
+        if (metrics.isRunning()) {
+            metrics.disconnected();
+        }
+    }
+
+    @Override
+    protected void doExceptionCaught(IoSessionEx session, Throwable cause) throws Exception {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(String.format("Closing client session %s", session), cause);
+        }
+        session.close(true);
+    }
+
+    private void send(IoSessionEx session) {
+        if (metrics.isRunning() && !session.isClosing()) {
+            IoBufferAllocatorEx<?> allocator = session.getBufferAllocator();
+            ByteBuffer buf = ByteBuffer.wrap(TimestampedRecord.encode(messageSize, metrics.now()));
+            session.write(allocator.wrap(buf));
+            metrics.messagesSent(1);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.benchmarks;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters shared by all the connections of a load test run.
+ * <p/>
+ * Latencies and message counts are only accumulated while recording, so that the connect and warm up phases do not
+ * skew the steady state results. Garbage collections are sampled at the start and end of recording, covering the
+ * gateway and the clients as both run in the same process.
+ */
+public final class LoadTestMetrics {
+
+    private final long origin = System.nanoTime();
+
+    private final AtomicLong connected = new AtomicLong();
+    private final AtomicLong connectFailures = new AtomicLong();
+    private final AtomicLong disconnected = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong messagesReceived = new AtomicLong();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    private volatile boolean running = true;
+    private volatile boolean recording;
+
+    private long gcCount;
+    private long gcMillis;
+
+    /**
+     * Method returning the time elapsed since the start of the run, used as timestamp of the records
+     * @return nanoseconds, never negative
+     */
+    public long now() {
+        return System.nanoTime() - origin;
+    }
+
+    public void startRecording() {
+        messagesSent.set(0);
+        messagesReceived.set(0);
+        latencies.reset();
+        gcCount = -gcCount();
+        gcMillis = -gcMillis();
+        recording = true;
+    }
+
+    public void stopRecording() {
+        recording = false;
+        gcCount += gcCount();
+        gcMillis += gcMillis();
+    }
+
+    public void stop() {
+        recording = false;
+        running = false;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    void connected() {
+        connected.incrementAndGet();
+    }
+
+    void connectFailed() {
+        connectFailures.incrementAndGet();
+    }
+
+    void disconnected() {
+        disconnected.incrementAndGet();
+    }
+
+    void messagesSent(int count) {
+        if (recording) {
+            messagesSent.addAndGet(count);
+        }
+    }
+
+    void recordReceived(long timestamp) {
+        if (recording) {
+            messagesReceived.incrementAndGet();
+            latencies.record(NANOSECONDS.toMicros(now() - timestamp));
+        }
+    }
+
+    public long getConnected() {
+        return connected.get();
+    }
+
+    public long getConnectFailures() {
+        return connectFailures.get();
+    }
+
+    public long getDisconnected() {
+        return disconnected.get();
+    }
+
+    public long getMessagesSent() {
+        return messagesSent.get();
+    }
+
+    public long getMessagesReceived() {
+        return messagesReceived.get();
+    }
+
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public long getGcMillis() {
+        return gcMillis;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(collector.getCollectionCount(), 0);
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(collector.getCollectionTime(), 0);
+        }
+        return millis;
+    }
+}
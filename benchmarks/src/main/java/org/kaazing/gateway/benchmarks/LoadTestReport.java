@@ -0,0 +1,92 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Results of a load test run, rendered as a single line JSON object so that successive runs can be appended to the same
+ * file and compared by regression tracking tools.
+ */
+public final class LoadTestReport {
+
+    private final Map<String, Object> fields = new LinkedHashMap<>();
+
+    LoadTestReport put(String name, Object value) {
+        fields.put(name, value);
+        return this;
+    }
+
+    public Object get(String name) {
+        return fields.get(name);
+    }
+
+    static LoadTestReport newReport(String scenario, String transport, int clients, int messageSize,
+                                    LoadTestMetrics metrics, double connectSeconds, double durationSeconds) {
+        LatencyHistogram latencies = metrics.getLatencies();
+        long received = metrics.getMessagesReceived();
+        return new LoadTestReport()
+                .put("timestamp", System.currentTimeMillis())
+                .put("scenario", scenario)
+                .put("transport", transport)
+                .put("clients", clients)
+                .put("messageSize", messageSize)
+                .put("connected", metrics.getConnected())
+                .put("connectFailures", metrics.getConnectFailures())
+                .put("disconnected", metrics.getDisconnected())
+                .put("connectSeconds", connectSeconds)
+                .put("connectRate", connectSeconds > 0 ? metrics.getConnected() / connectSeconds : 0.0)
+                .put("durationSeconds", durationSeconds)
+                .put("messagesSent", metrics.getMessagesSent())
+                .put("messagesReceived", received)
+                .put("throughput", durationSeconds > 0 ? received / durationSeconds : 0.0)
+                .put("latencyMeanMicros", latencies.getMean())
+                .put("latencyP50Micros", latencies.getValueAtPercentile(50.0))
+                .put("latencyP99Micros", latencies.getValueAtPercentile(99.0))
+                .put("latencyP999Micros", latencies.getValueAtPercentile(99.9))
+                .put("latencyMaxMicros", latencies.getMax())
+                .put("gcCount", metrics.getGcCount())
+                .put("gcMillis", metrics.getGcMillis());
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"').append(field.getKey()).append("\":");
+            Object value = field.getValue();
+            if (value instanceof Double) {
+                json.append(String.format(Locale.ROOT, "%.3f", (Double) value));
+            }
+            else if (value instanceof Number || value instanceof Boolean) {
+                json.append(value);
+            }
+            else {
+                json.append('"').append(String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+            }
+        }
+        return json.append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Payload exchanged by the load test: a 'T' marker followed by the 19 digit, zero padded, send time in nanoseconds,
+ * padded with 'x' up to the requested message size.
+ * <p/>
+ * Records carry no other framing, so that they can be recognized after having been coalesced or split by a byte
+ * stream transport (the proxy backend) or wrapped in a text framing (SSE "data:" lines).
+ */
+public final class TimestampedRecord {
+
+    static final byte MARKER = 'T';
+    static final byte PADDING = 'x';
+    static final int TIMESTAMP_DIGITS = 19;
+
+    public static final int MIN_SIZE = 1 + TIMESTAMP_DIGITS;
+
+    private TimestampedRecord() {
+    }
+
+    /**
+     * Method writing a record at the current position of a buffer
+     * @param buf
+     * @param size  total record size, at least {@link #MIN_SIZE}
+     * @param timestamp  send time, in nanoseconds, not negative
+     */
+    public static void encode(ByteBuffer buf, int size, long timestamp) {
+        assert size >= MIN_SIZE;
+        assert timestamp >= 0;
+        int start = buf.position();
+        buf.put(MARKER);
+        for (int i = TIMESTAMP_DIGITS; i > 0; i--) {
+            buf.put(start + i, (byte) ('0' + (timestamp % 10)));
+            timestamp /= 10;
+        }
+        buf.position(start + MIN_SIZE);
+        for (int i = MIN_SIZE; i < size; i++) {
+            buf.put(PADDING);
+        }
+    }
+
+    public static byte[] encode(int size, long timestamp) {
+        byte[] bytes = new byte[size];
+        Arrays.fill(bytes, PADDING);
+        encode(ByteBuffer.wrap(bytes), size, timestamp);
+        return bytes;
+    }
+
+    /**
+     * Incremental parser, one instance per connection. Not thread safe, each connection being served by a single I/O
+     * thread at a time.
+     */
+    public static final class Parser {
+
+        public interface Listener {
+            void recordReceived(long timestamp);
+        }
+
+        private final Listener listener;
+        private int digits = -1;
+        private long timestamp;
+
+        public Parser(Listener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Method consuming the remaining bytes of a buffer, without modifying its position
+         * @param buf
+         * @return the number of complete records found
+         */
+        public int parse(ByteBuffer buf) {
+            int records = 0;
+            for (int i = buf.position(), limit = buf.limit(); i < limit; i++) {
+                byte b = buf.get(i);
+                if (digits < 0) {
+                    if (b == MARKER) {
+                        digits = 0;
+                        timestamp = 0;
+                    }
+                }
+                else if (b >= '0' && b <= '9') {
+                    timestamp = timestamp * 10 + (b - '0');
+                    if (++digits == TIMESTAMP_DIGITS) {
+                        digits = -1;
+                        records++;
+                        listener.recordReceived(timestamp);
+                    }
+                }
+                else {
+                    // truncated record, resynchronize on the next marker
+                    digits = (b == MARKER) ? 0 : -1;
+                    timestamp = 0;
+                }
+            }
+            return records;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.benchmarks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void shouldReportExactSmallValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 10; value++) {
+            histogram.record(value);
+        }
+        assertEquals(10, histogram.getCount());
+        assertEquals(5, histogram.getValueAtPercentile(50.0));
+        assertEquals(10, histogram.getValueAtPercentile(99.9));
+        assertEquals(10, histogram.getMax());
+        assertEquals(5.5, histogram.getMean(), 0.0);
+    }
+
+    @Test
+    public void shouldReportLargeValuesWithBoundedError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 100000; value++) {
+            histogram.record(value);
+        }
+        assertWithin(50000, histogram.getValueAtPercentile(50.0));
+        assertWithin(99000, histogram.getValueAtPercentile(99.0));
+        assertWithin(99900, histogram.getValueAtPercentile(99.9));
+        assertEquals(100000, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    public void shouldMapEveryValueToTheBucketCoveringIt() {
+        long[] values = { 0, 31, 32, 63, 64, 65, 1000, 1 << 20, Long.MAX_VALUE };
+        for (long value : values) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(value + " above its bucket", value <= LatencyHistogram.highestValueAt(index));
+            assertTrue(value + " below its bucket", index == 0 || value > LatencyHistogram.highestValueAt(index - 1));
+        }
+    }
+
+    @Test
+    public void shouldReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(99.0));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(String.format("expected %d but was %d", expected, actual),
+                Math.abs(actual - expected) <= expected / 32);
+    }
+}
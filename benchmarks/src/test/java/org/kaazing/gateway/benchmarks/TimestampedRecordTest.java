@@ -0,0 +1,62 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.benchmarks;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TimestampedRecordTest {
+
+    @Test
+    public void shouldEncodePaddedRecord() {
+        byte[] record = TimestampedRecord.encode(24, 1234567L);
+        assertEquals("T0000000000001234567xxxx", new String(record, US_ASCII));
+    }
+
+    @Test
+    public void shouldParseRecordsSplitAcrossBuffers() {
+        List<Long> timestamps = new ArrayList<>();
+        TimestampedRecord.Parser parser = new TimestampedRecord.Parser(timestamps::add);
+        byte[] records = (new String(TimestampedRecord.encode(32, 42L), US_ASCII)
+                + new String(TimestampedRecord.encode(20, Long.MAX_VALUE), US_ASCII)).getBytes(US_ASCII);
+
+        int found = 0;
+        for (int offset = 0; offset < records.length; offset += 7) {
+            found += parser.parse(ByteBuffer.wrap(records, offset, Math.min(7, records.length - offset)));
+        }
+
+        assertEquals(2, found);
+        assertEquals(42L, (long) timestamps.get(0));
+        assertEquals(Long.MAX_VALUE, (long) timestamps.get(1));
+    }
+
+    @Test
+    public void shouldSkipTruncatedRecord() {
+        List<Long> timestamps = new ArrayList<>();
+        TimestampedRecord.Parser parser = new TimestampedRecord.Parser(timestamps::add);
+        String truncated = "data:T00012\n";
+        String record = new String(TimestampedRecord.encode(20, 7L), US_ASCII);
+
+        assertEquals(1, parser.parse(ByteBuffer.wrap((truncated + record).getBytes(US_ASCII))));
+        assertEquals(7L, (long) timestamps.get(0));
+    }
+}
@@ -72,6 +72,8 @@ public interface GatewayManagementBean extends ManagementBean {
 
     String getManagementServiceMap();
 
+    String getHttpConnectionPoolStats();
+
     void addClusterManagementListener(ClusterManagementListener listener);
 
     // Various methods needed by the strategy objects
@@ -38,12 +38,15 @@ import org.kaazing.gateway.management.context.ManagementContext;
 import org.kaazing.gateway.management.update.check.ManagementUpdateCheck;
 import org.kaazing.gateway.management.update.check.ManagementUpdateCheckFactory;
 import org.kaazing.gateway.server.context.GatewayContext;
+import org.kaazing.gateway.server.context.resolve.DefaultTransportContext;
 import org.kaazing.gateway.server.util.ProductInfo;
 import org.kaazing.gateway.service.cluster.ClusterContext;
 import org.kaazing.gateway.service.cluster.MemberId;
 import org.kaazing.gateway.service.cluster.MembershipEventListener;
 import org.kaazing.gateway.service.collections.CollectionsFactory;
 import org.kaazing.gateway.service.http.balancer.HttpBalancerService;
+import org.kaazing.gateway.transport.http.HttpConnector;
+import org.kaazing.gateway.transport.http.PersistentConnectionPoolStats;
 import org.kaazing.mina.netty.util.threadlocal.VicariousThreadLocal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -292,6 +295,33 @@ public class GatewayManagementBeanImpl extends AbstractManagementBean
         return jsonObj.toString();
     }
 
+    @Override
+    public String getHttpConnectionPoolStats() {
+        DefaultTransportContext httpTransport = gatewayContext.getTransportForScheme("http");
+        if ((httpTransport == null) || !(httpTransport.getConnector() instanceof HttpConnector)) {
+            return "";
+        }
+
+        PersistentConnectionPoolStats stats = ((HttpConnector) httpTransport.getConnector()).getPersistentConnectionPoolStats();
+        JSONObject jsonObj = new JSONObject();
+
+        try {
+            jsonObj.put("hits", stats.getHits());
+            jsonObj.put("misses", stats.getMisses());
+            jsonObj.put("hitRate", stats.getHitRate());
+            jsonObj.put("recycled", stats.getRecycled());
+            jsonObj.put("rejected", stats.getRejected());
+            jsonObj.put("evicted", stats.getEvicted());
+            jsonObj.put("prewarmed", stats.getPrewarmed());
+            jsonObj.put("idleConnections", stats.getIdleConnections());
+        } catch (JSONException ex) {
+            // We know the values are valid, we should not be able to get to here.
+            throw new RuntimeException("Error inserting HTTP connection pool statistics into JSON object");
+        }
+
+        return jsonObj.toString();
+    }
+
     @Override
     public String getClusterBalancerMap() {
         if (clusterContext == null) {
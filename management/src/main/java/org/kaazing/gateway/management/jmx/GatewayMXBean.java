@@ -47,6 +47,8 @@ public interface GatewayMXBean {
 
     String getManagementServiceMap();
 
+    String getHttpConnectionPoolStats();
+
     String getAvailableUpdateVersion();
 
     void forceUpdateVersionCheck();
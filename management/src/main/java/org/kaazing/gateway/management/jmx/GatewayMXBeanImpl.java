@@ -103,6 +103,11 @@ public class GatewayMXBeanImpl implements GatewayMXBean {
         return gatewayManagementBean.getManagementServiceMap();
     }
 
+    @Override
+    public String getHttpConnectionPoolStats() {
+        return gatewayManagementBean.getHttpConnectionPoolStats();
+    }
+
     @Override
     public String getAvailableUpdateVersion() {
         return gatewayManagementBean.getAvailableUpdateVersion();
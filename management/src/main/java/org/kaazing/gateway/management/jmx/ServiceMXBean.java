@@ -68,6 +68,13 @@ public interface ServiceMXBean {
 
     boolean isHeartbeatRunning();
 
+    long getPreparedConnectionHitCount();
+
+    long getPreparedConnectionMissCount();
+
+    // microseconds
+    long getAverageConnectWaitTime();
+
     // -----------------------------------------------------------------
     // end of proxy-style service data
     // -----------------------------------------------------------------
@@ -215,6 +215,21 @@ public class ServiceMXBeanImpl implements ServiceMXBean {
         return serviceManagementBean.isHeartbeatRunning();
     }
 
+    @Override
+    public long getPreparedConnectionHitCount() {
+        return serviceManagementBean.getPreparedConnectionHitCount();
+    }
+
+    @Override
+    public long getPreparedConnectionMissCount() {
+        return serviceManagementBean.getPreparedConnectionMissCount();
+    }
+
+    @Override
+    public long getAverageConnectWaitTime() {
+        return serviceManagementBean.getAverageConnectWaitTime();
+    }
+
     // Some lifecycle methods for the service, called from
     // the management platform (e.g. JConsole.)
     @Override
@@ -95,9 +95,11 @@ public class MMFMonitoringDataManager implements MonitoringDataManager {
      * in /dev/shm. For the other operating systems we will create a monitoring folder under the
      * gateway folder.
      *
+     * The method is also used by the monitoring file readers in order to locate the files written by the gateway.
+     *
      * @return the monitoring directory name
      */
-    private String getMonitoringDirName() {
+    public static String getMonitoringDirName() {
         String monitoringDirName = IoUtil.tmpDirName() + MONITOR_DIR_NAME;
 
         if (LINUX.equalsIgnoreCase(System.getProperty(OS_NAME_SYSTEM_PROPERTY))) {
@@ -0,0 +1,104 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.management.monitoring.reader;
+
+import static java.util.Collections.unmodifiableMap;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable sample of a set of counters, as read from the monitoring file at a given moment.
+ * Rates are computed between two samples of the same set of counters.
+ */
+public final class CountersSnapshot {
+
+    private final long timestamp;
+    private final Map<String, Long> values;
+
+    /**
+     * CountersSnapshot constructor
+     * @param timestamp - the sample time, in nanoseconds as returned by {@link System#nanoTime()}
+     * @param values - the counter values keyed by counter label
+     */
+    public CountersSnapshot(long timestamp, Map<String, Long> values) {
+        this.timestamp = timestamp;
+        this.values = unmodifiableMap(new LinkedHashMap<>(values));
+    }
+
+    /**
+     * Getter for the sample time, in nanoseconds
+     * @return the timestamp
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Getter for the counter values keyed by counter label, in allocation order
+     * @return the values
+     */
+    public Map<String, Long> getValues() {
+        return values;
+    }
+
+    /**
+     * Method returning the value of a counter
+     * @param label
+     * @return the value of the counter, or 0 if the counter is not present in the snapshot
+     */
+    public long getValue(String label) {
+        Long value = values.get(label);
+        return value == null ? 0L : value;
+    }
+
+    /**
+     * Method computing the per-second rate of change of a counter since a previous snapshot
+     * @param label
+     * @param previous - an earlier snapshot of the same counters, may be null
+     * @return the rate per second, or 0 if it cannot be computed
+     */
+    public double getRate(String label, CountersSnapshot previous) {
+        if (previous == null || !values.containsKey(label) || !previous.values.containsKey(label)) {
+            return 0;
+        }
+        long elapsed = timestamp - previous.timestamp;
+        if (elapsed <= 0) {
+            return 0;
+        }
+        return (getValue(label) - previous.getValue(label)) * (double) SECONDS.toNanos(1) / elapsed;
+    }
+
+    /**
+     * Method computing the per-second rates of change of all the counters since a previous snapshot
+     * @param previous - an earlier snapshot of the same counters, may be null
+     * @return the rates keyed by counter label
+     */
+    public Map<String, Double> getRates(CountersSnapshot previous) {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        for (String label : values.keySet()) {
+            rates.put(label, getRate(label, previous));
+        }
+        return rates;
+    }
+
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+
+}
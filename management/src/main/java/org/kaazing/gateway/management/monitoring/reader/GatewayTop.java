@@ -0,0 +1,152 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.management.monitoring.reader;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.cli.PosixParser;
+import org.kaazing.gateway.management.monitoring.configuration.impl.MMFMonitoringDataManager;
+import org.kaazing.gateway.management.monitoring.reader.impl.MMFMonitorFileReader;
+
+/**
+ * Top-like command line tool displaying the gateway and per-service counters published in the monitoring file,
+ * together with their rate of change between two consecutive samples.
+ * <p/>
+ * The monitoring file is mapped read only, so running this tool does not add any load to the gateway process.
+ */
+public final class GatewayTop {
+    private static final String GATEWAY_ID_ARG = "gateway-id";
+    private static final String DIRECTORY_ARG = "directory";
+    private static final String INTERVAL_ARG = "interval";
+    private static final String ITERATIONS_ARG = "iterations";
+    private static final String HELP_ARG = "help";
+
+    private static final String CLEAR_SCREEN = "\u001b[H\u001b[2J";
+    private static final String ROW_FORMAT = "%-32s %-40s %16s %14s%n";
+
+    private final MonitorFileReader reader;
+    private final PrintStream out;
+
+    private CountersSnapshot previousGatewayCounters;
+    private Map<String, CountersSnapshot> previousServiceCounters;
+
+    GatewayTop(MonitorFileReader reader, PrintStream out) {
+        this.reader = reader;
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = createOptions();
+        CommandLine cmd;
+        try {
+            cmd = new PosixParser().parse(options, args);
+        }
+        catch (ParseException ex) {
+            System.out.println("There was a problem with a command-line argument:\n" + ex.getMessage());
+            new HelpFormatter().printHelp("gateway.top", options, true);
+            return;
+        }
+        if (cmd.hasOption(HELP_ARG)) {
+            new HelpFormatter().printHelp("gateway.top", options, true);
+            return;
+        }
+
+        File monitoringDir = new File(cmd.getOptionValue(DIRECTORY_ARG, MMFMonitoringDataManager.getMonitoringDirName()));
+        File monitoringFile = findMonitoringFile(monitoringDir, cmd.getOptionValue(GATEWAY_ID_ARG));
+        if (monitoringFile == null) {
+            System.out.println("No gateway monitoring file found in " + monitoringDir
+                    + ", use --" + GATEWAY_ID_ARG + " to select the gateway");
+            return;
+        }
+        long interval = TimeUnit.SECONDS.toMillis(Long.parseLong(cmd.getOptionValue(INTERVAL_ARG, "1")));
+        long iterations = Long.parseLong(cmd.getOptionValue(ITERATIONS_ARG, String.valueOf(Long.MAX_VALUE)));
+        // only redraw the screen in place when running interactively
+        boolean clearScreen = !cmd.hasOption(ITERATIONS_ARG);
+
+        try (MonitorFileReader reader = new MMFMonitorFileReader(monitoringFile)) {
+            GatewayTop top = new GatewayTop(reader, System.out);
+            for (long i = 0; i < iterations; i++) {
+                top.refresh(clearScreen);
+                if (i + 1 < iterations) {
+                    Thread.sleep(interval);
+                }
+            }
+        }
+    }
+
+    /**
+     * Method sampling the counters and printing them along with the rates since the previous sample
+     * @param clearScreen
+     */
+    void refresh(boolean clearScreen) {
+        CountersSnapshot gatewayCounters = reader.readGatewayCounters();
+        Map<String, CountersSnapshot> serviceCounters = reader.readServiceCounters();
+
+        if (clearScreen) {
+            out.print(CLEAR_SCREEN);
+        }
+        out.printf("Gateway %s - %s%n%n", reader.getGatewayId(), new Date());
+        out.printf(ROW_FORMAT, "SOURCE", "COUNTER", "VALUE", "RATE/s");
+        printCounters("gateway", gatewayCounters, previousGatewayCounters);
+        for (Map.Entry<String, CountersSnapshot> entry : serviceCounters.entrySet()) {
+            CountersSnapshot previous = previousServiceCounters == null ? null : previousServiceCounters.get(entry.getKey());
+            printCounters(entry.getKey(), entry.getValue(), previous);
+        }
+        out.flush();
+
+        previousGatewayCounters = gatewayCounters;
+        previousServiceCounters = serviceCounters;
+    }
+
+    private void printCounters(String source, CountersSnapshot counters, CountersSnapshot previous) {
+        for (Map.Entry<String, Long> counter : counters.getValues().entrySet()) {
+            double rate = counters.getRate(counter.getKey(), previous);
+            out.printf(ROW_FORMAT, source, counter.getKey(), counter.getValue(), String.format("%.1f", rate));
+        }
+    }
+
+    /**
+     * Method returning the monitoring file of the given gateway, or the only monitoring file in the
+     * monitoring directory when no gateway id is given
+     */
+    private static File findMonitoringFile(File monitoringDir, String gatewayId) {
+        if (gatewayId != null) {
+            File monitoringFile = new File(monitoringDir, gatewayId);
+            return monitoringFile.isFile() ? monitoringFile : null;
+        }
+        File[] monitoringFiles = monitoringDir.listFiles(File::isFile);
+        return monitoringFiles != null && monitoringFiles.length == 1 ? monitoringFiles[0] : null;
+    }
+
+    private static Options createOptions() {
+        Options options = new Options();
+        options.addOption(null, GATEWAY_ID_ARG, true, "identifier of the gateway to monitor");
+        options.addOption(null, DIRECTORY_ARG, true, "directory holding the gateway monitoring files");
+        options.addOption(null, INTERVAL_ARG, true, "refresh interval, in seconds (default 1)");
+        options.addOption(null, ITERATIONS_ARG, true, "number of refreshes before exiting (default unlimited)");
+        options.addOption(null, HELP_ARG, false, "print the help text");
+        return options;
+    }
+
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.management.monitoring.reader;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MonitorFileReader interface responsible with reading the data written in the monitoring files by
+ * {@link org.kaazing.gateway.management.monitoring.configuration.MonitorFileWriter}.
+ *
+ * Readers never write to the monitoring file, so they can run in a separate process without adding
+ * any load to the gateway.
+ */
+public interface MonitorFileReader extends AutoCloseable {
+
+    /**
+     * Method returning the version of the monitoring file layout
+     * @return
+     */
+    int getVersion();
+
+    /**
+     * Method returning the identifier of the gateway which wrote the monitoring file
+     * @return
+     */
+    String getGatewayId();
+
+    /**
+     * Method returning the names of the services currently present in the monitoring file,
+     * in the order in which they were added by the gateway
+     * @return
+     */
+    List<String> getServiceNames();
+
+    /**
+     * Method taking a snapshot of the gateway counters
+     * @return
+     */
+    CountersSnapshot readGatewayCounters();
+
+    /**
+     * Method taking a snapshot of the counters of every service, keyed by service name
+     * @return
+     */
+    Map<String, CountersSnapshot> readServiceCounters();
+
+    /**
+     * Method releasing the mapping of the monitoring file
+     */
+    @Override
+    void close();
+
+}
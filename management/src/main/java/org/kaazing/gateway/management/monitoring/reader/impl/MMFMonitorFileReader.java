@@ -0,0 +1,212 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.management.monitoring.reader.impl;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.kaazing.gateway.management.monitoring.reader.CountersSnapshot;
+import org.kaazing.gateway.management.monitoring.reader.MonitorFileReader;
+
+import org.agrona.BitUtil;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersReader;
+
+/**
+ * Class responsible for reading the monitoring MMF written by
+ * {@link org.kaazing.gateway.management.monitoring.configuration.impl.MonitorFileWriterImpl}.
+ *
+ * The file is mapped read only and decoded using the same layout as the writer: the header holds the file version,
+ * the gateway id and the gateway counters buffers references, followed by the service names, each pointing to a
+ * service reference section entry which holds the service counters buffers references. Counter labels and values are
+ * decoded using Agrona's {@link CountersReader}.
+ */
+public final class MMFMonitorFileReader implements MonitorFileReader {
+    private static final int MONITOR_VERSION = 1;
+    private static final int MONITOR_VERSION_OFFSET = 0;
+    private static final int GW_DATA_REFERENCE_OFFSET = MONITOR_VERSION_OFFSET + BitUtil.SIZE_OF_INT;
+    private static final int SERVICE_DATA_REFERENCE_OFFSET = GW_DATA_REFERENCE_OFFSET + BitUtil.SIZE_OF_INT;
+    private static final int GW_ID_OFFSET = SERVICE_DATA_REFERENCE_OFFSET + BitUtil.SIZE_OF_INT;
+
+    private final MappedByteBuffer mappedMonitorFile;
+    private final UnsafeBuffer fileBuffer;
+    private final String gatewayId;
+    private final int gwCountersLblBuffersReferenceOffset;
+    private final int gwCountersLblBuffersLengthOffset;
+    private final int gwCountersValueBuffersReferenceOffset;
+    private final int gwCountersValueBuffersLengthOffset;
+    private final int noOfServicesOffset;
+
+    private CountersReader gatewayCountersReader;
+    private final Map<Integer, CountersReader> serviceCountersReaders = new LinkedHashMap<>();
+
+    /**
+     * MMFMonitorFileReader constructor
+     * @param monitoringFile - the monitoring file, named after the gateway id
+     */
+    public MMFMonitorFileReader(File monitoringFile) {
+        mappedMonitorFile = mapReadOnly(monitoringFile);
+        fileBuffer = new UnsafeBuffer(mappedMonitorFile);
+
+        int version = fileBuffer.getInt(MONITOR_VERSION_OFFSET);
+        if (version != MONITOR_VERSION) {
+            IoUtil.unmap(mappedMonitorFile);
+            throw new IllegalStateException(String.format("Unsupported monitoring file version %d in %s",
+                    version, monitoringFile));
+        }
+
+        gatewayId = fileBuffer.getStringUtf8(GW_ID_OFFSET, ByteOrder.nativeOrder());
+        gwCountersLblBuffersReferenceOffset = GW_ID_OFFSET + gatewayId.length() + BitUtil.SIZE_OF_INT;
+        gwCountersLblBuffersLengthOffset = gwCountersLblBuffersReferenceOffset + BitUtil.SIZE_OF_INT;
+        gwCountersValueBuffersReferenceOffset = gwCountersLblBuffersLengthOffset + BitUtil.SIZE_OF_INT;
+        gwCountersValueBuffersLengthOffset = gwCountersValueBuffersReferenceOffset + BitUtil.SIZE_OF_INT;
+        noOfServicesOffset = gwCountersValueBuffersLengthOffset + BitUtil.SIZE_OF_INT;
+    }
+
+    @Override
+    public int getVersion() {
+        return fileBuffer.getInt(MONITOR_VERSION_OFFSET);
+    }
+
+    @Override
+    public String getGatewayId() {
+        return gatewayId;
+    }
+
+    @Override
+    public List<String> getServiceNames() {
+        List<String> serviceNames = new ArrayList<>();
+        int servicesCount = fileBuffer.getIntVolatile(noOfServicesOffset);
+        int serviceNameOffset = noOfServicesOffset + BitUtil.SIZE_OF_INT;
+        for (int i = 0; i < servicesCount; i++) {
+            String serviceName = fileBuffer.getStringUtf8(serviceNameOffset, ByteOrder.nativeOrder());
+            if (serviceName.isEmpty()) {
+                // service metadata is still being written by the gateway
+                break;
+            }
+            serviceNames.add(serviceName);
+            serviceNameOffset = nextServiceNameOffset(serviceNameOffset, serviceName);
+        }
+        return serviceNames;
+    }
+
+    @Override
+    public CountersSnapshot readGatewayCounters() {
+        if (gatewayCountersReader == null) {
+            gatewayCountersReader = newCountersReader(gwCountersLblBuffersReferenceOffset, gwCountersLblBuffersLengthOffset,
+                    gwCountersValueBuffersReferenceOffset, gwCountersValueBuffersLengthOffset);
+        }
+        return readCounters(gatewayCountersReader);
+    }
+
+    @Override
+    public Map<String, CountersSnapshot> readServiceCounters() {
+        Map<String, CountersSnapshot> snapshots = new LinkedHashMap<>();
+        int servicesCount = fileBuffer.getIntVolatile(noOfServicesOffset);
+        int serviceNameOffset = noOfServicesOffset + BitUtil.SIZE_OF_INT;
+        for (int i = 0; i < servicesCount; i++) {
+            String serviceName = fileBuffer.getStringUtf8(serviceNameOffset, ByteOrder.nativeOrder());
+            if (serviceName.isEmpty()) {
+                break;
+            }
+            CountersReader countersReader = serviceCountersReaders.get(i);
+            if (countersReader == null) {
+                int serviceRefOffset = fileBuffer.getInt(serviceNameOffset + serviceName.length() + BitUtil.SIZE_OF_INT);
+                countersReader = newCountersReader(serviceRefOffset, serviceRefOffset + BitUtil.SIZE_OF_INT,
+                        serviceRefOffset + 2 * BitUtil.SIZE_OF_INT, serviceRefOffset + 3 * BitUtil.SIZE_OF_INT);
+                if (countersReader != null) {
+                    serviceCountersReaders.put(i, countersReader);
+                }
+            }
+            snapshots.put(serviceName, readCounters(countersReader));
+            serviceNameOffset = nextServiceNameOffset(serviceNameOffset, serviceName);
+        }
+        return snapshots;
+    }
+
+    @Override
+    public void close() {
+        IoUtil.unmap(mappedMonitorFile);
+    }
+
+    /**
+     * Method returning the offset of the next service name, mirroring the writer: the service name is followed by the
+     * reference to the service entry in the service reference section
+     * @param serviceNameOffset
+     * @param serviceName
+     * @return
+     */
+    private static int nextServiceNameOffset(int serviceNameOffset, String serviceName) {
+        return serviceNameOffset + serviceName.length() + BitUtil.SIZE_OF_INT + BitUtil.SIZE_OF_INT;
+    }
+
+    /**
+     * Method creating a counters reader over the labels and values buffers referenced by the given header offsets
+     * @return the counters reader, or null if the gateway did not create the buffers yet
+     */
+    private CountersReader newCountersReader(int lblReferenceOffset, int lblLengthOffset, int valueReferenceOffset,
+                                             int valueLengthOffset) {
+        int lblOffset = fileBuffer.getIntVolatile(lblReferenceOffset);
+        int valueOffset = fileBuffer.getIntVolatile(valueReferenceOffset);
+        if (lblOffset == 0 || valueOffset == 0) {
+            return null;
+        }
+        UnsafeBuffer labelsBuffer = new UnsafeBuffer(mappedMonitorFile, lblOffset, fileBuffer.getInt(lblLengthOffset));
+        UnsafeBuffer valuesBuffer = new UnsafeBuffer(mappedMonitorFile, valueOffset, fileBuffer.getInt(valueLengthOffset));
+        return new CountersReader(labelsBuffer, valuesBuffer);
+    }
+
+    /**
+     * Method taking a snapshot of all the allocated counters of a counters reader
+     * @param countersReader - may be null, in which case the snapshot is empty
+     * @return
+     */
+    private static CountersSnapshot readCounters(CountersReader countersReader) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        if (countersReader != null) {
+            countersReader.forEach((id, label) -> values.put(label, countersReader.getCounterValue(id)));
+        }
+        return new CountersSnapshot(System.nanoTime(), values);
+    }
+
+    /**
+     * Method mapping the monitoring file in read only mode
+     * @param monitoringFile
+     * @return
+     */
+    private static MappedByteBuffer mapReadOnly(File monitoringFile) {
+        try (RandomAccessFile file = new RandomAccessFile(monitoringFile, "r");
+             FileChannel channel = file.getChannel()) {
+            return channel.map(READ_ONLY, 0, channel.size());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(String.format("Unable to map monitoring file %s", monitoringFile), e);
+        }
+    }
+
+}
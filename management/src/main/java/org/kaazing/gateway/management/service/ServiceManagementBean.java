@@ -63,7 +63,8 @@ public interface ServiceManagementBean extends ManagementBean {
             "totalCumulativeSessions", "totalCumulativeNativeSessions", "totalCumulativeEmulatedSessions",
             "totalExceptionCount", "latestException", "latestExceptionTime", "lastSuccessfulConnectTime",
             "lastFailedConnectTime", "lastHeartbeatPingResult", "lastHeartbeatPingTimestamp", "heartbeatPingCount",
-            "heartbeatPingSuccesses", "heartbeatPingFailures", "heartbeatRunning", "notificationsEnabled"};
+            "heartbeatPingSuccesses", "heartbeatPingFailures", "heartbeatRunning", "notificationsEnabled",
+            "preparedConnectionHits", "preparedConnectionMisses", "averageConnectWaitTime"};
 
     int SUMMARY_DATA_SERVICE_CONNECTED_INDEX = 0;
     int SUMMARY_DATA_TOTAL_BYTES_RECEIVED_INDEX = 1;
@@ -86,6 +87,9 @@ public interface ServiceManagementBean extends ManagementBean {
     int SUMMARY_DATA_HEARTBEAT_PING_FAILURES_INDEX = 18;
     int SUMMARY_DATA_HEARTBEAT_RUNNING_INDEX = 19;
     int SUMMARY_DATA_NOTIFICATIONS_ENABLED_INDEX = 20;
+    int SUMMARY_DATA_PREPARED_CONNECTION_HITS_INDEX = 21;
+    int SUMMARY_DATA_PREPARED_CONNECTION_MISSES_INDEX = 22;
+    int SUMMARY_DATA_AVERAGE_CONNECT_WAIT_TIME_INDEX = 23;
 
     GatewayManagementBean getGatewayManagementBean();
 
@@ -163,6 +167,13 @@ public interface ServiceManagementBean extends ManagementBean {
 
     boolean isHeartbeatRunning();
 
+    long getPreparedConnectionHitCount();
+
+    long getPreparedConnectionMissCount();
+
+    // microseconds
+    long getAverageConnectWaitTime();
+
     // -----------------------------------------------------------------
     // end of proxy-style service data
     // -----------------------------------------------------------------
@@ -536,6 +547,9 @@ public interface ServiceManagementBean extends ManagementBean {
                 vals[SUMMARY_DATA_HEARTBEAT_PING_FAILURES_INDEX] = getHeartbeatPingFailuresCount();
                 vals[SUMMARY_DATA_HEARTBEAT_RUNNING_INDEX] = isHeartbeatRunning();
                 vals[SUMMARY_DATA_NOTIFICATIONS_ENABLED_INDEX] = areNotificationsEnabled();
+                vals[SUMMARY_DATA_PREPARED_CONNECTION_HITS_INDEX] = getPreparedConnectionHitCount();
+                vals[SUMMARY_DATA_PREPARED_CONNECTION_MISSES_INDEX] = getPreparedConnectionMissCount();
+                vals[SUMMARY_DATA_AVERAGE_CONNECT_WAIT_TIME_INDEX] = getAverageConnectWaitTime();
 
                 for (ThreadServiceStats stats : serviceStatsMap.values()) {
                     stats.collectSummaryValues(vals);
@@ -630,6 +644,24 @@ public interface ServiceManagementBean extends ManagementBean {
             return serviceConnectManager != null && serviceConnectManager.isHeartbeatRunning();
         }
 
+        // XXX This runs OFF the IO thread
+        @Override
+        public long getPreparedConnectionHitCount() {
+            return serviceConnectManager != null ? serviceConnectManager.getPreparedConnectionHitCount() : 0;
+        }
+
+        // XXX This runs OFF the IO thread
+        @Override
+        public long getPreparedConnectionMissCount() {
+            return serviceConnectManager != null ? serviceConnectManager.getPreparedConnectionMissCount() : 0;
+        }
+
+        // XXX This runs OFF the IO thread
+        @Override
+        public long getAverageConnectWaitTime() {
+            return serviceConnectManager != null ? serviceConnectManager.getAverageConnectWaitTime() : 0;
+        }
+
         @Override
         public IoSessionEx getSession(long sessionId) {
             return serviceContext.getActiveSession(sessionId);
@@ -0,0 +1,118 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.management.monitoring.reader.impl;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.kaazing.gateway.management.monitoring.configuration.MonitorFileWriter;
+import org.kaazing.gateway.management.monitoring.configuration.impl.MonitorFileWriterImpl;
+import org.kaazing.gateway.management.monitoring.reader.CountersSnapshot;
+import org.kaazing.gateway.management.monitoring.service.MonitoredService;
+import org.kaazing.gateway.service.LongMonitoringCounter;
+import org.kaazing.gateway.service.MonitoringEntityFactory;
+
+public class MMFMonitorFileReaderTest {
+    private static final String GATEWAY_ID = "test-gateway";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Mockery context;
+    private File monitoringFile;
+    private MonitorFileWriter monitorFileWriter;
+
+    @Before
+    public void setUp() {
+        context = new Mockery();
+        monitoringFile = new File(folder.getRoot(), GATEWAY_ID);
+        monitorFileWriter = new MonitorFileWriterImpl(GATEWAY_ID);
+        monitorFileWriter.initialize(monitoringFile);
+    }
+
+    @After
+    public void tearDown() {
+        monitorFileWriter.close(folder.getRoot());
+    }
+
+    @Test
+    public void shouldReadGatewayIdAndVersion() {
+        try (MMFMonitorFileReader reader = new MMFMonitorFileReader(monitoringFile)) {
+            assertEquals(GATEWAY_ID, reader.getGatewayId());
+            assertEquals(1, reader.getVersion());
+            assertTrue(reader.getServiceNames().isEmpty());
+            assertTrue(reader.readGatewayCounters().getValues().isEmpty());
+        }
+    }
+
+    @Test
+    public void shouldReadGatewayAndServiceCounters() {
+        MonitoringEntityFactory gatewayFactory = monitorFileWriter.getGatewayMonitoringEntityFactory();
+        LongMonitoringCounter gatewayCounter = gatewayFactory.makeLongMonitoringCounter("gateway-counter");
+        gatewayCounter.setValue(42);
+
+        MonitoringEntityFactory echoFactory = addService("echo", 0);
+        LongMonitoringCounter echoSessions = echoFactory.makeLongMonitoringCounter("current-number-of-sessions");
+        echoSessions.setValue(3);
+        MonitoringEntityFactory proxyFactory = addService("proxy", 1);
+        LongMonitoringCounter proxySessions = proxyFactory.makeLongMonitoringCounter("current-number-of-sessions");
+        proxySessions.setValue(7);
+
+        try (MMFMonitorFileReader reader = new MMFMonitorFileReader(monitoringFile)) {
+            assertEquals(asList("echo", "proxy"), reader.getServiceNames());
+            assertEquals(Collections.singletonMap("gateway-counter", 42L), reader.readGatewayCounters().getValues());
+
+            Map<String, CountersSnapshot> serviceCounters = reader.readServiceCounters();
+            assertEquals(3L, serviceCounters.get("echo").getValue("current-number-of-sessions"));
+            assertEquals(7L, serviceCounters.get("proxy").getValue("current-number-of-sessions"));
+
+            // counters are read live from the mapped file
+            proxySessions.increment();
+            assertEquals(8L, reader.readServiceCounters().get("proxy").getValue("current-number-of-sessions"));
+        }
+    }
+
+    @Test
+    public void shouldComputeRatesBetweenSnapshots() {
+        CountersSnapshot previous = new CountersSnapshot(0L, Collections.singletonMap("counter", 10L));
+        CountersSnapshot current = new CountersSnapshot(2000000000L, Collections.singletonMap("counter", 30L));
+
+        assertEquals(10.0, current.getRate("counter", previous), 0.0);
+        assertEquals(0.0, current.getRate("counter", null), 0.0);
+        assertEquals(0.0, current.getRate("unknown", previous), 0.0);
+    }
+
+    private MonitoringEntityFactory addService(String serviceName, int index) {
+        MonitoredService monitoredService = context.mock(MonitoredService.class, serviceName);
+        context.checking(new Expectations() {{
+            allowing(monitoredService).getServiceName();
+            will(returnValue(serviceName));
+        }});
+        return monitorFileWriter.getServiceMonitoringEntityFactory(monitoredService, index);
+    }
+}
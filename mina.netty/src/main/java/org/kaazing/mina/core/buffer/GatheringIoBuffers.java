@@ -0,0 +1,68 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.mina.core.buffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An ordered sequence of NIO buffers written to the transport as a single message, without first copying them
+ * into one contiguous buffer. Socket sessions hand the buffers to a gathering write, so a protocol header can be
+ * sent in front of a payload that has no reserved space for it.
+ *
+ * The buffers are only read, never consumed, so they must not be modified until the write has completed.
+ */
+public final class GatheringIoBuffers {
+
+    private final ByteBuffer[] buffers;
+    private final int remaining;
+
+    public GatheringIoBuffers(ByteBuffer... buffers) {
+        if (buffers == null || buffers.length == 0) {
+            throw new IllegalArgumentException("buffers");
+        }
+
+        int remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+
+        this.buffers = buffers;
+        this.remaining = remaining;
+    }
+
+    /**
+     * @return the buffers in write order, each positioned at its first byte to be written
+     */
+    public ByteBuffer[] buffers() {
+        return buffers;
+    }
+
+    /**
+     * @return the total number of bytes to be written, across all buffers
+     */
+    public int remaining() {
+        return remaining;
+    }
+
+    public boolean hasRemaining() {
+        return remaining != 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[buffers=%d, remaining=%d]", getClass().getSimpleName(), buffers.length, remaining);
+    }
+}
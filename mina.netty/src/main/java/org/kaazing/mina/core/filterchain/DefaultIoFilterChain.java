@@ -35,6 +35,7 @@ import org.apache.mina.core.write.WriteRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.kaazing.mina.core.buffer.GatheringIoBuffers;
 import org.kaazing.mina.core.session.AbstractIoSession;
 
 /**
@@ -661,6 +662,9 @@ public class DefaultIoFilterChain implements IoFilterChain {
                         break;
                 }
             }
+            else if (writeRequest.getMessage() instanceof GatheringIoBuffers) {
+                s.increaseScheduledWriteBytes(((GatheringIoBuffers) writeRequest.getMessage()).remaining());
+            }
 
             s.getWriteRequestQueue().offer(s, writeRequest);
             if (!s.isWriteSuspended()) {
@@ -49,6 +49,7 @@ import org.apache.mina.core.write.WriteTimeoutException;
 import org.apache.mina.core.write.WriteToClosedSessionException;
 import org.apache.mina.util.CircularQueue;
 
+import org.kaazing.mina.core.buffer.GatheringIoBuffers;
 import org.kaazing.mina.core.future.DefaultWriteFutureEx;
 import org.kaazing.mina.core.future.WriteFutureEx;
 import org.kaazing.mina.core.write.DefaultWriteRequestEx;
@@ -853,6 +854,9 @@ public abstract class AbstractIoSession implements IoSession, IoAlignment {
                 increaseScheduledWriteBytes(-((IoBuffer) message).remaining());
             }
         }
+        else if (message instanceof GatheringIoBuffers) {
+            increaseScheduledWriteBytes(-((GatheringIoBuffers) message).remaining());
+        }
     }
 
     /**
@@ -37,6 +37,7 @@ import org.jboss.netty.channel.ChannelConfig;
 import org.jboss.netty.channel.ChannelFuture;
 import org.jboss.netty.channel.ChannelPipeline;
 
+import org.kaazing.mina.core.buffer.GatheringIoBuffers;
 import org.kaazing.mina.core.buffer.IoBufferEx;
 import org.kaazing.mina.core.service.AbstractIoProcessor;
 import org.kaazing.mina.netty.ChannelIoBufferAllocator.ChannelIoBuffer;
@@ -304,6 +305,17 @@ final class ChannelIoProcessor extends AbstractIoProcessor<ChannelIoSession<? ex
                     ChannelFuture future = channel.write(region);  // TODO: FileRegion
                     future.addListener(new ChannelWriteFutureListener(filterChain, req));
                 }
+                else if (message instanceof GatheringIoBuffers) {
+                    GatheringIoBuffers buffers = (GatheringIoBuffers) message;
+                    if (!buffers.hasRemaining()) {
+                        filterChain.fireMessageSent(req);
+                    }
+                    else {
+                        // gathering write, buffers are sliced (not consumed) when wrapped
+                        ChannelFuture future = channel.write(wrappedBuffer(true, buffers.buffers()));
+                        future.addListener(new ChannelWriteFutureListener(filterChain, req));
+                    }
+                }
                 else if (message instanceof IoBufferEx && ((IoBufferEx) message).isShared()) {
                     String messageClassName = message.getClass().getName();
                     throw new IllegalStateException(format("Shared buffer MUST be ChannelIoBuffer, not %s", messageClassName));
@@ -16,54 +16,145 @@
 package org.kaazing.gateway.resource.address.http;
 
 import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
 
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.kaazing.gateway.security.CrossSiteConstraintContext;
 
+/**
+ * The cross-site constraints of a service, compiled into immutable lookup tables when the service address is created,
+ * so that matching the origin of a request costs a hash lookup (plus one per sub-domain label for wildcard origins).
+ * <p/>
+ * Source origins are either exact ({@code http://example.com:80}), match any sub-domain
+ * ({@code http://*.example.com:80}), or match any origin ({@code *}).
+ */
 public class HttpOriginSecurity {
-    
+
+    private static final String WILDCARD_ORIGIN = "*";
+    private static final String SCHEME_SEPARATOR = "://";
+    private static final String WILDCARD_SUBDOMAIN = SCHEME_SEPARATOR + "*.";
+
     private final Map<String, HttpOriginConstraint> constraints;
+    private final Map<String, HttpOriginConstraint> subdomainConstraints;
+    private final HttpOriginConstraint wildcardConstraint;
+
     public HttpOriginSecurity(Map<String, ? extends CrossSiteConstraintContext> acceptConstraints) {
         if ( acceptConstraints == null ) {
             throw new NullPointerException("acceptConstraints");
         }
 
         HashMap<String, HttpOriginConstraint> constraints = new HashMap<>();
-            for (Map.Entry<String, ? extends CrossSiteConstraintContext> entry : acceptConstraints.entrySet()) {
-                String sourceOrigin = entry.getKey();
-                CrossSiteConstraintContext originConstraint = entry.getValue();
-                constraints.put(sourceOrigin, new HttpOriginConstraint(originConstraint));
+        HashMap<String, HttpOriginConstraint> subdomainConstraints = new HashMap<>();
+        for (Map.Entry<String, ? extends CrossSiteConstraintContext> entry : acceptConstraints.entrySet()) {
+            String sourceOrigin = entry.getKey();
+            HttpOriginConstraint originConstraint = new HttpOriginConstraint(entry.getValue());
+            constraints.put(sourceOrigin, originConstraint);
+            if (sourceOrigin != null && sourceOrigin.contains(WILDCARD_SUBDOMAIN)) {
+                subdomainConstraints.put(sourceOrigin, originConstraint);
             }
+        }
         this.constraints = unmodifiableMap(constraints);
+        this.subdomainConstraints = unmodifiableMap(subdomainConstraints);
+        this.wildcardConstraint = constraints.get(WILDCARD_ORIGIN);
     }
-    
+
     public Collection<String> getSourceOrigins() {
         return constraints.keySet();
     }
-    
+
     public HttpOriginConstraint getConstraint(String sourceOrigin) {
         return constraints.get(sourceOrigin);
     }
 
+    /**
+     * Find the constraint applying to a cross-site request, preferring an exact match of the origin, then the most
+     * specific wildcard sub-domain match, then the wildcard origin.
+     *
+     * @param sourceOrigin  the origin of the request, as {@code scheme://host:port}, or null for same-origin requests
+     * @return the matching constraint, or null if the origin is not allowed
+     */
+    public HttpOriginConstraint findConstraint(String sourceOrigin) {
+        HttpOriginConstraint constraint = constraints.get(sourceOrigin);
+        if (constraint == null && sourceOrigin != null) {
+            if (!subdomainConstraints.isEmpty()) {
+                constraint = findSubdomainConstraint(sourceOrigin);
+            }
+            if (constraint == null) {
+                constraint = wildcardConstraint;
+            }
+        }
+        return constraint;
+    }
+
+    private HttpOriginConstraint findSubdomainConstraint(String sourceOrigin) {
+        URI origin;
+        try {
+            origin = new URI(sourceOrigin);
+        }
+        catch (URISyntaxException e) {
+            return null;
+        }
+
+        // an origin is only scheme, host and port, anything else must not be matched by its raw text
+        String scheme = origin.getScheme();
+        String host = origin.getHost();
+        int port = origin.getPort();
+        if (scheme == null || host == null || port == -1 || origin.getRawUserInfo() != null
+                || !origin.getRawPath().isEmpty() || origin.getRawQuery() != null || origin.getRawFragment() != null) {
+            return null;
+        }
+
+        String prefix = scheme + WILDCARD_SUBDOMAIN.substring(0, WILDCARD_SUBDOMAIN.length() - 1);
+        String suffix = ":" + port;
+        for (int dotAt = host.indexOf('.'); dotAt != -1; dotAt = host.indexOf('.', dotAt + 1)) {
+            HttpOriginConstraint constraint = subdomainConstraints.get(prefix + host.substring(dotAt) + suffix);
+            if (constraint != null) {
+                return constraint;
+            }
+        }
+        return null;
+    }
+
     public static final class HttpOriginConstraint {
 
         private final CrossSiteConstraintContext constraint;
-        
+        private final Set<String> allowMethods;
+
         HttpOriginConstraint(CrossSiteConstraintContext constraint) {
             this.constraint = constraint;
+
+            Set<String> allowMethods = new HashSet<>();
+            if (constraint.getAllowMethods() != null) {
+                for (String allowMethod : constraint.getAllowMethods().split(",")) {
+                    allowMethods.add(allowMethod.trim());
+                }
+            }
+            this.allowMethods = unmodifiableSet(allowMethods);
         }
-        
+
         public String getAllowOrigin() {
             return constraint.getAllowOrigin();
         }
-        
+
         public String getAllowMethods() {
             return constraint.getAllowMethods();
         }
 
+        /**
+         * @param method  the HTTP method name, e.g. {@code GET}
+         * @return true iff the method is one of the allowed methods
+         */
+        public boolean isMethodAllowed(String method) {
+            return allowMethods.contains(method);
+        }
+
         public String getAllowHeaders() {
             return constraint.getAllowHeaders();
         }
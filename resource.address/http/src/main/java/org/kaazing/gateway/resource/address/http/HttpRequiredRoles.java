@@ -0,0 +1,110 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.resource.address.http;
+
+import static java.util.Collections.unmodifiableMap;
+
+import java.security.Principal;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The roles required by a service, compiled into an immutable lookup table when the service address is created.
+ * <p/>
+ * Each required role is assigned a bit, so checking the principals of a subject costs one hash lookup per principal
+ * and no allocation, rather than collecting the principal names and comparing them with the required role names.
+ */
+public final class HttpRequiredRoles {
+
+    private static final String WILDCARD_ROLE = "*";
+    private static final int MASK_BITS = Long.SIZE;
+
+    public static final HttpRequiredRoles NONE = new HttpRequiredRoles(new String[0]);
+
+    private final Map<String, Integer> bitsByRole;
+    private final int roleCount;
+    private final long requiredMask;
+    private final boolean wildcard;
+
+    public HttpRequiredRoles(String[] requiredRoles) {
+        Map<String, Integer> bitsByRole = new HashMap<>();
+        boolean wildcard = false;
+        for (String requiredRole : requiredRoles) {
+            wildcard |= WILDCARD_ROLE.equals(requiredRole);
+            if (!bitsByRole.containsKey(requiredRole)) {
+                bitsByRole.put(requiredRole, bitsByRole.size());
+            }
+        }
+        this.bitsByRole = unmodifiableMap(bitsByRole);
+        this.roleCount = bitsByRole.size();
+        this.requiredMask = roleCount >= MASK_BITS ? -1L : (1L << roleCount) - 1;
+        this.wildcard = wildcard;
+    }
+
+    /**
+     * @return true iff no role is required
+     */
+    public boolean isEmpty() {
+        return roleCount == 0;
+    }
+
+    /**
+     * @return true iff the required roles include {@code *}, satisfied by any authenticated subject
+     */
+    public boolean isWildcard() {
+        return wildcard;
+    }
+
+    /**
+     * @param principals  the principals of a subject
+     * @return true iff every required role is the name of one of the principals
+     */
+    public boolean isGrantedBy(Collection<? extends Principal> principals) {
+        if (roleCount == 0) {
+            return true;
+        }
+        if (roleCount > MASK_BITS) {
+            return isGrantedBy(principals, new BitSet(roleCount));
+        }
+
+        long grantedMask = 0L;
+        for (Principal principal : principals) {
+            Integer bit = bitsByRole.get(principal.getName());
+            if (bit != null) {
+                grantedMask |= 1L << bit;
+                if (grantedMask == requiredMask) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isGrantedBy(Collection<? extends Principal> principals, BitSet granted) {
+        for (Principal principal : principals) {
+            Integer bit = bitsByRole.get(principal.getName());
+            if (bit != null) {
+                granted.set(bit);
+                if (granted.cardinality() == roleCount) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
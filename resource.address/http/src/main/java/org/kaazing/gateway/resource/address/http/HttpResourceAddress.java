@@ -44,6 +44,8 @@ public final class HttpResourceAddress extends ResourceAddress {
     public static final ResourceOption<Integer> KEEP_ALIVE_CONNECTIONS = new HttpKeepAliveConnectionsOption();
 
     public static final ResourceOption<String[]> REQUIRED_ROLES = new HttpRequiredRolesOption();
+    // read-only, compiled from REQUIRED_ROLES
+    public static final ResourceOption<HttpRequiredRoles> REQUIRED_ROLE_SET = new HttpRequiredRoleSetOption();
     public static final ResourceOption<Set<HttpInjectableHeader>> INJECTABLE_HEADERS = new HttpInjectableHeadersOption();
     public static final ResourceOption<HttpOriginSecurity> ORIGIN_SECURITY = new HttpOriginSecurityOption();
     public static final ResourceOption<File> TEMP_DIRECTORY = new HttpTempDirectoryOption();
@@ -73,6 +75,7 @@ public final class HttpResourceAddress extends ResourceAddress {
     private Integer keepAliveTimeout = KEEP_ALIVE_TIMEOUT.defaultValue();
     private Integer keepAliveMaxConnections = KEEP_ALIVE_CONNECTIONS.defaultValue();
     private String[] requiredRoles = REQUIRED_ROLES.defaultValue();
+    private HttpRequiredRoles requiredRoleSet = REQUIRED_ROLE_SET.defaultValue();
     private Set<HttpInjectableHeader> injectableHeaders = INJECTABLE_HEADERS.defaultValue();
     private HttpOriginSecurity originSecurity;
     private File tempDirectory;
@@ -111,6 +114,8 @@ public final class HttpResourceAddress extends ResourceAddress {
                     return (V) keepAliveMaxConnections;
                 case REQUIRED_ROLES:
                     return (V) requiredRoles;
+                case REQUIRED_ROLE_SET:
+                    return (V) requiredRoleSet;
                 case INJECTABLE_HEADERS:
                     return (V) injectableHeaders;
                 case ORIGIN_SECURITY:
@@ -169,6 +174,7 @@ public final class HttpResourceAddress extends ResourceAddress {
                     return;
                 case REQUIRED_ROLES:
                     requiredRoles = (String[]) value;
+                    requiredRoleSet = (requiredRoles != null) ? new HttpRequiredRoles(requiredRoles) : null;
                     return;
                 case AUTHENTICATION_CONNECT:
                     authenticationConnect = (String) value;
@@ -241,6 +247,7 @@ public final class HttpResourceAddress extends ResourceAddress {
             KEEP_ALIVE_TIMEOUT,
             KEEP_ALIVE_CONNECTIONS,
             REQUIRED_ROLES,
+            REQUIRED_ROLE_SET,
             INJECTABLE_HEADERS,
             ORIGIN_SECURITY,
             TEMP_DIRECTORY,
@@ -305,6 +312,12 @@ public final class HttpResourceAddress extends ResourceAddress {
         }
     }
 
+    private static final class HttpRequiredRoleSetOption extends HttpResourceOption<HttpRequiredRoles> {
+        private HttpRequiredRoleSetOption() {
+            super(Kind.REQUIRED_ROLE_SET, "requiredRoleSet", HttpRequiredRoles.NONE);
+        }
+    }
+
     private static final class HttpInjectableHeadersOption extends HttpResourceOption<Set<HttpInjectableHeader>> {
         private HttpInjectableHeadersOption() {
             super(Kind.INJECTABLE_HEADERS, "injectableHeaders", EnumSet.allOf(HttpInjectableHeader.class));
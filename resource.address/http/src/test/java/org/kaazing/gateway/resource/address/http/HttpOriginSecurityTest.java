@@ -0,0 +1,127 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.resource.address.http;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.kaazing.gateway.resource.address.http.HttpOriginSecurity.HttpOriginConstraint;
+import org.kaazing.gateway.security.CrossSiteConstraintContext;
+
+public class HttpOriginSecurityTest {
+
+    @Test
+    public void shouldFindExactOrigin() throws Exception {
+        HttpOriginSecurity originSecurity = newOriginSecurity("http://example.com:80", "https://example.com:443");
+
+        HttpOriginConstraint constraint = originSecurity.findConstraint("http://example.com:80");
+        assertSame(originSecurity.getConstraint("http://example.com:80"), constraint);
+        assertNull(originSecurity.findConstraint("http://example.com:8080"));
+        assertNull(originSecurity.findConstraint("http://other.com:80"));
+        assertNull(originSecurity.findConstraint(null));
+    }
+
+    @Test
+    public void shouldFindWildcardOrigin() throws Exception {
+        HttpOriginSecurity originSecurity = newOriginSecurity("*");
+
+        assertSame(originSecurity.getConstraint("*"), originSecurity.findConstraint("http://example.com:80"));
+        assertSame(originSecurity.getConstraint("*"), originSecurity.findConstraint("null"));
+        assertNull(originSecurity.findConstraint(null));
+    }
+
+    @Test
+    public void shouldFindMostSpecificSubdomainOrigin() throws Exception {
+        HttpOriginSecurity originSecurity = newOriginSecurity("http://*.example.com:80", "http://*.eu.example.com:80",
+                "http://www.example.com:80");
+
+        assertSame(originSecurity.getConstraint("http://www.example.com:80"),
+                originSecurity.findConstraint("http://www.example.com:80"));
+        assertSame(originSecurity.getConstraint("http://*.example.com:80"),
+                originSecurity.findConstraint("http://app.example.com:80"));
+        assertSame(originSecurity.getConstraint("http://*.eu.example.com:80"),
+                originSecurity.findConstraint("http://app.eu.example.com:80"));
+        assertNull(originSecurity.findConstraint("http://example.com:80"));
+        assertNull(originSecurity.findConstraint("https://app.example.com:443"));
+        assertNull(originSecurity.findConstraint("http://app.example.com:8080"));
+        assertNull(originSecurity.findConstraint("http://app.example.com.evil.com:80"));
+    }
+
+    @Test
+    public void shouldNotMatchSubdomainOriginOutsideHost() throws Exception {
+        HttpOriginSecurity originSecurity = newOriginSecurity("http://*.example.com:80");
+
+        assertNull(originSecurity.findConstraint("http://evil.com:80?.example.com:80"));
+        assertNull(originSecurity.findConstraint("http://evil.com:80#.example.com:80"));
+        assertNull(originSecurity.findConstraint("http://evil.com:80/.example.com:80"));
+        assertNull(originSecurity.findConstraint("http://a.example.com@evil.com:80"));
+        assertNull(originSecurity.findConstraint("http://evil.com/.example.com:80"));
+    }
+
+    @Test
+    public void shouldMatchAllowedMethodsExactly() throws Exception {
+        HttpOriginSecurity originSecurity = newOriginSecurity("http://example.com:80");
+        HttpOriginConstraint constraint = originSecurity.getConstraint("http://example.com:80");
+
+        assertTrue(constraint.isMethodAllowed("GET"));
+        assertTrue(constraint.isMethodAllowed("POST"));
+        assertFalse(constraint.isMethodAllowed("PUT"));
+        assertFalse(constraint.isMethodAllowed("GE"));
+    }
+
+    private static HttpOriginSecurity newOriginSecurity(String... allowOrigins) {
+        Map<String, CrossSiteConstraintContext> constraints = new HashMap<>();
+        for (String allowOrigin : allowOrigins) {
+            constraints.put(allowOrigin, new TestCrossSiteConstraint(allowOrigin));
+        }
+        return new HttpOriginSecurity(constraints);
+    }
+
+    private static final class TestCrossSiteConstraint implements CrossSiteConstraintContext {
+
+        private final String allowOrigin;
+
+        TestCrossSiteConstraint(String allowOrigin) {
+            this.allowOrigin = allowOrigin;
+        }
+
+        @Override
+        public String getAllowOrigin() {
+            return allowOrigin;
+        }
+
+        @Override
+        public String getAllowMethods() {
+            return "GET,POST";
+        }
+
+        @Override
+        public String getAllowHeaders() {
+            return null;
+        }
+
+        @Override
+        public Integer getMaximumAge() {
+            return null;
+        }
+    }
+}
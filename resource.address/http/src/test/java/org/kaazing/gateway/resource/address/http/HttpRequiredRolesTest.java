@@ -0,0 +1,77 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.resource.address.http;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class HttpRequiredRolesTest {
+
+    @Test
+    public void shouldGrantNoRequiredRoles() throws Exception {
+        HttpRequiredRoles requiredRoles = new HttpRequiredRoles(new String[0]);
+
+        assertTrue(requiredRoles.isEmpty());
+        assertFalse(requiredRoles.isWildcard());
+        assertTrue(requiredRoles.isGrantedBy(emptySet()));
+    }
+
+    @Test
+    public void shouldRequireAllRoles() throws Exception {
+        HttpRequiredRoles requiredRoles = new HttpRequiredRoles(new String[] { "admin", "user", "admin" });
+
+        assertFalse(requiredRoles.isEmpty());
+        assertTrue(requiredRoles.isGrantedBy(principals("user", "guest", "admin")));
+        assertFalse(requiredRoles.isGrantedBy(principals("user", "guest")));
+        assertFalse(requiredRoles.isGrantedBy(emptySet()));
+    }
+
+    @Test
+    public void shouldFlagWildcardRole() throws Exception {
+        HttpRequiredRoles requiredRoles = new HttpRequiredRoles(new String[] { "*" });
+
+        assertTrue(requiredRoles.isWildcard());
+        assertFalse(requiredRoles.isGrantedBy(principals("user")));
+    }
+
+    @Test
+    public void shouldRequireMoreRolesThanMaskBits() throws Exception {
+        String[] roles = new String[100];
+        for (int i = 0; i < roles.length; i++) {
+            roles[i] = "role" + i;
+        }
+        HttpRequiredRoles requiredRoles = new HttpRequiredRoles(roles);
+
+        assertTrue(requiredRoles.isGrantedBy(principals(roles)));
+        assertFalse(requiredRoles.isGrantedBy(principals(asList(roles).subList(1, 100).toArray(new String[99]))));
+    }
+
+    private static List<Principal> principals(String... names) {
+        List<Principal> principals = new ArrayList<>();
+        for (String name : names) {
+            principals.add(() -> name);
+        }
+        return principals;
+    }
+}
@@ -34,6 +34,7 @@ import static org.kaazing.gateway.resource.address.http.HttpResourceAddress.MAXI
 import static org.kaazing.gateway.resource.address.http.HttpResourceAddress.MAX_AUTHENTICATION_ATTEMPTS;
 import static org.kaazing.gateway.resource.address.http.HttpResourceAddress.REALMS;
 import static org.kaazing.gateway.resource.address.http.HttpResourceAddress.REQUIRED_ROLES;
+import static org.kaazing.gateway.resource.address.http.HttpResourceAddress.REQUIRED_ROLE_SET;
 import static org.kaazing.gateway.resource.address.http.HttpResourceAddress.SERVER_HEADER_ENABLED;
 import static org.kaazing.gateway.resource.address.http.HttpResourceAddress.USER_AGENT_HEADER_ENABLED;
 import static org.kaazing.gateway.resource.address.http.HttpResourceAddress.HOST_HEADER_ENABLED;
@@ -145,6 +146,7 @@ public class HttpResourceAddressFactorySpiTest {
         assertEquals(address.getOption(KEEP_ALIVE_TIMEOUT).intValue(), 30);
         assertEquals(address.getOption(KEEP_ALIVE_CONNECTIONS).intValue(), DEFAULT_HTTP_KEEPALIVE_CONNECTIONS);
         assertEmpty(address.getOption(REQUIRED_ROLES));
+        assertTrue(address.getOption(REQUIRED_ROLE_SET).isEmpty());
         assertTrue(address.getOption(SERVER_HEADER_ENABLED));
         assertTrue(address.getOption(USER_AGENT_HEADER_ENABLED));
         assertTrue(address.getOption(HOST_HEADER_ENABLED));
@@ -164,6 +166,7 @@ public class HttpResourceAddressFactorySpiTest {
         assertFalse(address.getOption(KEEP_ALIVE));
         assertEquals(address.getOption(MAXIMUM_REDIRECTS), new Integer(0));
         assertArrayEquals(new String[] { "admin" }, address.getOption(REQUIRED_ROLES));
+        assertFalse(address.getOption(REQUIRED_ROLE_SET).isEmpty());
         assertEquals(realms, address.getOption(REALMS));
         assertFalse(address.getOption(SERVER_HEADER_ENABLED));
         assertFalse(address.getOption(USER_AGENT_HEADER_ENABLED));
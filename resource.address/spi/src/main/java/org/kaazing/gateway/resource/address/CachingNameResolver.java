@@ -0,0 +1,296 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.resource.address;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link NameResolver} caching the addresses of each host, so that building connect addresses does not hit the system
+ * resolver every time.
+ * <p>
+ * Lookups are made on an executor and can be awaited without blocking through {@link #resolve(String)}. Successful
+ * lookups are cached for the JVM's {@code networkaddress.cache.ttl} and failed lookups for its
+ * {@code networkaddress.cache.negative.ttl}. Hosts that are still in use are looked up again in the background shortly
+ * before their entry expires, so that they stay resolved. Expired entries are evicted as new hosts are looked up, and
+ * the default resolver bounds both the number of cached hosts and the number of concurrent lookups.
+ */
+public final class CachingNameResolver implements NameResolver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingNameResolver.class);
+
+    private static final long DEFAULT_TTL_SECONDS = 30;
+    private static final long DEFAULT_NEGATIVE_TTL_SECONDS = 10;
+
+    // refresh in use entries once they have lived for this fraction of their time to live
+    private static final double REFRESH_AHEAD_RATIO = 0.8;
+
+    private static final int DEFAULT_MAX_ENTRIES = 4096;
+    private static final int MAX_LOOKUP_THREADS = 4;
+    private static final int MAX_QUEUED_LOOKUPS = 1024;
+
+    private static final CachingNameResolver DEFAULT = new CachingNameResolver(
+            host -> asList(InetAddress.getAllByName(host)),
+            newLookupExecutor(),
+            securityPropertySeconds("networkaddress.cache.ttl", DEFAULT_TTL_SECONDS),
+            securityPropertySeconds("networkaddress.cache.negative.ttl", DEFAULT_NEGATIVE_TTL_SECONDS),
+            TimeUnit.SECONDS);
+
+    private final NameResolver delegate;
+    private final Executor executor;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LongSupplier clock;
+    private final int maxEntries;
+    private final long sweepIntervalNanos;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile long nextSweepAt;
+
+    /**
+     * Creates a resolver caching the lookups made by {@code delegate}, for example a stub resolver in tests.
+     * @param delegate  the resolver performing the actual lookups
+     * @param executor  executor the lookups are made on
+     * @param ttl  how long successful lookups are cached for, negative to cache them forever
+     * @param negativeTtl  how long failed lookups are cached for, negative to cache them forever
+     * @param unit  unit of both times to live
+     */
+    public CachingNameResolver(NameResolver delegate, Executor executor, long ttl, long negativeTtl, TimeUnit unit) {
+        this(delegate, executor, ttl, negativeTtl, unit, System::nanoTime, DEFAULT_MAX_ENTRIES);
+    }
+
+    CachingNameResolver(NameResolver delegate, Executor executor, long ttl, long negativeTtl, TimeUnit unit,
+                        LongSupplier clock, int maxEntries) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.ttlNanos = ttl < 0 ? Long.MAX_VALUE : unit.toNanos(ttl);
+        this.negativeTtlNanos = negativeTtl < 0 ? Long.MAX_VALUE : unit.toNanos(negativeTtl);
+        this.clock = clock;
+        this.maxEntries = maxEntries;
+        this.sweepIntervalNanos = Math.min(Math.min(ttlNanos, negativeTtlNanos), Long.MAX_VALUE / 2);
+        this.nextSweepAt = clock.getAsLong() + sweepIntervalNanos;
+    }
+
+    /**
+     * Returns the resolver shared by default by all resource addresses, which looks hosts up with
+     * {@link InetAddress#getAllByName(String)}.
+     */
+    public static CachingNameResolver getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Blocks until {@code host} is resolved, unless it is already cached.
+     */
+    @Override
+    public Collection<InetAddress> getAllByName(String host) throws UnknownHostException {
+        try {
+            return resolve(host).get();
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UnknownHostException) {
+                throw (UnknownHostException) cause;
+            }
+            UnknownHostException failure = new UnknownHostException(host);
+            failure.initCause(cause);
+            throw failure;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            UnknownHostException failure = new UnknownHostException(host);
+            failure.initCause(e);
+            throw failure;
+        }
+    }
+
+    /**
+     * Resolves {@code host} without blocking.
+     * @return a future which is already done when the host is cached, completed exceptionally with an
+     *         {@link UnknownHostException} when it cannot be resolved
+     */
+    public CompletableFuture<Collection<InetAddress>> resolve(String host) {
+        for (;;) {
+            Entry entry = entries.get(host);
+            if (entry != null) {
+                if (!entry.addresses.isDone()) {
+                    return entry.addresses;
+                }
+                long now = clock.getAsLong();
+                if (now - entry.expiresAt < 0) {
+                    if (now - entry.refreshAt >= 0 && entry.refreshing.compareAndSet(false, true)) {
+                        refresh(host, entry);
+                    }
+                    return entry.addresses;
+                }
+            }
+
+            if (entry == null) {
+                evictIfNecessary();
+            }
+
+            Entry newEntry = new Entry();
+            boolean added = (entry == null) ? entries.putIfAbsent(host, newEntry) == null
+                                            : entries.replace(host, entry, newEntry);
+            if (added) {
+                lookup(host, newEntry);
+                return newEntry.addresses;
+            }
+        }
+    }
+
+    /**
+     * Forgets all cached lookups.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evictIfNecessary() {
+        long now = clock.getAsLong();
+        if (entries.size() < maxEntries && now - nextSweepAt < 0) {
+            return;
+        }
+        nextSweepAt = now + sweepIntervalNanos;
+
+        for (Map.Entry<String, Entry> cached : entries.entrySet()) {
+            Entry entry = cached.getValue();
+            if (entry.addresses.isDone() && now - entry.expiresAt >= 0) {
+                entries.remove(cached.getKey(), entry);
+            }
+        }
+
+        // still full of live entries, make room by forgetting some of the completed lookups
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (entries.size() >= maxEntries && iterator.hasNext()) {
+            Map.Entry<String, Entry> cached = iterator.next();
+            if (cached.getValue().addresses.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void refresh(final String host, final Entry current) {
+        final Entry next = new Entry();
+        lookup(host, next);
+        next.addresses.whenComplete((addresses, failure) -> {
+            if (failure == null) {
+                entries.replace(host, current, next);
+            }
+            else {
+                // keep the current addresses until they expire
+                LOGGER.debug("Unable to refresh addresses of {}", host, failure);
+            }
+        });
+    }
+
+    private void lookup(final String host, final Entry entry) {
+        try {
+            executor.execute(() -> {
+                try {
+                    Collection<InetAddress> addresses = delegate.getAllByName(host);
+                    entry.complete(unmodifiableList(new ArrayList<>(addresses)), clock.getAsLong(), ttlNanos);
+                }
+                catch (Exception e) {
+                    entry.fail(e, clock.getAsLong(), negativeTtlNanos);
+                }
+            });
+        }
+        catch (RuntimeException e) {
+            // executor rejected the lookup, do not cache the failure
+            entries.remove(host, entry);
+            entry.addresses.completeExceptionally(e);
+        }
+    }
+
+    private static Executor newLookupExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_LOOKUP_THREADS, MAX_LOOKUP_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(MAX_QUEUED_LOOKUPS), new ResolverThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static long securityPropertySeconds(String name, long defaultValue) {
+        try {
+            String value = Security.getProperty(name);
+            return (value != null) ? Long.parseLong(value.trim()) : defaultValue;
+        }
+        catch (NumberFormatException | SecurityException e) {
+            return defaultValue;
+        }
+    }
+
+    private static final class Entry {
+        final CompletableFuture<Collection<InetAddress>> addresses = new CompletableFuture<>();
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        volatile long refreshAt;
+        volatile long expiresAt;
+
+        void complete(Collection<InetAddress> value, long now, long ttlNanos) {
+            expire(now, ttlNanos, REFRESH_AHEAD_RATIO);
+            addresses.complete(value);
+        }
+
+        void fail(Exception cause, long now, long ttlNanos) {
+            // failed lookups are not refreshed ahead of time
+            expire(now, ttlNanos, 1.0);
+            addresses.completeExceptionally(cause);
+        }
+
+        private void expire(long now, long ttlNanos, double refreshRatio) {
+            long ttl = Math.min(ttlNanos, Long.MAX_VALUE / 2);
+            expiresAt = now + ttl;
+            refreshAt = now + (long) (ttl * refreshRatio);
+        }
+    }
+
+    private static final class ResolverThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "name-resolver-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
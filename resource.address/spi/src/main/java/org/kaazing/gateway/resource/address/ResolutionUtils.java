@@ -27,9 +27,10 @@ import java.net.URI;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -42,13 +43,16 @@ import org.slf4j.LoggerFactory;
  *
  */
 public final class ResolutionUtils {
-    private static List<NetworkInterface> networkInterfaces = new ArrayList<>();
     private static final Logger LOG = LoggerFactory.getLogger(ResolutionUtils.class);
+
+    // addresses of each network interface and sub interface, keyed by lower case display name, taken once as walking
+    // the interfaces on every resolution is costly
+    private static final Map<String, List<InetAddress>> INTERFACE_ADDRESSES = new HashMap<>();
     static {
         try {
             Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
-            while (interfaces.hasMoreElements()) {
-                networkInterfaces.add(interfaces.nextElement());
+            if (interfaces != null) {
+                snapshotInterfaceAddresses(interfaces);
             }
         } catch (SocketException socketEx) {
             LOG.debug("server", "Unable to resolve device URIs, processing URIs without device resolution.");
@@ -65,15 +69,20 @@ public final class ResolutionUtils {
     * @return
     */
    public static Collection<InetAddress> getAllByName(String host, boolean allowIPv6) {
-       Enumeration<NetworkInterface> networkInterfaces = cloneInterfaces(ResolutionUtils.networkInterfaces);
-       List<String> resolvedAddresses = resolveDeviceAddress(host, networkInterfaces, allowIPv6);
-       List<InetAddress> resolvedDeviceURIs = new ArrayList<>();
-       List<InetAddress> resolvedHosts = resolvedDeviceURIs;
-       for (String resolvedAddress : resolvedAddresses) {
-           try {
-               resolvedHosts.addAll(asList(InetAddress.getAllByName(resolvedAddress)));
-           } catch (UnknownHostException e) {
-               e.printStackTrace();
+       String deviceName = host;
+       if (deviceName.startsWith("[@") && deviceName.endsWith("]")) {
+           deviceName = deviceName.substring(2, deviceName.lastIndexOf(']'));
+       } else if (deviceName.startsWith("@")) {
+           deviceName = deviceName.substring(1);
+       }
+
+       List<InetAddress> resolvedHosts = new ArrayList<>();
+       List<InetAddress> deviceAddresses = INTERFACE_ADDRESSES.get(deviceName.toLowerCase());
+       if (deviceAddresses != null) {
+           for (InetAddress deviceAddress : deviceAddresses) {
+               if (allowIPv6 || !(deviceAddress instanceof Inet6Address)) {
+                   resolvedHosts.add(deviceAddress);
+               }
            }
        }
        return resolvedHosts;
@@ -116,57 +125,39 @@ public final class ResolutionUtils {
     }
    
    /**
-    * Method performing device address resolution
-    * @param deviceName
+    * Method recording the addresses of network interfaces and their sub interfaces
     * @param networkInterfaces
-    * @param allowIPv6
-    * @return
     */
-   private static List<String> resolveDeviceAddress(String deviceName,
-           Enumeration<NetworkInterface> networkInterfaces, boolean allowIPv6) {
-        List<String> resolvedAddresses = new ArrayList<>();
-        if (deviceName.startsWith("[@") && deviceName.endsWith("]")) {
-            deviceName = deviceName.substring(2, deviceName.lastIndexOf(']'));
-        } else if (deviceName.startsWith("@")) {
-            deviceName = deviceName.substring(1);
-        }
-
+   private static void snapshotInterfaceAddresses(Enumeration<NetworkInterface> networkInterfaces) {
         while (networkInterfaces.hasMoreElements()) {
             NetworkInterface networkInterface = networkInterfaces.nextElement();
-            if (deviceName.toLowerCase().equals(networkInterface.getDisplayName().toLowerCase())) {
-                Enumeration<InetAddress> inetAddresses = networkInterface.getInetAddresses();
-                while (inetAddresses.hasMoreElements()) {
-                    InetAddress inetAddress = inetAddresses.nextElement();
-                    if (inetAddress instanceof Inet6Address) {
-                        if (!allowIPv6) {
-                            continue;
-                        }
-                        String inet6HostAddress = inetAddress.getHostAddress();
-                        resolvedAddresses.add(String.format("[%s]", inet6HostAddress));
-                    } else {
-                        resolvedAddresses.add(inetAddress.getHostAddress());
-                    }
+            String deviceName = networkInterface.getDisplayName().toLowerCase();
+            List<InetAddress> deviceAddresses = INTERFACE_ADDRESSES.get(deviceName);
+            if (deviceAddresses == null) {
+                deviceAddresses = new ArrayList<>();
+                INTERFACE_ADDRESSES.put(deviceName, deviceAddresses);
+            }
+
+            Enumeration<InetAddress> inetAddresses = networkInterface.getInetAddresses();
+            while (inetAddresses.hasMoreElements()) {
+                InetAddress inetAddress = inetAddresses.nextElement();
+                String resolvedAddress = inetAddress.getHostAddress();
+                if (inetAddress instanceof Inet6Address) {
+                    resolvedAddress = String.format("[%s]", resolvedAddress);
+                }
+                try {
+                    deviceAddresses.addAll(asList(InetAddress.getAllByName(resolvedAddress)));
+                } catch (UnknownHostException e) {
+                    e.printStackTrace();
                 }
             }
 
-            // add an internal URI for any sub interfaces that match the hostAddress
+            // add the addresses of any sub interfaces
             Enumeration<NetworkInterface> subInterfaces = networkInterface.getSubInterfaces();
             if (subInterfaces.hasMoreElements()) {
-                resolvedAddresses.addAll(resolveDeviceAddress(deviceName, subInterfaces, allowIPv6));
+                snapshotInterfaceAddresses(subInterfaces);
             }
         }
-
-        return resolvedAddresses;
     }
-   
-
-   /**
-    * Method cloning list of strings (used for network interfaces)
-    * @param interfaces
-    * @return
-    */
-   private static Enumeration<NetworkInterface> cloneInterfaces(List<NetworkInterface> interfaces) {
-       return Collections.enumeration(new ArrayList<>(interfaces));
-   }
 
 }
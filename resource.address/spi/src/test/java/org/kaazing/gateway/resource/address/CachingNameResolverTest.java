@@ -0,0 +1,192 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.resource.address;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachingNameResolverTest {
+
+    private final Map<String, InetAddress> hosts = new HashMap<>();
+    private final List<String> lookups = new ArrayList<>();
+    private final List<Runnable> pending = new ArrayList<>();
+    private long now;
+
+    private final NameResolver stub = host -> {
+        lookups.add(host);
+        InetAddress address = hosts.get(host);
+        if (address == null) {
+            throw new UnknownHostException(host);
+        }
+        return singletonList(address);
+    };
+
+    private final Executor synchronous = Runnable::run;
+    private final Executor deferred = pending::add;
+
+    @Before
+    public void setUp() throws Exception {
+        hosts.put("example.com", InetAddress.getByAddress("example.com", new byte[] {10, 0, 0, 1}));
+    }
+
+    @Test
+    public void shouldCacheAddresses() throws Exception {
+        CachingNameResolver resolver = newResolver(synchronous);
+
+        Collection<InetAddress> addresses = resolver.getAllByName("example.com");
+        now += SECONDS.toNanos(20);
+
+        assertEquals(addresses, resolver.getAllByName("example.com"));
+        assertEquals(1, lookups.size());
+    }
+
+    @Test
+    public void shouldLookUpAgainOnceExpired() throws Exception {
+        CachingNameResolver resolver = newResolver(synchronous);
+
+        resolver.getAllByName("example.com");
+        now += SECONDS.toNanos(30);
+        resolver.getAllByName("example.com");
+
+        assertEquals(2, lookups.size());
+    }
+
+    @Test
+    public void shouldRefreshAheadOfExpiry() throws Exception {
+        CachingNameResolver resolver = newResolver(deferred);
+
+        CompletableFuture<Collection<InetAddress>> resolved = resolver.resolve("example.com");
+        pending.remove(0).run();
+        now += SECONDS.toNanos(25);
+
+        // still served from the cache while the refresh is pending
+        assertTrue(resolver.resolve("example.com").isDone());
+        assertEquals(1, pending.size());
+        assertTrue(resolver.resolve("example.com").isDone());
+        assertEquals(1, pending.size());
+
+        hosts.put("example.com", InetAddress.getByAddress("example.com", new byte[] {10, 0, 0, 2}));
+        pending.remove(0).run();
+
+        assertFalse(resolved.get().equals(resolver.resolve("example.com").get()));
+        assertEquals(2, lookups.size());
+    }
+
+    @Test
+    public void shouldCacheFailedLookups() throws Exception {
+        CachingNameResolver resolver = newResolver(synchronous);
+
+        assertUnknownHost(resolver, "unknown.example.com");
+        now += SECONDS.toNanos(9);
+        assertUnknownHost(resolver, "unknown.example.com");
+        assertEquals(1, lookups.size());
+
+        now += SECONDS.toNanos(1);
+        assertUnknownHost(resolver, "unknown.example.com");
+        assertEquals(2, lookups.size());
+    }
+
+    @Test
+    public void shouldResolveWithoutBlocking() throws Exception {
+        CachingNameResolver resolver = newResolver(deferred);
+
+        CompletableFuture<Collection<InetAddress>> resolved = resolver.resolve("example.com");
+        CompletableFuture<Collection<InetAddress>> joined = resolver.resolve("example.com");
+
+        assertFalse(resolved.isDone());
+        assertEquals(1, pending.size());
+        pending.remove(0).run();
+        assertEquals(singletonList(hosts.get("example.com")), joined.get());
+        assertTrue(resolver.resolve("example.com").isDone());
+    }
+
+    @Test
+    public void shouldReportFailedLookupsWithoutBlocking() throws Exception {
+        CachingNameResolver resolver = newResolver(deferred);
+
+        CompletableFuture<Collection<InetAddress>> resolved = resolver.resolve("unknown.example.com");
+        pending.remove(0).run();
+
+        try {
+            resolved.get();
+            fail("Expected lookup to fail");
+        }
+        catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof UnknownHostException);
+        }
+    }
+
+    @Test
+    public void shouldEvictExpiredHosts() throws Exception {
+        CachingNameResolver resolver = newResolver(synchronous);
+
+        resolver.getAllByName("example.com");
+        assertUnknownHost(resolver, "unknown.example.com");
+        now += SECONDS.toNanos(10);
+        // the failed lookup has expired, the successful one has not
+        resolver.resolve("other.example.com");
+
+        assertEquals(2, resolver.size());
+        now += SECONDS.toNanos(30);
+        resolver.resolve("another.example.com");
+
+        assertEquals(1, resolver.size());
+    }
+
+    @Test
+    public void shouldBoundCachedHosts() throws Exception {
+        CachingNameResolver resolver = new CachingNameResolver(stub, synchronous, 30, 10, SECONDS, () -> now, 2);
+
+        resolver.resolve("a.example.com");
+        resolver.resolve("b.example.com");
+        resolver.resolve("c.example.com");
+        resolver.resolve("d.example.com");
+
+        assertTrue(resolver.size() <= 2);
+    }
+
+    private CachingNameResolver newResolver(Executor executor) {
+        return new CachingNameResolver(stub, executor, 30, 10, SECONDS, () -> now, 4096);
+    }
+
+    private static void assertUnknownHost(NameResolver resolver, String host) {
+        try {
+            resolver.getAllByName(host);
+            fail("Expected " + host + " to be unknown");
+        }
+        catch (UnknownHostException e) {
+            // expected
+        }
+    }
+}
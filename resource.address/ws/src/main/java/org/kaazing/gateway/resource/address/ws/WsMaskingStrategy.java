@@ -0,0 +1,145 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.resource.address.ws;
+
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Strategy providing the masking keys of the frames sent when the gateway is the WebSocket client.
+ * <p/>
+ * The "secure" strategy, the default, draws every key from a shared {@link SecureRandom} as RFC 6455 section 5.3
+ * requires when the intermediaries are not trusted. The "fast" strategy draws keys from a per-thread xorshift
+ * generator seeded once from the secure one, which is predictable and so only suited to links between trusted peers,
+ * such as the gateway proxying to a backend on the same network.
+ * <p/>
+ * Other strategies can be registered through {@link ServiceLoader}, and are selected per connect with the
+ * ws.masking.strategy connect option.
+ */
+public abstract class WsMaskingStrategy {
+
+    public static final WsMaskingStrategy SECURE = new SecureMaskingStrategy();
+    public static final WsMaskingStrategy FAST = new FastMaskingStrategy();
+
+    private static final Map<String, WsMaskingStrategy> STRATEGIES = loadStrategies();
+
+    /**
+     * @return the name the strategy is selected with
+     */
+    public abstract String getName();
+
+    /**
+     * Method returning the masking key of the next frame, called from the I/O thread writing it
+     * @return the 32-bit masking key
+     */
+    public abstract int nextMask();
+
+    /**
+     * Method returning the strategy with the given name
+     * @param name  the ws.masking.strategy option value, e.g. "secure" or "fast"
+     * @return the built-in or {@link ServiceLoader} registered strategy with that name
+     * @throws IllegalArgumentException if no such strategy is available
+     */
+    public static WsMaskingStrategy forName(String name) {
+        WsMaskingStrategy strategy = STRATEGIES.get(name);
+        if (strategy == null) {
+            throw new IllegalArgumentException(String.format("Unknown WebSocket masking strategy \"%s\", expected one of %s",
+                    name, STRATEGIES.keySet()));
+        }
+        return strategy;
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+
+    private static Map<String, WsMaskingStrategy> loadStrategies() {
+        Map<String, WsMaskingStrategy> strategies = new HashMap<>();
+        for (WsMaskingStrategy strategy : ServiceLoader.load(WsMaskingStrategy.class)) {
+            strategies.put(strategy.getName(), strategy);
+        }
+        strategies.put(SECURE.getName(), SECURE);
+        strategies.put(FAST.getName(), FAST);
+        return strategies;
+    }
+
+    private static final class SecureMaskingStrategy extends WsMaskingStrategy {
+
+        // KG-3433: although native ("NativePRNG") is faster than "SHA1PRNG" (which is typically the default)
+        // we now always use the platform default, to avoid getting exception on platforms like Windows 7
+        // which do not have NativePRNG and to give us a leeway to make it configurable in a later
+        // patch release (see KG-3403).
+        private final SecureRandom prng = new SecureRandom();
+
+        @Override
+        public String getName() {
+            return "secure";
+        }
+
+        @Override
+        public int nextMask() {
+            return prng.nextInt();
+        }
+    }
+
+    private static final class FastMaskingStrategy extends WsMaskingStrategy {
+
+        private final ThreadLocal<XorShift> generators = new ThreadLocal<XorShift>() {
+            @Override
+            protected XorShift initialValue() {
+                return new XorShift(SecureSeed.PRNG.nextLong());
+            }
+        };
+
+        @Override
+        public String getName() {
+            return "fast";
+        }
+
+        @Override
+        public int nextMask() {
+            return generators.get().nextInt();
+        }
+    }
+
+    /*
+     * xorshift64* generator, see Vigna, "An experimental exploration of Marsaglia's xorshift generators, scrambled"
+     */
+    static final class XorShift {
+        private long state;
+
+        XorShift(long seed) {
+            // the state must never be zero
+            this.state = (seed != 0) ? seed : 0x9e3779b97f4a7c15L;
+        }
+
+        int nextInt() {
+            long x = state;
+            x ^= x >>> 12;
+            x ^= x << 25;
+            x ^= x >>> 27;
+            state = x;
+            return (int) ((x * 0x2545f4914f6cdd1dL) >>> 32);
+        }
+    }
+
+    private static final class SecureSeed {
+        private static final SecureRandom PRNG = new SecureRandom();
+    }
+}
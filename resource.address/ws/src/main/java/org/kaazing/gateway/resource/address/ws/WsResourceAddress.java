@@ -36,6 +36,7 @@ public class WsResourceAddress extends ResourceAddress {
     public static final long INACTIVITY_TIMEOUT_DEFAULT =  0L;
     private static final String[] SUPPORTED_PROTOCOLS_DEFAULT = new String[0];
     private static final String[] REQUIRED_PROTOCOLS_DEFAULT = new String[0];
+    private static final String MASKING_STRATEGY_DEFAULT = "secure";
 
     public static final ResourceOption<Boolean> CODEC_REQUIRED = new WsCodecRequiredOption();
     public static final ResourceOption<Boolean> LIGHTWEIGHT = new WsLightweightOption();
@@ -43,6 +44,7 @@ public class WsResourceAddress extends ResourceAddress {
     public static final ResourceOption<Long> INACTIVITY_TIMEOUT = new WsInactivityTimeoutOption();
     public static final ResourceOption<String[]> SUPPORTED_PROTOCOLS = new WsSupportedProtocolsOption();
     public static final ResourceOption<String[]> REQUIRED_PROTOCOLS = new WsRequiredProtocolsOption();
+    public static final ResourceOption<String> MASKING_STRATEGY = new WsMaskingStrategyOption();
 
     private Boolean codecRequired;
     private Boolean lightweight;
@@ -50,6 +52,7 @@ public class WsResourceAddress extends ResourceAddress {
     private long inactivityTimeout = INACTIVITY_TIMEOUT.defaultValue();
     private String[] supportedProtocols;
     private String[] requiredProtocols = REQUIRED_PROTOCOLS.defaultValue();
+    private String maskingStrategy = MASKING_STRATEGY.defaultValue();
 
     WsResourceAddress(ResourceAddressFactorySpi factory, String original, URI resource) {
         super(factory, original, resource);
@@ -73,6 +76,8 @@ public class WsResourceAddress extends ResourceAddress {
                     return (V) supportedProtocols;
                 case REQUIRED_PROTOCOLS:
                     return (V) requiredProtocols;
+                case MASKING_STRATEGY:
+                    return (V) maskingStrategy;
             }
         }
         
@@ -103,6 +108,9 @@ public class WsResourceAddress extends ResourceAddress {
                 case REQUIRED_PROTOCOLS:
                     requiredProtocols = (String[]) value;
                     return;
+                case MASKING_STRATEGY:
+                    maskingStrategy = (String) value;
+                    return;
             }
         }
 
@@ -113,7 +121,7 @@ public class WsResourceAddress extends ResourceAddress {
 
         protected enum Kind { CODEC_REQUIRED, LIGHTWEIGHT, MAX_MESSAGE_SIZE,
                                      INACTIVITY_TIMEOUT, SUPPORTED_PROTOCOLS,
-                                     REQUIRED_PROTOCOLS }
+                                     REQUIRED_PROTOCOLS, MASKING_STRATEGY }
         
         private static final Map<String, ResourceOption<?>> OPTION_NAMES = new HashMap<>();
 
@@ -165,4 +173,10 @@ public class WsResourceAddress extends ResourceAddress {
         }
     }
 
+    private static final class WsMaskingStrategyOption extends WsResourceOption<String> {
+        private WsMaskingStrategyOption() {
+            super(Kind.MASKING_STRATEGY, "maskingStrategy", MASKING_STRATEGY_DEFAULT);
+        }
+    }
+
 }
@@ -22,6 +22,7 @@ import static org.kaazing.gateway.resource.address.ResourceFactories.changeSchem
 import static org.kaazing.gateway.resource.address.ws.WsResourceAddress.CODEC_REQUIRED;
 import static org.kaazing.gateway.resource.address.ws.WsResourceAddress.INACTIVITY_TIMEOUT;
 import static org.kaazing.gateway.resource.address.ws.WsResourceAddress.LIGHTWEIGHT;
+import static org.kaazing.gateway.resource.address.ws.WsResourceAddress.MASKING_STRATEGY;
 import static org.kaazing.gateway.resource.address.ws.WsResourceAddress.MAX_MESSAGE_SIZE;
 import static org.kaazing.gateway.resource.address.ws.WsResourceAddress.REQUIRED_PROTOCOLS;
 import static org.kaazing.gateway.resource.address.ws.WsResourceAddress.SUPPORTED_PROTOCOLS;
@@ -115,6 +116,13 @@ public class WsResourceAddressFactorySpi extends ResourceAddressFactorySpi<WsRes
         if (requiredProtocols != null) {
             options.setOption(REQUIRED_PROTOCOLS, requiredProtocols);
         }
+
+        String maskingStrategy = (String) optionsByName.remove(MASKING_STRATEGY.name());
+        if (maskingStrategy != null) {
+            // fail when the address is created rather than on every connect handshake
+            WsMaskingStrategy.forName(maskingStrategy);
+            options.setOption(MASKING_STRATEGY, maskingStrategy);
+        }
     }
 
     @Override
@@ -212,5 +220,6 @@ public class WsResourceAddressFactorySpi extends ResourceAddressFactorySpi<WsRes
         address.setOption0(INACTIVITY_TIMEOUT, options.getOption(INACTIVITY_TIMEOUT));
         address.setOption0(SUPPORTED_PROTOCOLS, options.getOption(SUPPORTED_PROTOCOLS));
         address.setOption0(REQUIRED_PROTOCOLS, options.getOption(REQUIRED_PROTOCOLS));
+        address.setOption0(MASKING_STRATEGY, options.getOption(MASKING_STRATEGY));
     }
 }
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.resource.address.ws;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class WsMaskingStrategyTest {
+
+    @Test
+    public void shouldFindBuiltInStrategiesByName() {
+        assertSame(WsMaskingStrategy.SECURE, WsMaskingStrategy.forName("secure"));
+        assertSame(WsMaskingStrategy.FAST, WsMaskingStrategy.forName("fast"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownStrategy() {
+        WsMaskingStrategy.forName("none");
+    }
+
+    @Test
+    public void shouldGenerateDistinctFastMasks() {
+        Set<Integer> masks = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            masks.add(WsMaskingStrategy.FAST.nextMask());
+        }
+        assertTrue(masks.size() > 990);
+    }
+
+    @Test
+    public void shouldNotGetStuckOnZeroSeed() {
+        WsMaskingStrategy.XorShift generator = new WsMaskingStrategy.XorShift(0);
+        int first = generator.nextInt();
+        assertTrue(first != 0 || generator.nextInt() != 0);
+        assertEquals(new WsMaskingStrategy.XorShift(0).nextInt(), first);
+    }
+}
@@ -36,6 +36,7 @@ import static org.kaazing.gateway.resource.address.ResourceAddressFactory.newRes
 import static org.kaazing.gateway.resource.address.ws.WsResourceAddress.CODEC_REQUIRED;
 import static org.kaazing.gateway.resource.address.ws.WsResourceAddress.INACTIVITY_TIMEOUT;
 import static org.kaazing.gateway.resource.address.ws.WsResourceAddress.LIGHTWEIGHT;
+import static org.kaazing.gateway.resource.address.ws.WsResourceAddress.MASKING_STRATEGY;
 import static org.kaazing.gateway.resource.address.ws.WsResourceAddress.MAX_MESSAGE_SIZE;
 import static org.kaazing.gateway.resource.address.ws.WsResourceAddress.REQUIRED_PROTOCOLS;
 import static org.kaazing.gateway.resource.address.ws.WsResourceAddress.SUPPORTED_PROTOCOLS;
@@ -78,6 +79,7 @@ public class WsResourceAddressFactorySpiTest {
         options.put("ws.inactivityTimeout", SECONDS.toMillis(5));
         options.put("ws.supportedProtocols", new String[] { "amqp/0.91", "amqp/1.0" });
         options.put("ws.requiredProtocols", new String[] { "amqp/0.91", "amqp/1.0" });
+        options.put("ws.maskingStrategy", "fast");
         options.put("ws.transport", "http://localhost:2121/");
     }
 
@@ -115,6 +117,7 @@ public class WsResourceAddressFactorySpiTest {
         assertEquals(0L, address.getOption(INACTIVITY_TIMEOUT).longValue());
         assertEmpty(address.getOption(SUPPORTED_PROTOCOLS));
         assertEmpty(address.getOption(REQUIRED_PROTOCOLS));
+        assertEquals("secure", address.getOption(MASKING_STRATEGY));
     }
 
     @Test
@@ -129,6 +132,13 @@ public class WsResourceAddressFactorySpiTest {
         assertEquals(SECONDS.toMillis(5), address.getOption(INACTIVITY_TIMEOUT).longValue());
         assertArrayEquals(new String[] { "amqp/0.91", "amqp/1.0" }, address.getOption(SUPPORTED_PROTOCOLS));
         assertArrayEquals(new String[] { "amqp/0.91", "amqp/1.0" }, address.getOption(REQUIRED_PROTOCOLS));
+        assertEquals("fast", address.getOption(MASKING_STRATEGY));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownMaskingStrategy() throws Exception {
+        options.put("ws.maskingStrategy", "none");
+        addressFactorySpi.newResourceAddress(addressURI, options);
     }
 
     @Test
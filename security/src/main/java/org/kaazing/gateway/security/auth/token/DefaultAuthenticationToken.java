@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import org.kaazing.gateway.server.spi.security.AuthenticationToken;
 
@@ -177,6 +178,25 @@ public class DefaultAuthenticationToken extends AuthenticationToken {
         return isEmpty;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DefaultAuthenticationToken)) {
+            return false;
+        }
+        DefaultAuthenticationToken that = (DefaultAuthenticationToken) o;
+        return Objects.equals(scheme, that.scheme) &&
+               components.equals(that.components) &&
+               namedComponents.equals(that.namedComponents);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(scheme, components, namedComponents);
+    }
+
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append('[');
@@ -16,8 +16,11 @@
 package org.kaazing.gateway.server;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.Consumer;
 
 import org.kaazing.gateway.resource.address.uri.URIUtils;
 import org.kaazing.gateway.server.context.GatewayContext;
@@ -25,6 +28,7 @@ import org.kaazing.gateway.service.AcceptOptionsContext;
 import org.kaazing.gateway.service.ServiceContext;
 import org.kaazing.gateway.service.cluster.ClusterContext;
 import org.kaazing.gateway.util.GL;
+import org.kaazing.gateway.util.InternalSystemProperty;
 
 
 import org.slf4j.Logger;
@@ -61,25 +65,29 @@ public class Launcher {
 
         long startAt = System.currentTimeMillis();
 
+        ServiceStartup startup = new ServiceStartup(context.getServices(), startupThreads(context));
+
         ClusterContext cluster = context.getCluster();
         if (cluster != null) {
-            cluster.start();
+            startup.runPhase("cluster", ignore -> cluster.start());
         }
 
-        Set<String> mappedURIs = new TreeSet<>();
-
         // Initialize all services (so we're in a known state), then start
-        // all services.
-        for (ServiceContext serviceContext : context.getServices()) {
-            gatewayListener.initingService(serviceContext);
+        // all services. Observers are notified one service at a time.
+        startup.initServices(serviceContext -> {
+            notifyObserver(gatewayListener::initingService, serviceContext);
             serviceContext.init();
-            gatewayListener.initedService(serviceContext);
-        }
+            notifyObserver(gatewayListener::initedService, serviceContext);
+        });
 
-        for (ServiceContext serviceContext : context.getServices()) {
-            gatewayListener.startingService(serviceContext);
+        startup.startServices(serviceContext -> {
+            notifyObserver(gatewayListener::startingService, serviceContext);
             serviceContext.start();
-            gatewayListener.startedService(serviceContext);
+            notifyObserver(gatewayListener::startedService, serviceContext);
+        });
+
+        Set<String> mappedURIs = new TreeSet<>();
+        for (ServiceContext serviceContext : context.getServices()) {
             AcceptOptionsContext ctx = serviceContext.getAcceptOptionsContext();
             Collection<String> serviceAccepts = serviceContext.getAccepts();
             for (String serviceAccept : serviceAccepts) {
@@ -106,6 +114,8 @@ public class Launcher {
         LOGGER.info("Started server successfully in " + String.format("%1$.3f secs", (startedAt - startAt) / 1000f)
                 + " at " + String.format("%1$tF %1$tT", startAt));
 
+        startup.logTimings(LOGGER);
+
         if (cluster != null) {
             // now that the Gateway has started, log what it knows about the cluster
             GL.debug(GL.CLUSTER_LOGGER_NAME, "Exit Gateway launcher initInternal");
@@ -113,6 +123,19 @@ public class Launcher {
         }
     }
 
+    private void notifyObserver(Consumer<ServiceContext> notification, ServiceContext serviceContext) {
+        synchronized (gatewayListener) {
+            notification.accept(serviceContext);
+        }
+    }
+
+    private static int startupThreads(GatewayContext context) {
+        Map<String, Object> injectables = context.getInjectables();
+        Object configuration = (injectables != null) ? injectables.get("configuration") : null;
+        Properties properties = (configuration instanceof Properties) ? (Properties) configuration : System.getProperties();
+        return InternalSystemProperty.SERVICE_STARTUP_THREADS.getIntProperty(properties);
+    }
+
     public void destroy() throws Exception {
         long stopAt = System.currentTimeMillis();
 
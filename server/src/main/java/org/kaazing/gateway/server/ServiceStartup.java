@@ -0,0 +1,347 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.server;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.kaazing.gateway.resource.address.uri.URIUtils;
+import org.kaazing.gateway.service.AcceptOptionsContext;
+import org.kaazing.gateway.service.ServiceContext;
+import org.slf4j.Logger;
+
+/**
+ * Initializes then starts the services of a gateway, running the services that do not depend on each other in parallel.
+ * <p>
+ * A service depends on the services listed before it which accept or bind on the same port, default ports included,
+ * as binds to a shared port must not race, and on the services accepting the URIs it connects to, unless that would
+ * create a cycle. Services are otherwise started in the order they are configured. With a single thread the services
+ * run one at a time and a phase stops at the first service that fails, as it did before services ran in parallel.
+ * The time taken by each phase and service is recorded for {@link #logTimings(Logger)}.
+ */
+final class ServiceStartup {
+
+    private final List<ServiceContext> services;
+    private final int threads;
+    private final Map<ServiceContext, Set<ServiceContext>> dependencies;
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+    private final Map<ServiceContext, Long> initNanos = new ConcurrentHashMap<>();
+    private final Map<ServiceContext, Long> startNanos = new ConcurrentHashMap<>();
+
+    ServiceStartup(Collection<? extends ServiceContext> services, int threads) {
+        this.services = new ArrayList<>(services);
+        this.threads = threads;
+        this.dependencies = dependencies(this.services);
+    }
+
+    Set<ServiceContext> getDependencies(ServiceContext service) {
+        return dependencies.get(service);
+    }
+
+    /**
+     * Times a phase of the startup which is not specific to a service, such as starting the cluster.
+     */
+    void runPhase(String phase, StartupStep<Void> step) throws Exception {
+        long startAt = System.nanoTime();
+        try {
+            step.run(null);
+        }
+        finally {
+            phaseNanos.put(phase, System.nanoTime() - startAt);
+        }
+    }
+
+    /**
+     * Runs {@code step} for all services in parallel, for example to initialize them. With a single thread the services
+     * after the first one for which the step fails are skipped.
+     */
+    void initServices(StartupStep<ServiceContext> step) throws Exception {
+        run("init", step, initNanos, false);
+    }
+
+    /**
+     * Runs {@code step} for all services once the services they depend on have completed it, for example to start them.
+     * The services depending on a service for which the step fails are skipped, with a single thread all the services
+     * after it are.
+     */
+    void startServices(StartupStep<ServiceContext> step) throws Exception {
+        run("start", step, startNanos, true);
+    }
+
+    void logTimings(Logger logger) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+
+        StringBuilder phases = new StringBuilder();
+        for (Map.Entry<String, Long> phase : phaseNanos.entrySet()) {
+            phases.append(phases.length() == 0 ? "" : ", ").append(phase.getKey()).append(' ').append(secs(phase.getValue()));
+        }
+        logger.info(format("Startup timings: %s (%d services, %d threads)", phases, services.size(), threads));
+
+        if (logger.isDebugEnabled()) {
+            List<ServiceContext> slowestFirst = new ArrayList<>(services);
+            slowestFirst.sort((s1, s2) -> Long.compare(totalNanos(s2), totalNanos(s1)));
+            for (ServiceContext service : slowestFirst) {
+                logger.debug(format("  %s: init %s, start %s", describe(service), secs(initNanos.get(service)),
+                        secs(startNanos.get(service))));
+            }
+        }
+    }
+
+    private void run(String phase, StartupStep<ServiceContext> step, Map<ServiceContext, Long> timings,
+                     boolean ordered) throws Exception {
+        long startAt = System.nanoTime();
+        try {
+            if (threads > 1) {
+                runParallel(step, timings, ordered);
+            }
+            else {
+                // one service at a time, stopping at the first failure as the services were started before
+                for (ServiceContext service : ordered ? dependencyOrder() : services) {
+                    runStep(service, step, timings);
+                }
+            }
+        }
+        finally {
+            phaseNanos.put(phase, System.nanoTime() - startAt);
+        }
+    }
+
+    private void runParallel(StartupStep<ServiceContext> step, Map<ServiceContext, Long> timings,
+                             boolean ordered) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, new StartupThreadFactory());
+        try {
+            Map<ServiceContext, CompletableFuture<Void>> completions = new HashMap<>();
+            for (ServiceContext service : services) {
+                completion(service, step, timings, ordered, pool, completions);
+            }
+            // let every step in progress finish before reporting the first failure, so it can be cleaned up
+            CompletableFuture.allOf(completions.values().toArray(new CompletableFuture<?>[completions.size()]))
+                    .handle((result, failure) -> null).join();
+            for (ServiceContext service : services) {
+                try {
+                    completions.get(service).join();
+                }
+                catch (CompletionException e) {
+                    Throwable cause = e.getCause();
+                    throw (cause instanceof Exception) ? (Exception) cause : e;
+                }
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    private void runStep(ServiceContext service, StartupStep<ServiceContext> step, Map<ServiceContext, Long> timings)
+            throws Exception {
+        long startAt = System.nanoTime();
+        try {
+            step.run(service);
+        }
+        finally {
+            timings.put(service, System.nanoTime() - startAt);
+        }
+    }
+
+    private List<ServiceContext> dependencyOrder() {
+        Set<ServiceContext> ordered = new LinkedHashSet<>();
+        for (ServiceContext service : services) {
+            addInDependencyOrder(service, ordered);
+        }
+        return new ArrayList<>(ordered);
+    }
+
+    private void addInDependencyOrder(ServiceContext service, Set<ServiceContext> ordered) {
+        if (!ordered.contains(service)) {
+            for (ServiceContext dependency : dependencies.get(service)) {
+                addInDependencyOrder(dependency, ordered);
+            }
+            ordered.add(service);
+        }
+    }
+
+    private CompletableFuture<Void> completion(ServiceContext service, StartupStep<ServiceContext> step,
+                                               Map<ServiceContext, Long> timings, boolean ordered, Executor executor,
+                                               Map<ServiceContext, CompletableFuture<Void>> completions) {
+        CompletableFuture<Void> completion = completions.get(service);
+        if (completion == null) {
+            List<CompletableFuture<Void>> prerequisites = new ArrayList<>();
+            if (ordered) {
+                for (ServiceContext dependency : dependencies.get(service)) {
+                    prerequisites.add(completion(dependency, step, timings, ordered, executor, completions));
+                }
+            }
+            completion = CompletableFuture.allOf(prerequisites.toArray(new CompletableFuture<?>[prerequisites.size()]))
+                    .thenRunAsync(() -> {
+                        try {
+                            runStep(service, step, timings);
+                        }
+                        catch (Exception e) {
+                            throw new CompletionException(e);
+                        }
+                    }, executor);
+            completions.put(service, completion);
+        }
+        return completion;
+    }
+
+    private static Map<ServiceContext, Set<ServiceContext>> dependencies(List<ServiceContext> services) {
+        Map<ServiceContext, Set<ServiceContext>> dependencies = new HashMap<>();
+        Map<String, ServiceContext> lastBoundByPort = new HashMap<>();
+        Map<String, ServiceContext> servicesByAccept = new HashMap<>();
+        for (ServiceContext service : services) {
+            Set<ServiceContext> serviceDependencies = new LinkedHashSet<>();
+            for (String port : boundPorts(service)) {
+                ServiceContext previous = lastBoundByPort.put(port, service);
+                if (previous != null && previous != service) {
+                    serviceDependencies.add(previous);
+                }
+            }
+            for (String accept : service.getAccepts()) {
+                servicesByAccept.putIfAbsent(accept, service);
+            }
+            dependencies.put(service, serviceDependencies);
+        }
+
+        for (ServiceContext service : services) {
+            for (String connect : service.getConnects()) {
+                ServiceContext acceptor = servicesByAccept.get(connect);
+                if (acceptor != null && acceptor != service && !dependsOn(acceptor, service, dependencies, new HashSet<>())) {
+                    dependencies.get(service).add(acceptor);
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    private static boolean dependsOn(ServiceContext service, ServiceContext target,
+                                     Map<ServiceContext, Set<ServiceContext>> dependencies, Set<ServiceContext> visited) {
+        if (!visited.add(service)) {
+            return false;
+        }
+        for (ServiceContext dependency : dependencies.get(service)) {
+            if (dependency == target || dependsOn(dependency, target, dependencies, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> boundPorts(ServiceContext service) {
+        Set<String> ports = new HashSet<>();
+        AcceptOptionsContext acceptOptions = service.getAcceptOptionsContext();
+        for (String accept : service.getAccepts()) {
+            String bound = (acceptOptions != null) ? acceptOptions.getInternalURI(accept) : null;
+            if (bound == null) {
+                bound = accept;
+            }
+            try {
+                String scheme = URIUtils.getScheme(bound);
+                int port = URIUtils.getPort(bound);
+                if ("pipe".equals(scheme)) {
+                    // named pipes are only shared by name
+                    ports.add(bound);
+                }
+                else if (port != -1) {
+                    ports.add(Integer.toString(port));
+                }
+                else {
+                    ports.add(Integer.toString(defaultPort(scheme)));
+                }
+            }
+            catch (IllegalArgumentException e) {
+                ports.add(bound);
+            }
+        }
+        if (acceptOptions != null) {
+            // a bind option moves the accepts of its scheme, or of the transports below it, to another port, so the
+            // service is conservatively assumed to also bind each of them
+            for (String bind : acceptOptions.getBinds().values()) {
+                ports.add(bindPort(bind));
+            }
+        }
+        return ports;
+    }
+
+    private static int defaultPort(String scheme) {
+        boolean secure = "https".equals(scheme) || "wss".equals(scheme) || (scheme != null && scheme.endsWith("+ssl"));
+        return secure ? 443 : 80;
+    }
+
+    private static String bindPort(String bind) {
+        // binds are either a port or an authority, such as localhost:8000, [::1]:8000 or @eth0:8000
+        int colon = bind.lastIndexOf(':');
+        String port = (colon > bind.lastIndexOf(']')) ? bind.substring(colon + 1) : bind;
+        try {
+            return Integer.toString(Integer.parseInt(port.trim()));
+        }
+        catch (NumberFormatException e) {
+            return bind;
+        }
+    }
+
+    private long totalNanos(ServiceContext service) {
+        return initNanos.getOrDefault(service, 0L) + startNanos.getOrDefault(service, 0L);
+    }
+
+    private static String describe(ServiceContext service) {
+        String name = service.getServiceName();
+        return (name != null) ? name : service.getServiceType() + " " + service.getAccepts();
+    }
+
+    private static String secs(Long nanos) {
+        return (nanos != null) ? format("%1$.3f secs", nanos / (float) SECONDS.toNanos(1)) : "skipped";
+    }
+
+    @FunctionalInterface
+    interface StartupStep<T> {
+        void run(T target) throws Exception;
+    }
+
+    private static final class StartupThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+        // services may load their extensions through the launching thread's context class loader
+        private final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "service-startup-" + count.incrementAndGet());
+            thread.setContextClassLoader(contextClassLoader);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -15,6 +15,12 @@
  */
 package org.kaazing.gateway.server.collections;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IAtomicLong;
 import com.hazelcast.core.IList;
@@ -28,11 +34,70 @@ import org.kaazing.gateway.util.AtomicCounter;
 
 public class ClusterCollectionsFactory implements CollectionsFactory {
 
+    private static final String WRITE_BEHIND_THREAD_NAME = "cluster-write-behind";
 
     private HazelcastInstance cluster;
+    private final long writeBehindDelay;
+    private final ConcurrentMap<String, WriteBehindMap<?, ?>> writeBehindMaps = new ConcurrentHashMap<>();
+    private ScheduledExecutorService writeBehindScheduler;
 
     public ClusterCollectionsFactory(HazelcastInstance cluster) {
+        this(cluster, 0L);
+    }
+
+    /**
+     * @param cluster           the Hazelcast instance
+     * @param writeBehindDelay  delay in milliseconds before puts made through a write behind map are written to the
+     *                          cluster, 0 to write them immediately
+     */
+    public ClusterCollectionsFactory(HazelcastInstance cluster, long writeBehindDelay) {
         this.cluster = cluster;
+        this.writeBehindDelay = writeBehindDelay;
+    }
+
+    /**
+     * Returns a view of a cluster map whose puts are coalesced and written behind, see {@link WriteBehindMap}.
+     * When write behind is disabled, the cluster map itself is returned.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> getWriteBehindMap(String name) {
+        if (writeBehindDelay <= 0) {
+            return cluster.getMap(name);
+        }
+        return (Map<K, V>) writeBehindMaps.computeIfAbsent(name,
+                n -> new WriteBehindMap<>(cluster.getMap(n), getWriteBehindScheduler(), writeBehindDelay));
+    }
+
+    /**
+     * Writes the pending puts of all the write behind maps to the cluster.
+     */
+    public void flush() {
+        for (WriteBehindMap<?, ?> writeBehindMap : writeBehindMaps.values()) {
+            writeBehindMap.flush();
+        }
+    }
+
+    /**
+     * Flushes the pending puts and releases the write behind resources, must be called before the Hazelcast instance
+     * is shut down.
+     */
+    public synchronized void dispose() {
+        flush();
+        if (writeBehindScheduler != null) {
+            writeBehindScheduler.shutdownNow();
+            writeBehindScheduler = null;
+        }
+    }
+
+    private synchronized ScheduledExecutorService getWriteBehindScheduler() {
+        if (writeBehindScheduler == null) {
+            writeBehindScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, WRITE_BEHIND_THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return writeBehindScheduler;
     }
 
     @Override
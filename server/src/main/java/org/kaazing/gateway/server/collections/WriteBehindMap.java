@@ -0,0 +1,124 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.server.collections;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.kaazing.gateway.util.GL;
+
+import com.hazelcast.core.IMap;
+
+/**
+ * Map which coalesces the puts made to a cluster map and writes them behind, in a single batch, after a delay.
+ * <p/>
+ * Reads see the pending writes, so a member always reads its own writes. This is intended for entries which are
+ * only ever written by the local member, such as the local member entry of the member balancer map. Values must not
+ * be mutated once they have been put, as they may be serialized by the flushing thread at any time.
+ */
+public class WriteBehindMap<K, V> extends AbstractMap<K, V> {
+
+    private final IMap<K, V> map;
+    private final ScheduledExecutorService scheduler;
+    private final long writeDelay;
+    private final ConcurrentMap<K, V> pendingWrites = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    WriteBehindMap(IMap<K, V> map, ScheduledExecutorService scheduler, long writeDelay) {
+        this.map = map;
+        this.scheduler = scheduler;
+        this.writeDelay = writeDelay;
+    }
+
+    @Override
+    public V get(Object key) {
+        V value = pendingWrites.get(key);
+        return value != null ? value : map.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return pendingWrites.containsKey(key) || map.containsKey(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        V oldValue = pendingWrites.put(key, value);
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::scheduledFlush, writeDelay, MILLISECONDS);
+        }
+        // the previous value is not looked up in the cluster, as that would defeat the purpose of writing behind
+        return oldValue;
+    }
+
+    @Override
+    public synchronized V remove(Object key) {
+        V pendingValue = pendingWrites.remove(key);
+        V oldValue = map.remove(key);
+        return oldValue != null ? oldValue : pendingValue;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        flush();
+        return map.entrySet();
+    }
+
+    /**
+     * Writes all the pending puts to the cluster map in a single batch.
+     */
+    public synchronized void flush() {
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+        Map<K, V> batch = new HashMap<>(pendingWrites);
+        map.putAll(batch);
+        // keep the entries which have been written again while flushing, they will be flushed next time
+        for (Entry<K, V> entry : batch.entrySet()) {
+            pendingWrites.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Returns the number of puts which have not been written to the cluster map yet.
+     */
+    public int pendingWrites() {
+        return pendingWrites.size();
+    }
+
+    private void scheduledFlush() {
+        flushScheduled.set(false);
+        try {
+            flush();
+        }
+        catch (RuntimeException e) {
+            GL.warn(GL.CLUSTER_LOGGER_NAME, "Unable to write {} pending entries to cluster map {}, will retry: {}",
+                    pendingWrites.size(), map.getName(), e);
+            if (flushScheduled.compareAndSet(false, true)) {
+                scheduler.schedule(this::scheduledFlush, writeDelay, MILLISECONDS);
+            }
+        }
+    }
+
+}
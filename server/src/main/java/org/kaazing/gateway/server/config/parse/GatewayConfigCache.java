@@ -0,0 +1,318 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.server.config.parse;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.xmlbeans.XmlOptions;
+import org.kaazing.gateway.server.Launcher;
+import org.kaazing.gateway.server.config.june2016.GatewayConfigDocument;
+import org.slf4j.Logger;
+
+/**
+ * Compiled form of gateway configuration files, as written and read by the {@link GatewayConfigParser}.
+ * <p>
+ * An entry holds the configuration after translation to the current namespace, parameter injection, type annotation
+ * and validation, so loading it skips all of those. Entries are named by a hash of the config file content and are only
+ * used while the configuration properties substituted into the file still have the values they had when it was written.
+ * Only the names of those properties and a digest of their values are kept alongside the configuration, and entries are
+ * readable by their owner only, since the configuration itself holds the substituted values.
+ */
+final class GatewayConfigCache {
+
+    /**
+     * Extension of the cache entry files
+     */
+    private static final String CACHE_FILE_EXT = ".kgc";
+
+    /**
+     * Magic number at the head of every cache entry
+     */
+    private static final int MAGIC = 0x4b474343;
+
+    /**
+     * Bumped whenever the layout of a cache entry, or what goes into its key, changes
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * Number of entries kept in the cache directory, older ones are removed when a new entry is written
+     */
+    private static final int MAX_ENTRIES = 8;
+
+    /**
+     * Parameters resolved from the host or the cloud provider rather than from properties, a config file using one of
+     * them without a value for it in the properties is never cached
+     */
+    private static final Set<String> DYNAMIC_PARAMETERS =
+            new HashSet<>(Arrays.asList("hostname", "cloud.host", "cloud.instanceId"));
+
+    private static final FileAttribute<Set<PosixFilePermission>> OWNER_ONLY_FILE =
+            PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"));
+
+    private static final FileAttribute<Set<PosixFilePermission>> OWNER_ONLY_DIRECTORY =
+            PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------"));
+
+    private static final Logger LOGGER = Launcher.getGatewayStartupLogger();
+
+    private final File directory;
+
+    GatewayConfigCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Computes the cache key for a config file.
+     *
+     * @param config the content of the config file
+     * @return the hex encoded key
+     */
+    String key(byte[] config) {
+        MessageDigest digest = newDigest();
+        digest.update(Integer.toString(FORMAT_VERSION).getBytes(UTF_8));
+        digest.update(GatewayConfigNamespace.CURRENT_NS.toURI().getBytes(UTF_8));
+        String version = GatewayConfigCache.class.getPackage().getImplementationVersion();
+        if (version != null) {
+            digest.update(version.getBytes(UTF_8));
+        }
+        digest.update(config);
+
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Loads the compiled configuration for a key.
+     *
+     * @param key the key of the config file
+     * @param configuration the properties the config file would be injected with
+     * @return the configuration, or <code>null</code> when there is no usable entry for the key
+     */
+    GatewayConfigDocument load(String key, Properties configuration) {
+        File file = new File(directory, key + CACHE_FILE_EXT);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !key.equals(in.readUTF())) {
+                LOGGER.debug("Ignoring unrecognized compiled gateway config " + file);
+                return null;
+            }
+
+            int parameterCount = in.readInt();
+            Map<String, String> parameters = new LinkedHashMap<>();
+            for (int i = 0; i < parameterCount; i++) {
+                String name = in.readUTF();
+                parameters.put(name, configuration.getProperty(name));
+            }
+            byte[] parametersDigest = new byte[in.readInt()];
+            in.readFully(parametersDigest);
+            if (!MessageDigest.isEqual(parametersDigest, parametersDigest(key, parameters))) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Compiled gateway config " + file + " is stale, parameters " + parameters.keySet()
+                            + " changed");
+                }
+                return null;
+            }
+
+            return GatewayConfigDocument.Factory.parse(in, new XmlOptions().setLoadStripWhitespace());
+        } catch (Exception e) {
+            LOGGER.warn("Could not read compiled gateway config " + file + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the compiled configuration for a key.
+     *
+     * @param key the key of the config file
+     * @param parameters the configuration properties looked up while injecting parameters into the config file,
+     *                   with their values or <code>null</code> when they were not set
+     * @param defaults the parameter values defined within the config file itself
+     * @param config the validated configuration
+     */
+    void store(String key, Map<String, String> parameters, Map<String, String> defaults, GatewayConfigDocument config) {
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            String name = parameter.getKey();
+            if (DYNAMIC_PARAMETERS.contains(name) && isEmpty(parameter.getValue()) && isEmpty(defaults.get(name))) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Not caching gateway config, it depends on parameter " + name);
+                }
+                return;
+            }
+        }
+
+        File file = new File(directory, key + CACHE_FILE_EXT);
+        File tempFile = null;
+        try {
+            tempFile = createOwnerOnly(key);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(key);
+                out.writeInt(parameters.size());
+                for (String name : parameters.keySet()) {
+                    out.writeUTF(name);
+                }
+                byte[] parametersDigest = parametersDigest(key, parameters);
+                out.writeInt(parametersDigest.length);
+                out.write(parametersDigest);
+                config.save(out, new XmlOptions().setSaveAggressiveNamespaces());
+            }
+
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), REPLACE_EXISTING);
+            }
+            tempFile = null;
+
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Wrote compiled gateway config " + file);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not write compiled gateway config " + file + ": " + e);
+        } finally {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+
+        evict(file);
+    }
+
+    private File createOwnerOnly(String key) throws IOException {
+        Path dir = directory.toPath();
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        if (!Files.isDirectory(dir)) {
+            if (posix) {
+                Files.createDirectories(dir, OWNER_ONLY_DIRECTORY);
+            } else {
+                Files.createDirectories(dir);
+            }
+        }
+        return posix ? Files.createTempFile(dir, key, ".tmp", OWNER_ONLY_FILE).toFile()
+                     : Files.createTempFile(dir, key, ".tmp").toFile();
+    }
+
+    private void evict(File current) {
+        File[] entries = directory.listFiles((dir, name) -> name.endsWith(CACHE_FILE_EXT));
+        if (entries == null || entries.length <= MAX_ENTRIES) {
+            return;
+        }
+
+        Arrays.sort(entries, Collections.reverseOrder(Comparator.comparingLong(File::lastModified)));
+        for (int i = MAX_ENTRIES; i < entries.length; i++) {
+            if (!entries[i].equals(current)) {
+                entries[i].delete();
+            }
+        }
+    }
+
+    /**
+     * Properties that remember every name looked up in them, with the value found, so that the parameters injected
+     * into a config file can be stored alongside its compiled form.
+     */
+    static final class RecordingProperties extends Properties {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Map<String, String> lookups = Collections.synchronizedMap(new LinkedHashMap<>());
+
+        RecordingProperties(Properties configuration) {
+            super(configuration);
+        }
+
+        @Override
+        public String getProperty(String key) {
+            String value = super.getProperty(key);
+            lookups.put(key, value);
+            return value;
+        }
+
+        Map<String, String> getLookups() {
+            synchronized (lookups) {
+                return new LinkedHashMap<>(lookups);
+            }
+        }
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private static byte[] parametersDigest(String key, Map<String, String> parameters) {
+        MessageDigest digest = newDigest();
+        digest.update(key.getBytes(UTF_8));
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            byte[] name = parameter.getKey().getBytes(UTF_8);
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(name.length).array());
+            digest.update(name);
+            String value = parameter.getValue();
+            if (value == null) {
+                digest.update((byte) 0);
+            } else {
+                byte[] bytes = value.getBytes(UTF_8);
+                digest.update((byte) 1);
+                digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+                digest.update(bytes);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
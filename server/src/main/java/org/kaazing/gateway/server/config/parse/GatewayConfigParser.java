@@ -30,6 +30,7 @@ import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -61,6 +62,7 @@ import org.jdom.input.SAXBuilder;
 import org.jdom.output.Format;
 import org.jdom.output.XMLOutputter;
 import org.kaazing.gateway.server.Launcher;
+import org.kaazing.gateway.server.config.parse.GatewayConfigCache.RecordingProperties;
 import org.kaazing.gateway.server.config.parse.translate.GatewayConfigTranslator;
 import org.kaazing.gateway.server.config.parse.translate.GatewayConfigTranslatorFactory;
 import org.kaazing.gateway.server.config.june2016.ClusterType;
@@ -105,12 +107,24 @@ public class GatewayConfigParser {
 
     private final Properties configuration;
 
+    private final GatewayConfigCache cache;
+
     public GatewayConfigParser() {
         this(System.getProperties());
     }
 
     public GatewayConfigParser(Properties configuration) {
+        this(configuration, null);
+    }
+
+    /**
+     * @param configuration the properties injected into configuration parameters
+     * @param cacheDirectory the directory compiled configurations are read from and written to, or <code>null</code>
+     *                       to parse the configuration file every time
+     */
+    public GatewayConfigParser(Properties configuration, File cacheDirectory) {
         this.configuration = configuration;
+        this.cache = (cacheDirectory != null) ? new GatewayConfigCache(cacheDirectory) : null;
     }
 
 
@@ -201,6 +215,20 @@ public class GatewayConfigParser {
         // which is not always 'gateway-config.xml'.
         String configFileName = configFile.getName();
 
+        // Use the compiled configuration from an earlier start when neither the file nor its parameters changed
+        String cacheKey = null;
+        if (cache != null) {
+            cacheKey = cache.key(Files.readAllBytes(configFile.toPath()));
+            GatewayConfigDocument config = cache.load(cacheKey, configuration);
+            if (config != null) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("loaded compiled gateway config file '" + configFileName + "' in [" +
+                            (System.currentTimeMillis() - time) + " ms]");
+                }
+                return config;
+            }
+        }
+
         // Validate the gateway-config
         GatewayConfigDocument config = null;
         XmlOptions parseOptions = new XmlOptions();
@@ -236,6 +264,8 @@ public class GatewayConfigParser {
         }
 
         List<String> xmlParseErrors = new ArrayList<>();
+        Map<String, String> propertiesMap = new HashMap<>();
+        RecordingProperties injectedConfiguration = new RecordingProperties(configuration);
         try {
             config = GatewayConfigDocument.Factory.parse(new FileInputStream(translatedConfigFile), parseOptions);
 
@@ -249,7 +279,6 @@ public class GatewayConfigParser {
             // and should be injected after an initial parse
             GatewayConfigDocument.GatewayConfig gatewayConfig = config.getGatewayConfig();
             PropertiesType properties = gatewayConfig.getProperties();
-            Map<String, String> propertiesMap = new HashMap<>();
             if (properties != null) {
                 for (PropertyType propertyType : properties.getPropertyArray()) {
                     propertiesMap.put(propertyType.getName(), propertyType.getValue());
@@ -261,7 +290,7 @@ public class GatewayConfigParser {
             OutputStream xmlInjectedOut = new PipedOutputStream((PipedInputStream) xmlInjectedIn);
             ExecutorService xmlInjectedExecutor = Executors.newSingleThreadExecutor();
             Future<Boolean> xmlInjectedFuture = xmlInjectedExecutor.submit(new XMLParameterInjector(new FileInputStream(
-                    translatedConfigFile), xmlInjectedOut, propertiesMap, configuration, xmlParseErrors));
+                    translatedConfigFile), xmlInjectedOut, propertiesMap, injectedConfiguration, xmlParseErrors));
 
             // trace injected xml
             if (LOGGER.isTraceEnabled()) {
@@ -306,6 +335,10 @@ public class GatewayConfigParser {
 
         validateGatewayConfig(config, xmlParseErrors);
 
+        if (cache != null) {
+            cache.store(cacheKey, injectedConfiguration.getLookups(), propertiesMap, config);
+        }
+
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("parsed " + " gateway config file '" + configFileName + "' in [" + (System.currentTimeMillis() - time) +
                     " ms]");
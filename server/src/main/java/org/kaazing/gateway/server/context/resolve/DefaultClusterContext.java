@@ -54,6 +54,7 @@ import com.hazelcast.config.Config;
 import com.hazelcast.config.JoinConfig;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.config.MulticastConfig;
+import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.config.NetworkConfig;
 import com.hazelcast.config.TcpIpConfig;
 import com.hazelcast.core.Cluster;
@@ -92,12 +93,13 @@ public class DefaultClusterContext implements ClusterContext, LogListener {
     private static final String HAZELCAST_SHUTDOWNHOOK_ENABLED_PROPERTY = "hazelcast.shutdownhook.enabled";
     private static final String HAZELCAST_PHONE_HOME_ENABLED_PROPERTY = "hazelcast.phone.home.enabled";
     private static final String HAZELCAST_VERSION_CHECK_ENABLED_PROPERTY = "hazelcast.version.check.enabled";
+    private static final String HAZELCAST_MAP_INVALIDATION_BATCH_ENABLED_PROPERTY = "hazelcast.map.invalidation.batch.enabled";
 
     private final Logger logger = LoggerFactory.getLogger(GL.CLUSTER_LOGGER_NAME);
 
     private final String localInstanceKey = Utils.randomHexString(16);
 
-    private CollectionsFactory collectionsFactory;
+    private ClusterCollectionsFactory collectionsFactory;
     private List<MemberId> localInterfaces = new ArrayList<>();
     private final List<MemberId> clusterMembers = new ArrayList<>();
     private final List<MembershipEventListener> membershipEventListeners = new ArrayList<>();
@@ -161,6 +163,9 @@ public class DefaultClusterContext implements ClusterContext, LogListener {
 
     @Override
     public void dispose() {
+        if (collectionsFactory != null) {
+            collectionsFactory.dispose();
+        }
         if (clusterInstance != null) {
             // KG-5837: do not call Hazelcast.shutdownAll() since that will hobble all in-process gateways
             clusterInstance.getLifecycleService().shutdown();
@@ -184,6 +189,8 @@ public class DefaultClusterContext implements ClusterContext, LogListener {
         MapConfig memberBalancerMapConfig = hazelCastConfig.getMapConfig(MEMBERID_BALANCER_MAP_NAME);
         memberBalancerMapConfig.setBackupCount(3);
 
+        initializeNearCaches(hazelCastConfig);
+
         // TO turn off logging in hazelcast API.
         // Note: must use Logger.getLogger, not LogManager.getLogger
         java.util.logging.Logger logger = java.util.logging.Logger.getLogger("com.hazelcast");
@@ -369,6 +376,31 @@ public class DefaultClusterContext implements ClusterContext, LogListener {
         return hazelCastConfig;
     }
 
+    /**
+     * Configures a near cache on every member for the read mostly maps, e.g. the balancer maps which are read for every
+     * balanced request but only written when services are bound or unbound. Near cached entries are invalidated as soon
+     * as they are changed on any member, instead of the default periodic batched invalidation.
+     * @param hazelCastConfig
+     */
+    private void initializeNearCaches(Config hazelCastConfig) {
+        Properties configuration = gatewayConfiguration != null ? gatewayConfiguration : new Properties();
+        String nearCacheMaps = InternalSystemProperty.CLUSTER_NEAR_CACHE_MAPS.getProperty(configuration);
+        if (nearCacheMaps == null || nearCacheMaps.trim().isEmpty()) {
+            return;
+        }
+
+        for (String mapName : nearCacheMaps.split(",")) {
+            mapName = mapName.trim();
+            if (!mapName.isEmpty()) {
+                NearCacheConfig nearCacheConfig = new NearCacheConfig(mapName);
+                nearCacheConfig.setInvalidateOnChange(true);
+                nearCacheConfig.setCacheLocalEntries(true);
+                hazelCastConfig.getMapConfig(mapName).setNearCacheConfig(nearCacheConfig);
+            }
+        }
+        hazelCastConfig.setProperty(HAZELCAST_MAP_INVALIDATION_BATCH_ENABLED_PROPERTY, "false");
+    }
+
     /**
      * Method returning IP from host
      * @param host
@@ -715,7 +747,9 @@ public class DefaultClusterContext implements ClusterContext, LogListener {
             LoggingService loggingService = clusterInstance.getLoggingService();
             loggingService.addLogListener(Level.FINEST, this);
 
-            this.collectionsFactory = new ClusterCollectionsFactory(clusterInstance);
+            Properties configuration = gatewayConfiguration != null ? gatewayConfiguration : new Properties();
+            long writeBehindDelay = InternalSystemProperty.CLUSTER_WRITE_BEHIND_DELAY.getIntProperty(configuration);
+            this.collectionsFactory = new ClusterCollectionsFactory(clusterInstance, writeBehindDelay);
             localNodeId = getMemberId(cluster.getLocalMember());
 
             IMap<MemberId, String> instanceKeyMap = collectionsFactory.getMap(INSTANCE_KEY_MAP);
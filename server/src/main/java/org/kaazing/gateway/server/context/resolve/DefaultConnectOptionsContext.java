@@ -77,6 +77,11 @@ public class DefaultConnectOptionsContext extends DefaultOptionsContext implemen
         long wsInactivityTimeout = getWsInactivityTimeout(wsInactivityTimeoutStr);
         result.put("ws.inactivityTimeout", wsInactivityTimeout);
 
+        String wsMaskingStrategy = optionsCopy.remove("ws.masking.strategy");
+        if (wsMaskingStrategy != null) {
+            result.put("ws.maskingStrategy", wsMaskingStrategy);
+        }
+
         int httpKeepaliveTimeout = getHttpKeepaliveTimeout(httpKeepaliveTimeoutStr);
         result.put("http[http/1.1].keepAliveTimeout", httpKeepaliveTimeout);
         if (wsInactivityTimeoutStr != null &&
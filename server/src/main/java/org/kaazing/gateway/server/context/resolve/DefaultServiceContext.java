@@ -17,11 +17,13 @@ package org.kaazing.gateway.server.context.resolve;
 
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.kaazing.gateway.resource.address.ResourceAddress.CONNECT_REQUIRES_INIT;
 import static org.kaazing.gateway.resource.address.ResourceAddress.TRANSPORT;
 import static org.kaazing.gateway.resource.address.uri.URIUtils.buildURIAsString;
 import static org.kaazing.gateway.resource.address.uri.URIUtils.getAuthority;
 import static org.kaazing.gateway.resource.address.uri.URIUtils.getFragment;
+import static org.kaazing.gateway.resource.address.uri.URIUtils.getHost;
 import static org.kaazing.gateway.resource.address.uri.URIUtils.getPath;
 import static org.kaazing.gateway.resource.address.uri.URIUtils.getQuery;
 import static org.kaazing.gateway.resource.address.uri.URIUtils.getScheme;
@@ -50,8 +52,10 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
@@ -61,9 +65,12 @@ import javax.crypto.CipherOutputStream;
 
 import org.apache.mina.core.buffer.IoBuffer;
 import org.apache.mina.core.future.ConnectFuture;
+import org.apache.mina.core.future.DefaultConnectFuture;
+import org.apache.mina.core.future.IoFutureListener;
 import org.apache.mina.core.service.IoHandler;
 import org.apache.mina.core.session.IoSession;
 import org.apache.mina.core.session.IoSessionInitializer;
+import org.kaazing.gateway.resource.address.CachingNameResolver;
 import org.kaazing.gateway.resource.address.Protocol;
 import org.kaazing.gateway.resource.address.ResourceAddress;
 import org.kaazing.gateway.resource.address.ResourceAddressFactory;
@@ -73,6 +80,7 @@ import org.kaazing.gateway.security.AuthenticationContext;
 import org.kaazing.gateway.security.CrossSiteConstraintContext;
 import org.kaazing.gateway.security.LoginContextFactory;
 import org.kaazing.gateway.security.RealmContext;
+import org.kaazing.gateway.server.collections.ClusterCollectionsFactory;
 import org.kaazing.gateway.server.service.AbstractSessionInitializer;
 import org.kaazing.gateway.service.AcceptOptionsContext;
 import org.kaazing.gateway.service.ConnectOptionsContext;
@@ -94,6 +102,7 @@ import org.kaazing.gateway.util.Encoding;
 import org.kaazing.gateway.util.GL;
 import org.kaazing.gateway.util.feature.EarlyAccessFeatures;
 import org.kaazing.gateway.util.scheduler.SchedulerProvider;
+import org.kaazing.mina.core.session.AbstractIoSessionEx;
 import org.kaazing.mina.core.session.IoSessionEx;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -568,28 +577,35 @@ public class DefaultServiceContext implements ServiceContext {
 
             CollectionsFactory factory = clusterContext.getCollectionsFactory();
             if (factory != null) {
-                Map<MemberId, Map<String, List<String>>> memberIdBalancerUriMap = factory.getMap(MEMBERID_BALANCER_MAP_NAME);
+                Map<MemberId, Map<String, List<String>>> memberIdBalancerUriMap = getMemberIdBalancerUriMap(factory);
                 if (memberIdBalancerUriMap == null) {
                     throw new IllegalStateException("MemberId to BalancerMap is null");
                 }
 
                 MemberId localMember = clusterContext.getLocalMember();
                 Map<String, List<String>> memberBalanceUriMap = memberIdBalancerUriMap.get(localMember);
-                if (memberBalanceUriMap == null) {
-                    memberBalanceUriMap = new HashMap<>();
-                }
+                // copy, as the written behind value must not be mutated
+                memberBalanceUriMap = (memberBalanceUriMap == null) ? new HashMap<>() : new HashMap<>(memberBalanceUriMap);
 
                 List<String> acceptUris = new ArrayList<>();
                 if (accepts != null) {
                     acceptUris.addAll(accepts);
+                    for (String balanceURI : balances) {
+                        memberBalanceUriMap.put(balanceURI, acceptUris);
+                    }
+                }
+                // the member entry must reach the cluster before the shared balancer map, otherwise a member that
+                // crashes in between leaves accept URIs in the balancer map that removeMember() cannot clean up
+                memberIdBalancerUriMap.put(localMember, memberBalanceUriMap);
+                if (factory instanceof ClusterCollectionsFactory) {
+                    ((ClusterCollectionsFactory) factory).flush();
                 }
+
                 // Must use TreeSet when replace(x,y,z) or remove(x,y) is used instead of remove(x) ,
                 // hazelcast map requires a ordered set to hash consistently.
                 IMap<String, TreeSet<String>> sharedBalanceUriMap = factory.getMap(BALANCER_MAP_NAME);
                 for (String balanceURI : balances) {
                     if (accepts != null) {
-                        memberBalanceUriMap.put(balanceURI, acceptUris);
-
                         // get and add to the list here instead of overwriting it
                         TreeSet<String> balanceUris;
                         TreeSet<String> newBalanceUris;
@@ -617,14 +633,24 @@ public class DefaultServiceContext implements ServiceContext {
                                 acceptUris, newBalanceUris);
                     }
                 }
-
-                memberIdBalancerUriMap.put(localMember, memberBalanceUriMap);
             }
         }
         GL.debug(GL.CLUSTER_LOGGER_NAME, "Exit Bind");
         clusterContext.logClusterState();
     }
 
+    /**
+     * Returns the member balancer map. Only the local member writes its own entry, so the puts made while unbinding
+     * services are written behind when the cluster supports it. Bind flushes its put before adding the accept URIs to
+     * the shared balancer map, so that the member entry always covers them when the member leaves the cluster.
+     */
+    private static Map<MemberId, Map<String, List<String>>> getMemberIdBalancerUriMap(CollectionsFactory factory) {
+        if (factory instanceof ClusterCollectionsFactory) {
+            return ((ClusterCollectionsFactory) factory).getWriteBehindMap(MEMBERID_BALANCER_MAP_NAME);
+        }
+        return factory.getMap(MEMBERID_BALANCER_MAP_NAME);
+    }
+
     private Map<String, Object> buildResourceAddressOptions(String transportURI, AcceptOptionsContext acceptOptionsContext) {
         // options is a new HashMap
         final Map<String, Object> options = acceptOptionsContext.asOptionsMap();
@@ -919,8 +945,7 @@ public class DefaultServiceContext implements ServiceContext {
         if (balances != null && balances.size() > 0) {
             CollectionsFactory factory = clusterContext.getCollectionsFactory();
             if (factory != null) {
-                Map<MemberId, Map<String, List<String>>> memberIdBalancerUriMap = factory
-                        .getMap(MEMBERID_BALANCER_MAP_NAME);
+                Map<MemberId, Map<String, List<String>>> memberIdBalancerUriMap = getMemberIdBalancerUriMap(factory);
                 if (memberIdBalancerUriMap == null) {
                     throw new IllegalStateException("MemberId to BalancerMap is null");
                 }
@@ -935,6 +960,8 @@ public class DefaultServiceContext implements ServiceContext {
                             + localMember + is);
                     throw is;
                 }
+                // copy, as the written behind value must not be mutated
+                memberBalanceUriMap = new HashMap<>(memberBalanceUriMap);
                 // Must use TreeSet when replace(x,y,z) or remove(x,y) is used instead of remove(x) , hazelcast map
                 // requires a ordered set to hash consistently.
                 IMap<String, TreeSet<String>> sharedBalanceUriMap = factory.getMap(BALANCER_MAP_NAME);
@@ -997,10 +1024,80 @@ public class DefaultServiceContext implements ServiceContext {
     }
 
     @Override
-    public ConnectFuture connect(String connectURI, final IoHandler connectHandler,
+    public ConnectFuture connect(final String connectURI, final IoHandler connectHandler,
                                  final IoSessionInitializer<ConnectFuture> connectSessionInitializer) {
-        ResourceAddress address = resourceAddressFactory.newResourceAddress(connectURI, connectOptionsContext.asOptionsMap());
-        return connect(address, connectHandler, connectSessionInitializer);
+        // the caller can be an I/O thread, so only build the address here when its host is already resolved
+        CompletableFuture<?> resolved = resolveHost(connectURI);
+        if (resolved.isDone()) {
+            ResourceAddress address = resourceAddressFactory.newResourceAddress(connectURI, connectOptionsContext.asOptionsMap());
+            return connect(address, connectHandler, connectSessionInitializer);
+        }
+
+        // connect from the caller's I/O thread once resolved, rather than from the resolver's thread
+        final Executor ioExecutor = AbstractIoSessionEx.CURRENT_WORKER.get();
+        final DefaultConnectFuture connectFuture = new DefaultConnectFuture();
+        resolved.whenComplete((addresses, failure) -> {
+            Runnable connectTask = () -> connectResolved(connectURI, connectHandler, connectSessionInitializer, connectFuture);
+            if (ioExecutor == null) {
+                connectTask.run();
+            }
+            else {
+                ioExecutor.execute(connectTask);
+            }
+        });
+        return connectFuture;
+    }
+
+    private void connectResolved(String connectURI, IoHandler connectHandler,
+                                 IoSessionInitializer<ConnectFuture> connectSessionInitializer,
+                                 final DefaultConnectFuture connectFuture) {
+        if (connectFuture.isCanceled()) {
+            return;
+        }
+
+        // failures are reported by the address factory, as when the host is resolved synchronously
+        try {
+            ResourceAddress address = resourceAddressFactory.newResourceAddress(connectURI, connectOptionsContext.asOptionsMap());
+            connect(address, connectHandler, connectSessionInitializer).addListener(new IoFutureListener<ConnectFuture>() {
+                @Override
+                public void operationComplete(ConnectFuture future) {
+                    if (future.isConnected()) {
+                        IoSession session = future.getSession();
+                        connectFuture.setSession(session);
+                        if (connectFuture.getSession() != session) {
+                            // canceled while connecting, nobody else will close the session
+                            session.close(true);
+                        }
+                    }
+                    else if (future.isCanceled()) {
+                        connectFuture.cancel();
+                    }
+                    else {
+                        connectFuture.setException(future.getException());
+                    }
+                }
+            });
+        }
+        catch (RuntimeException e) {
+            connectFuture.setException(e);
+        }
+    }
+
+    private static CompletableFuture<?> resolveHost(String connectURI) {
+        String host;
+        try {
+            host = getHost(connectURI);
+        }
+        catch (IllegalArgumentException e) {
+            // reported when building the address
+            return completedFuture(null);
+        }
+
+        // named pipes and network interfaces are not looked up by name
+        if (host == null || "pipe".equals(getScheme(connectURI)) || host.startsWith("@") || host.startsWith("[")) {
+            return completedFuture(null);
+        }
+        return CachingNameResolver.getDefault().resolve(host);
     }
 
     @Override
@@ -1074,6 +1171,16 @@ public class DefaultServiceContext implements ServiceContext {
 
     @Override
     public void init() throws Exception {
+        // resolve the connect hosts up front, so that connects made from I/O threads, such as prepared connections,
+        // find them cached and connect without a deferred lookup
+        List<CompletableFuture<?>> resolutions = new ArrayList<>();
+        for (String connectURI : connects) {
+            resolutions.add(resolveHost(connectURI));
+        }
+        // failures are reported when connecting
+        CompletableFuture.allOf(resolutions.toArray(new CompletableFuture<?>[resolutions.size()]))
+                .handle((result, failure) -> null).join();
+
         getService().init(this);
     }
 
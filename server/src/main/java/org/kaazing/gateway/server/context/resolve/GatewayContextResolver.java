@@ -143,6 +143,9 @@ public class GatewayContextResolver {
 
     private static final String EXPIRING_STATE_NAME = "ExpiringState";
 
+    private static final String WILDCARD_SUBDOMAIN = "://*.";
+    private static final String WILDCARD_SUBDOMAIN_PLACEHOLDER = "://wildcard-subdomain.";
+
     // a map of file-extension to mime-type.  For backward compatibility, we'll
     // hardcode this initial set based on the values in Dragonfire HttpUtils.getContentType().
     // TODO: In 4.0 we may want to remove this and require explicit settings!
@@ -569,6 +572,11 @@ public class GatewayContextResolver {
                     if ("*".equals(allowOrigin)) {
                         wildcardOriginCount++;
                     } else {
+                        // allow-origin may match any sub-domain (e.g. http://*.example.com), validate it as a host name
+                        boolean wildcardSubdomain = allowOrigin.contains(WILDCARD_SUBDOMAIN);
+                        if (wildcardSubdomain) {
+                            allowOrigin = allowOrigin.replace(WILDCARD_SUBDOMAIN, WILDCARD_SUBDOMAIN_PLACEHOLDER);
+                        }
                         String allowOriginURI = getCanonicalURI(allowOrigin, false);
                         allowOrigin = allowOriginURI;
                         String allowOriginScheme = getScheme(allowOriginURI);
@@ -595,6 +603,10 @@ public class GatewayContextResolver {
                                         + "\"");
                             }
                         }
+
+                        if (wildcardSubdomain) {
+                            allowOrigin = allowOrigin.replace(WILDCARD_SUBDOMAIN_PLACEHOLDER, WILDCARD_SUBDOMAIN);
+                        }
                     }
 
                     if (allowMethods != null) {
@@ -801,7 +813,7 @@ public class GatewayContextResolver {
 
     private ClusterContext resolveCluster(ClusterType clusterConfig, Properties configuration) {
         if (clusterConfig == null) {
-            return new StandaloneClusterContext();
+            return new StandaloneClusterContext(configuration);
         }
 
         String name = clusterConfig.getName();
@@ -15,10 +15,15 @@
  */
 package org.kaazing.gateway.server.context.resolve;
 
+import static org.kaazing.gateway.util.InternalSystemProperty.CLUSTER_STANDALONE_TOPIC_ASYNC_DELIVERY;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -39,11 +44,23 @@ import com.hazelcast.core.ITopic;
 public class StandaloneClusterContext implements ClusterContext {
 
     private final CollectionsFactory collectionsFactory;
+    private final ExecutorService topicDeliveryExecutor;
     private final ConcurrentMap<String, Lock> locks;
     private final String localInstanceKey = Utils.randomHexString(16);
 
     public StandaloneClusterContext() {
-        this.collectionsFactory = new MemoryCollectionsFactory();
+        this(new Properties());
+    }
+
+    public StandaloneClusterContext(Properties configuration) {
+        this.topicDeliveryExecutor = CLUSTER_STANDALONE_TOPIC_ASYNC_DELIVERY.getBooleanProperty(configuration)
+                ? Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "standalone-topic-delivery");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+        this.collectionsFactory = new MemoryCollectionsFactory(topicDeliveryExecutor);
         this.locks = new ConcurrentHashMap<>();
     }
 
@@ -114,6 +131,9 @@ public class StandaloneClusterContext implements ClusterContext {
 
     @Override
     public void dispose() {
+        if (topicDeliveryExecutor != null) {
+            topicDeliveryExecutor.shutdown();
+        }
     }
 
     @Override
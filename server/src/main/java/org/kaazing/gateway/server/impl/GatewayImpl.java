@@ -17,6 +17,7 @@ package org.kaazing.gateway.server.impl;
 
 import static java.lang.String.format;
 import static org.kaazing.gateway.server.impl.ProductInfoReader.getProductInfoInstance;
+import static org.kaazing.gateway.util.InternalSystemProperty.CONFIG_CACHE_ENABLED;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -67,6 +68,7 @@ import org.w3c.dom.Element;
 final class GatewayImpl implements Gateway {
     private static final String DEFAULT_CONFIG_DIRECTORY = "conf/";
     private static final String DEFAULT_TEMP_DIRECTORY = "temp/";
+    private static final String DEFAULT_CONFIG_CACHE_DIRECTORY = "config-cache";
     private static final String DEFAULT_WEB_DIRECTORY = "web/";
     private static final String DEFAULT_GATEWAY_CONFIG_XML = "gateway-config.xml";
     private static final String DEFAULT_GATEWAY_CONFIG_MINIMAL_XML = "gateway-config-minimal.xml";
@@ -296,7 +298,10 @@ final class GatewayImpl implements Gateway {
         LOGGER.info("Configuration file: " + gatewayConfigFile.getCanonicalPath());
 
         GatewayObserverApi gatewayObserver = GatewayObserver.newInstance();
-        GatewayConfigParser parser = new GatewayConfigParser(configuration);
+        File configCacheDir = CONFIG_CACHE_ENABLED.getBooleanProperty(configuration)
+                              ? new File(tempDir, DEFAULT_CONFIG_CACHE_DIRECTORY)
+                              : null;
+        GatewayConfigParser parser = new GatewayConfigParser(configuration, configCacheDir);
         GatewayConfigDocument config = parser.parse(gatewayConfigFile);
         GatewayContextResolver resolver = new GatewayContextResolver(configDir, webRootDir, tempDir, jmxMBeanServer);
         gatewayObserver.initingGateway(configuration, resolver.getInjectables());
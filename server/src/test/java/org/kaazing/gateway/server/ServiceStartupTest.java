@@ -0,0 +1,201 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.server;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.lib.concurrent.Synchroniser;
+import org.junit.Test;
+import org.kaazing.gateway.service.AcceptOptionsContext;
+import org.kaazing.gateway.service.ServiceContext;
+
+public class ServiceStartupTest {
+
+    private final Mockery context = new Mockery() {
+        {
+            // services are started from several threads
+            setThreadingPolicy(new Synchroniser());
+        }
+    };
+
+    @Test
+    public void shouldStartServicesOnSamePortInOrder() throws Exception {
+        ServiceContext first = service("first", asList("ws://localhost:8000/first"), emptyList());
+        ServiceContext second = service("second", asList("ws://localhost:8000/second"), emptyList());
+        ServiceContext other = service("other", asList("ws://localhost:8001/other"), emptyList());
+
+        ServiceStartup startup = new ServiceStartup(asList(first, second, other), 4);
+
+        assertEquals(emptySet(), startup.getDependencies(first));
+        assertEquals(singleton(first), startup.getDependencies(second));
+        assertEquals(emptySet(), startup.getDependencies(other));
+    }
+
+    @Test
+    public void shouldStartServicesOnSameDefaultPortInOrder() throws Exception {
+        ServiceContext implicit = service("implicit", asList("ws://localhost/implicit"), emptyList());
+        ServiceContext explicit = service("explicit", asList("http://localhost:80/explicit"), emptyList());
+        ServiceContext secure = service("secure", asList("wss://localhost/secure"), emptyList());
+        ServiceContext secureExplicit = service("secureExplicit", asList("https://localhost:443/secure"), emptyList());
+
+        ServiceStartup startup = new ServiceStartup(asList(implicit, explicit, secure, secureExplicit), 4);
+
+        assertEquals(emptySet(), startup.getDependencies(implicit));
+        assertEquals(singleton(implicit), startup.getDependencies(explicit));
+        assertEquals(emptySet(), startup.getDependencies(secure));
+        assertEquals(singleton(secure), startup.getDependencies(secureExplicit));
+    }
+
+    @Test
+    public void shouldStartServicesBindingSamePortInOrder() throws Exception {
+        ServiceContext first = service("first", asList("ws://localhost:8000/first"), emptyList());
+        ServiceContext second = service("second", asList("ws://example.com:9000/second"), emptyList(),
+                singletonMap("tcp", "0.0.0.0:8000"));
+        ServiceContext other = service("other", asList("ws://localhost:8001/other"), emptyList(),
+                singletonMap("ws", "[::1]:9000"));
+
+        ServiceStartup startup = new ServiceStartup(asList(first, second, other), 4);
+
+        assertEquals(emptySet(), startup.getDependencies(first));
+        assertEquals(singleton(first), startup.getDependencies(second));
+        assertEquals(singleton(second), startup.getDependencies(other));
+    }
+
+    @Test
+    public void shouldStartAcceptingServiceBeforeServiceConnectingToIt() throws Exception {
+        ServiceContext proxy = service("proxy", asList("ws://localhost:8000/proxy"), asList("pipe://backend"));
+        ServiceContext backend = service("backend", asList("pipe://backend"), emptyList());
+
+        ServiceStartup startup = new ServiceStartup(asList(proxy, backend), 4);
+
+        assertEquals(singleton(backend), startup.getDependencies(proxy));
+        assertEquals(emptySet(), startup.getDependencies(backend));
+    }
+
+    @Test
+    public void shouldNotDependOnEachOtherWhenConnectingBothWays() throws Exception {
+        ServiceContext a = service("a", asList("pipe://a"), asList("pipe://b"));
+        ServiceContext b = service("b", asList("pipe://b"), asList("pipe://a"));
+
+        ServiceStartup startup = new ServiceStartup(asList(a, b), 4);
+
+        assertEquals(singleton(b), startup.getDependencies(a));
+        assertEquals(emptySet(), startup.getDependencies(b));
+    }
+
+    @Test
+    public void shouldStartDependenciesFirst() throws Exception {
+        ServiceContext proxy = service("proxy", asList("ws://localhost:8000/proxy"), asList("pipe://backend"));
+        ServiceContext backend = service("backend", asList("pipe://backend"), emptyList());
+        ServiceContext echo = service("echo", asList("ws://localhost:8000/echo"), emptyList());
+        List<ServiceContext> started = Collections.synchronizedList(new ArrayList<>());
+
+        ServiceStartup startup = new ServiceStartup(asList(proxy, backend, echo), 4);
+        startup.startServices(started::add);
+
+        assertEquals(3, started.size());
+        assertTrue(started.indexOf(backend) < started.indexOf(proxy));
+        assertTrue(started.indexOf(proxy) < started.indexOf(echo));
+    }
+
+    @Test
+    public void shouldSkipDependentsOfFailedService() throws Exception {
+        ServiceContext first = service("first", asList("ws://localhost:8000/first"), emptyList());
+        ServiceContext second = service("second", asList("ws://localhost:8000/second"), emptyList());
+        ServiceContext other = service("other", asList("ws://localhost:8001/other"), emptyList());
+        List<ServiceContext> started = Collections.synchronizedList(new ArrayList<>());
+        Exception failure = new Exception("bind failed");
+
+        ServiceStartup startup = new ServiceStartup(asList(first, second, other), 4);
+        try {
+            startup.startServices(service -> {
+                if (service == first) {
+                    throw failure;
+                }
+                started.add(service);
+            });
+            fail("Expected start to fail");
+        }
+        catch (Exception e) {
+            assertSame(failure, e);
+        }
+
+        assertEquals(asList(other), started);
+    }
+
+    @Test
+    public void shouldStopAtFirstFailedServiceWithSingleThread() throws Exception {
+        ServiceContext proxy = service("proxy", asList("ws://localhost:8000/proxy"), asList("pipe://backend"));
+        ServiceContext backend = service("backend", asList("pipe://backend"), emptyList());
+        ServiceContext echo = service("echo", asList("ws://localhost:8001/echo"), emptyList());
+        List<ServiceContext> started = new ArrayList<>();
+        Exception failure = new Exception("bind failed");
+
+        ServiceStartup startup = new ServiceStartup(asList(proxy, backend, echo), 1);
+        try {
+            startup.startServices(service -> {
+                started.add(service);
+                if (service == proxy) {
+                    throw failure;
+                }
+            });
+            fail("Expected start to fail");
+        }
+        catch (Exception e) {
+            assertSame(failure, e);
+        }
+
+        assertEquals(asList(backend, proxy), started);
+    }
+
+    private ServiceContext service(String name, Collection<String> accepts, Collection<String> connects) {
+        return service(name, accepts, connects, emptyMap());
+    }
+
+    private ServiceContext service(String name, Collection<String> accepts, Collection<String> connects,
+                                   Map<String, String> binds) {
+        ServiceContext service = context.mock(ServiceContext.class, name);
+        AcceptOptionsContext acceptOptions = context.mock(AcceptOptionsContext.class, name + "AcceptOptions");
+        context.checking(new Expectations() {
+            {
+                allowing(service).getServiceName(); will(returnValue(name));
+                allowing(service).getAccepts(); will(returnValue(accepts));
+                allowing(service).getConnects(); will(returnValue(connects));
+                allowing(service).getAcceptOptionsContext(); will(returnValue(acceptOptions));
+                allowing(acceptOptions).getInternalURI(with(any(String.class))); will(returnValue(null));
+                allowing(acceptOptions).getBinds(); will(returnValue(binds));
+            }
+        });
+        return service;
+    }
+}
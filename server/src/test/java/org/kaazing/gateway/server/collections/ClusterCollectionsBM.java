@@ -0,0 +1,156 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.server.collections;
+
+import static org.kaazing.gateway.server.context.resolve.DefaultServiceContext.BALANCER_MAP_NAME;
+import static org.kaazing.gateway.server.context.resolve.DefaultServiceContext.MEMBERID_BALANCER_MAP_NAME;
+import static org.kaazing.gateway.util.InternalSystemProperty.CLUSTER_NEAR_CACHE_MAPS;
+import static org.kaazing.gateway.util.InternalSystemProperty.CLUSTER_WRITE_BEHIND_DELAY;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.kaazing.gateway.server.context.resolve.DefaultClusterContext;
+import org.kaazing.gateway.service.cluster.MemberId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.hazelcast.core.IMap;
+
+/**
+ * Compares balancer map reads and member balancer map writes on an embedded three member cluster on localhost,
+ * with and without the near caches and the write behind.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClusterCollectionsBM {
+
+    private static final int BALANCE_URI_COUNT = 100;
+    private static final int[] PORTS = {46951, 46952, 46953};
+
+    @Param({"true", "false"})
+    public boolean nearCache;
+
+    @Param({"100", "0"})
+    public String writeBehindDelay;
+
+    private final List<DefaultClusterContext> clusterContexts = new ArrayList<>();
+    private IMap<String, TreeSet<String>> balancerMap;
+    private Map<MemberId, Map<String, List<String>>> memberIdBalancerMap;
+    private MemberId localMember;
+    private String[] balanceURIs;
+    private int index;
+
+    @Setup
+    public void init() throws Exception {
+        Properties configuration = new Properties();
+        configuration.setProperty(CLUSTER_NEAR_CACHE_MAPS.getPropertyName(),
+                nearCache ? BALANCER_MAP_NAME + "," + MEMBERID_BALANCER_MAP_NAME : "");
+        configuration.setProperty(CLUSTER_WRITE_BEHIND_DELAY.getPropertyName(), writeBehindDelay);
+
+        String clusterName = getClass().getName() + "-" + nearCache + "-" + writeBehindDelay;
+        for (int port : PORTS) {
+            List<MemberId> accepts = Arrays.asList(new MemberId("tcp", "127.0.0.1", port));
+            List<MemberId> connects = new ArrayList<>();
+            for (int otherPort : PORTS) {
+                if (otherPort != port) {
+                    connects.add(new MemberId("tcp", "127.0.0.1", otherPort));
+                }
+            }
+            DefaultClusterContext clusterContext = new DefaultClusterContext(clusterName, accepts, connects, configuration);
+            clusterContext.start();
+            clusterContexts.add(clusterContext);
+        }
+
+        DefaultClusterContext clusterContext = clusterContexts.get(0);
+        ClusterCollectionsFactory factory = (ClusterCollectionsFactory) clusterContext.getCollectionsFactory();
+        balancerMap = factory.getMap(BALANCER_MAP_NAME);
+        memberIdBalancerMap = factory.getWriteBehindMap(MEMBERID_BALANCER_MAP_NAME);
+        localMember = clusterContext.getLocalMember();
+
+        balanceURIs = new String[BALANCE_URI_COUNT];
+        for (int i = 0; i < BALANCE_URI_COUNT; i++) {
+            balanceURIs[i] = "ws://balancer.example.com:8001/service" + i;
+            TreeSet<String> acceptURIs = new TreeSet<>();
+            for (int port : PORTS) {
+                acceptURIs.add("ws://127.0.0.1:" + port + "/service" + i);
+            }
+            balancerMap.put(balanceURIs[i], acceptURIs);
+        }
+    }
+
+    @TearDown
+    public void destroy() throws Exception {
+        for (DefaultClusterContext clusterContext : clusterContexts) {
+            clusterContext.dispose();
+        }
+        clusterContexts.clear();
+    }
+
+    // read done by the balancers for every balanced request
+    @Benchmark
+    public TreeSet<String> balancerMapGet() {
+        return balancerMap.get(balanceURIs[index++ % BALANCE_URI_COUNT]);
+    }
+
+    // write done by every service bind
+    @Benchmark
+    public Object memberIdBalancerMapPut() {
+        String balanceURI = balanceURIs[index++ % BALANCE_URI_COUNT];
+        Map<String, List<String>> memberBalanceUriMap = new HashMap<>();
+        memberBalanceUriMap.put(balanceURI, Arrays.asList(balanceURI));
+        return memberIdBalancerMap.put(localMember, memberBalanceUriMap);
+    }
+
+    // Or from command line:
+    //
+    // mvn clean install
+    // java -jar target/benchmarks.jar ClusterCollectionsBM
+    //
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ClusterCollectionsBM.class.getSimpleName())
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.server.collections;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.Test;
+
+import com.hazelcast.core.IMap;
+
+public class WriteBehindMapTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldCoalescePutsAndReadOwnWrites() throws Exception {
+        Mockery context = new Mockery();
+        final IMap<String, String> map = context.mock(IMap.class);
+        final ScheduledExecutorService scheduler = context.mock(ScheduledExecutorService.class);
+
+        final Map<String, String> batch = new HashMap<>();
+        batch.put("member1", "value2");
+        batch.put("member2", "value3");
+
+        context.checking(new Expectations() {{
+            // only one flush is scheduled for the three puts
+            oneOf(scheduler).schedule(with(any(Runnable.class)), with(100L), with(MILLISECONDS));
+            oneOf(map).putAll(batch);
+            oneOf(map).get("member1");
+            will(returnValue("value2"));
+        }});
+
+        WriteBehindMap<String, String> writeBehindMap = new WriteBehindMap<>(map, scheduler, 100L);
+        writeBehindMap.put("member1", "value1");
+        writeBehindMap.put("member1", "value2");
+        writeBehindMap.put("member2", "value3");
+
+        assertEquals("value2", writeBehindMap.get("member1"));
+        assertEquals(2, writeBehindMap.pendingWrites());
+
+        writeBehindMap.flush();
+
+        assertEquals(0, writeBehindMap.pendingWrites());
+        assertEquals("value2", writeBehindMap.get("member1"));
+        context.assertIsSatisfied();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldDropPendingPutOnRemove() throws Exception {
+        Mockery context = new Mockery();
+        final IMap<String, String> map = context.mock(IMap.class);
+        final ScheduledExecutorService scheduler = context.mock(ScheduledExecutorService.class);
+
+        context.checking(new Expectations() {{
+            oneOf(scheduler).schedule(with(any(Runnable.class)), with(100L), with(MILLISECONDS));
+            oneOf(map).remove("member1");
+            will(returnValue(null));
+        }});
+
+        WriteBehindMap<String, String> writeBehindMap = new WriteBehindMap<>(map, scheduler, 100L);
+        writeBehindMap.put("member1", "value1");
+
+        assertEquals("value1", writeBehindMap.remove("member1"));
+        assertEquals(0, writeBehindMap.pendingWrites());
+
+        // nothing left to write
+        writeBehindMap.flush();
+        context.assertIsSatisfied();
+    }
+}
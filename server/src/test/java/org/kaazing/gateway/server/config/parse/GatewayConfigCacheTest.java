@@ -0,0 +1,184 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.server.config.parse;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Properties;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.kaazing.gateway.server.config.june2016.GatewayConfigDocument;
+import org.kaazing.gateway.server.config.june2016.ServiceType;
+
+public class GatewayConfigCacheTest {
+
+    private static final String CONFIG =
+            "<gateway-config xmlns=\"http://xmlns.kaazing.org/2016/06/gateway\">\n" +
+            "  <properties>\n" +
+            "    <property><name>service.domain</name><value>localhost</value></property>\n" +
+            "  </properties>\n" +
+            "  <service>\n" +
+            "    <name>%s</name>\n" +
+            "    <accept>ws://${service.domain}:8001/%<s</accept>\n" +
+            "    <type>echo</type>\n" +
+            "  </service>\n" +
+            "</gateway-config>\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File cacheDir;
+    private Properties configuration;
+
+    @Before
+    public void setUp() throws Exception {
+        cacheDir = new File(folder.getRoot(), "config-cache");
+        configuration = new Properties();
+    }
+
+    @Test
+    public void shouldLoadCompiledConfigOnSecondParse() throws Exception {
+        File configFile = writeConfig("echo");
+
+        GatewayConfigDocument parsed = new GatewayConfigParser(configuration, cacheDir).parse(configFile);
+        assertEquals(1, cacheEntries());
+
+        GatewayConfigCache cache = new GatewayConfigCache(cacheDir);
+        GatewayConfigDocument loaded = cache.load(cache.key(Files.readAllBytes(configFile.toPath())), configuration);
+        assertEquals(parsed.xmlText(), loaded.xmlText());
+
+        ServiceType service = new GatewayConfigParser(configuration, cacheDir).parse(configFile)
+                .getGatewayConfig().getServiceArray(0);
+        assertEquals("echo", service.getName());
+        assertEquals("ws://localhost:8001/echo", service.getAcceptArray(0));
+    }
+
+    @Test
+    public void shouldReparseWhenConfigFileChanges() throws Exception {
+        File configFile = writeConfig("echo");
+        new GatewayConfigParser(configuration, cacheDir).parse(configFile);
+
+        writeConfig("echo2");
+        ServiceType service = new GatewayConfigParser(configuration, cacheDir).parse(configFile)
+                .getGatewayConfig().getServiceArray(0);
+
+        assertEquals("echo2", service.getName());
+        assertEquals(2, cacheEntries());
+    }
+
+    @Test
+    public void shouldReparseWhenInjectedParameterChanges() throws Exception {
+        File configFile = writeConfig("echo");
+        new GatewayConfigParser(configuration, cacheDir).parse(configFile);
+
+        configuration.setProperty("service.domain", "example.com");
+        ServiceType service = new GatewayConfigParser(configuration, cacheDir).parse(configFile)
+                .getGatewayConfig().getServiceArray(0);
+
+        assertEquals("ws://example.com:8001/echo", service.getAcceptArray(0));
+    }
+
+    @Test
+    public void shouldNotStoreInjectedParameterValues() throws Exception {
+        File configFile = folder.newFile("gateway-config.xml");
+        Files.write(configFile.toPath(), String.format(CONFIG, "echo")
+                .replace("${service.domain}:8001", "localhost:8001/${service.secret}").getBytes(UTF_8));
+        configuration.setProperty("service.secret", "s3cr3t");
+
+        new GatewayConfigParser(configuration, cacheDir).parse(configFile);
+
+        File[] entries = cacheDir.listFiles();
+        assertEquals(1, entries.length);
+        String entry = new String(Files.readAllBytes(entries[0].toPath()), UTF_8);
+        assertTrue(entry.contains("service.secret"));
+        assertEquals(entry.indexOf("s3cr3t"), entry.lastIndexOf("s3cr3t"));
+    }
+
+    @Test
+    public void shouldWriteEntriesReadableByOwnerOnly() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        File configFile = writeConfig("echo");
+
+        new GatewayConfigParser(configuration, cacheDir).parse(configFile);
+
+        File[] entries = cacheDir.listFiles();
+        assertEquals(1, entries.length);
+        assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(entries[0].toPath()));
+        assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(cacheDir.toPath()));
+    }
+
+    @Test
+    public void shouldReparseWhenCompiledConfigIsCorrupt() throws Exception {
+        File configFile = writeConfig("echo");
+        new GatewayConfigParser(configuration, cacheDir).parse(configFile);
+
+        File[] entries = cacheDir.listFiles();
+        Files.write(entries[0].toPath(), "garbage".getBytes(UTF_8));
+
+        ServiceType service = new GatewayConfigParser(configuration, cacheDir).parse(configFile)
+                .getGatewayConfig().getServiceArray(0);
+        assertEquals("echo", service.getName());
+    }
+
+    @Test
+    public void shouldNotCacheConfigUsingHostname() throws Exception {
+        File configFile = folder.newFile("gateway-config.xml");
+        Files.write(configFile.toPath(), String.format(CONFIG, "echo")
+                .replace("${service.domain}", "${hostname}").getBytes(UTF_8));
+
+        new GatewayConfigParser(configuration, cacheDir).parse(configFile);
+
+        assertFalse(cacheDir.isDirectory() && cacheEntries() != 0);
+    }
+
+    @Test
+    public void shouldNotCacheInvalidConfig() throws Exception {
+        File configFile = folder.newFile("gateway-config.xml");
+        Files.write(configFile.toPath(), String.format(CONFIG, "echo").replace("<name>echo</name>", "")
+                .getBytes(UTF_8));
+
+        try {
+            new GatewayConfigParser(configuration, cacheDir).parse(configFile);
+        } catch (GatewayConfigParserException e) {
+            // expected
+        }
+
+        assertTrue(!cacheDir.isDirectory() || cacheEntries() == 0);
+    }
+
+    private File writeConfig(String serviceName) throws IOException {
+        File configFile = new File(folder.getRoot(), "gateway-config.xml");
+        Files.write(configFile.toPath(), String.format(CONFIG, serviceName).getBytes(UTF_8));
+        return configFile;
+    }
+
+    private int cacheEntries() {
+        return cacheDir.list((dir, name) -> name.endsWith(".kgc")).length;
+    }
+
+}
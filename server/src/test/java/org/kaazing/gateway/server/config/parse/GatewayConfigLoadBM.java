@@ -0,0 +1,114 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.server.config.parse;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.kaazing.gateway.server.config.june2016.GatewayConfigDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the time to load a gateway config file by parsing, translating and validating it with the time to load its
+ * compiled form from the config cache, for small and large configurations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GatewayConfigLoadBM {
+
+    @Param({"10", "1000"})
+    public int services;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private File directory;
+    private File configFile;
+    private GatewayConfigParser parser;
+
+    @Setup
+    public void init() throws Exception {
+        directory = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+
+        // the 2014/09 namespace, so that the full load includes the translation pipeline
+        StringBuilder config = new StringBuilder("<gateway-config xmlns=\"http://xmlns.kaazing.org/2014/09/gateway\">\n");
+        for (int i = 0; i < services; i++) {
+            config.append("  <service>\n")
+                  .append("    <name>echo").append(i).append("</name>\n")
+                  .append("    <accept>ws://localhost:8001/echo").append(i).append("</accept>\n")
+                  .append("    <type>echo</type>\n")
+                  .append("    <cross-site-constraint>\n")
+                  .append("      <allow-origin>http://localhost:8000</allow-origin>\n")
+                  .append("    </cross-site-constraint>\n")
+                  .append("  </service>\n");
+        }
+        config.append("</gateway-config>\n");
+
+        configFile = new File(directory, "gateway-config.xml");
+        Files.write(configFile.toPath(), config.toString().getBytes(UTF_8));
+
+        parser = new GatewayConfigParser(new Properties(), cached ? new File(directory, "config-cache") : null);
+        parser.parse(configFile);
+    }
+
+    @TearDown
+    public void destroy() throws Exception {
+        Files.walk(directory.toPath()).sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+    }
+
+    @Benchmark
+    public GatewayConfigDocument load() throws Exception {
+        return parser.parse(configFile);
+    }
+
+    // Or from command line:
+    //
+    // mvn clean install
+    // java -jar target/benchmarks.jar GatewayConfigLoadBM
+    //
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(GatewayConfigLoadBM.class.getSimpleName())
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
@@ -84,6 +84,12 @@ public class ConnectOptionsTest {
         //expectSuccess("ws.inactivity.timeout", "60000ms", "ws.inactivityTimeout", 60000L, "http[http/1.1].keepAliveTimeout", 60);
     }
 
+    @Test
+    public void testWsMaskingStrategy() throws Exception {
+        expectSuccess("ws.masking.strategy", "fast", "ws.maskingStrategy", "fast");
+        expectSuccess("ws.masking.strategy", " secure ", "ws.maskingStrategy", "secure");
+    }
+
     @Test @Ignore
     public void testSslTransportOption() throws Exception {
         expectSuccess("ssl.transport", "tcp://127.0.0.1:443", TransportOptionNames.SSL_TRANSPORT, URI
@@ -15,16 +15,23 @@
  */
 package org.kaazing.gateway.server.context.resolve;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.kaazing.gateway.util.InternalSystemProperty.CLUSTER_STANDALONE_TOPIC_ASYNC_DELIVERY;
 
 import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.locks.Lock;
 
 import org.junit.Test;
 import org.kaazing.gateway.service.cluster.MemberId;
 
+import com.hazelcast.core.ITopic;
+
 public class StandaloneClusterContextTest {
 
     private static final MemberId STANDALONE_CLUSTER_MEMBER = new MemberId("tcp", "standalone", 0);
@@ -78,4 +85,22 @@ public class StandaloneClusterContextTest {
     public void shouldTestCollectionsFactoryIsNotNull() {
         assertNotNull(STANDALONE_CLUESTER_CONTEXT.getCollectionsFactory());
     }
+
+    @Test
+    public void shouldDeliverTopicMessagesOnDedicatedThreadWhenConfigured() throws Exception {
+        Properties configuration = new Properties();
+        configuration.setProperty(CLUSTER_STANDALONE_TOPIC_ASYNC_DELIVERY.getPropertyName(), "true");
+        StandaloneClusterContext context = new StandaloneClusterContext(configuration);
+        try {
+            ITopic<String> topic = context.getTopic("testTopic");
+            BlockingQueue<String> deliveryThreads = new LinkedBlockingQueue<>();
+            topic.addMessageListener(message -> deliveryThreads.add(Thread.currentThread().getName()));
+
+            topic.publish("message");
+
+            assertEquals("standalone-topic-delivery", deliveryThreads.poll(5, SECONDS));
+        } finally {
+            context.dispose();
+        }
+    }
 }
@@ -0,0 +1,385 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.service.broadcast;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.kaazing.gateway.service.broadcast.BroadcastService.BackpressurePolicy.CONFLATE;
+import static org.kaazing.mina.core.buffer.SimpleBufferAllocator.BUFFER_ALLOCATOR;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.session.AttributeKey;
+import org.apache.mina.core.session.IoSession;
+import org.kaazing.gateway.service.broadcast.BroadcastService.BackpressurePolicy;
+import org.kaazing.gateway.transport.BridgeSession;
+import org.kaazing.gateway.transport.io.IoMessage;
+import org.slf4j.Logger;
+
+/**
+ * Applies the broadcast service backpressure policy to clients whose scheduled write bytes exceed the
+ * configured maximum, and optionally suspends reading from the upstream connect session while most
+ * clients are saturated. Every decision is counted so it can be reported.
+ */
+public final class BroadcastBackpressure {
+
+    private static final AttributeKey CONFLATION_BUFFER_KEY = new AttributeKey(BroadcastBackpressure.class, "conflation");
+    private static final Object SHARED_CONFLATION_KEY = new Object();
+    private static final long RESUME_CHECK_INTERVAL = 100L;
+
+    private final BackpressurePolicy policy;
+    private final long maximumScheduledWriteBytes;
+    private final double suspendRatio;
+    private final int conflationDelimiter;
+    private final int maximumConflationKeys;
+    private final ScheduledExecutorService scheduler;
+    private final Logger logger;
+
+    private final AtomicReference<IoSession> suspendedUpstream;
+    private final AtomicLong disconnectedClients;
+    private final AtomicLong skippedMessages;
+    private final AtomicLong conflatedMessages;
+    private final AtomicLong evictedMessages;
+    private final AtomicLong flushedMessages;
+    private final AtomicLong upstreamSuspensions;
+    private final AtomicLong upstreamResumptions;
+
+    BroadcastBackpressure(BackpressurePolicy policy, long maximumScheduledWriteBytes, double suspendRatio,
+            int conflationDelimiter, int maximumConflationKeys, ScheduledExecutorService scheduler, Logger logger) {
+        this.policy = policy;
+        this.maximumScheduledWriteBytes = maximumScheduledWriteBytes;
+        this.suspendRatio = suspendRatio;
+        this.conflationDelimiter = conflationDelimiter;
+        this.maximumConflationKeys = maximumConflationKeys;
+        this.scheduler = scheduler;
+        this.logger = logger;
+        this.suspendedUpstream = new AtomicReference<>();
+        this.disconnectedClients = new AtomicLong();
+        this.skippedMessages = new AtomicLong();
+        this.conflatedMessages = new AtomicLong();
+        this.evictedMessages = new AtomicLong();
+        this.flushedMessages = new AtomicLong();
+        this.upstreamSuspensions = new AtomicLong();
+        this.upstreamResumptions = new AtomicLong();
+    }
+
+    public BackpressurePolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return the number of clients closed because they exceeded the maximum scheduled write bytes
+     */
+    public long getDisconnectedClientCount() {
+        return disconnectedClients.get();
+    }
+
+    /**
+     * @return the number of messages not written to saturated clients
+     */
+    public long getSkippedMessageCount() {
+        return skippedMessages.get();
+    }
+
+    /**
+     * @return the number of buffered messages replaced by a later message with the same conflation key
+     */
+    public long getConflatedMessageCount() {
+        return conflatedMessages.get();
+    }
+
+    /**
+     * @return the number of buffered messages dropped, oldest first, because a conflation buffer was full
+     */
+    public long getEvictedMessageCount() {
+        return evictedMessages.get();
+    }
+
+    /**
+     * @return the number of buffered messages written once their client was no longer saturated
+     */
+    public long getFlushedMessageCount() {
+        return flushedMessages.get();
+    }
+
+    public long getUpstreamSuspensionCount() {
+        return upstreamSuspensions.get();
+    }
+
+    public long getUpstreamResumptionCount() {
+        return upstreamResumptions.get();
+    }
+
+    public boolean isUpstreamSuspended() {
+        return suspendedUpstream.get() != null;
+    }
+
+    Broadcast newBroadcast(Object message) {
+        return new Broadcast(message);
+    }
+
+    /**
+     * Suspends reading from the upstream session when the ratio of saturated clients in the completed
+     * broadcast reached the configured suspend ratio. Reading is resumed by a periodic check once enough
+     * clients have drained.
+     */
+    void broadcastComplete(IoSession upstream, Broadcast broadcast, Collection<IoSession> clients) {
+        if (suspendRatio > 0 && isSaturated(broadcast.saturatedClients, broadcast.clients)
+                && suspendedUpstream.compareAndSet(null, upstream)) {
+            upstreamSuspensions.incrementAndGet();
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("Suspending reads on %s because %d of %d clients are saturated",
+                        upstream, broadcast.saturatedClients, broadcast.clients));
+            }
+            upstream.suspendRead();
+            scheduleResumeCheck(clients);
+        }
+    }
+
+    /**
+     * Writes buffered conflated messages once the client is no longer saturated.
+     */
+    void messageSent(IoSession client) {
+        if (policy == CONFLATE) {
+            ConflationBuffer buffer = (ConflationBuffer) client.getAttribute(CONFLATION_BUFFER_KEY);
+            if (buffer != null && !client.isClosing() && !isSaturated(getScheduledWriteBytes(client))) {
+                synchronized (buffer) {
+                    buffer.flush(client);
+                }
+            }
+        }
+    }
+
+    long getScheduledWriteBytes(IoSession client) {
+        IoSession session = client;
+        while (session instanceof BridgeSession) {
+            IoSession parent = ((BridgeSession)session).getParent();
+            if (parent == null) { // parent can occasionally be null (e.g. on a WsebSession from Flash client)
+                if (logger.isDebugEnabled()) {
+                    logger.debug(String.format("Null parent on session %s, ancestor of client session %s", session, client));
+                }
+                break;
+            }
+            session = parent;
+        }
+        return session.getScheduledWriteBytes();
+    }
+
+    private boolean isSaturated(long scheduledWriteBytes) {
+        return scheduledWriteBytes > maximumScheduledWriteBytes;
+    }
+
+    private boolean isSaturated(int saturatedClients, int clients) {
+        return clients > 0 && saturatedClients >= suspendRatio * clients;
+    }
+
+    private void scheduleResumeCheck(final Collection<IoSession> clients) {
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                IoSession upstream = suspendedUpstream.get();
+                if (upstream == null) {
+                    return;
+                }
+
+                int saturatedClients = 0;
+                int activeClients = 0;
+                for (IoSession client : clients) {
+                    if (!client.isClosing()) {
+                        activeClients++;
+                        if (isSaturated(getScheduledWriteBytes(client))) {
+                            saturatedClients++;
+                        }
+                    }
+                }
+
+                if (!upstream.isClosing() && isSaturated(saturatedClients, activeClients)) {
+                    scheduler.schedule(this, RESUME_CHECK_INTERVAL, MILLISECONDS);
+                }
+                else if (suspendedUpstream.compareAndSet(upstream, null)) {
+                    upstreamResumptions.incrementAndGet();
+                    if (logger.isDebugEnabled()) {
+                        logger.debug(String.format("Resuming reads on %s because %d of %d clients are saturated",
+                                upstream, saturatedClients, activeClients));
+                    }
+                    upstream.resumeRead();
+                }
+            }
+        }, RESUME_CHECK_INTERVAL, MILLISECONDS);
+    }
+
+    /**
+     * A single upstream message being written to every client.  The conflation key and the retained copy
+     * of the message are computed at most once, and only if some client needs them.
+     */
+    final class Broadcast {
+
+        private final Object message;
+        private Object conflationKey;
+        private Object conflationMessage;
+        private int clients;
+        private int saturatedClients;
+
+        private Broadcast(Object message) {
+            this.message = message;
+        }
+
+        void write(IoSession client) {
+            long scheduledWriteBytes = getScheduledWriteBytes(client);
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("BroadcastListenHandler: session %d: scheduledWriteBytes = %d", client.getId(), scheduledWriteBytes));
+            }
+
+            clients++;
+            if (isSaturated(scheduledWriteBytes)) {
+                saturatedClients++;
+                switch (policy) {
+                case SKIP:
+                    skippedMessages.incrementAndGet();
+                    break;
+                case CONFLATE:
+                    conflate(client);
+                    break;
+                default:
+                    disconnect(client, scheduledWriteBytes);
+                    break;
+                }
+            }
+            else {
+                ConflationBuffer buffer = (policy == CONFLATE) ? (ConflationBuffer) client.getAttribute(CONFLATION_BUFFER_KEY) : null;
+                if (buffer != null) {
+                    synchronized (buffer) {
+                        buffer.flush(client);
+                        client.write(message);
+                    }
+                }
+                else {
+                    client.write(message);
+                }
+            }
+        }
+
+        private void disconnect(IoSession client, long scheduledWriteBytes) {
+            if (logger.isInfoEnabled()) {
+                String logMessage = String.format("Closing client session %s because scheduled write bytes %d exceeds the configured limit of %d",
+                        client, scheduledWriteBytes, maximumScheduledWriteBytes);
+                logger.info(logMessage);
+            }
+            disconnectedClients.incrementAndGet();
+            client.close(true);
+            // BroadcastServiceHandler.sessionClosed(IoSession) will take care of removing client from clients
+        }
+
+        private void conflate(IoSession client) {
+            if (conflationMessage == null) {
+                conflationKey = getConflationKey(message);
+                conflationMessage = copy(message);
+            }
+
+            ConflationBuffer buffer = (ConflationBuffer) client.getAttribute(CONFLATION_BUFFER_KEY);
+            if (buffer == null) {
+                ConflationBuffer newBuffer = new ConflationBuffer();
+                buffer = (ConflationBuffer) client.setAttributeIfAbsent(CONFLATION_BUFFER_KEY, newBuffer);
+                if (buffer == null) {
+                    buffer = newBuffer;
+                }
+            }
+
+            synchronized (buffer) {
+                buffer.offer(conflationKey, conflationMessage);
+            }
+        }
+
+        private Object getConflationKey(Object message) {
+            ByteBuffer buf = getByteBuffer(message);
+            if (buf != null && conflationDelimiter >= 0) {
+                for (int i = buf.position(); i < buf.limit(); i++) {
+                    if (buf.get(i) == conflationDelimiter) {
+                        ByteBuffer key = buf.duplicate();
+                        key.limit(i);
+                        return copyOf(key);
+                    }
+                }
+            }
+            return SHARED_CONFLATION_KEY;
+        }
+
+        // the upstream buffer may be reused once messageReceived returns, so retain a copy
+        private Object copy(Object message) {
+            if (message instanceof IoMessage) {
+                return new IoMessage(BUFFER_ALLOCATOR.wrap(copyOf(((IoMessage) message).getBuffer().buf())));
+            }
+            else if (message instanceof IoBuffer) {
+                return BUFFER_ALLOCATOR.wrap(copyOf(((IoBuffer) message).buf()));
+            }
+            return message;
+        }
+
+        private ByteBuffer getByteBuffer(Object message) {
+            if (message instanceof IoMessage) {
+                return ((IoMessage) message).getBuffer().buf();
+            }
+            else if (message instanceof IoBuffer) {
+                return ((IoBuffer) message).buf();
+            }
+            return null;
+        }
+
+        private ByteBuffer copyOf(ByteBuffer buf) {
+            ByteBuffer copy = ByteBuffer.allocate(buf.remaining());
+            copy.put(buf.duplicate());
+            copy.flip();
+            return copy;
+        }
+    }
+
+    /**
+     * Latest message per conflation key for a saturated client, in order of last update.  Callers must
+     * synchronize on the buffer.
+     */
+    private final class ConflationBuffer {
+
+        private final Map<Object, Object> messages = new LinkedHashMap<>();
+
+        void offer(Object key, Object message) {
+            if (messages.remove(key) != null) {
+                conflatedMessages.incrementAndGet();
+            }
+            else if (messages.size() >= maximumConflationKeys) {
+                Iterator<Object> oldest = messages.values().iterator();
+                oldest.next();
+                oldest.remove();
+                evictedMessages.incrementAndGet();
+            }
+            messages.put(key, message);
+        }
+
+        void flush(IoSession client) {
+            for (Object message : messages.values()) {
+                client.write(message);
+            }
+            flushedMessages.addAndGet(messages.size());
+            messages.clear();
+        }
+    }
+}
@@ -23,7 +23,7 @@ import org.apache.mina.core.service.IoHandlerAdapter;
 import org.apache.mina.core.session.IoSession;
 import org.slf4j.Logger;
 
-import org.kaazing.gateway.transport.BridgeSession;
+import org.kaazing.gateway.service.broadcast.BroadcastBackpressure.Broadcast;
 import org.kaazing.gateway.transport.LoggingUtils;
 import org.kaazing.gateway.transport.bridge.Message;
 import org.kaazing.gateway.transport.io.filter.IoMessageCodecFilter;
@@ -33,15 +33,15 @@ public class BroadcastListenHandler extends IoHandlerAdapter {
     private final Collection<IoSession> clients;
     private final IoMessageCodecFilter codec;
     private final boolean disconnectClientsOnReconnect;
-    private final long maximumScheduledWriteBytes;
+    private final BroadcastBackpressure backpressure;
     private final Logger logger;
 
-	public BroadcastListenHandler(Collection<IoSession> clients, boolean disconnectClientsOnReconnect, long maximumScheduledWriteBytes, Logger logger) {
+	public BroadcastListenHandler(Collection<IoSession> clients, boolean disconnectClientsOnReconnect, BroadcastBackpressure backpressure, Logger logger) {
 		this.clients = clients;
 		this.codec = new IoMessageCodecFilter();
 		this.disconnectClientsOnReconnect = disconnectClientsOnReconnect;
 		this.logger = logger;
-		this.maximumScheduledWriteBytes = maximumScheduledWriteBytes;
+		this.backpressure = backpressure;
 	}
 
 	@Override
@@ -64,9 +64,7 @@ public class BroadcastListenHandler extends IoHandlerAdapter {
 	public void messageReceived(IoSession session, Object message) throws Exception {
         if (message instanceof IoBuffer) {
 			IoBuffer buf = (IoBuffer) message;
-			for (IoSession client : clients) {
-			    writeOrClose(client, buf);
-			}
+			broadcast(session, buf);
 			buf.skip(buf.remaining());
 		}
 		else {
@@ -74,9 +72,7 @@ public class BroadcastListenHandler extends IoHandlerAdapter {
 	            ((Message)message).initCache();
 	        }
 
-			for (IoSession client : clients) {
-			    writeOrClose(client, message);
-			}
+			broadcast(session, message);
 		}
 	}
 
@@ -85,41 +81,14 @@ public class BroadcastListenHandler extends IoHandlerAdapter {
         LoggingUtils.log(session, logger, cause);
     }
 
-    private void writeOrClose(IoSession client, Object message) {
-        long scheduledWriteBytes = getScheduledWriteBytes(client);
-        if (logger.isDebugEnabled()) {
-            logger.debug(String.format("BroadcastListenHandler: session %d: scheduledWriteBytes = %d", client.getId(), scheduledWriteBytes));
-        }
-
-        if (!client.isClosing()) {
-            if (scheduledWriteBytes > maximumScheduledWriteBytes) {
-                if (logger.isInfoEnabled()) {
-                    String logMessage = String.format("Closing client session %s because scheduled write bytes %d exceeds the configured limit of %d",
-                            client, scheduledWriteBytes, maximumScheduledWriteBytes);
-                    logger.info(logMessage);
-                }
-                client.close(true);
-                // BroadcastServiceHandler.sessionClosed(IoSession) will take care of removing client from clients
-            }
-            else {
-                client.write(message);
-            }
-        }
-    }
-
-    private long getScheduledWriteBytes(IoSession client) {
-        IoSession session = client;
-        while (session instanceof BridgeSession) {
-            IoSession parent = ((BridgeSession)session).getParent();
-            if (parent == null) { // parent can occasionally be null (e.g. on a WsebSession from Flash client)
-                if (logger.isDebugEnabled()) {
-                    logger.debug(String.format("Null parent on session %s, ancestor of client session %s", session, client));
-                }
-                break;
+    private void broadcast(IoSession session, Object message) {
+        Broadcast broadcast = backpressure.newBroadcast(message);
+        for (IoSession client : clients) {
+            if (!client.isClosing()) {
+                broadcast.write(client);
             }
-            session = parent;
         }
-        return session.getScheduledWriteBytes();
+        backpressure.broadcastComplete(session, broadcast, clients);
     }
 
 }
@@ -55,6 +55,12 @@ public class BroadcastService implements Service {
     private static final String ON_CLIENT_MESSAGE = "on.client.message";
     // FIXME: end of remove me
 
+    private static final String BACKPRESSURE_POLICY = "backpressure.policy";
+    private static final String BACKPRESSURE_SUSPEND_RATIO = "backpressure.suspend.ratio";
+    private static final String BACKPRESSURE_CONFLATION_DELIMITER = "backpressure.conflation.delimiter";
+    private static final String BACKPRESSURE_CONFLATION_MAXIMUM_KEYS = "backpressure.conflation.maximum.keys";
+    private static final int DEFAULT_CONFLATION_MAXIMUM_KEYS = 1024;
+
     private ScheduledExecutorService scheduler;
     private final AtomicBoolean reconnect;
     private BroadcastServiceHandler handler;
@@ -106,11 +112,12 @@ public class BroadcastService implements Service {
             gatewayLogger.info(String.format("Broadcast service: limiting maximum scheduled write bytes to %d",
                     maximumScheduledWriteBytes));
         }
-        this.handler = new BroadcastServiceHandler(disconnectClientsOnReconnect, maximumScheduledWriteBytes,
+        ServiceProperties properties = serviceContext.getProperties();
+        BroadcastBackpressure backpressure = newBackpressure(properties, maximumScheduledWriteBytes, serviceContext.getLogger());
+        this.handler = new BroadcastServiceHandler(disconnectClientsOnReconnect, backpressure,
                 onClientMessage, serviceContext.getLogger());
 
         Collection<String> connectURIs = serviceContext.getConnects();
-        ServiceProperties properties = serviceContext.getProperties();
         String reconnectDelay = properties.get("reconnect.delay");
         if ((connectURIs == null || connectURIs.isEmpty())) {
             throw new IllegalArgumentException("Missing required connect");
@@ -120,6 +127,42 @@ public class BroadcastService implements Service {
         this.reconnectDelay = (reconnectDelay != null) ? Integer.parseInt(reconnectDelay) : 3000;
     }
 
+    /**
+     * @return the backpressure policy state and decision counts, or null before the service is initialized
+     */
+    public BroadcastBackpressure getBackpressure() {
+        return (handler != null) ? handler.getBackpressure() : null;
+    }
+
+    private BroadcastBackpressure newBackpressure(ServiceProperties properties, long maximumScheduledWriteBytes,
+            Logger serviceLogger) throws Exception {
+        BackpressurePolicy policy = BackpressurePolicy.fromString(properties.get(BACKPRESSURE_POLICY));
+
+        String suspendRatioValue = properties.get(BACKPRESSURE_SUSPEND_RATIO);
+        double suspendRatio = (suspendRatioValue != null) ? Double.parseDouble(suspendRatioValue) : 0;
+        if (suspendRatio < 0 || suspendRatio > 1) {
+            throw new IllegalArgumentException(String.format("%s must be between 0 and 1, got %s",
+                    BACKPRESSURE_SUSPEND_RATIO, suspendRatioValue));
+        }
+
+        String delimiter = properties.get(BACKPRESSURE_CONFLATION_DELIMITER);
+        if (delimiter != null && (delimiter.length() != 1 || delimiter.charAt(0) > 0x7f)) {
+            throw new IllegalArgumentException(String.format("%s must be a single ASCII character, got \"%s\"",
+                    BACKPRESSURE_CONFLATION_DELIMITER, delimiter));
+        }
+        int conflationDelimiter = (delimiter != null) ? delimiter.charAt(0) : -1;
+
+        int maximumConflationKeys = (int) parsePositiveInteger(BACKPRESSURE_CONFLATION_MAXIMUM_KEYS,
+                properties.get(BACKPRESSURE_CONFLATION_MAXIMUM_KEYS), DEFAULT_CONFLATION_MAXIMUM_KEYS);
+
+        if (policy != BackpressurePolicy.DISCONNECT || suspendRatio > 0) {
+            gatewayLogger.info(String.format("Broadcast service: backpressure policy %s, upstream suspend ratio %s",
+                    policy, suspendRatio));
+        }
+        return new BroadcastBackpressure(policy, maximumScheduledWriteBytes, suspendRatio, conflationDelimiter,
+                maximumConflationKeys, scheduler, serviceLogger);
+    }
+
     @Override
     public void start() throws Exception {
         reconnect.set(true);
@@ -229,4 +272,34 @@ public class BroadcastService implements Service {
             throw new Exception(String.format("%s type not valid Enum type for %s", str, OnClientMessage.class));
         }
     }
+
+    /**
+     * What to do with a broadcast message for a client whose scheduled write bytes exceed the maximum.
+     */
+    public enum BackpressurePolicy {
+        // close the client session
+        DISCONNECT("disconnect"),
+        // drop the message for that client, it catches up with later messages
+        SKIP("skip"),
+        // keep only the latest message per conflation key until the client drains, dropping the oldest key when full
+        CONFLATE("conflate");
+
+        private final String type;
+
+        BackpressurePolicy(String type) {
+            this.type = type;
+        }
+
+        static BackpressurePolicy fromString(String str) throws Exception {
+            if (str == null) {
+                return BackpressurePolicy.DISCONNECT;
+            }
+            for (BackpressurePolicy e : BackpressurePolicy.values()) {
+                if (e.type.equalsIgnoreCase(str)) {
+                    return e;
+                }
+            }
+            throw new Exception(String.format("%s type not valid Enum type for %s", str, BackpressurePolicy.class));
+        }
+    }
 }
@@ -35,17 +35,19 @@ class BroadcastServiceHandler extends IoHandlerAdapter {
 
     private final IoFilter codec;
     private final Collection<IoSession> clients;
+    private final BroadcastBackpressure backpressure;
     private final IoHandler handler;
     private final Logger logger;
     private IoSession connectSession;
     private final OnClientMessage onClientMessage;
 
-    BroadcastServiceHandler(boolean disconnectClientsOnReconnect, long maximumScheduledWriteBytes, OnClientMessage onClientMessage, Logger logger)
+    BroadcastServiceHandler(boolean disconnectClientsOnReconnect, BroadcastBackpressure backpressure, OnClientMessage onClientMessage, Logger logger)
             throws Exception {
         this.onClientMessage = onClientMessage;
         this.clients = new ConcurrentHashSet<>();
+        this.backpressure = backpressure;
         this.handler = new BroadcastListenHandler(Collections.unmodifiableCollection(clients),
-                disconnectClientsOnReconnect, maximumScheduledWriteBytes, logger);
+                disconnectClientsOnReconnect, backpressure, logger);
         this.codec = new IoMessageCodecFilter();
         this.logger = logger;
     }
@@ -62,6 +64,10 @@ class BroadcastServiceHandler extends IoHandlerAdapter {
         return handler;
     }
 
+    BroadcastBackpressure getBackpressure() {
+        return backpressure;
+    }
+
     @Override
     public void messageReceived(IoSession session, Object message) throws Exception {
         if (onClientMessage == BROADCAST) {
@@ -69,6 +75,11 @@ class BroadcastServiceHandler extends IoHandlerAdapter {
         }
     }
 
+    @Override
+    public void messageSent(IoSession session, Object message) throws Exception {
+        backpressure.messageSent(session);
+    }
+
     @Override
     public void exceptionCaught(IoSession session, Throwable cause)
             throws Exception {
@@ -0,0 +1,275 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.service.broadcast;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.kaazing.gateway.service.broadcast.BroadcastService.BackpressurePolicy.CONFLATE;
+import static org.kaazing.gateway.service.broadcast.BroadcastService.BackpressurePolicy.DISCONNECT;
+import static org.kaazing.gateway.service.broadcast.BroadcastService.BackpressurePolicy.SKIP;
+import static org.kaazing.mina.core.buffer.SimpleBufferAllocator.BUFFER_ALLOCATOR;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.session.IoSession;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.api.Invocation;
+import org.jmock.lib.action.CustomAction;
+import org.jmock.lib.concurrent.Synchroniser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaazing.gateway.service.broadcast.BroadcastBackpressure.Broadcast;
+import org.kaazing.gateway.service.broadcast.BroadcastService.BackpressurePolicy;
+import org.kaazing.gateway.transport.io.IoMessage;
+import org.kaazing.mina.core.buffer.IoBufferEx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class BroadcastBackpressureTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BroadcastBackpressureTest.class);
+    private static final long MAXIMUM_SCHEDULED_WRITE_BYTES = 100;
+
+    private final Mockery context = new Mockery();
+    private ScheduledExecutorService scheduler;
+
+    @Before
+    public void setUp() {
+        context.setThreadingPolicy(new Synchroniser());
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void shouldSkipMessagesForSaturatedClients() throws Exception {
+        BroadcastBackpressure backpressure = newBackpressure(SKIP, 0);
+        TestClient fast = new TestClient("fast");
+        TestClient slow = new TestClient("slow");
+        slow.scheduledWriteBytes.set(MAXIMUM_SCHEDULED_WRITE_BYTES + 1);
+
+        broadcast(backpressure, "a", fast, slow);
+        broadcast(backpressure, "b", fast, slow);
+
+        assertEquals(asList("a", "b"), fast.written);
+        assertEquals(asList(), slow.written);
+        assertEquals(2, backpressure.getSkippedMessageCount());
+        assertFalse(slow.closed);
+    }
+
+    @Test
+    public void shouldDisconnectSaturatedClients() throws Exception {
+        BroadcastBackpressure backpressure = newBackpressure(DISCONNECT, 0);
+        TestClient slow = new TestClient("slow");
+        slow.scheduledWriteBytes.set(MAXIMUM_SCHEDULED_WRITE_BYTES + 1);
+
+        broadcast(backpressure, "a", slow);
+
+        assertTrue(slow.closed);
+        assertEquals(asList(), slow.written);
+        assertEquals(1, backpressure.getDisconnectedClientCount());
+    }
+
+    @Test
+    public void shouldConflateLatestMessagePerKeyUntilClientDrains() throws Exception {
+        BroadcastBackpressure backpressure = newBackpressure(CONFLATE, 0);
+        TestClient slow = new TestClient("slow");
+        slow.scheduledWriteBytes.set(MAXIMUM_SCHEDULED_WRITE_BYTES + 1);
+
+        broadcast(backpressure, "a|1", slow);
+        broadcast(backpressure, "b|1", slow);
+        broadcast(backpressure, "a|2", slow);
+        backpressure.messageSent(slow.session);
+        assertEquals(asList(), slow.written);
+
+        slow.scheduledWriteBytes.set(0);
+        backpressure.messageSent(slow.session);
+        broadcast(backpressure, "c|1", slow);
+
+        assertEquals(asList("b|1", "a|2", "c|1"), slow.written);
+        assertEquals(1, backpressure.getConflatedMessageCount());
+        assertEquals(2, backpressure.getFlushedMessageCount());
+        assertEquals(0, backpressure.getEvictedMessageCount());
+    }
+
+    @Test
+    public void shouldConflateRawBuffersAsBridgeCompatibleBuffers() throws Exception {
+        BroadcastBackpressure backpressure = newBackpressure(CONFLATE, 0);
+        TestClient slow = new TestClient("slow");
+        slow.scheduledWriteBytes.set(MAXIMUM_SCHEDULED_WRITE_BYTES + 1);
+        IoSession upstream = context.mock(IoSession.class, "upstream");
+
+        Broadcast broadcast = backpressure.newBroadcast(IoBuffer.wrap("a|1".getBytes(UTF_8)));
+        broadcast.write(slow.session);
+        backpressure.broadcastComplete(upstream, broadcast, asList(slow.session));
+
+        slow.scheduledWriteBytes.set(0);
+        backpressure.messageSent(slow.session);
+
+        assertEquals(asList("a|1"), slow.written);
+    }
+
+    @Test
+    public void shouldEvictOldestConflatedKeyWhenFull() throws Exception {
+        BroadcastBackpressure backpressure = newBackpressure(CONFLATE, 0);
+        TestClient slow = new TestClient("slow");
+        slow.scheduledWriteBytes.set(MAXIMUM_SCHEDULED_WRITE_BYTES + 1);
+
+        broadcast(backpressure, "a|1", slow);
+        broadcast(backpressure, "b|1", slow);
+        broadcast(backpressure, "c|1", slow);
+
+        slow.scheduledWriteBytes.set(0);
+        broadcast(backpressure, "d|1", slow);
+
+        assertEquals(asList("b|1", "c|1", "d|1"), slow.written);
+        assertEquals(1, backpressure.getEvictedMessageCount());
+    }
+
+    @Test
+    public void shouldSuspendUpstreamWhileMostClientsAreSaturated() throws Exception {
+        BroadcastBackpressure backpressure = newBackpressure(SKIP, 0.5);
+        TestClient fast = new TestClient("fast");
+        TestClient slow = new TestClient("slow");
+        final IoSession upstream = context.mock(IoSession.class, "upstream");
+
+        context.checking(new Expectations() {
+            {
+                allowing(upstream).isClosing();
+                will(returnValue(false));
+                oneOf(upstream).suspendRead();
+                oneOf(upstream).resumeRead();
+            }
+        });
+
+        List<IoSession> clients = asList(fast.session, slow.session);
+        broadcast(backpressure, upstream, clients, "a");
+        assertFalse(backpressure.isUpstreamSuspended());
+
+        slow.scheduledWriteBytes.set(MAXIMUM_SCHEDULED_WRITE_BYTES + 1);
+        broadcast(backpressure, upstream, clients, "b");
+        assertTrue(backpressure.isUpstreamSuspended());
+        assertEquals(1, backpressure.getUpstreamSuspensionCount());
+
+        slow.scheduledWriteBytes.set(0);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (backpressure.isUpstreamSuspended() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertFalse(backpressure.isUpstreamSuspended());
+        assertEquals(1, backpressure.getUpstreamResumptionCount());
+        context.assertIsSatisfied();
+    }
+
+    private BroadcastBackpressure newBackpressure(BackpressurePolicy policy, double suspendRatio) {
+        return new BroadcastBackpressure(policy, MAXIMUM_SCHEDULED_WRITE_BYTES, suspendRatio, '|', 2, scheduler, LOGGER);
+    }
+
+    private void broadcast(BroadcastBackpressure backpressure, String text, TestClient... clients) {
+        List<IoSession> sessions = new ArrayList<>();
+        for (TestClient client : clients) {
+            sessions.add(client.session);
+        }
+        final IoSession upstream = context.mock(IoSession.class, "upstream-" + text);
+        broadcast(backpressure, upstream, sessions, text);
+    }
+
+    private void broadcast(BroadcastBackpressure backpressure, IoSession upstream, Collection<IoSession> clients,
+            String text) {
+        Broadcast broadcast = backpressure.newBroadcast(new IoMessage(BUFFER_ALLOCATOR.wrap(ByteBuffer.wrap(text.getBytes(UTF_8)))));
+        for (IoSession client : clients) {
+            broadcast.write(client);
+        }
+        backpressure.broadcastComplete(upstream, broadcast, clients);
+    }
+
+    private final class TestClient {
+        final AtomicLong scheduledWriteBytes = new AtomicLong();
+        final List<String> written = new ArrayList<>();
+        final Map<Object, Object> attributes = new HashMap<>();
+        final IoSession session;
+        volatile boolean closed;
+
+        TestClient(String name) {
+            session = context.mock(IoSession.class, name);
+            context.checking(new Expectations() {
+                {
+                    allowing(session).getId();
+                    will(returnValue(0L));
+                    allowing(session).isClosing();
+                    will(returnValue(false));
+                    allowing(session).getScheduledWriteBytes();
+                    will(new CustomAction("get scheduled write bytes") {
+                        @Override
+                        public Object invoke(Invocation invocation) throws Throwable {
+                            return scheduledWriteBytes.get();
+                        }
+                    });
+                    allowing(session).getAttribute(with(any(Object.class)));
+                    will(new CustomAction("get attribute") {
+                        @Override
+                        public Object invoke(Invocation invocation) throws Throwable {
+                            return attributes.get(invocation.getParameter(0));
+                        }
+                    });
+                    allowing(session).setAttributeIfAbsent(with(any(Object.class)), with(any(Object.class)));
+                    will(new CustomAction("set attribute if absent") {
+                        @Override
+                        public Object invoke(Invocation invocation) throws Throwable {
+                            return attributes.putIfAbsent(invocation.getParameter(0), invocation.getParameter(1));
+                        }
+                    });
+                    allowing(session).write(with(any(Object.class)));
+                    will(new CustomAction("write") {
+                        @Override
+                        public Object invoke(Invocation invocation) throws Throwable {
+                            Object message = invocation.getParameter(0);
+                            IoBufferEx buf = (message instanceof IoMessage) ? ((IoMessage) message).getBuffer() : (IoBufferEx) message;
+                            written.add(UTF_8.decode(buf.buf().duplicate()).toString());
+                            return null;
+                        }
+                    });
+                    allowing(session).close(true);
+                    will(new CustomAction("close") {
+                        @Override
+                        public Object invoke(Invocation invocation) throws Throwable {
+                            closed = true;
+                            return null;
+                        }
+                    });
+                }
+            });
+        }
+    }
+}
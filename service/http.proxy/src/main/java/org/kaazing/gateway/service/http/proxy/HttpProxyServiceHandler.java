@@ -30,6 +30,7 @@ import static org.kaazing.gateway.transport.http.HttpHeaders.HEADER_X_FORWARDED_
 import static java.lang.String.format;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -46,6 +47,7 @@ import java.util.stream.StreamSupport;
 import org.apache.mina.core.future.CloseFuture;
 import org.apache.mina.core.future.ConnectFuture;
 import org.apache.mina.core.future.IoFutureListener;
+import org.apache.mina.core.session.AttributeKey;
 import org.apache.mina.core.session.IoSession;
 import org.apache.mina.core.session.IoSessionInitializer;
 import org.kaazing.gateway.resource.address.ResourceAddress;
@@ -85,6 +87,8 @@ class HttpProxyServiceHandler extends AbstractProxyAcceptHandler {
         set.add("rewrite-cookie-path");
         set.add("rewrite-location");
         set.add("use-forwarded");
+        // bounds the response bytes buffered for a slow client before reads are suspended on the connect session
+        set.add("maximum.pending.bytes");
         KNOWN_SIMPLE_PROPERTIES = Collections.unmodifiableSet(set);
     }
     private static final Set KNOWN_NESTED_PROPERTIES;
@@ -106,6 +110,16 @@ class HttpProxyServiceHandler extends AbstractProxyAcceptHandler {
         USE_FORWARDED_VALUES = Collections.unmodifiableSet(set);
     }
 
+    private static final Set<String> DEFAULT_HOP_BY_HOP_HEADERS;
+    static {
+        Set<String> set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        set.add(HEADER_CONNECTION);
+        DEFAULT_HOP_BY_HOP_HEADERS = Collections.unmodifiableSet(set);
+    }
+
+    private static final AttributeKey RESPONSE_HEADERS_PROCESSED_KEY = new AttributeKey(HttpProxyServiceHandler.class,
+            "responseHeadersProcessed");
+
     private String connectURI;
     private String useForwarded;
     private String serviceName;
@@ -341,6 +355,10 @@ class HttpProxyServiceHandler extends AbstractProxyAcceptHandler {
             HttpConnectSession connectSession = (HttpConnectSession) session;
             AttachedSessionManager attachedSessionManager = getAttachedSessionManager(session);
             if (attachedSessionManager != null) {
+                // response headers are only copied once per exchange, not for every chunk of a streamed response body
+                if (session.containsAttribute(RESPONSE_HEADERS_PROCESSED_KEY)) {
+                    return;
+                }
                 HttpAcceptSession acceptSession = (HttpAcceptSession) attachedSessionManager.getAttachedSession();
                 if (acceptSession.getWrittenBytes() == 0L && !acceptSession.isCommitting()
                         && !acceptSession.isClosing()) {
@@ -350,17 +368,14 @@ class HttpProxyServiceHandler extends AbstractProxyAcceptHandler {
 
                     processResponseHeaders(connectSession, acceptSession);
                 }
-
+                session.setAttribute(RESPONSE_HEADERS_PROCESSED_KEY);
             }
         }
 
         private void processResponseHeaders(HttpSession connectSession, HttpSession acceptSession) {
 
-            Set<String> hopByHopHeaders = getHopByHopHeaders(connectSession);
             boolean upgrade = connectSession.getReadHeader(HEADER_UPGRADE) != null;
-            if (upgrade) {
-                hopByHopHeaders.remove(HEADER_UPGRADE);
-            }
+            Set<String> hopByHopHeaders = getHopByHopHeaders(connectSession, upgrade);
 
             // Add processed connect session headers to accept session
             for (Map.Entry<String, List<String>> e : connectSession.getReadHeaders().entrySet()) {
@@ -369,23 +384,26 @@ class HttpProxyServiceHandler extends AbstractProxyAcceptHandler {
                 if (hopByHopHeaders.contains(name)) {
                     continue;
                 }
-                for (String value : e.getValue()) {
-                    if (name.equalsIgnoreCase(HEADER_SET_COOKIE)) {
+                List<String> values = e.getValue();
+                boolean cookie = name.equalsIgnoreCase(HEADER_SET_COOKIE) && (rewriteCookieDomain || rewriteCookiePath);
+                boolean location = rewriteLocation && name.equalsIgnoreCase(HEADER_LOCATION);
+                if (!cookie && !location && acceptSession.getWriteHeaders(name) == null) {
+                    // copy the decoded header values as they are written unchanged, the accept session may add to them
+                    acceptSession.setWriteHeaders(name, new ArrayList<>(values));
+                    continue;
+                }
+                for (String value : values) {
+                    if (cookie) {
                         if (rewriteCookieDomain) {
                             value = processCookieDomain(value, cookieDomainMap);
                         }
                         if (rewriteCookiePath) {
                             value = processCookiePath(value, cookiePathMap);
                         }
-                        acceptSession.addWriteHeader(name, value);
-                    } else if (name.equalsIgnoreCase(HEADER_LOCATION)) {
-                        if (rewriteLocation) {
-                            value = processLocationHeader(value, locationMap);
-                        }
-                        acceptSession.addWriteHeader(name, value);
-                    } else {
-                        acceptSession.addWriteHeader(name ,value);
+                    } else if (location) {
+                        value = processLocationHeader(value, locationMap);
                     }
+                    acceptSession.addWriteHeader(name, value);
                 }
             }
 
@@ -442,11 +460,8 @@ class HttpProxyServiceHandler extends AbstractProxyAcceptHandler {
      * If the header is an upgrade one, let the Upgrade header go through as this service supports upgrade
      */
     private static boolean processHopByHopHeaders(HttpSession src, HttpSession dest) {
-        Set<String> hopByHopHeaders = getHopByHopHeaders(src);
         boolean upgrade = src.getReadHeader(HEADER_UPGRADE) != null;
-        if (upgrade) {
-            hopByHopHeaders.remove(HEADER_UPGRADE);
-        }
+        Set<String> hopByHopHeaders = getHopByHopHeaders(src, upgrade);
 
         // Add source session headers to destination session
         for (Map.Entry<String, List<String>> e : src.getReadHeaders().entrySet()) {
@@ -571,18 +586,23 @@ class HttpProxyServiceHandler extends AbstractProxyAcceptHandler {
     }
 
     /*
-     * Get all hop-by-hop headers from Connection header value. Also add Connection header itself to the set
+     * Get all hop-by-hop headers from Connection header value. Also add Connection header itself to the set. The Upgrade
+     * header is left out for upgrade requests and responses as this service supports upgrade
      */
-    private static Set<String> getHopByHopHeaders(HttpSession session) {
+    private static Set<String> getHopByHopHeaders(HttpSession session, boolean upgrade) {
         List<String> connectionHeaders = session.getReadHeaders(HEADER_CONNECTION);
         if (connectionHeaders == null) {
-            connectionHeaders = Collections.emptyList();
+            // common case, avoids building a set for every request and response
+            return DEFAULT_HOP_BY_HOP_HEADERS;
         }
         Set<String> hopByHopHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
         for (String conHeader : connectionHeaders) {
             hopByHopHeaders.add(conHeader);
         }
         hopByHopHeaders.add(HEADER_CONNECTION);
+        if (upgrade) {
+            hopByHopHeaders.remove(HEADER_UPGRADE);
+        }
         return hopByHopHeaders;
     }
 
@@ -127,4 +127,27 @@ public class HttpProxyConfigTest {
         }
     }
 
+    @Test
+    public void testMaximumPendingBytesProperty() throws Exception {
+        // @formatter:off
+        GatewayConfiguration configuration =
+                new GatewayConfigurationBuilder()
+                        .property(EarlyAccessFeatures.HTTP_PROXY_SERVICE.getPropertyName(), "true")
+                        .service()
+                            .name("maximumPendingBytes")
+                            .accept("http://localhost:8110/")
+                            .connect("http://localhost:8080/")
+                            .type("http.proxy")
+                            .property("maximum.pending.bytes", "128k")
+                        .done()
+                .done();
+        // @formatter:on
+        Gateway gateway = new Gateway();
+        try {
+            gateway.start(configuration);
+        } finally {
+            gateway.stop();
+        }
+    }
+
 }
@@ -16,6 +16,7 @@
 package org.kaazing.gateway.service.proxy;
 
 import java.util.Map.Entry;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -39,7 +40,9 @@ class ConnectionPool {
     private final String connectURI;
     private final HeartbeatFilter heartbeatFilter;
     private final IoFutureListener<ConnectFuture> connectListener;
-    private final int preparedConnectionCount;
+
+    // adjusted by the ServiceConnectManager from the recent acquire rate of this pool, within the service-wide budget
+    private volatile int preparedConnectionCount;
 
     private final AtomicInteger currentPreparedConnectionCount;
     private final PreConnectFilter preConnectFilter;
@@ -47,11 +50,23 @@ class ConnectionPool {
     private final ConnectFutures connectFutures;
     private boolean active = false;
 
+    // the I/O thread owning a thread aligned pool, and its executor, null otherwise
+    private final Thread ioThread;
+    private final Executor ioExecutor;
+
+    // statistics read off the I/O thread by the ServiceConnectManager
+    private final AtomicInteger acquireCount = new AtomicInteger(0);
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+
     /**
      * hearbeatFilter the only parameter that can be null
+     * maxPreparedConnectionCount the largest prepared connection count this pool may be adjusted to
+     * ioExecutor the executor of the I/O thread creating a thread aligned pool, null if the pool is not thread aligned
      */
     ConnectionPool(ServiceContext serviceContext, AbstractProxyHandler connectHandler, String connectURI, HeartbeatFilter heartbeatFilter,
-            IoFutureListener<ConnectFuture> connectListener, int preparedConnectionCount, boolean isThreadAligned) {
+            IoFutureListener<ConnectFuture> connectListener, int preparedConnectionCount, int maxPreparedConnectionCount,
+            Executor ioExecutor) {
         this.serviceContext = serviceContext;
         this.connectHandler = connectHandler;
         this.connectURI = connectURI;
@@ -61,7 +76,9 @@ class ConnectionPool {
         preConnectFlag = new AtomicBoolean(false);
         currentPreparedConnectionCount = new AtomicInteger(0);
         preConnectFilter = new PreConnectFilter(this);
-        connectFutures = ConnectFutures.createConnectFutures(preparedConnectionCount, isThreadAligned);
+        this.ioExecutor = ioExecutor;
+        this.ioThread = (ioExecutor != null) ? Thread.currentThread() : null;
+        connectFutures = ConnectFutures.createConnectFutures(maxPreparedConnectionCount, ioExecutor != null);
     }
 
     void start() {
@@ -72,10 +89,25 @@ class ConnectionPool {
     }
 
     ConnectFuture getNextConnectFuture(final IoSessionInitializer<ConnectFuture> connectInitializer) {
+        acquireCount.incrementAndGet();
+        return acquireConnectFuture(connectInitializer);
+    }
+
+    /**
+     * Same as {@link #getNextConnectFuture(IoSessionInitializer)} for a caller off the I/O threads, the acquire is
+     * accounted for by the ServiceConnectManager rather than in the acquire count of this pool.
+     */
+    ConnectFuture getNextLentConnectFuture(final IoSessionInitializer<ConnectFuture> connectInitializer) {
+        return acquireConnectFuture(connectInitializer);
+    }
+
+    private ConnectFuture acquireConnectFuture(final IoSessionInitializer<ConnectFuture> connectInitializer) {
         ConnectFuture future = connectFutures.pollFirstEntry();
         if (future == null) {
+            missCount.incrementAndGet();
             future = doConnect(false, connectInitializer);
         } else {
+            hitCount.incrementAndGet();
             currentPreparedConnectionCount.decrementAndGet();
 
             // No longer a pre-connect, remove the pre-connect filter which is responsible for cleaning up zombie pre-connects
@@ -94,6 +126,64 @@ class ConnectionPool {
         return future;
     }
 
+    int getPreparedConnectionCount() {
+        return preparedConnectionCount;
+    }
+
+    void setPreparedConnectionCount(int preparedConnectionCount) {
+        this.preparedConnectionCount = preparedConnectionCount;
+    }
+
+    /**
+     * @return the number of prepared connections currently held or being established
+     */
+    int getCurrentPreparedConnectionCount() {
+        return currentPreparedConnectionCount.get();
+    }
+
+    /**
+     * @return the number of connections acquired from this pool since the previous call
+     */
+    int takeAcquireCount() {
+        return acquireCount.getAndSet(0);
+    }
+
+    long getHitCount() {
+        return hitCount.get();
+    }
+
+    long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Establish or close prepared connections to match the current prepared connection count.
+     * Must be called on the I/O thread owning this pool.
+     */
+    void adjustPreConnects() {
+        if (currentPreparedConnectionCount.get() < preparedConnectionCount) {
+            fillPreConnects();
+            return;
+        }
+
+        while (currentPreparedConnectionCount.get() > preparedConnectionCount) {
+            ConnectFuture future = connectFutures.pollFirstEntry();
+            if (future == null) {
+                // the rest are still connecting, they will be released when acquired or closed
+                break;
+            }
+            currentPreparedConnectionCount.decrementAndGet();
+
+            IoSession connectSession = future.getSession();
+            IoFilterChain filterChain = connectSession.getFilterChain();
+            if (filterChain.contains("PreConnectFilter")) {
+                filterChain.remove("PreConnectFilter");
+                connectSession.removeAttribute(CONNECT_FUTURE_KEY);
+            }
+            connectSession.close(true);
+        }
+    }
+
     private void fillPreConnects() {
         if (preConnectFlag.compareAndSet(false, true)) {
             if (currentPreparedConnectionCount.get() < preparedConnectionCount) {
@@ -154,26 +244,36 @@ class ConnectionPool {
         });
         future.addListener(new IoFutureListener<ConnectFuture>() {
             @Override
-            public void operationComplete(ConnectFuture future) {
-                if ( future.isConnected() ) {
-                    if (preconnected) {
-                        // Add the future as an attribute so if the connection goes down it can be removed from the map.
-                        addConnectFuture(future);
-                    }
+            public void operationComplete(final ConnectFuture future) {
+                // a connect can complete off the I/O thread, for example once its host has been resolved
+                if (ioThread != null && Thread.currentThread() != ioThread) {
+                    ioExecutor.execute(() -> connectCompleted(future, preconnected));
                 }
                 else {
-                    if (preconnected) {
-                        // The connection failed, quiesce the connect manager and decrement the connection count
-                        quiesce();
-                        decrementConnectionCount();
-                    }
+                    connectCompleted(future, preconnected);
                 }
-                connectListener.operationComplete(future);
             }
         });
         return future;
     }
 
+    private void connectCompleted(ConnectFuture future, boolean preconnected) {
+        if (future.isConnected()) {
+            if (preconnected) {
+                // Add the future as an attribute so if the connection goes down it can be removed from the map.
+                addConnectFuture(future);
+            }
+        }
+        else {
+            if (preconnected) {
+                // The connection failed, quiesce the connect manager and decrement the connection count
+                quiesce();
+                decrementConnectionCount();
+            }
+        }
+        connectListener.operationComplete(future);
+    }
+
     static class PreConnectFilter extends IoFilterAdapter {
         private final ConnectionPool connectManager;
 
@@ -266,7 +366,13 @@ class ConnectionPool {
 
         @Override
         Integer add(ConnectFuture future) {
-            insertIndex = ++insertIndex < futures.length ? insertIndex : 0;
+            // skip slots still held by older entries when entries were removed out of order
+            for (int i = 0; i < futures.length; i++) {
+                insertIndex = ++insertIndex < futures.length ? insertIndex : 0;
+                if (futures[insertIndex] == null) {
+                    break;
+                }
+            }
             assert futures[insertIndex] == null : "preparing too many connections";
             futures[insertIndex] = future;
             if (futures[firstIndex] == null) {
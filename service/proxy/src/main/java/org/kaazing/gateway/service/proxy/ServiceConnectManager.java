@@ -17,9 +17,6 @@ package org.kaazing.gateway.service.proxy;
 
 import static java.lang.String.format;
 
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -27,9 +24,11 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.mina.core.filterchain.IoFilterAdapter;
 import org.apache.mina.core.future.ConnectFuture;
+import org.apache.mina.core.future.DefaultConnectFuture;
 import org.apache.mina.core.future.IoFutureListener;
 import org.apache.mina.core.service.IoHandlerAdapter;
 import org.apache.mina.core.session.IoSession;
@@ -57,9 +56,20 @@ import org.slf4j.Logger;
  * - HeartbeatFilter
  *   - ServiceHeartBeat
  *     - HeartbeatHandler
+ * - ConnectionPool (1 per I/O worker)
  *
+ * The prepared connections are a service-wide budget shared by the per-worker connection pools. Every
+ * REBALANCE_INTERVAL_MILLIS the budget is redistributed in proportion to the recent acquire rate of each pool,
+ * keeping at least one prepared connection per worker. Callers off the I/O threads are lent a connection from the
+ * pool holding the most prepared connections, without blocking. Lent acquires are spread evenly over the pools' rates,
+ * so lending from a pool does not grow its share and draw yet more lending to it.
  */
 public final class ServiceConnectManager {
+    static final long REBALANCE_INTERVAL_MILLIS = 1000L;
+
+    // weight of the latest interval in the smoothed acquire rate of each pool
+    private static final double RATE_SMOOTHING = 0.5;
+
     private final ServiceContext serviceCtx;
     private final AbstractProxyHandler connectHandler;
     private final String connectURI;
@@ -88,6 +98,16 @@ public final class ServiceConnectManager {
 
     private final ThreadLocal<ConnectionPool> connectionPool = new VicariousThreadLocal<>();
 
+    // the connection pool of each worker, by worker index, set once the pool is created on its I/O thread
+    private volatile AtomicReferenceArray<ConnectionPool> connectionPools;
+    private final AtomicLong nextRebalanceTime = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicInteger nextLendingWorker = new AtomicInteger(0);
+    private final AtomicInteger lentAcquireCount = new AtomicInteger(0);
+    private double[] acquireRates;
+
+    private final AtomicLong connectWaitCount = new AtomicLong(0);
+    private final AtomicLong connectWaitNanos = new AtomicLong(0);
+
     public ServiceConnectManager(ServiceContext service,
                                  AbstractProxyHandler connectHandler,
                                  BridgeServiceFactory bridgeServiceFactory,
@@ -161,9 +181,17 @@ public final class ServiceConnectManager {
         // set a connection pool with GT 0 prepared connections in every worker thread as an optimization
         Worker[] workers = tcpAcceptor.getWorkers();
         assert preparedConnectionCount == 0 || preparedConnectionCount >= workers.length : "Prepared connection count must be 0, or >= number of IO threads";
+        synchronized (this) {
+            if (connectionPools == null) {
+                connectionPools = new AtomicReferenceArray<>(workers.length);
+                acquireRates = new double[workers.length];
+            }
+        }
+        final AtomicReferenceArray<ConnectionPool> pools = connectionPools;
         int minCountPerThread = preparedConnectionCount / workers.length;
         int remainder = preparedConnectionCount % workers.length;
-        for (Worker worker : workers) {
+        for (int i = 0; i < workers.length; i++) {
+            final int workerIndex = i;
             final int count = remainder-- > 0 ? minCountPerThread + 1 : minCountPerThread;
             Runnable startConnectionPoolTask = () -> {
                 ConnectionPool currentPool = connectionPool.get();
@@ -171,53 +199,174 @@ public final class ServiceConnectManager {
                     // the first time the pool is started is needs to be created, subsequent times it should just be started
                     // without re-creating.
                     currentPool = new ConnectionPool(serviceCtx, connectHandler, connectURI, heartbeatFilter,
-                            connectListener, count, true);
+                            connectListener, count, preparedConnectionCount, workers[workerIndex]::executeInIoThread);
                     connectionPool.set(currentPool);
+                    pools.set(workerIndex, currentPool);
                 }
                 currentPool.start();
             };
-            worker.executeInIoThread(startConnectionPoolTask);
+            workers[i].executeInIoThread(startConnectionPoolTask);
+        }
+
+        if (preparedConnectionCount > 0) {
+            nextRebalanceTime.set(System.currentTimeMillis() + REBALANCE_INTERVAL_MILLIS);
         }
     }
 
     public ConnectFuture getNextConnectFuture(final IoSessionInitializer<ConnectFuture> connectInitializer) {
+        final long startTime = System.nanoTime();
         ConnectionPool pool = connectionPool.get();
-        if (pool == null) {
-            FutureTask<ConnectFuture> delegateGetConnectFuture = new FutureTask<>(new Callable<ConnectFuture>() {
+        ConnectFuture future = (pool != null) ? pool.getNextConnectFuture(connectInitializer)
+                                              : lendConnectFuture(connectInitializer);
 
+        future.addListener(new IoFutureListener<ConnectFuture>() {
+            @Override
+            public void operationComplete(ConnectFuture future) {
+                connectWaitNanos.addAndGet(System.nanoTime() - startTime);
+                connectWaitCount.incrementAndGet();
+            }
+        });
+
+        rebalanceIfDue();
+        return future;
+    }
+
+    // Called off the I/O threads: take a connection from the pool with the most prepared connections on its own
+    // I/O thread, completing the returned future from there instead of blocking the caller
+    private ConnectFuture lendConnectFuture(final IoSessionInitializer<ConnectFuture> connectInitializer) {
+        final DefaultConnectFuture lentFuture = new DefaultConnectFuture();
+        lentAcquireCount.incrementAndGet();
+        Worker[] workers = tcpAcceptor.getWorkers();
+        workers[selectLendingWorker(workers.length)].executeInIoThread(() -> {
+            ConnectionPool delegatePool = connectionPool.get();
+            if (delegatePool == null) {
+                lentFuture.setException(new IllegalStateException(
+                        format("No connection pool for %s on I/O thread %s", connectURI, Thread.currentThread())));
+                return;
+            }
+
+            ConnectFuture delegateFuture = delegatePool.getNextLentConnectFuture(connectInitializer);
+            delegateFuture.addListener(new IoFutureListener<ConnectFuture>() {
                 @Override
-                public ConnectFuture call() {
-                    ConnectionPool delegatePool = connectionPool.get();
-                    if (delegatePool != null) {
-                        return delegatePool.getNextConnectFuture(connectInitializer);
+                public void operationComplete(ConnectFuture future) {
+                    if (future.isConnected()) {
+                        lentFuture.setSession(future.getSession());
+                    } else if (future.getException() != null) {
+                        lentFuture.setException(future.getException());
+                    } else {
+                        lentFuture.cancel();
                     }
-                    return null;
                 }
             });
+        });
+        return lentFuture;
+    }
 
-            // try to reschedule on an IO Thread
-            Worker[] workers = tcpAcceptor.getWorkers();
-            int randomWorker = (int)(Math.random() * workers.length);
-            workers[randomWorker].executeInIoThread(delegateGetConnectFuture);
-            try {
-                return delegateGetConnectFuture.get();
-            } catch (ExecutionException executionEX) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug(format("Failed to get connectFuture to %s from delegate connection pool due to exception", connectURI), executionEX);
-                } else {
-                    logger.warn(format("Failed to get ConnectFuture to %s from delegate connection pool due to exception %s", connectURI, executionEX));
+    private int selectLendingWorker(int workerCount) {
+        AtomicReferenceArray<ConnectionPool> pools = connectionPools;
+        int selected = -1;
+        int mostPrepared = 0;
+        if (pools != null) {
+            for (int i = 0; i < pools.length(); i++) {
+                ConnectionPool pool = pools.get(i);
+                int prepared = (pool != null) ? pool.getCurrentPreparedConnectionCount() : 0;
+                if (prepared > mostPrepared) {
+                    mostPrepared = prepared;
+                    selected = i;
                 }
-                return null;
-            } catch (InterruptedException interruptedEx) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug(format("Failed to get connectFuture to %s from delegate connection pool due to exception", connectURI), interruptedEx);
-                } else {
-                    logger.warn(format("Failed to get ConnectFuture to %s from delegate connection pool due to exception %s", connectURI, interruptedEx));
+            }
+        }
+
+        if (selected == -1) {
+            // no prepared connections anywhere, spread the lazy connects over the workers
+            selected = (nextLendingWorker.getAndIncrement() & Integer.MAX_VALUE) % workerCount;
+        }
+        return selected;
+    }
+
+    private void rebalanceIfDue() {
+        long rebalanceTime = nextRebalanceTime.get();
+        long now = System.currentTimeMillis();
+        if (now >= rebalanceTime && nextRebalanceTime.compareAndSet(rebalanceTime, now + REBALANCE_INTERVAL_MILLIS)) {
+            rebalance();
+        }
+    }
+
+    /**
+     * Redistribute the prepared connection budget over the worker pools by their smoothed acquire rates, then have
+     * each pool whose share changed establish or close prepared connections on its own I/O thread.
+     */
+    synchronized void rebalance() {
+        AtomicReferenceArray<ConnectionPool> pools = connectionPools;
+        if (pools == null || preparedConnectionCount == 0) {
+            return;
+        }
+
+        int[] acquired = new int[pools.length()];
+        for (int i = 0; i < pools.length(); i++) {
+            ConnectionPool pool = pools.get(i);
+            acquired[i] = (pool != null) ? pool.takeAcquireCount() : 0;
+        }
+        updateAcquireRates(acquireRates, acquired, lentAcquireCount.getAndSet(0));
+
+        int[] counts = allocatePreparedConnections(preparedConnectionCount, acquireRates);
+        Worker[] workers = tcpAcceptor.getWorkers();
+        for (int i = 0; i < pools.length(); i++) {
+            final ConnectionPool pool = pools.get(i);
+            if (pool != null && pool.getPreparedConnectionCount() != counts[i]) {
+                pool.setPreparedConnectionCount(counts[i]);
+                workers[i].executeInIoThread(pool::adjustPreConnects);
+            }
+        }
+    }
+
+    /**
+     * Smooth the acquires of the latest interval into the acquire rate of each pool. Connections lent to callers off the
+     * I/O threads are not demand of the pool that lent them, they are spread evenly over all pools instead.
+     */
+    static void updateAcquireRates(double[] rates, int[] acquired, int lent) {
+        double lentShare = (double) lent / rates.length;
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] = RATE_SMOOTHING * (acquired[i] + lentShare) + (1 - RATE_SMOOTHING) * rates[i];
+        }
+    }
+
+    /**
+     * Split a prepared connection budget over pools in proportion to their acquire rates, each pool keeping at least
+     * one prepared connection so there is always a thread-aligned connection available. Without any recent acquires
+     * the budget is split evenly.
+     */
+    static int[] allocatePreparedConnections(int budget, double[] rates) {
+        int poolCount = rates.length;
+        int[] counts = new int[poolCount];
+        int spare = Math.max(budget - poolCount, 0);
+        double totalRate = 0;
+        for (double rate : rates) {
+            totalRate += rate;
+        }
+
+        double[] remainders = new double[poolCount];
+        int allocated = 0;
+        for (int i = 0; i < poolCount; i++) {
+            double share = (totalRate > 0) ? spare * rates[i] / totalRate : (double) spare / poolCount;
+            counts[i] = 1 + (int) share;
+            remainders[i] = share - (int) share;
+            allocated += counts[i];
+        }
+
+        // hand out what rounding down left over by largest remainder
+        while (allocated < budget) {
+            int largest = 0;
+            for (int i = 1; i < poolCount; i++) {
+                if (remainders[i] > remainders[largest]) {
+                    largest = i;
                 }
-                return null;
             }
+            counts[largest]++;
+            remainders[largest] = -1;
+            allocated++;
         }
-        return pool.getNextConnectFuture(connectInitializer);
+        return counts;
     }
 
     // for unit test use
@@ -520,6 +669,32 @@ public final class ServiceConnectManager {
         return serviceConnected.get();
     }
 
+    public long getPreparedConnectionHitCount() {
+        long hits = 0;
+        AtomicReferenceArray<ConnectionPool> pools = connectionPools;
+        for (int i = 0; pools != null && i < pools.length(); i++) {
+            ConnectionPool pool = pools.get(i);
+            hits += (pool != null) ? pool.getHitCount() : 0;
+        }
+        return hits;
+    }
+
+    public long getPreparedConnectionMissCount() {
+        long misses = 0;
+        AtomicReferenceArray<ConnectionPool> pools = connectionPools;
+        for (int i = 0; pools != null && i < pools.length(); i++) {
+            ConnectionPool pool = pools.get(i);
+            misses += (pool != null) ? pool.getMissCount() : 0;
+        }
+        return misses;
+    }
+
+    // average time from asking for a connection until it is connected (or failed), in microseconds
+    public long getAverageConnectWaitTime() {
+        long count = connectWaitCount.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(connectWaitNanos.get() / count);
+    }
+
     public boolean isHeartbeatRunning() {
         if (heartbeat == null) {
             return false;
@@ -15,6 +15,7 @@
  */
 package org.kaazing.gateway.service.proxy;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
@@ -267,6 +268,8 @@ public class ServiceConnectManagerTest {
         {
             DefaultConnectFuture future = (DefaultConnectFuture)manager.getNextConnectFuture(null);
             try {
+                // lent from the I/O thread without blocking this thread
+                future.awaitUninterruptibly();
                 assertTrue("pre-connected future should be connected", future.isConnected());
             } catch(Throwable t) {
                 t.printStackTrace();
@@ -285,6 +288,9 @@ public class ServiceConnectManagerTest {
             assertNull("Errors were detected: " + errors, errors);
         }
 
+        assertEquals(0, manager.getPreparedConnectionHitCount());
+        assertEquals(1, manager.getPreparedConnectionMissCount());
+
         context.assertIsSatisfied();
     }
 
@@ -369,6 +375,8 @@ public class ServiceConnectManagerTest {
         {
             DefaultConnectFuture future = (DefaultConnectFuture)manager.getNextConnectFuture(null);
             try {
+                // lent from the I/O thread without blocking this thread
+                future.awaitUninterruptibly();
                 assertTrue("pre-connected future should be connected", future.isConnected());
 
                 // now close the session
@@ -383,6 +391,8 @@ public class ServiceConnectManagerTest {
         {
             DefaultConnectFuture future = (DefaultConnectFuture)manager.getNextConnectFuture(null);
             try {
+                // lent from the I/O thread without blocking this thread
+                future.awaitUninterruptibly();
                 assertTrue("second pre-connected future should be connected", future.isConnected());
             } catch(Throwable t) {
                 t.printStackTrace();
@@ -403,10 +413,40 @@ public class ServiceConnectManagerTest {
 
         assertEquals("Should have two consumed connections and one remaining preconnect, but total connections is " + connectionCount.intValue(),
                 connectionCount.intValue(), 3);
+        assertEquals(2, manager.getPreparedConnectionHitCount());
+        assertEquals(0, manager.getPreparedConnectionMissCount());
 
         context.assertIsSatisfied();
     }
 
+    @Test
+    public void preparedConnectionsShouldBeSplitEvenlyWithoutAcquires() throws Exception {
+        int[] counts = ServiceConnectManager.allocatePreparedConnections(7, new double[] {0, 0, 0});
+        assertArrayEquals(new int[] {3, 2, 2}, counts);
+    }
+
+    @Test
+    public void preparedConnectionsShouldFollowAcquireRates() throws Exception {
+        int[] counts = ServiceConnectManager.allocatePreparedConnections(12, new double[] {90, 0, 10});
+        assertArrayEquals(new int[] {9, 1, 2}, counts);
+    }
+
+    @Test
+    public void preparedConnectionsShouldKeepOnePerWorker() throws Exception {
+        int[] counts = ServiceConnectManager.allocatePreparedConnections(3, new double[] {1000, 0, 0});
+        assertArrayEquals(new int[] {1, 1, 1}, counts);
+    }
+
+    @Test
+    public void lentAcquiresShouldBeSpreadEvenlyOverAcquireRates() throws Exception {
+        double[] rates = new double[] {0, 0, 0, 0};
+        ServiceConnectManager.updateAcquireRates(rates, new int[] {0, 8, 0, 0}, 100);
+        assertArrayEquals(new double[] {12.5, 16.5, 12.5, 12.5}, rates, 0.001);
+
+        ServiceConnectManager.updateAcquireRates(rates, new int[] {0, 0, 0, 0}, 0);
+        assertArrayEquals(new double[] {6.25, 8.25, 6.25, 6.25}, rates, 0.001);
+    }
+
     private static class ExecuteRunnable extends CustomAction {
         private final CompletionService<Throwable> completionService;
 
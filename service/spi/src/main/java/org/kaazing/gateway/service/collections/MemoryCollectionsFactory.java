@@ -29,6 +29,7 @@ import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
@@ -63,19 +64,38 @@ public class MemoryCollectionsFactory implements CollectionsFactory {
 
     private static final String OPERATION_NOT_SUPPORTED_MESSAGE = "Operation %s not supported";
 
+    // must be a power of two
+    private static final int LOCK_STRIPES = 16;
+
     private final ConcurrentMap<String, IMapImpl<?, ?>> maps;
     private final ConcurrentMap<String, IListImpl<?>> lists;
-    private final Map<String, ILockImpl> locks;
+    private final Map<String, ILockImpl>[] lockStripes;
     private final ConcurrentMap<String, AtomicCounter> atomicCounters;
     private final ConcurrentMap<String, ITopic<?>> topics;
+    private final Executor topicDeliveryExecutor;
 
     public MemoryCollectionsFactory() {
+        this(null);
+    }
+
+    /**
+     * Creates a factory whose topics deliver the published messages on the given executor, or on the publishing thread
+     * when the executor is null.
+     * @param topicDeliveryExecutor
+     */
+    @SuppressWarnings("unchecked")
+    public MemoryCollectionsFactory(Executor topicDeliveryExecutor) {
         // TODO: avoid memory leak
         maps = new ConcurrentHashMap<>();
         lists = new ConcurrentHashMap<>();
-        locks = Collections.synchronizedMap(new WeakHashMap<>());
+        // locks are looked up on request paths, so the registry is striped rather than guarded by a single monitor
+        lockStripes = new Map[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            lockStripes[i] = new WeakHashMap<>();
+        }
         atomicCounters = new ConcurrentHashMap<>();
         topics = new ConcurrentHashMap<>();
+        this.topicDeliveryExecutor = topicDeliveryExecutor;
     }
 
     @SuppressWarnings("unchecked")
@@ -100,7 +120,11 @@ public class MemoryCollectionsFactory implements CollectionsFactory {
     @SuppressWarnings("unchecked")
     @Override
     public <E> ITopic<E> getTopic(String name) {
-        return (ITopic<E>) topics.computeIfAbsent(name, s -> new MemoryTopic<E>(s));
+        ITopic<E> topic = (ITopic<E>) topics.get(name);
+        if (topic == null) {
+            topic = (ITopic<E>) topics.computeIfAbsent(name, s -> new MemoryTopic<E>(s, topicDeliveryExecutor));
+        }
+        return topic;
     }
 
     @SuppressWarnings("unchecked")
@@ -119,6 +143,7 @@ public class MemoryCollectionsFactory implements CollectionsFactory {
 
     @Override
     public ILock getLock(String name) {
+        Map<String, ILockImpl> locks = getLockStripe(name);
         synchronized (locks) {
             ILock lock = locks.get(name);
             if (lock == null) {
@@ -131,22 +156,27 @@ public class MemoryCollectionsFactory implements CollectionsFactory {
         }
     }
 
+    private Map<String, ILockImpl> getLockStripe(String name) {
+        int hash = name.hashCode();
+        return lockStripes[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+
     @Override
     public AtomicCounter getAtomicCounter(String name) {
-        if (atomicCounters.containsKey(name)) {
-            return atomicCounters.get(name);
-        } else {
-            StandaloneAtomicCounter counter = new StandaloneAtomicCounter(new AtomicLong(0));
-            AtomicCounter existingCounter = atomicCounters.putIfAbsent(name, counter);
-            if (existingCounter == null) {
-                existingCounter = counter;
+        AtomicCounter counter = atomicCounters.get(name);
+        if (counter == null) {
+            StandaloneAtomicCounter newCounter = new StandaloneAtomicCounter(new AtomicLong(0));
+            counter = atomicCounters.putIfAbsent(name, newCounter);
+            if (counter == null) {
+                counter = newCounter;
             }
-            return existingCounter;
         }
+        return counter;
     }
 
-    private class StandaloneAtomicCounter implements AtomicCounter {
-        private AtomicLong atomicLong;
+    // AtomicCounter requires exact incrementAndGet and compareAndSet results, so it cannot be backed by a LongAdder
+    private static final class StandaloneAtomicCounter implements AtomicCounter {
+        private final AtomicLong atomicLong;
 
         private StandaloneAtomicCounter(AtomicLong number) {
             atomicLong = number;
@@ -259,6 +289,9 @@ public class MemoryCollectionsFactory implements CollectionsFactory {
         }
 
         private void removeExpiredEntries() {
+            if (keyExpirations.isEmpty()) {
+                return;
+            }
             long currentMillis = currentTimeMillis();
             this.keyExpirations.entrySet().removeIf(e -> {
                 final Long expiration = e.getValue();
@@ -705,7 +738,10 @@ public class MemoryCollectionsFactory implements CollectionsFactory {
 
         @Override
         public void destroy() {
-            locks.remove(name);
+            Map<String, ILockImpl> locks = getLockStripe(name);
+            synchronized (locks) {
+                locks.remove(name);
+            }
         }
 
         @Override
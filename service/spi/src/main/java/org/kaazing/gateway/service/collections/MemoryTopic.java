@@ -16,9 +16,13 @@
 package org.kaazing.gateway.service.collections;
 
 
-import java.util.List;
+import java.util.Arrays;
+import java.util.Queue;
 import java.util.UUID;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +40,9 @@ import com.hazelcast.monitor.impl.LocalTopicStatsImpl;
  * It imposes restrictions on calling add/remove/publish methods from within a message listener's oMessage method on the
  * same thread. The main reason is to avoid StackOverflow by nested method calls.
  *
+ * When created with a delivery executor, messages are queued by publish and delivered in order on the executor instead,
+ * so publishers never run the listeners and the restrictions above do not apply.
+ *
  * // TODO fix following forward reference
  * For implementation differences see tests in: org.kaazing.gateway.server.topic.AbstractClusterTopicTest
  *
@@ -45,7 +52,7 @@ public class MemoryTopic<E> implements ITopic<E> {
 
     private final String name;
 
-    private final class MessageListenerHolder {
+    private static final class MessageListenerHolder<E> {
         private final String key;
         private final MessageListener<E> listener;
 
@@ -55,7 +62,12 @@ public class MemoryTopic<E> implements ITopic<E> {
         }
     }
 
-    private List<MessageListenerHolder> messageListenerHolders = new CopyOnWriteArrayList<>();
+    @SuppressWarnings("rawtypes")
+    private static final MessageListenerHolder[] NO_LISTENERS = new MessageListenerHolder[0];
+
+    // copy on write, publish iterates over the array without locking nor allocating an iterator
+    @SuppressWarnings("unchecked")
+    private volatile MessageListenerHolder<E>[] messageListenerHolders = NO_LISTENERS;
 
     private final ThreadLocal<Boolean> isPublishing = new ThreadLocal<Boolean>() {
         @Override
@@ -64,13 +76,29 @@ public class MemoryTopic<E> implements ITopic<E> {
         }
     };
 
-    private LocalTopicStatsImpl localTopicStats;
+    private final Executor deliveryExecutor;
+    private final Queue<Message<E>> pendingMessages;
+    private final AtomicBoolean delivering;
+
+    private volatile LocalTopicStatsImpl localTopicStats;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MemoryTopic.class);
 
     public MemoryTopic(String name) {
+        this(name, null);
+    }
+
+    /**
+     * Creates a topic delivering the published messages on the given executor, or on the publishing thread when the
+     * executor is null.
+     * @param name
+     * @param deliveryExecutor
+     */
+    public MemoryTopic(String name, Executor deliveryExecutor) {
         this.name = name;
-        ;
+        this.deliveryExecutor = deliveryExecutor;
+        this.pendingMessages = deliveryExecutor != null ? new ConcurrentLinkedQueue<>() : null;
+        this.delivering = new AtomicBoolean();
         this.localTopicStats = new LocalTopicStatsImpl();
         if (LOGGER.isTraceEnabled()) {
             LOGGER.trace("Created topic: " + this.getName());
@@ -94,27 +122,68 @@ public class MemoryTopic<E> implements ITopic<E> {
 
     @Override
     public void publish(E o) {
+        Message<E> m = new Message<>(this.getName(), o, System.nanoTime(), null);
+        if (deliveryExecutor != null) {
+            localTopicStats.incrementPublishes();
+            pendingMessages.offer(m);
+            scheduleDelivery();
+            return;
+        }
+
         if (isPublishing.get()) {
             throw new UnsupportedOperationException("Cannot nest publishing operations");
         }
         isPublishing.set(true);
-        Message<E> m = new Message<>(this.getName(), o, System.nanoTime(), null);
+        try {
+            deliver(m);
+        } finally {
+            isPublishing.set(false);
+        }
+        localTopicStats.incrementPublishes();
+    }
+
+    private void deliver(Message<E> m) {
+        MessageListenerHolder<E>[] holders = messageListenerHolders;
         if (LOGGER.isTraceEnabled()) {
-            LOGGER.trace("Publishing message on topic: " + MemoryTopic.this.getName() + ", notifying " + messageListenerHolders.size() + " listener(s).");
+            LOGGER.trace("Publishing message on topic: " + MemoryTopic.this.getName() + ", notifying " + holders.length + " listener(s).");
         }
-        for (MessageListenerHolder holder : messageListenerHolders) {
+        LocalTopicStatsImpl stats = localTopicStats;
+        for (MessageListenerHolder<E> holder : holders) {
             try {
                 if (LOGGER.isTraceEnabled()) {
                     LOGGER.trace("Publishing message on topic: " + MemoryTopic.this.getName() + ", notifying listener: " + holder.key + ".");
                 }
-                localTopicStats.incrementReceives();
+                stats.incrementReceives();
                 holder.listener.onMessage(m);
             } catch (Exception e) {
                 LOGGER.debug("Message listener: " + holder.key + " failed.", e);
             }
         }
-        localTopicStats.incrementPublishes();
-        isPublishing.set(false);
+    }
+
+    private void scheduleDelivery() {
+        if (delivering.compareAndSet(false, true)) {
+            try {
+                deliveryExecutor.execute(this::deliverPendingMessages);
+            } catch (RejectedExecutionException e) {
+                // let a later publish retry delivery, e.g. once a saturated executor has capacity again
+                delivering.set(false);
+                throw e;
+            }
+        }
+    }
+
+    private void deliverPendingMessages() {
+        // a single delivery runs at a time, which preserves the publish order
+        Message<E> m;
+        while ((m = pendingMessages.poll()) != null) {
+            deliver(m);
+        }
+        delivering.set(false);
+        // catch messages published after the queue was drained but before the flag was reset
+        if (!pendingMessages.isEmpty()) {
+            scheduleDelivery();
+        }
     }
 
     @Override
@@ -126,14 +195,19 @@ public class MemoryTopic<E> implements ITopic<E> {
             throw new NullPointerException("messageListener must be not null");
         }
         String key = UUID.randomUUID().toString();
-        MessageListenerHolder holder = new MessageListenerHolder(key, messageListener);
+        MessageListenerHolder<E> holder = new MessageListenerHolder<>(key, messageListener);
         if (LOGGER.isTraceEnabled()) {
             LOGGER.trace("Adding message listener: " + key + " on topic: " + MemoryTopic.this.getName());
         }
-        messageListenerHolders.add(holder);
+        synchronized (this) {
+            MessageListenerHolder<E>[] holders = Arrays.copyOf(messageListenerHolders, messageListenerHolders.length + 1);
+            holders[holders.length - 1] = holder;
+            messageListenerHolders = holders;
+        }
         return key;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public boolean removeMessageListener(String s) {
         if (isPublishing.get()) {
@@ -145,10 +219,18 @@ public class MemoryTopic<E> implements ITopic<E> {
         }
 
         boolean result = false;
-        for (MessageListenerHolder holder : messageListenerHolders) {
-            if (holder.key.equals(s)) {
-                result = messageListenerHolders.remove(holder);
-                break;
+        synchronized (this) {
+            MessageListenerHolder<E>[] holders = messageListenerHolders;
+            for (int i = 0; i < holders.length; i++) {
+                if (holders[i].key.equals(s)) {
+                    MessageListenerHolder<E>[] newHolders = holders.length == 1 ? NO_LISTENERS
+                            : new MessageListenerHolder[holders.length - 1];
+                    System.arraycopy(holders, 0, newHolders, 0, i);
+                    System.arraycopy(holders, i + 1, newHolders, i, holders.length - i - 1);
+                    messageListenerHolders = newHolders;
+                    result = true;
+                    break;
+                }
             }
         }
         if (LOGGER.isTraceEnabled()) {
@@ -162,9 +244,15 @@ public class MemoryTopic<E> implements ITopic<E> {
         return localTopicStats;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public void destroy() {
-        messageListenerHolders.clear();
+        synchronized (this) {
+            messageListenerHolders = NO_LISTENERS;
+        }
+        if (pendingMessages != null) {
+            pendingMessages.clear();
+        }
         this.localTopicStats = new LocalTopicStatsImpl();
     }
 }
@@ -0,0 +1,138 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.service.collections;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.hazelcast.core.ITopic;
+
+/**
+ * Compares the in-memory collections under contention with the previous implementations: a lock registry guarded
+ * by a single monitor and synchronous topic delivery.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class MemoryCollectionsBM {
+
+    private static final int NAMES = 64;
+    private static final int LISTENERS = 4;
+
+    private final String[] names = new String[NAMES];
+    private final Map<String, Lock> globalLocks = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private MemoryCollectionsFactory factory;
+    private ExecutorService deliveryExecutor;
+    private ITopic<String> synchronousTopic;
+    private ITopic<String> asynchronousTopic;
+
+    @State(Scope.Thread)
+    public static class ThreadIndex {
+        int value;
+    }
+
+    @Setup
+    public void init() {
+        for (int i = 0; i < NAMES; i++) {
+            names[i] = "lock" + i;
+        }
+        factory = new MemoryCollectionsFactory();
+        synchronousTopic = factory.getTopic("topic");
+        deliveryExecutor = Executors.newSingleThreadExecutor();
+        asynchronousTopic = new MemoryCollectionsFactory(deliveryExecutor).getTopic("topic");
+        for (int i = 0; i < LISTENERS; i++) {
+            synchronousTopic.addMessageListener(message -> message.getMessageObject().length());
+            asynchronousTopic.addMessageListener(message -> message.getMessageObject().length());
+        }
+    }
+
+    @TearDown
+    public void destroy() {
+        deliveryExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public Lock getLockGlobalMonitor(ThreadIndex index) {
+        String name = names[index.value++ & (NAMES - 1)];
+        // previous implementation of MemoryCollectionsFactory.getLock
+        synchronized (globalLocks) {
+            Lock lock = globalLocks.get(name);
+            if (lock == null) {
+                lock = new ReentrantLock();
+                globalLocks.put(name, lock);
+            }
+            return lock;
+        }
+    }
+
+    @Benchmark
+    public Lock getLockStriped(ThreadIndex index) {
+        return factory.getLock(names[index.value++ & (NAMES - 1)]);
+    }
+
+    @Benchmark
+    public void publishSynchronous() {
+        synchronousTopic.publish("message");
+    }
+
+    @Benchmark
+    public void publishAsynchronous() {
+        asynchronousTopic.publish("message");
+    }
+
+    // Or from command line:
+    //
+    // mvn clean install
+    // java -jar target/benchmarks.jar MemoryCollectionsBM
+    //
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(MemoryCollectionsBM.class.getSimpleName())
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
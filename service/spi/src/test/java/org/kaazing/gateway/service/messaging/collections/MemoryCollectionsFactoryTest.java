@@ -17,16 +17,27 @@ package org.kaazing.gateway.service.messaging.collections;
 
 import static java.lang.String.format;
 import static java.lang.Thread.sleep;
+import static java.util.Arrays.asList;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -167,4 +178,77 @@ public class MemoryCollectionsFactoryTest {
         t.start();
         t.join();
     }
+
+    @Test
+    public void shouldDeliverTopicMessagesInOrderOnExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            MemoryCollectionsFactory asyncFactory = new MemoryCollectionsFactory(executor);
+            ITopic<Integer> topic = asyncFactory.getTopic(OBJECT_NAME);
+            List<Integer> received = new ArrayList<>();
+            CountDownLatch latch = new CountDownLatch(100);
+            topic.addMessageListener(message -> {
+                // nested publishing is allowed, as the message is only queued
+                if (message.getMessageObject() == 0) {
+                    topic.publish(100);
+                }
+                received.add(message.getMessageObject());
+                latch.countDown();
+            });
+            for (int i = 0; i < 99; i++) {
+                topic.publish(i);
+            }
+
+            assertTrue("Expected all the messages to be delivered", latch.await(5, SECONDS));
+            assertEquals(100, topic.getLocalTopicStats().getPublishOperationCount());
+            assertTrue("Expected the nested message to be delivered", received.remove(Integer.valueOf(100)));
+            for (int i = 1; i < received.size(); i++) {
+                assertTrue("Expected messages in publish order", received.get(i) > received.get(i - 1));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldResumeTopicDeliveryAfterExecutorRejection() throws Exception {
+        AtomicBoolean reject = new AtomicBoolean(true);
+        Executor executor = command -> {
+            if (reject.get()) {
+                throw new RejectedExecutionException("saturated");
+            }
+            command.run();
+        };
+        ITopic<Integer> topic = new MemoryCollectionsFactory(executor).getTopic(OBJECT_NAME);
+        List<Integer> received = new ArrayList<>();
+        topic.addMessageListener(message -> received.add(message.getMessageObject()));
+
+        try {
+            topic.publish(1);
+            fail("Expected the rejection to be reported to the publisher");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        reject.set(false);
+        topic.publish(2);
+
+        assertEquals(asList(1, 2), received);
+    }
+
+    @Test
+    public void shouldRemoveTopicMessageListener() throws Exception {
+        ITopic<String> topic = factory.getTopic(OBJECT_NAME);
+        List<String> received = new ArrayList<>();
+        String key1 = topic.addMessageListener(message -> received.add("1:" + message.getMessageObject()));
+        topic.addMessageListener(message -> received.add("2:" + message.getMessageObject()));
+
+        topic.publish("a");
+        assertTrue(topic.removeMessageListener(key1));
+        assertFalse(topic.removeMessageListener(key1));
+        topic.publish("b");
+
+        assertEquals(asList("1:a", "2:a", "2:b"), received);
+        assertEquals(2, topic.getLocalTopicStats().getPublishOperationCount());
+        assertEquals(3, topic.getLocalTopicStats().getReceiveOperationCount());
+    }
 }
@@ -42,6 +42,7 @@ import static org.kaazing.gateway.transport.http.bridge.filter.HttpNextProtocolH
 import static org.kaazing.gateway.transport.http.bridge.filter.HttpProtocolFilter.PROTOCOL_HTTP_1_1;
 import static org.kaazing.gateway.transport.http.resource.HttpDynamicResourceFactory.newHttpDynamicResourceFactory;
 import static org.kaazing.gateway.util.InternalSystemProperty.HTTPXE_SPECIFICATION;
+import static org.kaazing.gateway.util.InternalSystemProperty.HTTP_LOGIN_COALESCING;
 
 import java.io.IOException;
 import java.net.SocketAddress;
@@ -93,6 +94,7 @@ import org.kaazing.gateway.transport.http.bridge.filter.HttpBufferAllocator;
 import org.kaazing.gateway.transport.http.bridge.filter.HttpNextAddressFilter;
 import org.kaazing.gateway.transport.http.bridge.filter.HttpProtocolDecoderException;
 import org.kaazing.gateway.transport.http.bridge.filter.HttpSerializeRequestsFilter;
+import org.kaazing.gateway.transport.http.bridge.filter.HttpLoginPipeline;
 import org.kaazing.gateway.transport.http.bridge.filter.HttpSubjectSecurityFilter;
 import org.kaazing.gateway.transport.http.resource.HttpDynamicResource;
 import org.kaazing.gateway.transport.http.resource.HttpDynamicResourceFactory;
@@ -132,6 +134,8 @@ public class HttpAcceptor extends AbstractBridgeAcceptor<DefaultHttpSession, Htt
 
     private boolean httpxeSpecCompliant;
 
+    private HttpLoginPipeline loginPipeline = new HttpLoginPipeline(false);
+
     @Resource(name = "schedulerProvider")
     public void setSchedulerProvider(SchedulerProvider provider) {
         this.schedulerProvider = provider;
@@ -146,6 +150,14 @@ public class HttpAcceptor extends AbstractBridgeAcceptor<DefaultHttpSession, Htt
     public void setConfiguration(Properties configuration) {
         this.configuration = configuration;
         httpxeSpecCompliant = HTTPXE_SPECIFICATION.getBooleanProperty(configuration);
+        loginPipeline = new HttpLoginPipeline(HTTP_LOGIN_COALESCING.getBooleanProperty(configuration));
+    }
+
+    /**
+     * @return the pipeline running the logins of the sessions accepted by this acceptor, with their metrics
+     */
+    public HttpLoginPipeline getLoginPipeline() {
+        return loginPipeline;
     }
 
     public HttpAcceptor() {
@@ -577,6 +589,7 @@ public class HttpAcceptor extends AbstractBridgeAcceptor<DefaultHttpSession, Htt
                 // One instance of HttpSubjectSecurityFilter per session
                 HttpSubjectSecurityFilter filter = new HttpSubjectSecurityFilter(LoggerFactory.getLogger(SECURITY_LOGGER_NAME), expiringState);
                 filter.setSchedulerProvider(schedulerProvider);
+                filter.setLoginPipeline(loginPipeline);
                 chain.addLast(acceptFilter.filterName(), filter);
                 break;
             default:
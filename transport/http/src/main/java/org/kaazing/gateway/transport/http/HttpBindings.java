@@ -19,7 +19,6 @@ import java.net.URI;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.Map.Entry;
-import java.util.NavigableSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
@@ -136,7 +135,7 @@ public class HttpBindings extends Bindings<HttpBinding> {
 
     public static class HttpBinding extends org.kaazing.gateway.transport.Bindings.Binding {
 
-        private static final Comparator<String> PATH_ASCENDING = new Comparator<String>() {
+        static final Comparator<String> PATH_ASCENDING = new Comparator<String>() {
 
             @Override
             public int compare(String path1, String path2) {
@@ -165,6 +164,9 @@ public class HttpBindings extends Bindings<HttpBinding> {
 
         private final ConcurrentNavigableMap<String, Binding> bindingsByPath;
 
+        // resolves the longest bound path prefix of request paths, rebuilt whenever bindingsByPath changes
+        private volatile HttpPathRouter<Binding> router = HttpPathRouter.empty();
+
         @Override
         public int hashCode() {
             int hashCode = super.hashCode();
@@ -226,30 +228,32 @@ public class HttpBindings extends Bindings<HttpBinding> {
         }
 
         Binding get(String path)  {
-            NavigableSet<String> paths = bindingsByPath.navigableKeySet();
-            NavigableSet<String> candidatePaths = paths.headSet(path, true);
-
-            for (Iterator<String> $i = candidatePaths.descendingIterator(); $i.hasNext(); ) {
-                String candidatePath = $i.next();
-                if (path.startsWith(candidatePath)) {
-                    return bindingsByPath.get(candidatePath);
-                }
-            }
-            
-            return null;
+            return router.get(path);
         }
 
         Binding put(String path, Binding binding)  {
-            return bindingsByPath.putIfAbsent(path, binding);
+            Binding oldBinding = bindingsByPath.putIfAbsent(path, binding);
+            if (oldBinding == null) {
+                updateRouter();
+            }
+            return oldBinding;
         }
 
         boolean remove(String path, Binding binding)  {
             if ( binding == (bindingsByPath.get(path))) {
                 if (binding != null && binding.decrementReferenceCount() == 0 ) {
-                    return bindingsByPath.remove(path, binding);
+                    if (bindingsByPath.remove(path, binding)) {
+                        updateRouter();
+                        return true;
+                    }
                 }
             }
             return false;
         }
+
+        private synchronized void updateRouter() {
+            // rebuilt from the current bindings, so concurrent updates cannot lose each other's changes
+            router = HttpPathRouter.build(bindingsByPath);
+        }
     }
 }
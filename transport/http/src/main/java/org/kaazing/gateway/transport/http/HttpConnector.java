@@ -36,6 +36,8 @@ import static org.kaazing.gateway.transport.http.bridge.filter.HttpNextProtocolH
 import static org.kaazing.gateway.transport.http.bridge.filter.HttpProtocolFilter.PROTOCOL_HTTP_1_1;
 import static org.kaazing.gateway.transport.http.security.auth.WWWAuthenticateHeaderUtils.getChallenges;
 import static org.kaazing.gateway.util.InternalSystemProperty.CONNECT_FOLLOW_REDIRECT_WITH_QUERY;
+import static org.kaazing.gateway.util.InternalSystemProperty.HTTP_KEEPALIVE_MAX_CONNECTIONS_PER_HOST;
+import static org.kaazing.gateway.util.InternalSystemProperty.HTTP_KEEPALIVE_PREWARM_CONNECTIONS;
 import static org.kaazing.gateway.util.feature.EarlyAccessFeatures.HTTP_AUTHENTICATOR;
 
 import java.io.IOException;
@@ -97,6 +99,7 @@ public class HttpConnector extends AbstractBridgeConnector<DefaultHttpSession> {
     private static final TypedAttributeKey<HttpConnectSessionFactory> HTTP_SESSION_FACTORY_KEY = new TypedAttributeKey<>(HttpConnector.class, "httpSessionFactory");
     public static final TypedAttributeKey<DefaultHttpSession> HTTP_SESSION_KEY = new TypedAttributeKey<>(HttpConnector.class, "httpSession");
     private static final TypedAttributeKey<ConnectFuture> HTTP_CONNECT_FUTURE_KEY = new TypedAttributeKey<>(HttpConnector.class, "httpConnectFuture");
+    private static final TypedAttributeKey<HttpResourceAddress> PREWARM_ADDRESS_KEY = new TypedAttributeKey<>(HttpConnector.class, "prewarmAddress");
     private Properties configuration;
     private boolean appendQueryWhenFollowingRedirect = true;
     
@@ -105,6 +108,7 @@ public class HttpConnector extends AbstractBridgeConnector<DefaultHttpSession> {
     private BridgeServiceFactory bridgeServiceFactory;
     ResourceAddressFactory addressFactory;
     private final PersistentConnectionPool persistentConnectionsStore;
+    private int prewarmConnections;
 
     public HttpConnector() {
         super(new DefaultIoSessionConfigEx());
@@ -122,6 +126,8 @@ public class HttpConnector extends AbstractBridgeConnector<DefaultHttpSession> {
     public void setConfiguration(Properties configuration) {
         this.configuration = configuration;
         appendQueryWhenFollowingRedirect = "true".equalsIgnoreCase(CONNECT_FOLLOW_REDIRECT_WITH_QUERY.getProperty(configuration));
+        persistentConnectionsStore.setMaxConnectionsPerHost(HTTP_KEEPALIVE_MAX_CONNECTIONS_PER_HOST.getIntProperty(configuration));
+        prewarmConnections = HTTP_KEEPALIVE_PREWARM_CONNECTIONS.getIntProperty(configuration);
     }
 
     @Resource(name = "bridgeServiceFactory")
@@ -134,6 +140,14 @@ public class HttpConnector extends AbstractBridgeConnector<DefaultHttpSession> {
         this.addressFactory = resourceAddressFactory;
     }
 
+    /**
+     * Method returning the statistics of the pool of persistent connections to the upstream servers
+     * @return
+     */
+    public PersistentConnectionPoolStats getPersistentConnectionPoolStats() {
+        return persistentConnectionsStore;
+    }
+
     @Override
     protected IoProcessorEx<DefaultHttpSession> initProcessor() {
         return new HttpConnectProcessor(persistentConnectionsStore, logger);
@@ -184,8 +198,36 @@ public class HttpConnector extends AbstractBridgeConnector<DefaultHttpSession> {
             connectUsingExistingTransport(connectFuture, transportSession, httpSessionFactory);
         } else {
             connectUsingNewTransport(connectFuture, address, httpSessionFactory);
+            if (prewarmConnections > 0) {
+                prewarmConnections((HttpResourceAddress) address);
+            }
+        }
+
+    }
+
+    /*
+     * Opens connections ahead of demand after a pool miss, so that the following connects to the same
+     * server find an idle connection. Each connection is pooled on the I/O thread it was opened on.
+     */
+    private void prewarmConnections(HttpResourceAddress address) {
+        int reserved = persistentConnectionsStore.reservePrewarm(address, prewarmConnections);
+        if (reserved == 0) {
+            return;
         }
 
+        // release the reservation if the connection cannot be opened
+        IoFutureListener<ConnectFuture> prewarmConnectListener = future -> {
+            if (!future.isConnected()) {
+                persistentConnectionsStore.prewarmFailed(address);
+            }
+        };
+        IoSessionInitializer<ConnectFuture> prewarmInitializer = (parent, future) -> PREWARM_ADDRESS_KEY.set(parent, address);
+
+        ResourceAddress transportAddress = address.getTransport();
+        for (int i = 0; i < reserved; i++) {
+            BridgeConnector connector = bridgeServiceFactory.newBridgeConnector(transportAddress);
+            connector.connect(transportAddress, bridgeHandler, prewarmInitializer).addListener(prewarmConnectListener);
+        }
     }
 
     protected <T extends ConnectFuture> void connectUsingExistingTransport(final ConnectFuture connectFuture,
@@ -294,6 +336,15 @@ public class HttpConnector extends AbstractBridgeConnector<DefaultHttpSession> {
         @Override
         protected void doSessionOpened(IoSessionEx session) throws Exception {
 
+            HttpResourceAddress prewarmAddress = PREWARM_ADDRESS_KEY.remove(session);
+            if (prewarmAddress != null) {
+                // connection opened ahead of demand, bridge filters are added when it is taken from the pool
+                if (!persistentConnectionsStore.prewarmed(prewarmAddress, session)) {
+                    session.close(false);
+                }
+                return;
+            }
+
             IoFilterChain filterChain = session.getFilterChain();
             addBridgeFilters(filterChain);
 
@@ -0,0 +1,183 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.http;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Immutable compressed radix tree resolving the value bound to the longest path prefix of a request path.
+ * <p/>
+ * Lookups are done in a single pass over the request path, comparing each character at most once, instead of testing
+ * the bound paths one by one. The tree is never modified once built, so it is rebuilt (copy-on-write) whenever the
+ * bound paths change, and can be read concurrently without locking.
+ */
+final class HttpPathRouter<T> {
+
+    private static final HttpPathRouter<Object> EMPTY = new HttpPathRouter<>(new MutableNode<>("").freeze());
+
+    private final Node<T> root;
+
+    private HttpPathRouter(Node<T> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> HttpPathRouter<T> empty() {
+        return (HttpPathRouter<T>) EMPTY;
+    }
+
+    static <T> HttpPathRouter<T> build(Map<String, T> valuesByPath) {
+        if (valuesByPath.isEmpty()) {
+            return empty();
+        }
+        MutableNode<T> root = new MutableNode<>("");
+        for (Map.Entry<String, T> entry : valuesByPath.entrySet()) {
+            root.insert(entry.getKey(), entry.getValue());
+        }
+        return new HttpPathRouter<>(root.freeze());
+    }
+
+    /**
+     * Method returning the value bound to the longest prefix of the given path
+     * @param path
+     * @return the value, or null if no bound path is a prefix of the given path
+     */
+    T get(String path) {
+        Node<T> node = root;
+        T value = node.value;
+        int length = path.length();
+        int position = 0;
+        while (position < length) {
+            Node<T> child = node.child(path.charAt(position));
+            if (child == null || !path.regionMatches(position, child.label, 0, child.label.length())) {
+                break;
+            }
+            position += child.label.length();
+            node = child;
+            if (node.value != null) {
+                value = node.value;
+            }
+        }
+        return value;
+    }
+
+    private static final class Node<T> {
+        private final String label;
+        private final T value;
+        private final char[] firstChars;
+        private final Node<T>[] children;
+
+        Node(String label, T value, Node<T>[] children) {
+            this.label = label;
+            this.value = value;
+            this.children = children;
+            this.firstChars = new char[children.length];
+            for (int i = 0; i < children.length; i++) {
+                firstChars[i] = children[i].label.charAt(0);
+            }
+        }
+
+        Node<T> child(char c) {
+            int index = Arrays.binarySearch(firstChars, c);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    private static final class MutableNode<T> {
+        private String label;
+        private T value;
+        private MutableNode<T>[] children;
+
+        @SuppressWarnings("unchecked")
+        MutableNode(String label) {
+            this.label = label;
+            this.children = new MutableNode[0];
+        }
+
+        void insert(String path, T value) {
+            MutableNode<T> node = this;
+            int position = 0;
+            while (position < path.length()) {
+                int index = node.indexOf(path.charAt(position));
+                if (index < 0) {
+                    MutableNode<T> child = new MutableNode<>(path.substring(position));
+                    child.value = value;
+                    node.add(-index - 1, child);
+                    return;
+                }
+                MutableNode<T> child = node.children[index];
+                int common = commonPrefixLength(child.label, path, position);
+                if (common < child.label.length()) {
+                    // split the edge at the end of the common prefix
+                    MutableNode<T> split = new MutableNode<>(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    split.add(0, child);
+                    node.children[index] = split;
+                    child = split;
+                }
+                position += common;
+                node = child;
+            }
+            node.value = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        Node<T> freeze() {
+            Node<T>[] frozen = new Node[children.length];
+            for (int i = 0; i < children.length; i++) {
+                frozen[i] = children[i].freeze();
+            }
+            return new Node<>(label, value, frozen);
+        }
+
+        private int indexOf(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char middleChar = children[middle].label.charAt(0);
+                if (middleChar < c) {
+                    low = middle + 1;
+                }
+                else if (middleChar > c) {
+                    high = middle - 1;
+                }
+                else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private void add(int index, MutableNode<T> child) {
+            MutableNode<T>[] newChildren = Arrays.copyOf(children, children.length + 1);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            newChildren[index] = child;
+            children = newChildren;
+        }
+
+        private static int commonPrefixLength(String label, String path, int position) {
+            int max = Math.min(label.length(), path.length() - position);
+            int i = 0;
+            while (i < max && label.charAt(i) == path.charAt(position + i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+}
@@ -33,7 +33,6 @@ import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -45,7 +44,6 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
 import java.util.TimeZone;
 
@@ -70,9 +68,7 @@ public class HttpUtils {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpUtils.class);
 
     private static final Charset UTF_8 = Charset.forName("UTF-8");
-    private static final Random SESSION_SEQUENCE = new SecureRandom();
-    private static final char[] BASE_62_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
-    private static final int BASE_62_CHARS_LENGTH = BASE_62_CHARS.length;
+    private static final SessionIdGenerator SESSION_ID_GENERATOR = new SessionIdGenerator();
 
 	private static final DateFormat[] RFC822_PARSE_PATTERNS = new DateFormat[] {
             new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.ENGLISH),
@@ -377,13 +373,7 @@ public class HttpUtils {
 
     public static String newSessionId() {
         // base-62, 32 chars long, random
-        int size = 32;
-        StringBuilder sessionId = new StringBuilder(size);
-        for (int i = 0; i < size; i++) {
-            int randomInt = Math.abs(SESSION_SEQUENCE.nextInt());
-            sessionId.append(BASE_62_CHARS[randomInt % BASE_62_CHARS_LENGTH]);
-        }
-        return sessionId.toString();
+        return SESSION_ID_GENERATOR.newSessionId();
     }
 
     // constructs an http specific request uri with host, port (or explicit default port), and path
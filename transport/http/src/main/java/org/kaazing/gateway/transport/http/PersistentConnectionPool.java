@@ -31,13 +31,22 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /*
  * A pool for reusable persistent transport connections. HttpConnector
  * may pick one of the transport connections instead of creating a new
  * one while connecting to the origin server.
+ *
+ * Connections are pooled per I/O thread, so a borrowed connection is always
+ * aligned with the caller's thread. The number of idle connections is limited
+ * per thread by http.keepalive.connections and, optionally, per server across
+ * all the threads.
  */
-class PersistentConnectionPool {
+class PersistentConnectionPool implements PersistentConnectionPoolStats {
 
     private static final String IDLE_FILTER = HttpProtocol.NAME + "#idle";
     private static final TypedAttributeKey<HttpResourceAddress> SERVER_ADDRESS =
@@ -49,10 +58,22 @@ class PersistentConnectionPool {
     // - it reduces contention compared to synchronized ServerConnections
     private final ThreadLocal<ServerConnections> connections;
 
+    // server address -> idle and prewarming connections across all the threads
+    private final ConcurrentMap<HttpResourceAddress, ServerCounts> serverCounts;
+
     private final Logger logger;
     private final HttpConnectIdleFilter idleFilter;
     private final CloseListener closeListener;
 
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder recycled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder prewarmed = new LongAdder();
+
+    private volatile int maxConnectionsPerHost;
+
     PersistentConnectionPool(Logger logger) {
         this.connections = new VicariousThreadLocal<ServerConnections>() {
             @Override
@@ -60,11 +81,20 @@ class PersistentConnectionPool {
                 return new ServerConnections();
             }
         };
+        this.serverCounts = new ConcurrentHashMap<>();
         this.logger = logger;
-        this.idleFilter = new HttpConnectIdleFilter(logger);
+        this.idleFilter = new HttpConnectIdleFilter(logger, evicted);
         this.closeListener = new CloseListener(this);
     }
 
+    /*
+     * Sets the maximum number of idle connections pooled per server across all the threads,
+     * 0 for no limit other than the per-thread limit
+     */
+    void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
     /*
      * Cache existing transport session so that it can be used for future
      * connect requests to server
@@ -73,12 +103,63 @@ class PersistentConnectionPool {
      *         false otherwise
      */
     boolean recycle(DefaultHttpSession httpSession) {
-        if (!add(httpSession)) {
-            return false;
-        }
-
         HttpResourceAddress serverAddress = (HttpResourceAddress)httpSession.getRemoteAddress();
         IoSession transportSession = httpSession.getParent();
+        boolean cached = recycle(serverAddress, transportSession);
+        if (cached) {
+            recycled.increment();
+        }
+        return cached;
+    }
+
+    /*
+     * Reserves the connections to open ahead of demand so that the server has the
+     * given number of idle or prewarming connections
+     *
+     * @return the number of connections the caller must open and then hand over
+     *         to prewarmed() or prewarmFailed()
+     */
+    int reservePrewarm(HttpResourceAddress serverAddress, int prewarmConnections) {
+        ServerCounts counts = getServerCounts(serverAddress);
+        while (true) {
+            int prewarming = counts.prewarming.get();
+            int reserve = prewarmConnections - counts.idle.get() - prewarming;
+            if (reserve <= 0) {
+                return 0;
+            }
+            if (counts.prewarming.compareAndSet(prewarming, prewarming + reserve)) {
+                return reserve;
+            }
+        }
+    }
+
+    /*
+     * Caches a connection opened ahead of demand, on its own I/O thread
+     *
+     * @return true if the connection is cached for reuse
+     *         false otherwise
+     */
+    boolean prewarmed(HttpResourceAddress serverAddress, IoSession transportSession) {
+        getServerCounts(serverAddress).prewarming.decrementAndGet();
+        boolean cached = recycle(serverAddress, transportSession);
+        if (cached) {
+            prewarmed.increment();
+        }
+        return cached;
+    }
+
+    /*
+     * Releases the reservation of a connection that could not be opened ahead of demand
+     */
+    void prewarmFailed(HttpResourceAddress serverAddress) {
+        getServerCounts(serverAddress).prewarming.decrementAndGet();
+    }
+
+    private boolean recycle(HttpResourceAddress serverAddress, IoSession transportSession) {
+        if (!add(serverAddress, transportSession)) {
+            rejected.increment();
+            return false;
+        }
 
         SERVER_ADDRESS.set(transportSession, serverAddress);
 
@@ -104,8 +185,11 @@ class PersistentConnectionPool {
      */
     IoSession take(HttpResourceAddress serverAddress) {
         IoSession transportSession = removeThreadAligned(serverAddress);
-        if (transportSession != null) {
+        if (transportSession == null) {
+            misses.increment();
+        } else {
             // Got a cached persistent connection
+            hits.increment();
 
             // Remove session idle tracking for this session
             transportSession.getConfig().setBothIdleTime(0);
@@ -124,10 +208,15 @@ class PersistentConnectionPool {
         return transportSession;
     }
 
-    private boolean add(DefaultHttpSession httpSession) {
-        HttpResourceAddress serverAddress = (HttpResourceAddress)httpSession.getRemoteAddress();
-        IoSession transportSession = httpSession.getParent();
-
+    private boolean add(HttpResourceAddress serverAddress, IoSession transportSession) {
+        ServerCounts counts = getServerCounts(serverAddress);
+        if (!counts.tryIncrementIdle(maxConnectionsPerHost)) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("NOT caching persistent connection: server = %s session = %s max per host = %d",
+                        serverAddress.getResource(), transportSession, maxConnectionsPerHost));
+            }
+            return false;
+        }
 
         ServerConnections serverConnections = connections.get();
         boolean cached = serverConnections.add(serverAddress, transportSession);
@@ -139,6 +228,7 @@ class PersistentConnectionPool {
             }
             return true;
         } else {
+            counts.idle.decrementAndGet();
             if (logger.isDebugEnabled()) {
                 int cachedConnections = serverConnections.cachedConnections(serverAddress);
                 logger.debug(String.format("NOT caching persistent connection: server = %s session = %s pool = %d",
@@ -152,6 +242,7 @@ class PersistentConnectionPool {
         ServerConnections serverConnections = connections.get();
         boolean removed = serverConnections.remove(serverAddress, session);
         if (removed) {
+            getServerCounts(serverAddress).idle.decrementAndGet();
             if (logger.isDebugEnabled()) {
                 int cachedConnections = serverConnections.cachedConnections(serverAddress);
                 logger.debug(String.format("Removing cached persistent connection: server = %s session = %s pool = %d",
@@ -165,6 +256,7 @@ class PersistentConnectionPool {
         IoSession session = serverConnections.removeAny(serverAddress);
         if (session != null) {
             // Connection was in the pool
+            getServerCounts(serverAddress).idle.decrementAndGet();
             if (logger.isDebugEnabled()) {
                 int count = serverConnections.cachedConnections(serverAddress);
                 logger.debug(String.format("Reusing cached persistent connection: server = %s  session = %s pool = %d",
@@ -179,6 +271,64 @@ class PersistentConnectionPool {
         return session;
     }
 
+    private ServerCounts getServerCounts(HttpResourceAddress serverAddress) {
+        ServerCounts counts = serverCounts.get(serverAddress);
+        if (counts == null) {
+            ServerCounts newCounts = new ServerCounts();
+            counts = serverCounts.putIfAbsent(serverAddress, newCounts);
+            if (counts == null) {
+                counts = newCounts;
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    @Override
+    public long getRecycled() {
+        return recycled.sum();
+    }
+
+    @Override
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getEvicted() {
+        return evicted.sum();
+    }
+
+    @Override
+    public long getPrewarmed() {
+        return prewarmed.sum();
+    }
+
+    @Override
+    public int getIdleConnections() {
+        int idleConnections = 0;
+        for (ServerCounts counts : serverCounts.values()) {
+            idleConnections += counts.idle.get();
+        }
+        return idleConnections;
+    }
+
     /*
      * If a session is closed, it will be removed from this pool using this
      * CloseFuture listener
@@ -204,9 +354,11 @@ class PersistentConnectionPool {
      */
     private static class HttpConnectIdleFilter extends HttpFilterAdapter<IoSessionEx> {
         private final Logger logger;
+        private final LongAdder evicted;
 
-        HttpConnectIdleFilter(Logger logger) {
+        HttpConnectIdleFilter(Logger logger, LongAdder evicted) {
             this.logger = logger;
+            this.evicted = evicted;
         }
 
         @Override
@@ -214,6 +366,7 @@ class PersistentConnectionPool {
             if (logger.isDebugEnabled()) {
                 logger.debug(String.format("Idle cached persistent connection: session=%s", session));
             }
+            evicted.increment();
 
             // Transport connection will be removed from pool in an listener of CloseFuture
             session.close(false);
@@ -221,6 +374,26 @@ class PersistentConnectionPool {
     }
 
 
+    /*
+     * Counts the idle and prewarming connections to a server across all the threads
+     */
+    private static final class ServerCounts {
+        private final AtomicInteger idle = new AtomicInteger();
+        private final AtomicInteger prewarming = new AtomicInteger();
+
+        private boolean tryIncrementIdle(int maxConnections) {
+            while (true) {
+                int current = idle.get();
+                if (maxConnections > 0 && current >= maxConnections) {
+                    return false;
+                }
+                if (idle.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+
     /**
      * Keeps track of presistent connections to a server. Implemenation is not thread-safe
      * and the caller will take care of thread safety.
@@ -0,0 +1,71 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.http;
+
+/**
+ * Statistics of the pool of persistent connections used by the HTTP connector to reach the upstream servers.
+ */
+public interface PersistentConnectionPoolStats {
+
+    /**
+     * Method returning the number of connects served by a pooled connection
+     * @return
+     */
+    long getHits();
+
+    /**
+     * Method returning the number of connects which found no pooled connection and opened a new one
+     * @return
+     */
+    long getMisses();
+
+    /**
+     * Method returning the ratio of connects served by a pooled connection, between 0 and 1
+     * @return
+     */
+    double getHitRate();
+
+    /**
+     * Method returning the number of connections returned to the pool after a completed exchange
+     * @return
+     */
+    long getRecycled();
+
+    /**
+     * Method returning the number of connections closed instead of being pooled, as the pool was full
+     * @return
+     */
+    long getRejected();
+
+    /**
+     * Method returning the number of pooled connections closed after being idle for the keep-alive timeout
+     * @return
+     */
+    long getEvicted();
+
+    /**
+     * Method returning the number of connections opened ahead of demand
+     * @return
+     */
+    long getPrewarmed();
+
+    /**
+     * Method returning the current number of idle connections in the pool
+     * @return
+     */
+    int getIdleConnections();
+
+}
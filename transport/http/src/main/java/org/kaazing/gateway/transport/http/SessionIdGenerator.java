@@ -0,0 +1,134 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.http;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * Generator of random, base-62 session identifiers, optionally prefixed by the identifier of the cluster member
+ * which created them, so that requests can be routed back to that member.
+ * <p/>
+ * Each thread draws random bytes in bulk from its own SecureRandom, seeded from the shared one, so that concurrent
+ * I/O threads do not contend on a single SecureRandom lock.
+ */
+public final class SessionIdGenerator {
+
+    public static final char PREFIX_SEPARATOR = '-';
+
+    private static final char[] BASE_62_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+    private static final int RANDOM_LENGTH = 32;
+    private static final int POOL_SIZE = 512;
+    private static final int SEED_SIZE = 32;
+
+    private static final SecureRandom SEEDER = new SecureRandom();
+
+    private static final ThreadLocal<RandomPool> RANDOM_POOL = new ThreadLocal<RandomPool>() {
+        @Override
+        protected RandomPool initialValue() {
+            return new RandomPool();
+        }
+    };
+
+    private final char[] prefix;
+
+    /**
+     * Creates a generator of session identifiers without prefix.
+     */
+    public SessionIdGenerator() {
+        this(null);
+    }
+
+    /**
+     * Creates a generator of session identifiers starting with the given prefix and {@link #PREFIX_SEPARATOR}.
+     * @param prefix  base-62 identifier of the cluster member, or null for no prefix
+     */
+    public SessionIdGenerator(String prefix) {
+        if (prefix != null) {
+            for (int i = 0; i < prefix.length(); i++) {
+                if (!isBase62(prefix.charAt(i))) {
+                    throw new IllegalArgumentException("Session id prefix must only contain base-62 characters: " + prefix);
+                }
+            }
+            this.prefix = (prefix + PREFIX_SEPARATOR).toCharArray();
+        }
+        else {
+            this.prefix = new char[0];
+        }
+    }
+
+    /**
+     * Method returning a new session identifier, made of the prefix, if any, and 32 random base-62 characters
+     * @return
+     */
+    public String newSessionId() {
+        char[] sessionId = new char[prefix.length + RANDOM_LENGTH];
+        System.arraycopy(prefix, 0, sessionId, 0, prefix.length);
+        RANDOM_POOL.get().nextBase62(sessionId, prefix.length, RANDOM_LENGTH);
+        return new String(sessionId);
+    }
+
+    /**
+     * Method returning the prefix of a session identifier
+     * @param sessionId
+     * @return the prefix, or null if the session identifier has no prefix
+     */
+    public static String getPrefix(String sessionId) {
+        int separator = sessionId.indexOf(PREFIX_SEPARATOR);
+        return (separator != -1) ? sessionId.substring(0, separator) : null;
+    }
+
+    private static boolean isBase62(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+
+    private static final class RandomPool {
+        private final SecureRandom random;
+        private final byte[] pool = new byte[POOL_SIZE];
+        private int index = POOL_SIZE;
+
+        RandomPool() {
+            SecureRandom random;
+            try {
+                // not backed by the operating system entropy source, which is shared by all instances
+                random = SecureRandom.getInstance("SHA1PRNG");
+            }
+            catch (NoSuchAlgorithmException e) {
+                random = new SecureRandom();
+            }
+            // seeding explicitly before first use prevents self-seeding from the blocking seed generator
+            byte[] seed = new byte[SEED_SIZE];
+            SEEDER.nextBytes(seed);
+            random.setSeed(seed);
+            this.random = random;
+        }
+
+        void nextBase62(char[] dest, int offset, int length) {
+            int end = offset + length;
+            while (offset < end) {
+                if (index == POOL_SIZE) {
+                    random.nextBytes(pool);
+                    index = 0;
+                }
+                // 6 random bits, values 62 and 63 are rejected so that all characters are equally likely
+                int value = pool[index++] & 0x3f;
+                if (value < BASE_62_CHARS.length) {
+                    dest[offset++] = BASE_62_CHARS[value];
+                }
+            }
+        }
+    }
+}
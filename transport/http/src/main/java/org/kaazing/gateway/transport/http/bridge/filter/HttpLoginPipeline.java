@@ -0,0 +1,259 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.http.bridge.filter;
+
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.security.auth.Subject;
+import javax.security.auth.login.LoginException;
+
+import org.kaazing.gateway.security.auth.LoginResultCallbackHandler;
+import org.kaazing.gateway.security.auth.context.ResultAwareLoginContext;
+
+/**
+ * Coordinates the logins which the {@link HttpSubjectSecurityFilter}s of an acceptor run off the I/O threads.
+ * <p/>
+ * When coalescing is enabled, identical concurrent credential checks (same realm, authentication token, client
+ * address and required roles) are coalesced into a single flight: the first one runs the realm's login module chain
+ * and the others board its flight and share the resulting login context, instead of each running the chain again.
+ * The shared login context only logs out of the login modules once every session sharing it has logged out.
+ * Failed logins are never shared, the logins waiting on a failed flight run the chain on their own so that each gets
+ * its own challenge or rejection.
+ * <p/>
+ * The pipeline also keeps the login latency and queue metrics, so a login storm (e.g. thousands of clients
+ * reconnecting after a gateway restart) can be observed.
+ */
+public class HttpLoginPipeline {
+
+    private final boolean coalescing;
+    private final ConcurrentMap<Object, Flight> flights;
+
+    private final AtomicInteger queuedLogins;
+    private final AtomicInteger activeLogins;
+    private final AtomicInteger waitingLogins;
+    private final AtomicLong completedLogins;
+    private final AtomicLong coalescedLogins;
+    private final AtomicLong totalQueueTime;
+    private final AtomicLong totalLoginTime;
+
+    public HttpLoginPipeline(boolean coalescing) {
+        this.coalescing = coalescing;
+        this.flights = new ConcurrentHashMap<>();
+        this.queuedLogins = new AtomicInteger();
+        this.activeLogins = new AtomicInteger();
+        this.waitingLogins = new AtomicInteger();
+        this.completedLogins = new AtomicLong();
+        this.coalescedLogins = new AtomicLong();
+        this.totalQueueTime = new AtomicLong();
+        this.totalLoginTime = new AtomicLong();
+    }
+
+    public boolean isCoalescing() {
+        return coalescing;
+    }
+
+    /**
+     * @return the number of logins scheduled but not yet picked up by a login thread
+     */
+    public int getQueuedLoginCount() {
+        return queuedLogins.get();
+    }
+
+    /**
+     * @return the number of logins in progress, including those waiting on the flight of an identical login
+     */
+    public int getActiveLoginCount() {
+        return activeLogins.get();
+    }
+
+    /**
+     * @return the number of logins waiting on the flight of an identical login
+     */
+    public int getWaitingLoginCount() {
+        return waitingLogins.get();
+    }
+
+    public long getCompletedLoginCount() {
+        return completedLogins.get();
+    }
+
+    /**
+     * @return the number of logins which shared the login context of an identical login
+     */
+    public long getCoalescedLoginCount() {
+        return coalescedLogins.get();
+    }
+
+    /**
+     * @return the average time (in microseconds) logins waited for a login thread
+     */
+    public long getAverageQueueTime() {
+        long started = completedLogins.get() + activeLogins.get();
+        return started == 0 ? 0 : NANOSECONDS.toMicros(totalQueueTime.get() / started);
+    }
+
+    /**
+     * @return the average time (in microseconds) from a login thread picking up a login to its outcome
+     */
+    public long getAverageLoginTime() {
+        long completed = completedLogins.get();
+        return completed == 0 ? 0 : NANOSECONDS.toMicros(totalLoginTime.get() / completed);
+    }
+
+    void loginQueued() {
+        queuedLogins.incrementAndGet();
+    }
+
+    long loginStarted(long queuedTime) {
+        long startedTime = System.nanoTime();
+        queuedLogins.decrementAndGet();
+        activeLogins.incrementAndGet();
+        totalQueueTime.addAndGet(startedTime - queuedTime);
+        return startedTime;
+    }
+
+    void loginCompleted(long startedTime) {
+        totalLoginTime.addAndGet(System.nanoTime() - startedTime);
+        completedLogins.incrementAndGet();
+        activeLogins.decrementAndGet();
+    }
+
+    /**
+     * Board the flight of the login identified by the key, or start that flight if there is none.
+     *
+     * @param key        identifies the credential check
+     * @param onLanding  notified with the shared login context, or null when it cannot be shared,
+     *                   once the flight lands
+     * @return the flight that the caller now leads and must {@link #land(Flight, ResultAwareLoginContext)},
+     *         or null if the caller boarded a flight already in progress
+     */
+    Flight board(Object key, Consumer<ResultAwareLoginContext> onLanding) {
+        Flight newFlight = new Flight(key);
+        while (true) {
+            Flight flight = flights.putIfAbsent(key, newFlight);
+            if (flight == null) {
+                return newFlight;
+            }
+
+            waitingLogins.incrementAndGet();
+            if (flight.board(onLanding)) {
+                return null;
+            }
+            waitingLogins.decrementAndGet();
+
+            // the flight landed but is not yet removed
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Land a flight, handing the outcome of its login to the logins which boarded it.
+     *
+     * @param flight        the flight returned from {@link #board(Object, Consumer)}
+     * @param loginContext  the login context of a successful login, or null if the login failed
+     * @return the login context the leading login should use, shared with the boarded logins if any
+     */
+    ResultAwareLoginContext land(Flight flight, ResultAwareLoginContext loginContext) {
+        flights.remove(flight.key, flight);
+        List<Consumer<ResultAwareLoginContext>> passengers = flight.land();
+        if (passengers.isEmpty()) {
+            return loginContext;
+        }
+
+        ResultAwareLoginContext sharedLoginContext = null;
+        if (loginContext != null) {
+            try {
+                sharedLoginContext = new SharedLoginContext(loginContext, passengers.size() + 1);
+            } catch (LoginException e) {
+                // not shareable, boarded logins run the login module chain on their own
+            }
+        }
+
+        for (Consumer<ResultAwareLoginContext> passenger : passengers) {
+            waitingLogins.decrementAndGet();
+            if (sharedLoginContext != null) {
+                coalescedLogins.incrementAndGet();
+            }
+            passenger.accept(sharedLoginContext);
+        }
+
+        return sharedLoginContext != null ? sharedLoginContext : loginContext;
+    }
+
+    static final class Flight {
+
+        private final Object key;
+        private List<Consumer<ResultAwareLoginContext>> passengers;
+
+        private Flight(Object key) {
+            this.key = key;
+            this.passengers = new ArrayList<>();
+        }
+
+        private synchronized boolean board(Consumer<ResultAwareLoginContext> passenger) {
+            if (passengers == null) {
+                return false;
+            }
+            passengers.add(passenger);
+            return true;
+        }
+
+        private synchronized List<Consumer<ResultAwareLoginContext>> land() {
+            List<Consumer<ResultAwareLoginContext>> landed = passengers;
+            passengers = null;
+            return landed.isEmpty() ? emptyList() : landed;
+        }
+    }
+
+    /**
+     * A login context shared by the sessions of coalesced logins, logging out of the underlying login context
+     * when the last of them logs out.
+     */
+    static final class SharedLoginContext extends ResultAwareLoginContext {
+
+        private final ResultAwareLoginContext loginContext;
+        private final AtomicInteger references;
+
+        SharedLoginContext(ResultAwareLoginContext loginContext, int references) throws LoginException {
+            super("SHARED_LOGIN_CONTEXT", loginContext.getSubject(),
+                    new LoginResultCallbackHandler(loginContext.getLoginResult()),
+                    new HttpLoginSecurityFilter.SuccessConfiguration(), loginContext.getLoginResult());
+            this.loginContext = loginContext;
+            this.references = new AtomicInteger(references);
+        }
+
+        @Override
+        public Subject getSubject() {
+            return loginContext.getSubject();
+        }
+
+        @Override
+        public void logout() throws LoginException {
+            if (references.decrementAndGet() == 0) {
+                loginContext.logout();
+            }
+        }
+    }
+}
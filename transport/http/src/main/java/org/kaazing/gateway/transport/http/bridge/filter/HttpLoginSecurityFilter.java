@@ -16,10 +16,9 @@
 package org.kaazing.gateway.transport.http.bridge.filter;
 
 import static java.lang.String.format;
-import static java.util.Arrays.asList;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.kaazing.gateway.resource.address.ResourceAddress.NEXT_PROTOCOL;
-import static org.kaazing.gateway.resource.address.http.HttpResourceAddress.REQUIRED_ROLES;
+import static org.kaazing.gateway.resource.address.http.HttpResourceAddress.REQUIRED_ROLE_SET;
 import static org.kaazing.gateway.transport.BridgeSession.LOCAL_ADDRESS;
 import static org.kaazing.gateway.transport.BridgeSession.REMOTE_ADDRESS;
 import static org.kaazing.gateway.transport.http.HttpHeaders.HEADER_FORWARDED;
@@ -29,8 +28,6 @@ import static org.kaazing.gateway.transport.http.HttpHeaders.HEADER_WWW_AUTHENTI
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.UnknownHostException;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -43,7 +40,7 @@ import javax.security.auth.login.LoginException;
 import org.apache.mina.core.session.IoSession;
 import org.kaazing.gateway.resource.address.ResourceAddress;
 import org.kaazing.gateway.resource.address.http.HttpRealmInfo;
-import org.kaazing.gateway.resource.address.http.HttpResourceAddress;
+import org.kaazing.gateway.resource.address.http.HttpRequiredRoles;
 import org.kaazing.gateway.security.LoginContextFactory;
 import org.kaazing.gateway.security.TypedCallbackHandlerMap;
 import org.kaazing.gateway.security.auth.AuthenticationTokenCallbackHandler;
@@ -106,13 +103,12 @@ public abstract class HttpLoginSecurityFilter extends HttpBaseSecurityFilter {
         ResourceAddress localAddress = httpRequest.getLocalAddress();
         Subject subject = httpRequest.getSubject();
 
-        Collection<String> requiredRoles = asList(localAddress.getOption(REQUIRED_ROLES));
-        if  (requiredRoles == null || requiredRoles.size() == 0) {
+        HttpRequiredRoles requiredRoles = localAddress.getOption(REQUIRED_ROLE_SET);
+        if  (requiredRoles.isEmpty()) {
             return true;
         }
         if (subject != null ) {
-            Collection<String> authorizedRoles = getAuthorizedRoles(subject);
-            return authorizedRoles.containsAll(requiredRoles);
+            return requiredRoles.isGrantedBy(subject.getPrincipals());
         }
         return false;
     }
@@ -120,7 +116,7 @@ public abstract class HttpLoginSecurityFilter extends HttpBaseSecurityFilter {
     /**
      * Models an success JAAS Configuration for use by the {@link #LOGIN_CONTEXT_OK}
      */
-    private static class SuccessConfiguration extends javax.security.auth.login.Configuration {
+    static class SuccessConfiguration extends javax.security.auth.login.Configuration {
         @Override
         public AppConfigurationEntry[] getAppConfigurationEntry(String name) {
             return new AppConfigurationEntry[] {
@@ -266,7 +262,7 @@ public abstract class HttpLoginSecurityFilter extends HttpBaseSecurityFilter {
     	HttpRealmInfo realm = realms[realmIndex];
 
         ResourceAddress address = httpRequest.getLocalAddress();
-        String[] requiredRolesArray = address.getOption(HttpResourceAddress.REQUIRED_ROLES);
+        HttpRequiredRoles requireRoles = address.getOption(REQUIRED_ROLE_SET);
 
         boolean loginOK = true;  // should we be allowed through
 
@@ -278,9 +274,7 @@ public abstract class HttpLoginSecurityFilter extends HttpBaseSecurityFilter {
         // HttpSubjectSecurityFilter.doMessageReceived)
         Subject subject = httpRequest.getSubject();
 
-        Collection<String> requireRoles = asList(requiredRolesArray);
-        Collection<String> authorizedRoles = Collections.emptySet();
-        boolean rolesAreSufficient = authorizedRoles.containsAll(requireRoles);
+        boolean rolesAreSufficient = requireRoles.isEmpty();
 
         if ( loggerEnabled() ) {
             log("Login starting; [token='%s',rolesAreSufficient=%s].", authToken==null?"N/A":authToken,
@@ -434,12 +428,11 @@ public abstract class HttpLoginSecurityFilter extends HttpBaseSecurityFilter {
         return loginOK;
     }
 
-    private boolean isSubjectAuthorized(Subject subject, Collection<String> requiredRoles) {
+    private boolean isSubjectAuthorized(Subject subject, HttpRequiredRoles requiredRoles) {
         if (isSubjectAutomaticallyAuthorized(subject, requiredRoles)) {
             return true;
         }
-        Collection<String> authorizedRoles = getAuthorizedRoles(subject);
-        return authorizedRoles.containsAll(requiredRoles);
+        return requiredRoles.isGrantedBy(subject.getPrincipals());
     }
 
     private String sendChallengeResponse(NextFilter nextFilter, IoSession session, HttpRequestMessage httpRequest,
@@ -562,8 +555,8 @@ public abstract class HttpLoginSecurityFilter extends HttpBaseSecurityFilter {
         return authToken == null || authToken.isEmpty();
     }
 
-    private boolean isSubjectAutomaticallyAuthorized(Subject subject, Collection<String> requireRoles) {
-        return requireRoles.contains("*") && subject != null;
+    private boolean isSubjectAutomaticallyAuthorized(Subject subject, HttpRequiredRoles requireRoles) {
+        return requireRoles.isWildcard() && subject != null;
     }
 
     private void log(String format, Object... values) {
@@ -116,10 +116,7 @@ public class HttpOriginSecurityFilter extends HttpFilterAdapter<IoSessionEx> {
         HttpOriginConstraint crossSiteConstraint = null;
         HttpOriginSecurity crossOriginSecurity = localAddress.getOption(ORIGIN_SECURITY);
         if (crossOriginSecurity != null) {
-            crossSiteConstraint = crossOriginSecurity.getConstraint(crossOrigin);
-            if (crossSiteConstraint == null && crossOrigin != null) {
-                crossSiteConstraint = crossOriginSecurity.getConstraint("*");
-            }
+            crossSiteConstraint = crossOriginSecurity.findConstraint(crossOrigin);
         }
 
         String allowOrigin = (crossSiteConstraint != null) ? crossSiteConstraint.getAllowOrigin() : null;
@@ -183,7 +180,7 @@ public class HttpOriginSecurityFilter extends HttpFilterAdapter<IoSessionEx> {
         // enforce existence of cross site access control constraints
         // for services, specifically when preflight is not necessary
         if (crossOrigin != null
-                && (crossSiteConstraint == null || !crossSiteConstraint.getAllowMethods().contains(httpMethod.toString()))) {
+                && (crossSiteConstraint == null || !crossSiteConstraint.isMethodAllowed(httpMethod.toString()))) {
             HttpResponseMessage httpResponse = new HttpResponseMessage();
             httpResponse.setVersion(HttpVersion.HTTP_1_1);
             httpResponse.setStatus(HttpStatus.CLIENT_FORBIDDEN);
@@ -15,6 +15,9 @@
  */
 package org.kaazing.gateway.transport.http.bridge.filter;
 
+import static java.util.Arrays.asList;
+import static org.kaazing.gateway.transport.BridgeSession.REMOTE_ADDRESS;
+import static org.kaazing.gateway.transport.http.HttpHeaders.HEADER_FORWARDED;
 import static org.kaazing.gateway.transport.http.HttpHeaders.HEADER_SEC_CHALLENGE_IDENTITY;
 
 import java.security.Principal;
@@ -69,6 +72,8 @@ public class HttpSubjectSecurityFilter extends HttpLoginSecurityFilter {
 
     private ScheduledExecutorService scheduler;
 
+    private HttpLoginPipeline loginPipeline;
+
     public HttpSubjectSecurityFilter() {
         this(null, null);
     }
@@ -89,6 +94,14 @@ public class HttpSubjectSecurityFilter extends HttpLoginSecurityFilter {
         this.scheduler = provider.getScheduler("loginmodule", false);
     }
 
+    /**
+     * @param loginPipeline the pipeline shared by the filters of all sessions, coalescing identical concurrent logins
+     *                      and keeping the login metrics
+     */
+    public void setLoginPipeline(HttpLoginPipeline loginPipeline) {
+        this.loginPipeline = loginPipeline;
+    }
+
     // --------------------------------------------------------
     // Security code for subject-security LEGACY
 
@@ -381,6 +394,9 @@ public class HttpSubjectSecurityFilter extends HttpLoginSecurityFilter {
 
         // Schedule LoginContext.login() execution using a separate thread
         LoginContextTask loginContextTask = new LoginContextTask(nextFilter, session, httpRequest, authToken, additionalCallbacks, realms, realmIndex, loginContexts);
+        if (loginPipeline != null) {
+            loginPipeline.loginQueued();
+        }
         scheduler.execute(loginContextTask);
     }
 
@@ -415,10 +431,15 @@ public class HttpSubjectSecurityFilter extends HttpLoginSecurityFilter {
         private final DefaultAuthenticationToken authToken;
         private final TypedCallbackHandlerMap additionalCallbacks;
         private final long createdTime;
+        private final long queuedTime;
         private final HttpRealmInfo[] realms;
         private final int realmStartAt;
         private final LoginContext[] loginContexts;
 
+        private long startedTime;
+        private boolean landed;
+        private ResultAwareLoginContext sharedLoginContext;
+
         LoginContextTask(NextFilter nextFilter, IoSession session, HttpRequestMessage httpRequest,
                          DefaultAuthenticationToken authToken, TypedCallbackHandlerMap additionalCallbacks,
                          HttpRealmInfo[] realms, int realmIndex, LoginContext[] loginContexts) {
@@ -428,6 +449,7 @@ public class HttpSubjectSecurityFilter extends HttpLoginSecurityFilter {
             this.authToken = authToken;
             this.additionalCallbacks = additionalCallbacks;
             this.createdTime = System.currentTimeMillis();
+            this.queuedTime = System.nanoTime();
             this.realms = realms;
             this.realmStartAt = realmIndex;
             this.loginContexts = loginContexts != null ? loginContexts : new LoginContext[realms.length];
@@ -435,17 +457,68 @@ public class HttpSubjectSecurityFilter extends HttpLoginSecurityFilter {
 
         @Override
         public void run() {
+            if (landed) {
+                // resumed after the login this task was waiting on has completed
+                complete(sharedLoginContext != null ? shareLogin(sharedLoginContext) : login());
+                return;
+            }
+
             if (loggerEnabled()) {
                 logger.trace("Executing login task %d ms after scheduling for session %s",
                         (System.currentTimeMillis() - createdTime) , session);
             }
 
+            if (loginPipeline != null) {
+                startedTime = loginPipeline.loginStarted(queuedTime);
+
+                if (loginPipeline.isCoalescing() && isCoalescable()) {
+                    HttpLoginPipeline.Flight flight = loginPipeline.board(getCredentialKey(), this::land);
+                    if (flight == null) {
+                        // an identical login is in progress, resume once it completes
+                        return;
+                    }
+
+                    boolean succeeded = login();
+                    ResultAwareLoginContext loginContext = httpRequest.getLoginContext();
+                    boolean shareable = succeeded && loginContext != null && loginContext != LOGIN_CONTEXT_OK;
+                    ResultAwareLoginContext sharedLoginContext = loginPipeline.land(flight, shareable ? loginContext : null);
+                    if (shareable && sharedLoginContext != loginContext) {
+                        loginContexts[realmStartAt] = sharedLoginContext;
+                        httpRequest.setLoginContext(sharedLoginContext);
+                    }
+                    complete(succeeded);
+                    return;
+                }
+            }
+
+            complete(login());
+        }
+
+        private boolean login() {
             boolean succeeded = true;
             for (int realmIndex = realmStartAt; succeeded && realmIndex < realms.length; realmIndex++) {
-                succeeded &= login(nextFilter, session, httpRequest, authToken, additionalCallbacks, realms, realmIndex, loginContexts);
+                succeeded &= HttpSubjectSecurityFilter.this.login(nextFilter, session, httpRequest, authToken,
+                        additionalCallbacks, realms, realmIndex, loginContexts);
             }
+            return succeeded;
+        }
+
+        private boolean shareLogin(ResultAwareLoginContext loginContext) {
+            loginContexts[realmStartAt] = loginContext;
+            httpRequest.setLoginContext(loginContext);
+            httpRequest.setSubject(loginContext.getSubject());
 
-            //
+            DefaultLoginResult loginResult = loginContext.getLoginResult();
+            if (loginResult.hasLoginAuthorizationAttachment()) {
+                writeSessionCookie(session, httpRequest, loginResult);
+            }
+            if (loggerEnabled()) {
+                logger.trace("Login shared with an identical concurrent login; [{}].", authToken);
+            }
+            return true;
+        }
+
+        private void complete(boolean succeeded) {
             try {
                 if (succeeded) {
                     // Complete the rest of the filter chain
@@ -456,11 +529,40 @@ public class HttpSubjectSecurityFilter extends HttpLoginSecurityFilter {
             } catch (Exception e) {
                 session.getFilterChain().fireExceptionCaught(e);
             }
+            if (loginPipeline != null) {
+                loginPipeline.loginCompleted(startedTime);
+            }
             if (loggerEnabled()) {
                 logger.trace("Finished login task after %d ms for session %s",
                         (System.currentTimeMillis() - createdTime), session);
             }
         }
+
+        private void land(ResultAwareLoginContext sharedLoginContext) {
+            this.sharedLoginContext = sharedLoginContext;
+            this.landed = true;
+            scheduler.execute(this);
+        }
+
+        // only single realm logins presenting a token are coalesced, any callback they see must be part of the key
+        private boolean isCoalescable() {
+            return realms.length - realmStartAt == 1 && additionalCallbacks == null && !authToken.isEmpty();
+        }
+
+        private Object getCredentialKey() {
+            HttpRealmInfo realm = realms[realmStartAt];
+            String[] requiredRoles = httpRequest.getLocalAddress().getOption(HttpResourceAddress.REQUIRED_ROLES);
+            return asList(realm.getLoginContextFactory(), authToken, getClientAddress(), asList(requiredRoles));
+        }
+
+        private String getClientAddress() {
+            String forwarded = httpRequest.getHeader(HEADER_FORWARDED);
+            if (forwarded != null) {
+                return forwarded;
+            }
+            ResourceAddress tcpAddress = REMOTE_ADDRESS.get(session).findTransport("tcp");
+            return tcpAddress != null ? tcpAddress.getResource().getHost() : null;
+        }
     }
 
 }
@@ -0,0 +1,127 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.http;
+
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mina.core.service.IoHandler;
+import org.kaazing.gateway.resource.address.ResourceAddress;
+import org.kaazing.gateway.resource.address.ResourceAddressFactory;
+import org.kaazing.gateway.transport.Bindings.Binding;
+import org.kaazing.gateway.transport.IoHandlerAdapter;
+import org.kaazing.gateway.transport.http.HttpBindings.HttpBinding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the resolution of the binding for a request path with many services bound on the same port, using the
+ * radix tree router and the previous descending scan over the bound paths.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpBindingsBM {
+
+    private static final String BASE_LOCATION = "http://localhost:8000";
+
+    @Param({"10", "100", "1000"})
+    public int bindings;
+
+    private final IoHandler handler = new IoHandlerAdapter<>();
+    private HttpBindings httpBindings;
+    private HttpPathRouter<Binding> router;
+    private ConcurrentNavigableMap<String, Binding> bindingsByPath;
+    private ResourceAddress[] requestAddresses;
+    private String[] requestPaths;
+    private int index;
+
+    @Setup
+    public void init() {
+        ResourceAddressFactory addressFactory = ResourceAddressFactory.newResourceAddressFactory();
+        httpBindings = new HttpBindings();
+        bindingsByPath = new ConcurrentSkipListMap<>(HttpBinding.PATH_ASCENDING);
+        requestAddresses = new ResourceAddress[bindings];
+        requestPaths = new String[bindings];
+        for (int i = 0; i < bindings; i++) {
+            String path = "/tenant" + i + "/service";
+            Binding binding = new Binding(addressFactory.newResourceAddress(BASE_LOCATION + path), handler, null);
+            httpBindings.addBinding(binding);
+            bindingsByPath.put(path, binding);
+            requestPaths[i] = path + "/;e/cb?.kl=Y";
+            requestAddresses[i] = addressFactory.newResourceAddress(BASE_LOCATION + requestPaths[i]);
+        }
+        router = HttpPathRouter.build(bindingsByPath);
+    }
+
+    @Benchmark
+    public Binding getBinding() {
+        return httpBindings.getBinding(requestAddresses[index++ % bindings]);
+    }
+
+    @Benchmark
+    public Binding routerLookup() {
+        return router.get(requestPaths[index++ % bindings]);
+    }
+
+    // lookup done by HttpBinding before the radix tree router
+    @Benchmark
+    public Binding descendingScanLookup() {
+        String path = requestPaths[index++ % bindings];
+        NavigableSet<String> candidatePaths = bindingsByPath.navigableKeySet().headSet(path, true);
+        for (Iterator<String> $i = candidatePaths.descendingIterator(); $i.hasNext(); ) {
+            String candidatePath = $i.next();
+            if (path.startsWith(candidatePath)) {
+                return bindingsByPath.get(candidatePath);
+            }
+        }
+        return null;
+    }
+
+    // Or from command line:
+    //
+    // mvn clean install
+    // java -jar target/benchmarks.jar HttpBindingsBM
+    //
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(HttpBindingsBM.class.getSimpleName())
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class HttpPathRouterTest {
+
+    @Test
+    public void shouldResolveLongestPrefix() {
+        Map<String, String> paths = new HashMap<>();
+        paths.put("/", "root");
+        paths.put("/echo", "echo");
+        paths.put("/echo/;e/ub", "upstream");
+        paths.put("/echo/;e/ubm", "mixed upstream");
+        paths.put("/events", "events");
+        HttpPathRouter<String> router = HttpPathRouter.build(paths);
+
+        assertEquals("root", router.get("/"));
+        assertEquals("root", router.get("/other"));
+        assertEquals("echo", router.get("/echo"));
+        assertEquals("echo", router.get("/echo/;e/cb"));
+        assertEquals("upstream", router.get("/echo/;e/ub/abc"));
+        assertEquals("mixed upstream", router.get("/echo/;e/ubm/abc"));
+        assertEquals("events", router.get("/events/stream"));
+        // matching is done on characters rather than segments, as bindingsByPath used to do
+        assertEquals("echo", router.get("/echoes"));
+        assertEquals("root", router.get("/eve"));
+    }
+
+    @Test
+    public void shouldNotResolveWithoutMatchingPrefix() {
+        Map<String, String> paths = new HashMap<>();
+        paths.put("/echo/", "echo");
+        HttpPathRouter<String> router = HttpPathRouter.build(paths);
+
+        assertNull(router.get("/echo"));
+        assertNull(router.get("/"));
+        assertNull(HttpPathRouter.<String>empty().get("/echo"));
+    }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.kaazing.gateway.resource.address.ResourceAddressFactory.newResourceAddressFactory;
+
+import org.apache.mina.core.filterchain.IoFilterChain;
+import org.apache.mina.core.future.CloseFuture;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.core.session.IoSessionConfig;
+import org.jmock.Expectations;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaazing.gateway.resource.address.http.HttpResourceAddress;
+import org.kaazing.test.util.Mockery;
+import org.slf4j.LoggerFactory;
+
+public class PersistentConnectionPoolTest {
+
+    private Mockery context;
+    private HttpResourceAddress serverAddress;
+    private PersistentConnectionPool pool;
+
+    @Before
+    public void setUp() {
+        context = new Mockery();
+        serverAddress = (HttpResourceAddress) newResourceAddressFactory().newResourceAddress("http://localhost:8080/path");
+        pool = new PersistentConnectionPool(LoggerFactory.getLogger(PersistentConnectionPoolTest.class));
+    }
+
+    @Test
+    public void shouldCountHitsAndMisses() {
+        IoSession session = mockTransportSession("session");
+
+        assertEquals(2, pool.reservePrewarm(serverAddress, 2));
+        // already reserved
+        assertEquals(0, pool.reservePrewarm(serverAddress, 2));
+        assertTrue(pool.prewarmed(serverAddress, session));
+        pool.prewarmFailed(serverAddress);
+        assertEquals(1, pool.getIdleConnections());
+
+        assertSame(session, pool.take(serverAddress));
+        assertNull(pool.take(serverAddress));
+
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getMisses());
+        assertEquals(0.5, pool.getHitRate(), 0.0);
+        assertEquals(1, pool.getPrewarmed());
+        assertEquals(0, pool.getIdleConnections());
+        context.assertIsSatisfied();
+    }
+
+    @Test
+    public void shouldLimitIdleConnectionsPerHost() {
+        IoSession session1 = mockTransportSession("session1");
+        IoSession session2 = mockTransportSession("session2");
+        pool.setMaxConnectionsPerHost(1);
+
+        assertEquals(2, pool.reservePrewarm(serverAddress, 2));
+        assertTrue(pool.prewarmed(serverAddress, session1));
+        assertFalse(pool.prewarmed(serverAddress, session2));
+
+        assertEquals(1, pool.getIdleConnections());
+        assertEquals(1, pool.getRejected());
+        // one idle connection already satisfies the prewarm target
+        assertEquals(0, pool.reservePrewarm(serverAddress, 1));
+        context.assertIsSatisfied();
+    }
+
+    private IoSession mockTransportSession(String name) {
+        final IoSession session = context.mock(IoSession.class, name);
+        final CloseFuture closeFuture = context.mock(CloseFuture.class, name + "CloseFuture");
+        final IoFilterChain filterChain = context.mock(IoFilterChain.class, name + "FilterChain");
+        final IoSessionConfig config = context.mock(IoSessionConfig.class, name + "Config");
+
+        context.checking(new Expectations() {
+            {
+                allowing(session).getCloseFuture();
+                will(returnValue(closeFuture));
+                allowing(session).getFilterChain();
+                will(returnValue(filterChain));
+                allowing(session).getConfig();
+                will(returnValue(config));
+                ignoring(session);
+                ignoring(closeFuture);
+                ignoring(filterChain);
+                ignoring(config);
+            }
+        });
+        return session;
+    }
+}
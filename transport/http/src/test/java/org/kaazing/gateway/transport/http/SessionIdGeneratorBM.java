@@ -0,0 +1,87 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.http;
+
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares session id generation from a single shared SecureRandom, as previously done by
+ * {@link HttpUtils#newSessionId()}, with {@link SessionIdGenerator}, under contention.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionIdGeneratorBM {
+
+    private static final int[] THREADS = {1, 4, 16, 64};
+
+    private static final Random SESSION_SEQUENCE = new SecureRandom();
+    private static final char[] BASE_62_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+
+    private final SessionIdGenerator generator = new SessionIdGenerator();
+
+    @Benchmark
+    public String sharedSecureRandom() {
+        StringBuilder sessionId = new StringBuilder(32);
+        for (int i = 0; i < 32; i++) {
+            int randomInt = Math.abs(SESSION_SEQUENCE.nextInt());
+            sessionId.append(BASE_62_CHARS[randomInt % BASE_62_CHARS.length]);
+        }
+        return sessionId.toString();
+    }
+
+    @Benchmark
+    public String sessionIdGenerator() {
+        return generator.newSessionId();
+    }
+
+    // Or from command line:
+    //
+    // mvn clean install
+    // java -jar target/benchmarks.jar SessionIdGeneratorBM -t 64
+    //
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : THREADS) {
+            Options opt = new OptionsBuilder()
+                    .include(SessionIdGeneratorBM.class.getSimpleName())
+                    .threads(threads)
+                    .forks(1)
+                    .build();
+
+            new Runner(opt).run();
+        }
+    }
+
+}
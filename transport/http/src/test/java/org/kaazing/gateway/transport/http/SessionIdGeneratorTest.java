@@ -0,0 +1,67 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class SessionIdGeneratorTest {
+
+    @Test
+    public void shouldGenerateUniqueBase62SessionIds() throws Exception {
+        SessionIdGenerator generator = new SessionIdGenerator();
+        Set<String> sessionIds = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            String sessionId = generator.newSessionId();
+            assertTrue(sessionId, sessionId.matches("[A-Za-z0-9]{32}"));
+            assertTrue(sessionIds.add(sessionId));
+        }
+        assertNull(SessionIdGenerator.getPrefix(sessionIds.iterator().next()));
+    }
+
+    @Test
+    public void shouldUseAllBase62Characters() throws Exception {
+        SessionIdGenerator generator = new SessionIdGenerator();
+        Set<Character> characters = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            for (char c : generator.newSessionId().toCharArray()) {
+                characters.add(c);
+            }
+        }
+        assertEquals(62, characters.size());
+    }
+
+    @Test
+    public void shouldPrefixSessionIds() throws Exception {
+        SessionIdGenerator generator = new SessionIdGenerator("member1");
+        String sessionId = generator.newSessionId();
+
+        assertTrue(sessionId, sessionId.matches("member1-[A-Za-z0-9]{32}"));
+        assertEquals("member1", SessionIdGenerator.getPrefix(sessionId));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectPrefixWithSeparator() throws Exception {
+        new SessionIdGenerator("member-1");
+    }
+
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.http.bridge.filter;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.security.auth.Subject;
+import javax.security.auth.login.LoginException;
+
+import org.junit.Test;
+import org.kaazing.gateway.security.auth.DefaultLoginResult;
+import org.kaazing.gateway.security.auth.LoginResultCallbackHandler;
+import org.kaazing.gateway.security.auth.context.ResultAwareLoginContext;
+import org.kaazing.gateway.security.auth.token.DefaultAuthenticationToken;
+
+public class HttpLoginPipelineTest {
+
+    @Test
+    public void shouldShareSuccessfulLoginWithBoardedLogins() throws Exception {
+        HttpLoginPipeline pipeline = new HttpLoginPipeline(true);
+        List<ResultAwareLoginContext> landed = new ArrayList<>();
+
+        HttpLoginPipeline.Flight flight = pipeline.board(key("joe", "welcome"), landed::add);
+        assertNotNull(flight);
+        assertNull(pipeline.board(key("joe", "welcome"), landed::add));
+        assertNull(pipeline.board(key("joe", "welcome"), landed::add));
+        assertEquals(2, pipeline.getWaitingLoginCount());
+
+        CountingLoginContext loginContext = new CountingLoginContext();
+        ResultAwareLoginContext sharedLoginContext = pipeline.land(flight, loginContext);
+
+        assertEquals(2, landed.size());
+        assertSame(sharedLoginContext, landed.get(0));
+        assertSame(sharedLoginContext, landed.get(1));
+        assertSame(loginContext.getSubject(), sharedLoginContext.getSubject());
+        assertSame(loginContext.getLoginResult(), sharedLoginContext.getLoginResult());
+        assertEquals(0, pipeline.getWaitingLoginCount());
+        assertEquals(2, pipeline.getCoalescedLoginCount());
+    }
+
+    @Test
+    public void shouldNotShareFailedLogin() throws Exception {
+        HttpLoginPipeline pipeline = new HttpLoginPipeline(true);
+        List<ResultAwareLoginContext> landed = new ArrayList<>();
+
+        HttpLoginPipeline.Flight flight = pipeline.board(key("joe", "welcome"), landed::add);
+        assertNull(pipeline.board(key("joe", "welcome"), landed::add));
+
+        assertNull(pipeline.land(flight, null));
+        assertEquals(1, landed.size());
+        assertNull(landed.get(0));
+        assertEquals(0, pipeline.getCoalescedLoginCount());
+    }
+
+    @Test
+    public void shouldNotShareLoginBetweenDifferentCredentials() throws Exception {
+        HttpLoginPipeline pipeline = new HttpLoginPipeline(true);
+
+        assertNotNull(pipeline.board(key("joe", "welcome"), loginContext -> { }));
+        assertNotNull(pipeline.board(key("joe", "wrong"), loginContext -> { }));
+        assertNotNull(pipeline.board(key("jane", "welcome"), loginContext -> { }));
+        assertEquals(0, pipeline.getWaitingLoginCount());
+    }
+
+    @Test
+    public void shouldStartNewFlightAfterLanding() throws Exception {
+        HttpLoginPipeline pipeline = new HttpLoginPipeline(true);
+        CountingLoginContext loginContext = new CountingLoginContext();
+
+        HttpLoginPipeline.Flight flight = pipeline.board(key("joe", "welcome"), l -> { });
+        assertSame(loginContext, pipeline.land(flight, loginContext));
+
+        assertNotNull(pipeline.board(key("joe", "welcome"), l -> { }));
+    }
+
+    @Test
+    public void shouldLogoutWhenLastSharedSessionLogsOut() throws Exception {
+        HttpLoginPipeline pipeline = new HttpLoginPipeline(true);
+        CountingLoginContext loginContext = new CountingLoginContext();
+
+        HttpLoginPipeline.Flight flight = pipeline.board(key("joe", "welcome"), l -> { });
+        pipeline.board(key("joe", "welcome"), l -> { });
+        ResultAwareLoginContext sharedLoginContext = pipeline.land(flight, loginContext);
+
+        sharedLoginContext.logout();
+        assertEquals(0, loginContext.logouts.get());
+        sharedLoginContext.logout();
+        assertEquals(1, loginContext.logouts.get());
+    }
+
+    @Test
+    public void shouldTrackQueueAndLatency() throws Exception {
+        HttpLoginPipeline pipeline = new HttpLoginPipeline(false);
+
+        long queuedTime = System.nanoTime();
+        pipeline.loginQueued();
+        assertEquals(1, pipeline.getQueuedLoginCount());
+
+        Thread.sleep(5);
+        long startedTime = pipeline.loginStarted(queuedTime);
+        assertEquals(0, pipeline.getQueuedLoginCount());
+        assertEquals(1, pipeline.getActiveLoginCount());
+
+        pipeline.loginCompleted(startedTime);
+        assertEquals(0, pipeline.getActiveLoginCount());
+        assertEquals(1, pipeline.getCompletedLoginCount());
+        assertTrue(pipeline.getAverageQueueTime() >= 5000);
+    }
+
+    private static Object key(String username, String password) {
+        DefaultAuthenticationToken authToken = new DefaultAuthenticationToken("Basic", username + ":" + password);
+        return asList("demo", authToken, "127.0.0.1");
+    }
+
+    private static final class CountingLoginContext extends ResultAwareLoginContext {
+
+        private final AtomicInteger logouts = new AtomicInteger();
+
+        CountingLoginContext() throws LoginException {
+            this(new DefaultLoginResult());
+        }
+
+        private CountingLoginContext(DefaultLoginResult loginResult) throws LoginException {
+            super("COUNTING", new Subject(), new LoginResultCallbackHandler(loginResult),
+                    new HttpLoginSecurityFilter.SuccessConfiguration(), loginResult);
+        }
+
+        @Override
+        public void logout() throws LoginException {
+            logouts.incrementAndGet();
+        }
+    }
+}
@@ -47,6 +47,7 @@ import org.junit.Test;
 import org.kaazing.gateway.resource.address.ResourceAddress;
 import org.kaazing.gateway.resource.address.http.DefaultHttpRealmInfo;
 import org.kaazing.gateway.resource.address.http.HttpRealmInfo;
+import org.kaazing.gateway.resource.address.http.HttpRequiredRoles;
 import org.kaazing.gateway.resource.address.http.HttpResourceAddress;
 import org.kaazing.gateway.resource.address.tcp.TcpResourceAddressFactorySpi;
 import org.kaazing.gateway.security.LoginContextFactory;
@@ -129,6 +130,9 @@ public class HttpSubjectSecurityFilterTest {
                 allowing(address).getOption(HttpResourceAddress.REQUIRED_ROLES);
                 will(returnValue(null));
 
+                allowing(address).getOption(HttpResourceAddress.REQUIRED_ROLE_SET);
+                will(returnValue(HttpRequiredRoles.NONE));
+
                 oneOf(nextFilter).messageReceived(session, message);
             }
         });
@@ -165,6 +169,9 @@ public class HttpSubjectSecurityFilterTest {
                 allowing(address).getOption(HttpResourceAddress.REQUIRED_ROLES);
                 will(returnValue(null));
 
+                allowing(address).getOption(HttpResourceAddress.REQUIRED_ROLE_SET);
+                will(returnValue(HttpRequiredRoles.NONE));
+
                 oneOf(nextFilter).messageReceived(session, message);
             }
         });
@@ -226,6 +233,9 @@ public class HttpSubjectSecurityFilterTest {
                 allowing(address).getOption(HttpResourceAddress.REQUIRED_ROLES);
                 will(returnValue(new String[]{}));
 
+                allowing(address).getOption(HttpResourceAddress.REQUIRED_ROLE_SET);
+                will(returnValue(new HttpRequiredRoles(new String[]{})));
+
                 oneOf(nextFilter).messageReceived(session, message);
                 never(session).setAttribute(with(any(String.class)), with(any(Subject.class)));
             }
@@ -268,6 +278,9 @@ public class HttpSubjectSecurityFilterTest {
                 allowing(address).getOption(HttpResourceAddress.REQUIRED_ROLES);
                 will(returnValue(new String[]{"ADMINISTRATOR"}));
 
+                allowing(address).getOption(HttpResourceAddress.REQUIRED_ROLE_SET);
+                will(returnValue(new HttpRequiredRoles(new String[]{"ADMINISTRATOR"})));
+
                 // pass through
                 oneOf(nextFilter).messageReceived(session, message);
                 never(session).setAttribute(with(any(String.class)), with(any(Subject.class)));
@@ -335,6 +348,9 @@ public class HttpSubjectSecurityFilterTest {
                 allowing(address).getOption(HttpResourceAddress.REQUIRED_ROLES);
                 will(returnValue(new String[]{"AUTHORIZED"}));
 
+                allowing(address).getOption(HttpResourceAddress.REQUIRED_ROLE_SET);
+                will(returnValue(new HttpRequiredRoles(new String[]{"AUTHORIZED"})));
+
                 // not already logged in, DPW -- Not sure why I needed to change this to allowing, double check
                 allowing(session).getSubject();
 
@@ -420,6 +436,9 @@ public class HttpSubjectSecurityFilterTest {
                 allowing(address).getOption(HttpResourceAddress.REQUIRED_ROLES);
                 will(returnValue(new String[]{"AUTHORIZED"}));
 
+                allowing(address).getOption(HttpResourceAddress.REQUIRED_ROLE_SET);
+                will(returnValue(new HttpRequiredRoles(new String[]{"AUTHORIZED"})));
+
                 allowing(address).getOption(HttpResourceAddress.REALMS);
                 final HttpRealmInfo[] realms = new HttpRealmInfo[1];
                 realms[0] = new DefaultHttpRealmInfo("demo", "Application Token", null, new String[]{"foo"},  new String[]{}, new String[]{}, loginContextFactory, null);
@@ -500,6 +519,9 @@ public class HttpSubjectSecurityFilterTest {
                 allowing(address).getOption(HttpResourceAddress.REQUIRED_ROLES);
                 will(returnValue(new String[]{"AUTHORIZED"}));
 
+                allowing(address).getOption(HttpResourceAddress.REQUIRED_ROLE_SET);
+                will(returnValue(new HttpRequiredRoles(new String[]{"AUTHORIZED"})));
+
                 oneOf(loginContextFactory).createLoginContext(with(aNonNull(TypedCallbackHandlerMap.class)));
                 will(returnValue(loginContext));
                 oneOf(session).suspendRead();
@@ -573,6 +595,9 @@ public class HttpSubjectSecurityFilterTest {
                 allowing(address).getOption(HttpResourceAddress.REQUIRED_ROLES);
                 will(returnValue(new String[]{"ADMIN"}));
 
+                allowing(address).getOption(HttpResourceAddress.REQUIRED_ROLE_SET);
+                will(returnValue(new HttpRequiredRoles(new String[]{"ADMIN"})));
+
                 oneOf(loginContextFactory).createLoginContext(with(aNonNull(TypedCallbackHandlerMap.class)));
                 will(returnValue(loginContext));
                 oneOf(session).suspendRead();
@@ -16,6 +16,7 @@
 package org.kaazing.gateway.transport.http.security.auth.token;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
@@ -83,6 +84,22 @@ public class DefaultAuthenticationTokenTest {
         assertEquals("[ scheme=null {'sampleToken'} ]", token.toString());
     }
 
+    @Test
+    public void testEqualsComparesSchemeAndComponents() throws Exception {
+        token = new DefaultAuthenticationToken("Basic", "am9lOndlbGNvbWU=");
+        assertEquals(new DefaultAuthenticationToken("Basic", "am9lOndlbGNvbWU="), token);
+        assertEquals(new DefaultAuthenticationToken("Basic", "am9lOndlbGNvbWU=").hashCode(), token.hashCode());
+        assertNotEquals(new DefaultAuthenticationToken("Token", "am9lOndlbGNvbWU="), token);
+        assertNotEquals(new DefaultAuthenticationToken("Basic", "amFuZTp3ZWxjb21l"), token);
+
+        // components that would print the same are still different tokens
+        DefaultAuthenticationToken twoComponents = new DefaultAuthenticationToken("Basic", "a");
+        twoComponents.add("b");
+        DefaultAuthenticationToken oneComponent = new DefaultAuthenticationToken("Basic", "a'} {'b");
+        assertEquals(twoComponents.toString(), oneComponent.toString());
+        assertNotEquals(twoComponents, oneComponent);
+    }
+
     private void verifyInitialEmptyState() {
         assertEquals(0, token.size());
         assertNull(token.get());
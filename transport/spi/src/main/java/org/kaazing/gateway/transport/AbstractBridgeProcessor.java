@@ -188,7 +188,9 @@ public abstract class AbstractBridgeProcessor<T extends AbstractBridgeSession<?,
     private static void attachMessageSentInternal(final IoFilterChain filterChain, final IoBufferEx resetBuf, final WriteRequest request, WriteFuture future) {
         if (future.isDone()) {
 			if (future.isWritten()) {
-			    resetBuf.reset();
+			    if (resetBuf != null) {
+			        resetBuf.reset();
+			    }
                 // Complete the future without firing the (largely useless) messageSent event, to gain performance
 			    setFutureWritten(filterChain, request.getFuture());
 				//filterChain.fireMessageSent(request);
@@ -200,7 +202,9 @@ public abstract class AbstractBridgeProcessor<T extends AbstractBridgeSession<?,
 				@Override
 				public void operationComplete(WriteFuture parentFuture) {
 					if (parentFuture.isWritten()) {
-		                resetBuf.reset();
+		                if (resetBuf != null) {
+		                    resetBuf.reset();
+		                }
                         // Complete the future without firing the (largely useless) messageSent event, to gain performance
 		                setFutureWritten(filterChain, request.getFuture());
 		                //filterChain.fireMessageSent(request);
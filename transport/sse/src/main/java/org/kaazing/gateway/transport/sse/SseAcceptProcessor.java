@@ -28,6 +28,7 @@ import org.kaazing.gateway.transport.http.HttpAcceptSession;
 import org.kaazing.gateway.transport.sse.bridge.SseMessage;
 import org.kaazing.gateway.transport.sse.bridge.filter.SseBuffer;
 import org.kaazing.gateway.transport.sse.bridge.filter.SseEncoder;
+import org.kaazing.gateway.transport.sse.bridge.filter.SseFrame;
 import org.kaazing.gateway.util.Utils;
 import org.kaazing.mina.core.buffer.IoBufferEx;
 import org.kaazing.mina.core.write.DefaultWriteRequestEx;
@@ -209,6 +210,34 @@ public class SseAcceptProcessor extends BridgeAcceptProcessor<SseSession> {
                     request.getFuture().setException(e);
                 }
             }
+            else if (message instanceof SseFrame) {
+                SseFrame frame = (SseFrame) message;
+                try {
+                    // stop if parent already closing
+                    if (parent.isClosing()) {
+                        session.setCurrentWriteRequest(request);
+                        break;
+                    }
+
+                    // pre-encoded, so write the frame as is
+                    lastWrite = flushNowInternal(parent, frame, null, filterChain, request);
+
+                    session.increaseWrittenBytes(frame.length(), System.currentTimeMillis());
+
+                    if (reconnecting.get() == false) {
+                        boolean checkBlockPadding = (parent.getAttribute(SseAcceptor.CLIENT_BLOCK_PADDING_KEY) != null);
+                        if (!checkBlockPadding) {
+                            lastWrite.addListener(new CheckBuffer(session, reconnecting));
+                        }
+                        else {
+                            lastWrite.addListener(new CheckBufferAndBlockPadding(session, reconnecting));
+                        }
+                    }
+                }
+                catch (Exception e) {
+                    request.getFuture().setException(e);
+                }
+            }
             else {
                 throw new IllegalStateException("Don't know how to handle message of type '" + message.getClass().getName() + "'.  Are you missing a protocol encoder?");
             }
@@ -17,7 +17,6 @@ package org.kaazing.gateway.transport.sse;
 
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.SECONDS;
-import static org.apache.mina.core.session.IdleStatus.WRITER_IDLE;
 import static org.kaazing.gateway.resource.address.ResourceAddress.TRANSPORT;
 
 import java.io.IOException;
@@ -37,9 +36,7 @@ import org.apache.mina.core.future.IoFutureListener;
 import org.apache.mina.core.service.IoHandler;
 import org.apache.mina.core.service.TransportMetadata;
 import org.apache.mina.core.session.AttributeKey;
-import org.apache.mina.core.session.IdleStatus;
 import org.apache.mina.core.session.IoSession;
-import org.apache.mina.core.session.IoSessionConfig;
 import org.apache.mina.core.session.IoSessionInitializer;
 import org.kaazing.gateway.resource.address.Protocol;
 import org.kaazing.gateway.resource.address.ResourceAddress;
@@ -97,6 +94,7 @@ public class SseAcceptor extends AbstractBridgeAcceptor<SseSession, Binding> {
     private static final long TIME_TO_TIMEOUT_RECONNECT_MILLIS = SECONDS.toMillis(60L);
 
     private ScheduledExecutorService scheduler;
+    private SseHeartbeats heartbeats;
 
     private IoFilter sseCodec;
 
@@ -121,6 +119,7 @@ public class SseAcceptor extends AbstractBridgeAcceptor<SseSession, Binding> {
     @Resource(name = "schedulerProvider")
     public void setSchedulerProvider(SchedulerProvider provider) {
         this.scheduler = provider.getScheduler("KeepAlive-Sse", true);
+        this.heartbeats = new SseHeartbeats(scheduler, TIME_TO_PULSE_MILLIS);
     }
 
     @Override
@@ -198,6 +197,7 @@ public class SseAcceptor extends AbstractBridgeAcceptor<SseSession, Binding> {
 
     @Override
     protected IoFuture dispose0() throws Exception {
+        heartbeats.dispose();
         scheduler.shutdownNow();
         return super.dispose0();
     }
@@ -366,16 +366,6 @@ public class SseAcceptor extends AbstractBridgeAcceptor<SseSession, Binding> {
             this.sseSession = sseSession;
         }
 
-        @Override
-        protected void doSessionIdle(HttpAcceptSession httpSession, IdleStatus status) throws Exception {
-            // keep-alive
-            if (status == WRITER_IDLE) {
-                SseMessage sseMessage = new SseMessage();
-                sseMessage.setComment("");
-                httpSession.write(sseMessage);
-            }
-        }
-
         @Override
         protected void doSessionOpened(final HttpAcceptSession httpSession) throws Exception {
 
@@ -385,10 +375,6 @@ public class SseAcceptor extends AbstractBridgeAcceptor<SseSession, Binding> {
                 timeoutFuture.cancel(false);
             }
 
-            // trigger keep-alive on write idle
-            IoSessionConfig httpConfig = httpSession.getConfig();
-            httpConfig.setIdleTime(WRITER_IDLE, (int) TIME_TO_PULSE_MILLIS);
-
             // check to see if this session can stream, otherwise force long polling
             boolean useHttpStreaming = HttpUtils.canStream(httpSession);
 
@@ -486,10 +472,15 @@ public class SseAcceptor extends AbstractBridgeAcceptor<SseSession, Binding> {
                 httpSession.setWriteHeader("Content-Encoding", "gzip");
             }
 
+            // keep-alive when idle, coalesced with the other sessions of the same I/O worker
+            heartbeats.add(httpSession);
+
             // hook into http session close so we can cleanup sse session
             httpSession.getCloseFuture().addListener(new IoFutureListener<CloseFuture>() {
                 @Override
                 public void operationComplete(CloseFuture future) {
+                    heartbeats.remove(httpSession);
+
                     // TODO: check sse session mode, if not recoverable then close sse session.
                     // for now assume always recoverable, so expect a reconnect
                     sseSession.detach(httpSession);
@@ -522,9 +513,7 @@ public class SseAcceptor extends AbstractBridgeAcceptor<SseSession, Binding> {
                 // received before it will start to deliver messages
                 // this is also needed to detect that streaming has initialized properly
                 // so we don't fall back to encrypted streaming or long polling
-                SseMessage sseMessage = new SseMessage();
-                sseMessage.setComment("");
-                httpSession.write(sseMessage);
+                httpSession.write(SseHeartbeats.HEARTBEAT_FRAME);
 
                 final String flushDelay = httpSession.getParameter(".kf");
                 if (flushDelay != null) {
@@ -625,9 +614,7 @@ public class SseAcceptor extends AbstractBridgeAcceptor<SseSession, Binding> {
         public void run() {
             IoSession parent = session.getParent();
             if (parent != null && !parent.isClosing()) {
-                SseMessage sseMessage = new SseMessage();
-                sseMessage.setComment("");
-                parent.write(sseMessage);
+                parent.write(SseHeartbeats.HEARTBEAT_FRAME);
             }
         }
 
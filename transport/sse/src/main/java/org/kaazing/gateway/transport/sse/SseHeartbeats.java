@@ -0,0 +1,140 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.sse;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import org.kaazing.gateway.transport.http.HttpAcceptSession;
+import org.kaazing.gateway.transport.sse.bridge.SseMessage;
+import org.kaazing.gateway.transport.sse.bridge.filter.SseFrame;
+import org.kaazing.mina.core.session.IoSessionEx;
+
+/**
+ * Keeps idle SSE event streams alive by writing an empty comment to them. Instead of one idle timer per session,
+ * the sessions of each I/O worker share a single periodic pulse, which runs on that worker and writes the same
+ * pre-encoded comment to every session that would otherwise stay silent for longer than the interval. The pulse
+ * runs four times per interval, so a session is never silent for more than the interval.
+ */
+final class SseHeartbeats {
+
+    static final SseFrame HEARTBEAT_FRAME;
+    static {
+        SseMessage message = new SseMessage();
+        message.setComment("");
+        HEARTBEAT_FRAME = SseFrame.encode(message);
+    }
+
+    private final ScheduledExecutorService scheduler;
+    private final long pulseMillis;
+    private final long idleMillis;
+    private final ConcurrentMap<Thread, WorkerHeartbeat> heartbeats;
+
+    SseHeartbeats(ScheduledExecutorService scheduler, long intervalMillis) {
+        this.scheduler = scheduler;
+        this.pulseMillis = Math.max(intervalMillis / 4, 1L);
+        this.idleMillis = intervalMillis - pulseMillis;
+        this.heartbeats = new ConcurrentHashMap<>();
+    }
+
+    void add(HttpAcceptSession session) {
+        Thread ioThread = session.getIoThread();
+        WorkerHeartbeat heartbeat = heartbeats.get(ioThread);
+        if (heartbeat == null) {
+            WorkerHeartbeat newHeartbeat = new WorkerHeartbeat(session.getIoExecutor());
+            heartbeat = heartbeats.putIfAbsent(ioThread, newHeartbeat);
+            if (heartbeat == null) {
+                heartbeat = newHeartbeat;
+                heartbeat.start();
+            }
+        }
+        heartbeat.sessions.add(session);
+    }
+
+    void remove(HttpAcceptSession session) {
+        // session may have been realigned since it was added
+        for (WorkerHeartbeat heartbeat : heartbeats.values()) {
+            if (heartbeat.sessions.remove(session)) {
+                break;
+            }
+        }
+    }
+
+    void dispose() {
+        for (WorkerHeartbeat heartbeat : heartbeats.values()) {
+            heartbeat.stop();
+        }
+        heartbeats.clear();
+    }
+
+    private final class WorkerHeartbeat implements Runnable {
+
+        private final Executor ioExecutor;
+        private final Set<HttpAcceptSession> sessions;
+        private final Runnable pulse;
+        private volatile ScheduledFuture<?> future;
+
+        WorkerHeartbeat(Executor ioExecutor) {
+            this.ioExecutor = ioExecutor;
+            this.sessions = ConcurrentHashMap.newKeySet();
+            this.pulse = new Runnable() {
+                @Override
+                public void run() {
+                    pulse(System.currentTimeMillis());
+                }
+            };
+        }
+
+        void start() {
+            future = scheduler.scheduleAtFixedRate(this, pulseMillis, pulseMillis, MILLISECONDS);
+        }
+
+        void stop() {
+            ScheduledFuture<?> future = this.future;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (!sessions.isEmpty()) {
+                ioExecutor.execute(pulse);
+            }
+        }
+
+        private void pulse(long currentTimeMillis) {
+            for (HttpAcceptSession session : sessions) {
+                if (session.isClosing()) {
+                    continue;
+                }
+
+                // writes are observed at the transport, below the HTTP session
+                IoSessionEx parent = session.getParent();
+                long lastWriteTime = (parent != null) ? parent.getLastWriteTime() : session.getLastWriteTime();
+                if (currentTimeMillis - lastWriteTime >= idleMillis) {
+                    session.write(HEARTBEAT_FRAME);
+                }
+            }
+        }
+    }
+}
@@ -77,6 +77,13 @@ public class SseEncoder implements ProtocolEncoder {
 
     @Override
     public void encode(IoSession session, Object message, ProtocolEncoderOutput out) throws Exception {
+        if (message instanceof SseFrame) {
+            // pre-encoded, so only wrap the shared bytes
+            SseFrame frame = (SseFrame) message;
+            out.write(allocator.wrap(frame.bytes()));
+            return;
+        }
+
         SseMessage sseMessage = (SseMessage)message;
         if (sseMessage.hasCache()) {
             IoBufferEx buf = cachingEncoder.encode(encoder, sseMessage, allocator, FLAG_SHARED | FLAG_ZERO_COPY);
@@ -88,7 +95,7 @@ public class SseEncoder implements ProtocolEncoder {
         }
     }
 
-    private static IoBufferEx doEncode(IoBufferAllocatorEx<?> allocator, int flags, SseMessage sseMessage) {
+    static IoBufferEx doEncode(IoBufferAllocatorEx<?> allocator, int flags, SseMessage sseMessage) {
 		
 		// check for special block padding message
 		if (sseMessage == BLOCK_PADDING_MESSAGE) {
@@ -219,6 +226,7 @@ public class SseEncoder implements ProtocolEncoder {
                 data.limit(limit);
                 data.position(dataEndAt + 1);
                 buf.put(LINEFEED_BYTE);
+                dataEndAt = data.indexOf(LINEFEED_BYTE);
             }
             buf.put(DATA_BYTES);
             buf.put(COLON_BYTE);
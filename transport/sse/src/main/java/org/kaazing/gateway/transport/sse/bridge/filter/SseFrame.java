@@ -0,0 +1,62 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.sse.bridge.filter;
+
+import static org.kaazing.mina.core.buffer.IoBufferEx.FLAG_NONE;
+
+import java.nio.ByteBuffer;
+
+import org.kaazing.gateway.transport.sse.bridge.SseMessage;
+import org.kaazing.mina.core.buffer.SimpleBufferAllocator;
+
+/**
+ * An SSE event encoded once, up front, so that it can be written to any number of SSE sessions without formatting
+ * it again for each of them. The data is split into "data:" lines when the frame is created.
+ *
+ * Frames may be written to an SseSession, or directly to an HTTP session carrying an SSE event stream.
+ */
+public final class SseFrame {
+
+    private final ByteBuffer bytes;
+
+    private SseFrame(ByteBuffer bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Encodes the message into a new frame. The message is not retained, so it may be modified afterwards.
+     */
+    public static SseFrame encode(SseMessage message) {
+        ByteBuffer bytes = SseEncoder.doEncode(SimpleBufferAllocator.BUFFER_ALLOCATOR, FLAG_NONE, message).buf();
+        return new SseFrame(bytes.slice());
+    }
+
+    /**
+     * @return a new buffer positioned over the encoded bytes, which must not be modified
+     */
+    public ByteBuffer bytes() {
+        return bytes.duplicate();
+    }
+
+    public int length() {
+        return bytes.remaining();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[length=%d]", getClass().getSimpleName(), bytes.remaining());
+    }
+}
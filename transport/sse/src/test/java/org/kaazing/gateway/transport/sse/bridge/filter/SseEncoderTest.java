@@ -0,0 +1,84 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.sse.bridge.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+import org.kaazing.gateway.transport.sse.bridge.SseMessage;
+import org.kaazing.mina.core.buffer.IoBufferAllocatorEx;
+import org.kaazing.mina.core.buffer.IoBufferEx;
+import org.kaazing.mina.core.buffer.SimpleBufferAllocator;
+import org.kaazing.mina.filter.codec.ProtocolCodecSessionEx;
+
+public class SseEncoderTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void shouldEncodeMultiLineData() throws Exception {
+        ProtocolCodecSessionEx session = new ProtocolCodecSessionEx();
+        IoBufferAllocatorEx<?> allocator = session.getBufferAllocator();
+        SseEncoder encoder = new SseEncoder(allocator);
+
+        SseMessage message = new SseMessage("quote", allocator.wrap(ByteBuffer.wrap("a\nbc\n".getBytes(UTF_8))));
+        message.setId("7");
+
+        encoder.encode(session, message, session.getEncoderOutput());
+
+        IoBufferEx out = (IoBufferEx) session.getEncoderOutputQueue().poll();
+        assertEquals("event:quote\ndata:a\ndata:bc\ndata:\nid:7\n\n", out.getString(UTF_8.newDecoder()));
+    }
+
+    @Test
+    public void shouldEncodeFrameOnce() throws Exception {
+        SseMessage message = new SseMessage();
+        message.setData(SimpleBufferAllocator.BUFFER_ALLOCATOR.wrap(ByteBuffer.wrap("x\ny".getBytes(UTF_8))));
+
+        SseFrame frame = SseFrame.encode(message);
+
+        assertEquals(15, frame.length());
+        ByteBuffer bytes = frame.bytes();
+        byte[] array = new byte[bytes.remaining()];
+        bytes.get(array);
+        assertEquals("data:x\ndata:y\n\n", new String(array, UTF_8));
+    }
+
+    @Test
+    public void shouldWriteFrameWithoutCopying() throws Exception {
+        ProtocolCodecSessionEx session = new ProtocolCodecSessionEx();
+        IoBufferAllocatorEx<?> allocator = session.getBufferAllocator();
+        SseEncoder encoder = new SseEncoder(allocator);
+
+        SseMessage message = new SseMessage();
+        message.setComment("");
+        SseFrame frame = SseFrame.encode(message);
+
+        encoder.encode(session, frame, session.getEncoderOutput());
+        encoder.encode(session, frame, session.getEncoderOutput());
+
+        IoBufferEx out = (IoBufferEx) session.getEncoderOutputQueue().poll();
+        IoBufferEx out2 = (IoBufferEx) session.getEncoderOutputQueue().poll();
+        assertEquals(":\n\n", out.getString(UTF_8.newDecoder()));
+        assertEquals(":\n\n", out2.getString(UTF_8.newDecoder()));
+        assertSame(out.array(), out2.array());
+        assertSame(frame.bytes().array(), out.array());
+    }
+}
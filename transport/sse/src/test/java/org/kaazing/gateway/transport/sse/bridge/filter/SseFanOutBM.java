@@ -0,0 +1,191 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.sse.bridge.filter;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mina.core.future.WriteFuture;
+import org.apache.mina.filter.codec.ProtocolEncoderOutput;
+import org.kaazing.gateway.transport.sse.bridge.SseMessage;
+import org.kaazing.mina.core.buffer.IoBufferAllocatorEx;
+import org.kaazing.mina.core.buffer.IoBufferEx;
+import org.kaazing.mina.core.buffer.SimpleBufferAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures writing one event, or one keep-alive comment, to a number of SSE sessions. Events are either formatted
+ * for each session, formatted once through the message cache, or pre-encoded once as an {@link SseFrame}. Each
+ * encoded event is transferred into a direct buffer, standing in for the copy into the socket send buffer.
+ *
+ * Throughput is in fan-outs per second, so multiply by the session count for events per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SseFanOutBM {
+
+    @Param({"1000"})
+    private int sessions;
+
+    @Param({"256"})
+    private int dataSize;
+
+    private final CapturingEncoderOutput out = new CapturingEncoderOutput();
+
+    private IoBufferAllocatorEx<?> allocator;
+    private SseEncoder encoder;
+    private IoBufferEx data;
+    private SseFrame heartbeat;
+    private ByteBuffer socket;
+
+    @Setup
+    public void init() {
+        allocator = SimpleBufferAllocator.BUFFER_ALLOCATOR;
+        encoder = new SseEncoder(allocator);
+
+        // two data lines, so the data is split on encode
+        byte[] bytes = new byte[dataSize];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ('a' + (i % 26));
+        }
+        bytes[dataSize / 2] = '\n';
+        data = allocator.wrap(ByteBuffer.wrap(bytes));
+
+        SseMessage comment = new SseMessage();
+        comment.setComment("");
+        heartbeat = SseFrame.encode(comment);
+
+        socket = ByteBuffer.allocateDirect(dataSize * 2 + 64);
+    }
+
+    @Benchmark
+    public int eventPerSession() throws Exception {
+        int written = 0;
+        for (int i = 0; i < sessions; i++) {
+            encoder.encode(null, newEvent(), out);
+            written += send(out.message);
+        }
+        return written;
+    }
+
+    @Benchmark
+    public int eventCached() throws Exception {
+        SseMessage event = newEvent();
+        event.initCache();
+
+        int written = 0;
+        for (int i = 0; i < sessions; i++) {
+            encoder.encode(null, event, out);
+            written += send(out.message);
+        }
+        return written;
+    }
+
+    @Benchmark
+    public int eventPreEncoded() throws Exception {
+        SseFrame frame = SseFrame.encode(newEvent());
+
+        int written = 0;
+        for (int i = 0; i < sessions; i++) {
+            encoder.encode(null, frame, out);
+            written += send(out.message);
+        }
+        return written;
+    }
+
+    @Benchmark
+    public int heartbeatPerSession() throws Exception {
+        int written = 0;
+        for (int i = 0; i < sessions; i++) {
+            SseMessage comment = new SseMessage();
+            comment.setComment("");
+            encoder.encode(null, comment, out);
+            written += send(out.message);
+        }
+        return written;
+    }
+
+    @Benchmark
+    public int heartbeatPreEncoded() throws Exception {
+        int written = 0;
+        for (int i = 0; i < sessions; i++) {
+            encoder.encode(null, heartbeat, out);
+            written += send(out.message);
+        }
+        return written;
+    }
+
+    private SseMessage newEvent() {
+        SseMessage event = new SseMessage("quote", data.duplicate());
+        event.setId("1234567");
+        return event;
+    }
+
+    private int send(Object message) {
+        ByteBuffer socket = this.socket;
+        socket.clear();
+        // cached encodings are shared between sessions, so must not be consumed
+        socket.put(((IoBufferEx) message).buf().duplicate());
+        return socket.position();
+    }
+
+    private static final class CapturingEncoderOutput implements ProtocolEncoderOutput {
+        private Object message;
+
+        @Override
+        public void write(Object encodedMessage) {
+            message = encodedMessage;
+        }
+
+        @Override
+        public void mergeAll() {
+        }
+
+        @Override
+        public WriteFuture flush() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        // Or from command line:
+        // mvn clean install
+        // java -jar target/benchmarks.jar SseFanOutBM
+        Options opt = new OptionsBuilder()
+                .include(SseFanOutBM.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.ssl;
+
+import java.security.GeneralSecurityException;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+
+/**
+ * Engines from the default JDK {@link SSLContext} provider.
+ */
+public final class JdkSslEngineFactorySpi extends SslEngineFactorySpi {
+
+    public static final String NAME = "jdk";
+
+    private static final String PROTOCOL = "TLS";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public SslEngineFactory newSslEngineFactory(KeyManager[] keyManagers, TrustManager[] trustManagers,
+                                                boolean clientMode) throws GeneralSecurityException {
+        SSLContext sslContext = SSLContext.getInstance(PROTOCOL);
+        sslContext.init(keyManagers, trustManagers, null);
+
+        // avoid caching SSLSession in the shared SSLContext
+        // Note: SSLSessionContext.setSessionCacheSize(0) means unlimited,
+        // so we use 1 instead
+        if (clientMode) {
+            sslContext.getClientSessionContext().setSessionCacheSize(1);
+        } else {
+            sslContext.getServerSessionContext().setSessionCacheSize(1);
+        }
+
+        return newSslEngineFactory(sslContext);
+    }
+
+    /**
+     * Adapts an already initialized {@link SSLContext}.
+     */
+    public static SslEngineFactory newSslEngineFactory(final SSLContext sslContext) {
+        return new SslEngineFactory() {
+
+            @Override
+            public SSLEngine newSslEngine() {
+                return sslContext.createSSLEngine();
+            }
+
+            @Override
+            public SSLEngine newSslEngine(String peerHost, int peerPort) {
+                return sslContext.createSSLEngine(peerHost, peerPort);
+            }
+
+        };
+    }
+
+}
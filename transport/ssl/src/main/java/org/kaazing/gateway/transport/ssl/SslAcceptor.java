@@ -25,24 +25,25 @@ import static org.kaazing.gateway.resource.address.ssl.SslResourceAddress.NEED_C
 import static org.kaazing.gateway.resource.address.ssl.SslResourceAddress.PROTOCOLS;
 import static org.kaazing.gateway.resource.address.ssl.SslResourceAddress.WANT_CLIENT_AUTH;
 import static org.kaazing.gateway.transport.BridgeSession.LOCAL_ADDRESS;
+import static org.kaazing.gateway.transport.ssl.SslEngineFactories.newSslEngineFactory;
+import static org.kaazing.gateway.util.InternalSystemProperty.SSL_ENGINE_PROVIDER;
+import static org.kaazing.gateway.util.InternalSystemProperty.SSL_GATHERING_WRITES;
 import static org.kaazing.gateway.transport.BridgeSession.NEXT_PROTOCOL_KEY;
 import static org.kaazing.gateway.transport.BridgeSession.REMOTE_ADDRESS;
 
 import java.io.IOException;
 import java.net.URI;
 import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Properties;
 import java.util.SortedSet;
 import java.util.concurrent.Callable;
 
 import javax.annotation.Resource;
-import javax.net.ssl.KeyManagerFactory;
-import javax.net.ssl.SSLContext;
 
 import org.apache.mina.core.filterchain.IoFilterAdapter;
 import org.apache.mina.core.filterchain.IoFilterChain;
@@ -51,7 +52,6 @@ import org.apache.mina.core.service.IoHandler;
 import org.apache.mina.core.service.TransportMetadata;
 import org.apache.mina.core.session.IdleStatus;
 import org.apache.mina.core.session.IoSession;
-import org.apache.mina.filter.ssl.SslContextFactory;
 import org.kaazing.gateway.resource.address.Protocol;
 import org.kaazing.gateway.resource.address.ResourceAddress;
 import org.kaazing.gateway.resource.address.ResourceAddressFactory;
@@ -100,8 +100,10 @@ public class SslAcceptor extends AbstractBridgeAcceptor<SslSession, NextProtocol
 
     private static final String ENCRYPTION_DISABLED_FILTER = SslProtocol.NAME + "#encryption_disabled";
 
-    private SSLContext sslContext;
-    private SslContextFactory sslContextFactory;
+    private SslEngineFactory sslEngineFactory;
+    private boolean gatheringWrites;
+    private SecurityContext securityContext;
+    private Properties configuration = new Properties();
     private SslCertificateSelectionFilter certificateSelection;
     private ResourceAddressFactory resourceAddressFactory;
     private BridgeServiceFactory bridgeServiceFactory;
@@ -123,6 +125,11 @@ public class SslAcceptor extends AbstractBridgeAcceptor<SslSession, NextProtocol
         this.resourceAddressFactory = factory;
     }
 
+    @Resource(name = "configuration")
+    public void setConfiguration(Properties configuration) {
+        this.configuration = configuration;
+    }
+
     @Resource(name = "securityContext")
     public void setSecurityContext(SecurityContext securityContext) {
         vhostKeySelector = new VirtualHostKeySelector();
@@ -132,26 +139,7 @@ public class SslAcceptor extends AbstractBridgeAcceptor<SslSession, NextProtocol
             throw new RuntimeException(e);
         }
 
-        try {
-            sslContextFactory = new SslContextFactory();
-            sslContextFactory.setTrustManagerFactoryKeyStore(securityContext.getTrustStore());
-            //sslContextFactory.setTrustManagerFactoryKeyStorePassword(trustStorePassword);
-            char[] keyStorePassword = securityContext.getKeyStorePassword();
-            sslContextFactory.setKeyManagerFactoryKeyStorePassword(keyStorePassword == null ? null : new String(keyStorePassword));
-            sslContextFactory.setKeyManagerFactoryKeyStore(securityContext.getKeyStore());
-
-            // Create a new SslProvider to select certificates based on
-            // various key selection criteria
-            KeyManagerFactory kmf = KeyManagerFactory.getInstance("SslTransport", new SslProvider());
-            sslContextFactory.setKeyManagerFactory(kmf);
-
-            // avoid caching SSLSession in shared SSLContextFactory instance
-            // Note: SSLSessionContext.setSessionCacheSize(0) means unlimited,
-            // so we use 1 instead
-            sslContextFactory.setServerSessionCacheSize(1);
-        } catch (NoSuchAlgorithmException ne) {
-            throw new RuntimeException(ne);
-        }
+        this.securityContext = securityContext;
     }
 
     @Override
@@ -163,8 +151,10 @@ public class SslAcceptor extends AbstractBridgeAcceptor<SslSession, NextProtocol
     protected void init() {
         super.init();
 
+        gatheringWrites = SSL_GATHERING_WRITES.getBooleanProperty(configuration);
+
         try {
-            sslContext = sslContextFactory.newInstance();
+            sslEngineFactory = newSslEngineFactory(SSL_ENGINE_PROVIDER.getProperty(configuration), securityContext, false);
 
         } catch (UnrecoverableKeyException uke) {
             // Catch these exceptions separately, so that we can throw
@@ -215,7 +205,8 @@ public class SslAcceptor extends AbstractBridgeAcceptor<SslSession, NextProtocol
 
         // Create our SslFilter instance, and configure it based on the
         // resource address.
-        SslFilter sslFilter = new SslFilter(sslContext, false, logger);
+        SslFilter sslFilter = new SslFilter(sslEngineFactory, false, logger);
+        sslFilter.setGatheringWrites(gatheringWrites);
 
         IoSession session = filterChain.getSession();
 
@@ -22,19 +22,20 @@ import static org.kaazing.gateway.resource.address.ssl.SslResourceAddress.KEY_SE
 import static org.kaazing.gateway.resource.address.ssl.SslResourceAddress.NEED_CLIENT_AUTH;
 import static org.kaazing.gateway.resource.address.ssl.SslResourceAddress.WANT_CLIENT_AUTH;
 import static org.kaazing.gateway.transport.BridgeSession.LOCAL_ADDRESS;
+import static org.kaazing.gateway.transport.ssl.SslEngineFactories.newSslEngineFactory;
+import static org.kaazing.gateway.util.InternalSystemProperty.SSL_ENGINE_PROVIDER;
+import static org.kaazing.gateway.util.InternalSystemProperty.SSL_GATHERING_WRITES;
 import static java.lang.String.format;
 
 import java.io.IOException;
 import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Properties;
 import java.util.concurrent.Callable;
 
 import javax.annotation.Resource;
-import javax.net.ssl.KeyManagerFactory;
-import javax.net.ssl.SSLContext;
 
 import org.apache.mina.core.filterchain.IoFilterChain;
 import org.apache.mina.core.future.ConnectFuture;
@@ -45,7 +46,6 @@ import org.apache.mina.core.service.TransportMetadata;
 import org.apache.mina.core.session.IdleStatus;
 import org.apache.mina.core.session.IoSession;
 import org.apache.mina.core.session.IoSessionInitializer;
-import org.apache.mina.filter.ssl.SslContextFactory;
 
 import org.kaazing.gateway.resource.address.ResourceAddress;
 import org.kaazing.gateway.resource.address.ResourceAddressFactory;
@@ -80,8 +80,10 @@ public class SslConnector extends AbstractBridgeConnector<SslSession> {
     private static final String CERTIFICATE_SELECTION_FILTER = SslProtocol.NAME + "#certificate_selection";
 
     private BridgeServiceFactory bridgeServiceFactory;
-    private SslContextFactory sslContextFactory;
-    private SSLContext sslContext;
+    private SslEngineFactory sslEngineFactory;
+    private boolean gatheringWrites;
+    private SecurityContext securityContext;
+    private Properties configuration = new Properties();
     private SslCertificateSelectionFilter certificateSelection;
     private ResourceAddressFactory resourceAddressFactory;
     private VirtualHostKeySelector vhostKeySelector;
@@ -100,6 +102,11 @@ public class SslConnector extends AbstractBridgeConnector<SslSession> {
         this.bridgeServiceFactory = bridgeServiceFactory;
     }
 
+    @Resource(name = "configuration")
+    public void setConfiguration(Properties configuration) {
+        this.configuration = configuration;
+    }
+
     @Resource(name = "securityContext")
     public void setSecurityContext(SecurityContext securityContext) {
         vhostKeySelector = new VirtualHostKeySelector();
@@ -109,27 +116,7 @@ public class SslConnector extends AbstractBridgeConnector<SslSession> {
             throw new RuntimeException(e);
         }
 
-        try {
-            sslContextFactory = new SslContextFactory();
-            sslContextFactory.setTrustManagerFactoryKeyStore(securityContext.getTrustStore());
-            //sslContextFactory.setTrustManagerFactoryKeyStorePassword(trustStorePassword);
-            char[] keyStorePassword = securityContext.getKeyStorePassword();
-            sslContextFactory.setKeyManagerFactoryKeyStorePassword(keyStorePassword == null ? null : new String(keyStorePassword));
-            sslContextFactory.setKeyManagerFactoryKeyStore(securityContext.getKeyStore());
-
-            // Create a new SslProvider to select certificates based on
-            // various key selection criteria
-            KeyManagerFactory kmf = KeyManagerFactory.getInstance("SslTransport", new SslProvider());
-            sslContextFactory.setKeyManagerFactory(kmf);
-
-            // avoid caching SSLSession in shared SSLContextFactory instance
-            // Note: SSLSessionContext.setSessionCacheSize(0) means unlimited,
-            // so we use 1 instead
-            sslContextFactory.setClientSessionCacheSize(1);
-        } catch (NoSuchAlgorithmException ne) {
-            throw new RuntimeException(ne);
-        }
-
+        this.securityContext = securityContext;
     }
 
     @Override
@@ -141,8 +128,10 @@ public class SslConnector extends AbstractBridgeConnector<SslSession> {
     protected void init() {
         super.init();
 
+        gatheringWrites = SSL_GATHERING_WRITES.getBooleanProperty(configuration);
+
         try {
-            sslContext = sslContextFactory.newInstance();
+            sslEngineFactory = newSslEngineFactory(SSL_ENGINE_PROVIDER.getProperty(configuration), securityContext, true);
         }
         catch (Exception e) {
             logger.error("Exception while creating SSL context: ", e);
@@ -165,7 +154,8 @@ public class SslConnector extends AbstractBridgeConnector<SslSession> {
             if (encryption) {
                 // Create our SslFilter instance, and configure it based on the
                 // resource address.
-                SslFilter sslFilter = new SslFilter(sslContext, true, logger);
+                SslFilter sslFilter = new SslFilter(sslEngineFactory, true, logger);
+                sslFilter.setGatheringWrites(gatheringWrites);
                 sslFilter.setUseClientMode(true);
 
                 boolean wantClientAuth = address.getOption(WANT_CLIENT_AUTH);
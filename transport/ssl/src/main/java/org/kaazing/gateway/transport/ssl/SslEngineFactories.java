@@ -0,0 +1,77 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.ssl;
+
+import static java.util.ServiceLoader.load;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.TrustManagerFactory;
+
+import org.kaazing.gateway.security.SecurityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the engine factories of the ssl acceptor and connector from the configured {@link SslEngineFactorySpi}.
+ */
+final class SslEngineFactories {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SslEngineFactories.class);
+
+    private SslEngineFactories() {
+    }
+
+    static SslEngineFactory newSslEngineFactory(String providerName, SecurityContext securityContext, boolean clientMode)
+            throws GeneralSecurityException {
+
+        // Use the SslProvider key managers, selecting certificates based on
+        // various key selection criteria
+        KeyManagerFactory kmf = KeyManagerFactory.getInstance("SslTransport", new SslProvider());
+        kmf.init(securityContext.getKeyStore(), securityContext.getKeyStorePassword());
+
+        TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        tmf.init((KeyStore) securityContext.getTrustStore());
+
+        SslEngineFactorySpi provider = findProvider(providerName, Thread.currentThread().getContextClassLoader());
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(String.format("Using SSL engine provider %s for %s", provider.getName(),
+                    clientMode ? "connect" : "accept"));
+        }
+
+        return provider.newSslEngineFactory(kmf.getKeyManagers(), tmf.getTrustManagers(), clientMode);
+    }
+
+    static SslEngineFactorySpi findProvider(String providerName, ClassLoader loader) {
+        if (providerName != null && !JdkSslEngineFactorySpi.NAME.equals(providerName)) {
+            for (SslEngineFactorySpi provider : load(SslEngineFactorySpi.class, loader)) {
+                if (providerName.equals(provider.getName())) {
+                    if (provider.isAvailable()) {
+                        return provider;
+                    }
+                    LOGGER.warn(String.format("SSL engine provider %s is not available, using the JDK engines",
+                            providerName));
+                    return new JdkSslEngineFactorySpi();
+                }
+            }
+            LOGGER.warn(String.format("SSL engine provider %s not found, using the JDK engines", providerName));
+        }
+        return new JdkSslEngineFactorySpi();
+    }
+
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.ssl;
+
+import javax.net.ssl.SSLEngine;
+
+/**
+ * Creates the {@link SSLEngine} driven by the ssl transport for each connection.
+ *
+ * @see SslEngineFactorySpi
+ */
+public interface SslEngineFactory {
+
+    /**
+     * Creates an engine without peer information, as done for accepted connections.
+     */
+    SSLEngine newSslEngine();
+
+    /**
+     * Creates an engine for the given peer, allowing sessions to be resumed in client mode.
+     */
+    SSLEngine newSslEngine(String peerHost, int peerPort);
+
+}
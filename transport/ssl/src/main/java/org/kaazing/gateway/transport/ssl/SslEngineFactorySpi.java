@@ -0,0 +1,61 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.ssl;
+
+import java.security.GeneralSecurityException;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+
+/**
+ * Service provider of the {@link SSLEngine} implementation used by the ssl transport, such as an engine backed by a
+ * native TLS library. Providers are discovered through {@link java.util.ServiceLoader} and one is selected by name
+ * with the <code>org.kaazing.gateway.transport.ssl.ENGINE_PROVIDER</code> property, the JDK engines being the default.
+ * <p>
+ * The key managers handed to {@link #newSslEngineFactory(KeyManager[], TrustManager[], boolean)} select the
+ * certificate of each connection from the virtual host of the accept or connect, through state that the
+ * {@link org.kaazing.gateway.transport.ssl.bridge.filter.SslCertificateSelectionFilter} keeps on the I/O thread.
+ * Engines must therefore use those key managers, and call them on the thread driving
+ * {@link SSLEngine#wrap(java.nio.ByteBuffer, java.nio.ByteBuffer) wrap} and
+ * {@link SSLEngine#unwrap(java.nio.ByteBuffer, java.nio.ByteBuffer) unwrap}, without delegated tasks.
+ */
+public abstract class SslEngineFactorySpi {
+
+    /**
+     * @return the name this provider is selected by
+     */
+    public abstract String getName();
+
+    /**
+     * Indicates whether the engines can be created in this process, for instance whether a native library loaded.
+     * The JDK engines are used instead of an unavailable provider.
+     */
+    public boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * Creates a factory of engines using the given key and trust material.
+     *
+     * @param keyManagers the key managers selecting the certificate of each connection
+     * @param trustManagers the trust managers verifying peer certificates
+     * @param clientMode whether the engines are used to connect rather than to accept
+     */
+    public abstract SslEngineFactory newSslEngineFactory(KeyManager[] keyManagers, TrustManager[] trustManagers,
+                                                         boolean clientMode) throws GeneralSecurityException;
+
+}
@@ -15,7 +15,11 @@
  */
 package org.kaazing.gateway.transport.ssl.bridge.filter;
 
+import static java.util.Objects.requireNonNull;
+import static org.kaazing.gateway.transport.ssl.JdkSslEngineFactorySpi.newSslEngineFactory;
+
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -40,8 +44,12 @@ import org.apache.mina.core.write.WriteRequestWrapper;
 import org.apache.mina.core.write.WriteToClosedSessionException;
 import org.slf4j.Logger;
 
+import org.kaazing.gateway.transport.ssl.SslEngineFactory;
+import org.kaazing.mina.core.future.DefaultWriteFutureEx;
+import org.kaazing.mina.core.future.WriteFutureEx;
 import org.kaazing.mina.core.session.AbstractIoSessionEx;
 import org.kaazing.mina.core.session.IoSessionEx;
+import org.kaazing.mina.core.write.DefaultWriteRequestEx;
 
 /**
  * An SSL filter that encrypts and decrypts the data exchanged in the session.
@@ -115,14 +123,14 @@ public class SslFilter extends IoFilterAdapter {
     /**
      * A session attribute key that should be set to an {@link InetSocketAddress}.
      * Setting this attribute causes
-     * {@link SSLContext#createSSLEngine(String, int)} to be called passing the
+     * {@link SslEngineFactory#newSslEngine(String, int)} to be called passing the
      * hostname and port of the {@link InetSocketAddress} to get an
-     * {@link SSLEngine} instance. If not set {@link SSLContext#createSSLEngine()}
+     * {@link SSLEngine} instance. If not set {@link SslEngineFactory#newSslEngine()}
      * will be called.<br/>
      * Using this feature {@link SSLSession} objects may be cached and reused
      * when in client mode.
      *
-     * @see SSLContext#createSSLEngine(String, int)
+     * @see SslEngineFactory#newSslEngine(String, int)
      */
     public static final AttributeKey PEER_ADDRESS = new AttributeKey(SslFilter.class, "peerAddress");
 
@@ -145,8 +153,8 @@ public class SslFilter extends IoFilterAdapter {
     private static final AttributeKey NEXT_FILTER = new AttributeKey(SslFilter.class, "nextFilter");
     private static final AttributeKey SSL_HANDLER = new AttributeKey(SslFilter.class, "handler");
 
-    /** The SslContext used */
-    private final SSLContext sslContext;
+    /** The factory of the SSLEngine used by each session */
+    private final SslEngineFactory sslEngineFactory;
 
     /** A flag used to tell the filter to start the handshake immediately */
     private final boolean autoStart;
@@ -166,6 +174,8 @@ public class SslFilter extends IoFilterAdapter {
 
     private String[] enabledProtocols;
 
+    private boolean gatheringWrites;
+
     /**
      * Creates a new SSL filter using the specified {@link SSLContext}.
      * The handshake will start immediately.
@@ -180,15 +190,41 @@ public class SslFilter extends IoFilterAdapter {
      * handshake will start immediately.
      */
     public SslFilter(SSLContext sslContext, boolean autoStart, Logger logger) {
-        if (sslContext == null) {
-            throw new NullPointerException("sslContext");
+        this(newSslEngineFactory(requireNonNull(sslContext, "sslContext")), autoStart, logger);
+    }
+
+    /**
+     * Creates a new SSL filter using the specified {@link SslEngineFactory}.
+     * If the <code>autostart</code> flag is set to <code>true</code>, the
+     * handshake will start immediately.
+     */
+    public SslFilter(SslEngineFactory sslEngineFactory, boolean autoStart, Logger logger) {
+        if (sslEngineFactory == null) {
+            throw new NullPointerException("sslEngineFactory");
         }
 
-        this.sslContext = sslContext;
+        this.sslEngineFactory = sslEngineFactory;
         this.autoStart = autoStart;
         this.logger = logger;
     }
 
+    /**
+     * Returns <tt>true</tt> if small application writes are gathered and
+     * encrypted together into as few TLS records as possible.
+     */
+    public boolean isGatheringWrites() {
+        return gatheringWrites;
+    }
+
+    /**
+     * Sets whether small application writes are gathered until the next
+     * I/O loop iteration and encrypted together, up to the maximum TLS record
+     * size, instead of producing one record and one network write each.
+     */
+    public void setGatheringWrites(boolean gatheringWrites) {
+        this.gatheringWrites = gatheringWrites;
+    }
+
     /**
      * Returns the underlying {@link SSLSession} for the specified session.
      *
@@ -364,7 +400,7 @@ public class SslFilter extends IoFilterAdapter {
         session.setAttribute(NEXT_FILTER, nextFilter);
 
         // Create an SSL handler and start handshake.
-        SslHandler handler = new SslHandler(this, sslContext, (IoSessionEx) session, logger);
+        SslHandler handler = new SslHandler(this, sslEngineFactory, (IoSessionEx) session, logger);
         session.setAttribute(SSL_HANDLER, handler);
     }
 
@@ -467,6 +503,11 @@ public class SslFilter extends IoFilterAdapter {
         if (writeRequest instanceof EncryptedWriteRequest) {
             EncryptedWriteRequest wrappedRequest = (EncryptedWriteRequest) writeRequest;
             nextFilter.messageSent(session, wrappedRequest.getParentRequest());
+        } else if (writeRequest instanceof GatheredWriteRequest) {
+            GatheredWriteRequest gatheredRequest = (GatheredWriteRequest) writeRequest;
+            for (WriteRequest parentRequest : gatheredRequest.getParentRequests()) {
+                nextFilter.messageSent(session, parentRequest);
+            }
         } else if (writeRequest == AbstractIoSessionEx.REGISTERED_EVENT) {
             // Session has been realigned, need to reset NEXT_FILTER so it has the new filter chain for the new IO thread
             session.setAttribute(NEXT_FILTER, nextFilter);
@@ -546,6 +587,7 @@ public class SslFilter extends IoFilterAdapter {
             else if (session.containsAttribute(DISABLE_ENCRYPTION_ONCE)) {
                 // Remove the marker attribute because it is temporary.
                 session.removeAttribute(DISABLE_ENCRYPTION_ONCE);
+                flushGatheredWrites(session, handler);
                 handler.scheduleFilterWrite(nextFilter,
                         writeRequest);
             } else {
@@ -555,7 +597,20 @@ public class SslFilter extends IoFilterAdapter {
                 if (handler.isWritingEncryptedData()) {
                     // data already encrypted; simply return buffer
                     handler.scheduleFilterWrite(nextFilter, writeRequest);
+                } else if (handler.isHandshakeComplete() && gatheringWrites
+                        && buf.remaining() < SslHandler.MAX_GATHERED_BYTES) {
+                    // Hold small writes so they share records and network writes
+                    if (!handler.canGatherWrite(buf.remaining())) {
+                        flushGatheredWrites(session, handler);
+                    }
+                    if (handler.gatherWrite(nextFilter, writeRequest)) {
+                        IoSessionEx sessionEx = (IoSessionEx) session;
+                        sessionEx.getIoExecutor().execute(new FlushGatheredWritesTask(session, handler));
+                    }
                 } else if (handler.isHandshakeComplete()) {
+                    // Keep ordering with any writes still being gathered
+                    flushGatheredWrites(session, handler);
+
                     // SSL encrypt
                     int pos = buf.position();
                     handler.encrypt(buf.buf());
@@ -628,6 +683,12 @@ public class SslFilter extends IoFilterAdapter {
     private WriteFuture initiateClosure(NextFilter nextFilter, IoSession session)
             throws SSLException {
         SslHandler handler = getSslSessionHandler(session);
+
+        // encrypt any gathered writes before close_notify
+        if (handler.isHandshakeComplete() && !handler.isOutboundDone()) {
+            flushGatheredWrites(session, handler);
+        }
+
         // if already shut down
         if (!handler.closeOutbound()) {
             return DefaultWriteFuture.newNotWrittenFuture(
@@ -675,6 +736,29 @@ public class SslFilter extends IoFilterAdapter {
         }
     }
 
+    private void flushGatheredWrites(IoSession session, SslHandler handler) throws SSLException {
+        if (!handler.hasGatheredWrites()) {
+            return;
+        }
+
+        NextFilter nextFilter = handler.getGatheredNextFilter();
+        List<ByteBuffer> buffers = new ArrayList<>();
+        List<WriteRequest> writeRequests = handler.fetchGatheredWrites(buffers);
+
+        if (!handler.isHandshakeComplete()) {
+            // renegotiation started since these writes were gathered
+            for (WriteRequest writeRequest : writeRequests) {
+                handler.schedulePreHandshakeWriteRequest(nextFilter, writeRequest);
+            }
+            return;
+        }
+
+        handler.encrypt(buffers.toArray(new ByteBuffer[buffers.size()]));
+        IoBuffer encryptedBuffer = handler.fetchOutNetBuffer();
+        handler.scheduleFilterWrite(nextFilter,
+                new GatheredWriteRequest(writeRequests, encryptedBuffer, new DefaultWriteFutureEx(session)));
+    }
+
     private SslHandler getSslSessionHandler(IoSession session) {
         SslHandler handler = (SslHandler) session.getAttribute(SSL_HANDLER);
         
@@ -722,5 +806,53 @@ public class SslFilter extends IoFilterAdapter {
             return encryptedMessage;
         }
     }
-}
 
+    private static final class GatheredWriteRequest extends DefaultWriteRequestEx {
+        private final List<WriteRequest> parentRequests;
+
+        private GatheredWriteRequest(final List<WriteRequest> parentRequests,
+                IoBuffer encryptedMessage, WriteFutureEx future) {
+            super(encryptedMessage, future);
+            this.parentRequests = parentRequests;
+            future.addListener(new IoFutureListener<WriteFuture>() {
+                @Override
+                public void operationComplete(WriteFuture future) {
+                    for (WriteRequest parentRequest : parentRequests) {
+                        if (future.isWritten()) {
+                            parentRequest.getFuture().setWritten();
+                        } else {
+                            parentRequest.getFuture().setException(future.getException());
+                        }
+                    }
+                }
+            });
+        }
+
+        List<WriteRequest> getParentRequests() {
+            return parentRequests;
+        }
+    }
+
+    private final class FlushGatheredWritesTask implements Runnable {
+        private final IoSession session;
+        private final SslHandler handler;
+
+        private FlushGatheredWritesTask(IoSession session, SslHandler handler) {
+            this.session = session;
+            this.handler = handler;
+        }
+
+        @Override
+        public void run() {
+            try {
+                synchronized (handler) {
+                    flushGatheredWrites(session, handler);
+                }
+
+                handler.flushScheduledEvents();
+            } catch (SSLException e) {
+                session.getFilterChain().fireExceptionCaught(e);
+            }
+        }
+    }
+}
@@ -25,7 +25,6 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLEngineResult;
 import javax.net.ssl.SSLException;
@@ -39,6 +38,7 @@ import org.apache.mina.core.future.WriteFuture;
 import org.apache.mina.core.session.IoEventType;
 import org.apache.mina.core.session.IoSession;
 import org.apache.mina.core.write.WriteRequest;
+import org.apache.mina.core.write.WriteToClosedSessionException;
 import org.apache.mina.util.CircularQueue;
 import org.slf4j.Logger;
 
@@ -47,7 +47,9 @@ import org.kaazing.mina.core.buffer.IoBufferEx;
 import org.kaazing.mina.core.future.DefaultWriteFutureEx;
 import org.kaazing.mina.core.future.WriteFutureEx;
 import org.kaazing.mina.core.session.IoSessionEx;
+import org.kaazing.gateway.transport.ssl.SslEngineFactory;
 import org.kaazing.mina.core.write.DefaultWriteRequestEx;
+import org.kaazing.mina.netty.util.threadlocal.VicariousThreadLocal;
 
 /**
  * A helper class using the SSLEngine API to decrypt/encrypt data.
@@ -61,8 +63,19 @@ import org.kaazing.mina.core.write.DefaultWriteRequestEx;
  */
 class SslHandler {
 
+    /**
+     * Maximum plaintext bytes gathered into a single wrap, matching the TLS maximum record size
+     */
+    static final int MAX_GATHERED_BYTES = 16384;
+
+    /**
+     * Per-thread scratch buffer that SSLEngine wraps into before the produced bytes are copied
+     * into a right-sized network buffer, so that each write does not allocate a full packet buffer
+     */
+    private static final ThreadLocal<ByteBuffer> WRAP_BUFFER = new VicariousThreadLocal<>();
+
     private final SslFilter parent;
-    private final SSLContext sslContext;
+    private final SslEngineFactory sslEngineFactory;
     private final IoSessionEx session;
     private final Queue<IoFilterEvent> preHandshakeEventQueue = new CircularQueue<>();
     private final Queue<IoFilterEvent> filterWriteEventQueue = new ConcurrentLinkedQueue<>();
@@ -81,6 +94,11 @@ class SslHandler {
      */
     private IoBufferEx outNetBuffer;
 
+    /**
+     * True when outNetBuffer was allocated for exactly the bytes produced by encrypt, so needs no shrinking
+     */
+    private boolean outNetBufferProduced;
+
     /**
      * Applicaton cleartext data to be read by application
      */
@@ -97,17 +115,26 @@ class SslHandler {
     private boolean writingEncryptedData;
     private final IoBufferAllocatorEx<?> allocator;
 
+    /**
+     * Small application writes waiting to be wrapped together
+     */
+    private final List<WriteRequest> gatheredWrites = new ArrayList<>();
+    private final List<ByteBuffer> gatheredBuffers = new ArrayList<>();
+    private int gatheredBytes;
+    private NextFilter gatheredNextFilter;
+    private final ByteBuffer[] singleSrc = new ByteBuffer[1];
+
     /**
      * Constuctor.
      *
      * @param sslc
      * @throws SSLException
      */
-    public SslHandler(SslFilter parent, SSLContext sslContext, IoSessionEx session, Logger logger)
+    public SslHandler(SslFilter parent, SslEngineFactory sslEngineFactory, IoSessionEx session, Logger logger)
             throws SSLException {
         this.parent = parent;
         this.session = session;
-        this.sslContext = sslContext;
+        this.sslEngineFactory = sslEngineFactory;
         this.logger = logger;
         this.allocator = session.getBufferAllocator();
         this.emptyBuffer = allocator.wrap(allocator.allocate(0));
@@ -130,9 +157,9 @@ class SslHandler {
         
         // Create the SSL engine here
         if (peer == null) {
-            sslEngine = sslContext.createSSLEngine();
+            sslEngine = sslEngineFactory.newSslEngine();
         } else {
-            sslEngine = sslContext.createSSLEngine(peer.getHostName(), peer.getPort());
+            sslEngine = sslEngineFactory.newSslEngine(peer.getHostName(), peer.getPort());
         }
 
         // Initialize the engine in client mode if necessary
@@ -265,11 +292,17 @@ class SslHandler {
 
         sslEngine = null;
         preHandshakeEventQueue.clear();
+
+        for (WriteRequest writeRequest : gatheredWrites) {
+            writeRequest.getFuture().setException(new WriteToClosedSessionException(writeRequest));
+        }
+        clearGatheredWrites();
     }
 
     private void destroyOutNetBuffer() {
         outNetBuffer.free();
         outNetBuffer = null;
+        outNetBufferProduced = false;
     }
 
     public SslFilter getParent() {
@@ -424,9 +457,67 @@ class SslHandler {
         }
 
         outNetBuffer = null;
+        if (outNetBufferProduced) {
+            outNetBufferProduced = false;
+            return (IoBuffer) answer;
+        }
+        // handshake and close_notify buffers are allocated at packet size
         return (IoBuffer) answer.shrink(allocator);
     }
 
+    /**
+     * Check if a write of the given size can be gathered with the writes already pending
+     * without exceeding the maximum record size.
+     */
+    public boolean canGatherWrite(int remaining) {
+        return gatheredBytes + remaining <= MAX_GATHERED_BYTES;
+    }
+
+    public boolean hasGatheredWrites() {
+        return !gatheredWrites.isEmpty();
+    }
+
+    /**
+     * Hold a small application write until the pending writes are wrapped together.
+     *
+     * @return <tt>true</tt> if this is the first pending write, so a flush needs to be scheduled
+     */
+    public boolean gatherWrite(NextFilter nextFilter, WriteRequest writeRequest) {
+        IoBuffer buf = (IoBuffer) writeRequest.getMessage();
+        // duplicate so that position changes made by the wrap never leak back to the caller
+        ByteBuffer src = buf.buf().duplicate();
+        gatheredWrites.add(writeRequest);
+        gatheredBuffers.add(src);
+        gatheredBytes += src.remaining();
+        gatheredNextFilter = nextFilter;
+        return gatheredWrites.size() == 1;
+    }
+
+    public NextFilter getGatheredNextFilter() {
+        return gatheredNextFilter;
+    }
+
+    /**
+     * Get the pending application writes and their buffers, clearing the pending state.
+     */
+    public List<WriteRequest> fetchGatheredWrites(List<ByteBuffer> buffers) {
+        if (gatheredWrites.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<WriteRequest> answer = new ArrayList<>(gatheredWrites);
+        buffers.addAll(gatheredBuffers);
+        clearGatheredWrites();
+        return answer;
+    }
+
+    private void clearGatheredWrites() {
+        gatheredWrites.clear();
+        gatheredBuffers.clear();
+        gatheredBytes = 0;
+        gatheredNextFilter = null;
+    }
+
     /**
      * Encrypt provided buffer. Encrypted data returned by getOutNetBuffer().
      *
@@ -434,33 +525,59 @@ class SslHandler {
      * @throws SSLException on errors
      */
     public void encrypt(ByteBuffer src) throws SSLException {
+        singleSrc[0] = src;
+        try {
+            encrypt(singleSrc);
+        } finally {
+            singleSrc[0] = null;
+        }
+    }
+
+    /**
+     * Encrypt provided buffers, in order, into as few records as possible.
+     * Encrypted data returned by getOutNetBuffer().
+     *
+     * @param srcs data to encrypt
+     * @throws SSLException on errors
+     */
+    public void encrypt(ByteBuffer[] srcs) throws SSLException {
         if (!handshakeComplete) {
             throw new IllegalStateException();
         }
 
-        if (!src.hasRemaining()) {
+        int remaining = 0;
+        for (ByteBuffer src : srcs) {
+            remaining += src.remaining();
+        }
+
+        if (remaining == 0) {
             if (outNetBuffer == null) {
                 outNetBuffer = emptyBuffer;
             }
             return;
         }
 
-        createOutNetBuffer(src.remaining());
+        // SSLEngine requires a full packet buffer even for small data, so wrap
+        // into the per-thread scratch buffer and copy out only what was produced
+        ByteBuffer wrapBuffer = wrapBuffer(sslEngine.getSession().getPacketBufferSize());
 
-        // Loop until there is no more data in src
-        while (src.hasRemaining()) {
+        // Loop until there is no more data in srcs
+        while (remaining > 0) {
 
-            SSLEngineResult result = sslEngine.wrap(src, outNetBuffer.buf());
+            wrapBuffer.clear();
+            SSLEngineResult result = sslEngine.wrap(srcs, wrapBuffer);
             if (result.getStatus() == SSLEngineResult.Status.OK) {
                 if (result.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_TASK) {
                     doTasks();
                 }
+                remaining -= result.bytesConsumed();
+                wrapBuffer.flip();
+                appendOutNetBuffer(wrapBuffer, estimateRemainingProduced(result, remaining));
             } else if (result.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
-                outNetBuffer.capacity(outNetBuffer.capacity() << 1, allocator);
-                outNetBuffer.limit(outNetBuffer.capacity());
+                wrapBuffer = wrapBuffer(wrapBuffer.capacity() << 1);
             } else {
                 throw new SSLException("SSLEngine error during encrypt: "
-                        + result.getStatus() + " src: " + src
+                        + result.getStatus() + " srcs: " + Arrays.toString(srcs)
                         + "outNetBuffer: " + outNetBuffer);
             }
         }
@@ -468,6 +585,35 @@ class SslHandler {
         outNetBuffer.flip();
     }
 
+    private static ByteBuffer wrapBuffer(int minCapacity) {
+        ByteBuffer wrapBuffer = WRAP_BUFFER.get();
+        if (wrapBuffer == null || wrapBuffer.capacity() < minCapacity) {
+            wrapBuffer = ByteBuffer.allocate(minCapacity);
+            WRAP_BUFFER.set(wrapBuffer);
+        }
+        return wrapBuffer;
+    }
+
+    private static int estimateRemainingProduced(SSLEngineResult result, int remaining) {
+        int consumed = result.bytesConsumed();
+        if (remaining == 0 || consumed == 0) {
+            return 0;
+        }
+        int records = (remaining + consumed - 1) / consumed;
+        return records * result.bytesProduced();
+    }
+
+    private void appendOutNetBuffer(ByteBuffer produced, int expectedRemaining) {
+        int capacity = produced.remaining() + expectedRemaining;
+        if (outNetBuffer == null || outNetBuffer == emptyBuffer) {
+            outNetBuffer = allocator.wrap(allocator.allocate(capacity)).setAutoExpander(allocator);
+            outNetBufferProduced = true;
+        } else {
+            outNetBuffer.expand(capacity, allocator);
+        }
+        outNetBuffer.put(produced);
+    }
+
     /**
      * Start SSL shutdown process.
      *
@@ -625,6 +771,7 @@ class SslHandler {
                 expectedRemaining,
                 sslEngine.getSession().getPacketBufferSize());
 
+        outNetBufferProduced = false;
         if (outNetBuffer != null) {
             outNetBuffer.capacity(capacity, allocator);
         } else {
@@ -0,0 +1,213 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.ssl;
+
+import static java.util.Collections.singleton;
+import static org.kaazing.gateway.resource.address.ResourceAddressFactory.newResourceAddressFactory;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import org.kaazing.gateway.resource.address.ResourceAddress;
+import org.kaazing.gateway.transport.ssl.bridge.filter.SslCertificateSelectionFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares SSL engine providers on a full handshake and on bulk transfer between a client and a server engine in the
+ * same process, the engines exchanging their records through buffers rather than through a loopback socket so that
+ * only the engine cost is measured. The server engines select their certificate through the same key managers as
+ * the ssl acceptor.
+ * <p>
+ * Other providers are compared by putting them on the classpath, e.g. <code>-p engine=jdk,openssl</code>.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class SslEngineBM {
+
+    private static final String KEY_ALIAS = "testing";
+    private static final char[] KEY_PASSWORD = "testing".toCharArray();
+
+    @Param({"jdk"})
+    public String engine;
+
+    @Param({"16384"})
+    public int messageSize;
+
+    private SslEngineFactory serverEngines;
+    private SslEngineFactory clientEngines;
+
+    private SSLEngine client;
+    private SSLEngine server;
+
+    private ByteBuffer clientApp;
+    private ByteBuffer clientNet;
+    private ByteBuffer serverNet;
+    private ByteBuffer serverApp;
+
+    @Setup(Level.Trial)
+    public void init() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("JKS");
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("keystore-testing.db")) {
+            keyStore.load(in, KEY_PASSWORD);
+        }
+        TestSecurityContext securityContext = new TestSecurityContext(keyStore, null, null, KEY_PASSWORD, null,
+                null, null, null, null);
+
+        serverEngines = SslEngineFactories.newSslEngineFactory(engine, securityContext, false);
+
+        // the test certificate is self signed and expired
+        TrustManager[] trustAll = new TrustManager[] {new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        }};
+        clientEngines = SslEngineFactories.findProvider(engine, getClass().getClassLoader())
+                .newSslEngineFactory(null, trustAll, true);
+
+        // what the certificate selection filter does on the I/O thread for the vhost of an accepted connection
+        ResourceAddress address = newResourceAddressFactory().newResourceAddress("ssl://localhost:443");
+        SslCertificateSelectionFilter.setAvailableCertAliases(address, singleton(KEY_ALIAS), false);
+
+        handshake();
+
+        clientApp = ByteBuffer.allocate(messageSize);
+        clientNet = ByteBuffer.allocate(client.getSession().getPacketBufferSize());
+        serverApp = ByteBuffer.allocate(server.getSession().getApplicationBufferSize() + messageSize);
+    }
+
+    @Benchmark
+    public SSLEngine handshake() throws SSLException {
+        client = clientEngines.newSslEngine("localhost", 443);
+        client.setUseClientMode(true);
+        server = serverEngines.newSslEngine();
+        server.setUseClientMode(false);
+
+        ByteBuffer empty = ByteBuffer.allocate(0);
+        ByteBuffer clientOut = ByteBuffer.allocate(client.getSession().getPacketBufferSize());
+        ByteBuffer serverOut = ByteBuffer.allocate(server.getSession().getPacketBufferSize());
+        ByteBuffer clientIn = ByteBuffer.allocate(client.getSession().getApplicationBufferSize());
+        ByteBuffer serverIn = ByteBuffer.allocate(server.getSession().getApplicationBufferSize());
+
+        client.beginHandshake();
+        server.beginHandshake();
+        while (!isDone(client) || !isDone(server)) {
+            step(client, empty, clientOut, serverOut, clientIn);
+            step(server, empty, serverOut, clientOut, serverIn);
+        }
+        return server;
+    }
+
+    @Benchmark
+    public int bulk() throws SSLException {
+        clientApp.clear();
+        serverApp.clear();
+        int received = 0;
+        while (clientApp.hasRemaining()) {
+            clientNet.clear();
+            client.wrap(clientApp, clientNet);
+            clientNet.flip();
+            while (clientNet.hasRemaining()) {
+                received += server.unwrap(clientNet, serverApp).bytesProduced();
+            }
+        }
+        return received;
+    }
+
+    private static boolean isDone(SSLEngine engine) {
+        HandshakeStatus status = engine.getHandshakeStatus();
+        return status == HandshakeStatus.NOT_HANDSHAKING || status == HandshakeStatus.FINISHED;
+    }
+
+    // wraps what the engine has to send into out, then unwraps what the peer sent into in
+    private static void step(SSLEngine engine, ByteBuffer empty, ByteBuffer out, ByteBuffer in, ByteBuffer app)
+            throws SSLException {
+        SSLEngineResult result;
+        do {
+            result = engine.wrap(empty, out);
+            runDelegatedTasks(engine);
+        } while (result.bytesProduced() > 0 && engine.getHandshakeStatus() == HandshakeStatus.NEED_WRAP);
+
+        in.flip();
+        while (in.hasRemaining() && engine.getHandshakeStatus() == HandshakeStatus.NEED_UNWRAP) {
+            result = engine.unwrap(in, app);
+            runDelegatedTasks(engine);
+            if (result.getStatus() == SSLEngineResult.Status.BUFFER_UNDERFLOW) {
+                break;
+            }
+        }
+        in.compact();
+    }
+
+    private static void runDelegatedTasks(SSLEngine engine) {
+        Runnable task;
+        while ((task = engine.getDelegatedTask()) != null) {
+            task.run();
+        }
+    }
+
+    // Or from command line:
+    //
+    // mvn clean install
+    // java -jar target/benchmarks.jar SslEngineBM
+    //
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SslEngineBM.class.getSimpleName())
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
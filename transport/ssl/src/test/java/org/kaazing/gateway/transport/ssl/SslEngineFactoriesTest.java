@@ -0,0 +1,136 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.ssl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SslEngineFactoriesTest {
+
+    private TestSecurityContext securityContext;
+
+    @Before
+    public void setUp() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("JKS");
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("keystore-testing.db")) {
+            keyStore.load(in, "testing".toCharArray());
+        }
+        securityContext = new TestSecurityContext(keyStore, null, null, "testing".toCharArray(), null,
+                null, null, null, null);
+        TestSslEngineFactorySpi.keyManagers = null;
+    }
+
+    @Test
+    public void shouldUseJdkEnginesByDefault() throws Exception {
+        ClassLoader loader = getClass().getClassLoader();
+
+        assertEquals("jdk", SslEngineFactories.findProvider(null, loader).getName());
+        assertEquals("jdk", SslEngineFactories.findProvider("jdk", loader).getName());
+    }
+
+    @Test
+    public void shouldFallBackToJdkEnginesWhenProviderNotFound() throws Exception {
+        assertEquals("jdk", SslEngineFactories.findProvider("unknown", getClass().getClassLoader()).getName());
+    }
+
+    @Test
+    public void shouldFallBackToJdkEnginesWhenProviderNotAvailable() throws Exception {
+        assertEquals("jdk", SslEngineFactories.findProvider("unavailable", getClass().getClassLoader()).getName());
+    }
+
+    @Test
+    public void shouldCreateEnginesFromSelectedProvider() throws Exception {
+        SslEngineFactory factory = SslEngineFactories.newSslEngineFactory("test", securityContext, false);
+
+        SSLEngine engine = factory.newSslEngine();
+        assertNotNull(engine);
+        assertSame(engine, TestSslEngineFactorySpi.lastEngine);
+    }
+
+    @Test
+    public void shouldHandVirtualHostKeyManagersToProvider() throws Exception {
+        SslEngineFactories.newSslEngineFactory("test", securityContext, false);
+
+        KeyManager[] keyManagers = TestSslEngineFactorySpi.keyManagers;
+        assertEquals(1, keyManagers.length);
+        assertTrue(keyManagers[0] instanceof SslKeyManager);
+    }
+
+    public static final class TestSslEngineFactorySpi extends SslEngineFactorySpi {
+
+        static volatile KeyManager[] keyManagers;
+        static volatile SSLEngine lastEngine;
+
+        @Override
+        public String getName() {
+            return "test";
+        }
+
+        @Override
+        public SslEngineFactory newSslEngineFactory(KeyManager[] keyManagers, TrustManager[] trustManagers,
+                                                    boolean clientMode) throws GeneralSecurityException {
+            TestSslEngineFactorySpi.keyManagers = keyManagers;
+            final SslEngineFactory delegate = new JdkSslEngineFactorySpi().newSslEngineFactory(keyManagers,
+                    trustManagers, clientMode);
+            return new SslEngineFactory() {
+
+                @Override
+                public SSLEngine newSslEngine() {
+                    return lastEngine = delegate.newSslEngine();
+                }
+
+                @Override
+                public SSLEngine newSslEngine(String peerHost, int peerPort) {
+                    return lastEngine = delegate.newSslEngine(peerHost, peerPort);
+                }
+
+            };
+        }
+    }
+
+    public static final class UnavailableSslEngineFactorySpi extends SslEngineFactorySpi {
+
+        @Override
+        public String getName() {
+            return "unavailable";
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return false;
+        }
+
+        @Override
+        public SslEngineFactory newSslEngineFactory(KeyManager[] keyManagers, TrustManager[] trustManagers,
+                                                    boolean clientMode) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.ssl;
+
+import static java.lang.Thread.currentThread;
+import static java.util.Collections.singleton;
+import static org.kaazing.gateway.resource.address.ResourceAddressFactory.newResourceAddressFactory;
+
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.service.IoHandlerAdapter;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.core.write.WriteRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.kaazing.gateway.resource.address.ResourceAddress;
+import org.kaazing.gateway.transport.ssl.bridge.filter.SslCertificateSelectionFilter;
+import org.kaazing.gateway.transport.ssl.bridge.filter.SslFilter;
+import org.kaazing.mina.core.session.DummySessionEx;
+
+/**
+ * A client and a server session joined by their SslFilters in the same thread, each write request reaching the end
+ * of one filter chain being delivered as a received message to the other. Tasks sent to the I/O executor of either
+ * session are queued until {@link #pump()}, as an I/O thread would run them on its next loop iteration.
+ */
+final class SslFilterPair {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SslFilterPair.class);
+
+    private static final String KEY_ALIAS = "testing";
+    private static final char[] KEY_PASSWORD = "testing".toCharArray();
+
+    private final Queue<Runnable> ioTasks = new ArrayDeque<>();
+    private final Executor ioExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            ioTasks.add(command);
+        }
+    };
+
+    final DummySessionEx client;
+    final DummySessionEx server;
+
+    private int clientWrites;
+    private long clientBytesWritten;
+    private long serverBytesReceived;
+
+    SslFilterPair(boolean gatheringWrites) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("JKS");
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("keystore-testing.db")) {
+            keyStore.load(in, KEY_PASSWORD);
+        }
+        TestSecurityContext securityContext = new TestSecurityContext(keyStore, null, null, KEY_PASSWORD, null,
+                null, null, null, null);
+        SslEngineFactory serverEngines = SslEngineFactories.newSslEngineFactory("jdk", securityContext, false);
+
+        // the test certificate is self signed and expired
+        TrustManager[] trustAll = new TrustManager[] {new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        }};
+        SslEngineFactory clientEngines = new JdkSslEngineFactorySpi().newSslEngineFactory(null, trustAll, true);
+
+        // what the certificate selection filter does on the I/O thread for the vhost of an accepted connection
+        ResourceAddress address = newResourceAddressFactory().newResourceAddress("ssl://localhost:443");
+        SslCertificateSelectionFilter.setAvailableCertAliases(address, singleton(KEY_ALIAS), false);
+
+        client = new DummySessionEx(currentThread(), ioExecutor);
+        server = new DummySessionEx(currentThread(), ioExecutor);
+
+        // keep write requests in the write request queue until pumped to the peer
+        client.suspendWrite();
+        server.suspendWrite();
+
+        client.setHandler(new IoHandlerAdapter());
+        server.setHandler(new IoHandlerAdapter() {
+            @Override
+            public void messageReceived(IoSession session, Object message) {
+                serverBytesReceived += ((IoBuffer) message).remaining();
+            }
+        });
+
+        SslFilter serverFilter = new SslFilter(serverEngines, false, LOGGER);
+        serverFilter.setGatheringWrites(gatheringWrites);
+        server.getFilterChain().addFirst("ssl", serverFilter);
+
+        SslFilter clientFilter = new SslFilter(clientEngines, true, LOGGER);
+        clientFilter.setUseClientMode(true);
+        clientFilter.setGatheringWrites(gatheringWrites);
+        client.getFilterChain().addFirst("ssl", clientFilter);
+
+        pump();
+        resetCounters();
+    }
+
+    /**
+     * Runs the queued I/O tasks and delivers the written records to the peer until neither session has more to do.
+     */
+    void pump() {
+        boolean progress;
+        do {
+            progress = false;
+
+            Runnable task;
+            while ((task = ioTasks.poll()) != null) {
+                task.run();
+                progress = true;
+            }
+
+            WriteRequest writeRequest;
+            while ((writeRequest = client.getWriteRequestQueue().poll(client)) != null) {
+                IoBuffer record = (IoBuffer) writeRequest.getMessage();
+                clientWrites++;
+                clientBytesWritten += record.remaining();
+                deliver(client, server, writeRequest);
+                progress = true;
+            }
+
+            while ((writeRequest = server.getWriteRequestQueue().poll(server)) != null) {
+                deliver(server, client, writeRequest);
+                progress = true;
+            }
+        } while (progress);
+    }
+
+    int clientWrites() {
+        return clientWrites;
+    }
+
+    long clientBytesWritten() {
+        return clientBytesWritten;
+    }
+
+    long serverBytesReceived() {
+        return serverBytesReceived;
+    }
+
+    void resetCounters() {
+        clientWrites = 0;
+        clientBytesWritten = 0L;
+        serverBytesReceived = 0L;
+    }
+
+    private static void deliver(DummySessionEx from, DummySessionEx to, WriteRequest writeRequest) {
+        to.getFilterChain().fireMessageReceived(writeRequest.getMessage());
+        writeRequest.getFuture().setWritten();
+        from.getFilterChain().fireMessageSent(writeRequest);
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.ssl;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.kaazing.mina.core.buffer.IoBufferAllocatorEx;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Writes bursts of small messages through the SslFilter of a client session, flushes them as the I/O thread would,
+ * and decrypts them at the server session, with and without gathering writes. The "messages", "records" and
+ * "wireBytes" counters are reported at the same rate, so records per message and bytes on the wire per message are
+ * their ratios.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class SslGatheringWritesBM {
+
+    @Param({"false", "true"})
+    public boolean gatheringWrites;
+
+    @Param({"64", "1024"})
+    public int messageSize;
+
+    @Param({"16"})
+    public int messagesPerFlush;
+
+    private SslFilterPair pair;
+    private IoBuffer[] messages;
+
+    @State(Scope.Thread)
+    @AuxCounters
+    public static class Counters {
+        public long messages;
+        public long records;
+        public long wireBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            messages = 0L;
+            records = 0L;
+            wireBytes = 0L;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void init() throws Exception {
+        pair = new SslFilterPair(gatheringWrites);
+
+        IoBufferAllocatorEx<?> allocator = pair.client.getBufferAllocator();
+        messages = new IoBuffer[messagesPerFlush];
+        for (int i = 0; i < messages.length; i++) {
+            ByteBuffer buf = allocator.allocate(messageSize);
+            buf.put(new byte[messageSize]).flip();
+            messages[i] = (IoBuffer) allocator.wrap(buf);
+        }
+    }
+
+    @Benchmark
+    public long burst(Counters counters) {
+        pair.resetCounters();
+        for (IoBuffer message : messages) {
+            pair.client.write(message.duplicate());
+        }
+        pair.pump();
+
+        counters.messages += messages.length;
+        counters.records += pair.clientWrites();
+        counters.wireBytes += pair.clientBytesWritten();
+        return pair.serverBytesReceived();
+    }
+
+    // Or from command line:
+    //
+    // mvn clean install
+    // java -jar target/benchmarks.jar SslGatheringWritesBM
+    //
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SslGatheringWritesBM.class.getSimpleName())
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
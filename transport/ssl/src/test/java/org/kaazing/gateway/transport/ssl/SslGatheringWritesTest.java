@@ -0,0 +1,139 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.ssl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.future.WriteFuture;
+import org.apache.mina.core.service.IoHandlerAdapter;
+import org.apache.mina.core.session.IoSession;
+import org.junit.Test;
+
+import org.kaazing.mina.core.buffer.IoBufferAllocatorEx;
+
+public class SslGatheringWritesTest {
+
+    @Test
+    public void shouldWriteOneRecordPerMessageByDefault() throws Exception {
+        SslFilterPair pair = new SslFilterPair(false);
+
+        for (int i = 0; i < 4; i++) {
+            pair.client.write(message(pair, 32, (byte) i));
+        }
+        pair.pump();
+
+        assertEquals(4, pair.clientWrites());
+        assertEquals(4 * 32, pair.serverBytesReceived());
+    }
+
+    @Test
+    public void shouldGatherSmallWritesIntoOneRecord() throws Exception {
+        SslFilterPair pair = new SslFilterPair(true);
+        final StringBuilder received = new StringBuilder();
+        pair.server.setHandler(new IoHandlerAdapter() {
+            @Override
+            public void messageReceived(IoSession session, Object message) {
+                IoBuffer buf = (IoBuffer) message;
+                while (buf.hasRemaining()) {
+                    received.append((char) buf.get());
+                }
+            }
+        });
+
+        WriteFuture[] futures = new WriteFuture[4];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = pair.client.write(message(pair, 32, (byte) ('a' + i)));
+        }
+
+        // nothing is written until the I/O thread runs the flush
+        assertFalse(futures[0].isDone());
+        assertTrue(pair.client.getWriteRequestQueue().isEmpty(pair.client));
+
+        pair.pump();
+
+        assertEquals(1, pair.clientWrites());
+        assertEquals(4 * 32, received.length());
+        for (int i = 0; i < futures.length; i++) {
+            assertTrue(futures[i].isWritten());
+            assertEquals('a' + i, received.charAt(i * 32));
+        }
+    }
+
+    @Test
+    public void shouldSplitGatheredWritesAtMaximumRecordSize() throws Exception {
+        SslFilterPair pair = new SslFilterPair(true);
+
+        for (int i = 0; i < 8; i++) {
+            pair.client.write(message(pair, 4096, (byte) i));
+        }
+        pair.pump();
+
+        assertEquals(2, pair.clientWrites());
+        assertEquals(8 * 4096, pair.serverBytesReceived());
+    }
+
+    @Test
+    public void shouldKeepOrderWithLargeWrites() throws Exception {
+        SslFilterPair pair = new SslFilterPair(true);
+        final StringBuilder received = new StringBuilder();
+        pair.server.setHandler(new IoHandlerAdapter() {
+            @Override
+            public void messageReceived(IoSession session, Object message) {
+                IoBuffer buf = (IoBuffer) message;
+                while (buf.hasRemaining()) {
+                    received.append((char) buf.get());
+                }
+            }
+        });
+
+        pair.client.write(message(pair, 16, (byte) 'a'));
+        pair.client.write(message(pair, 32768, (byte) 'b'));
+        pair.client.write(message(pair, 16, (byte) 'c'));
+        pair.pump();
+
+        assertEquals(16 + 32768 + 16, received.length());
+        assertEquals('a', received.charAt(0));
+        assertEquals('b', received.charAt(16));
+        assertEquals('c', received.charAt(16 + 32768));
+    }
+
+    @Test
+    public void shouldFlushGatheredWritesBeforeClose() throws Exception {
+        SslFilterPair pair = new SslFilterPair(true);
+
+        WriteFuture future = pair.client.write(message(pair, 32, (byte) 'a'));
+        pair.client.close(false);
+        pair.pump();
+
+        assertTrue(future.isWritten());
+        assertEquals(32, pair.serverBytesReceived());
+    }
+
+    private static IoBuffer message(SslFilterPair pair, int size, byte value) {
+        IoBufferAllocatorEx<?> allocator = pair.client.getBufferAllocator();
+        ByteBuffer buf = allocator.allocate(size);
+        while (buf.hasRemaining()) {
+            buf.put(value);
+        }
+        buf.flip();
+        return (IoBuffer) allocator.wrap(buf);
+    }
+}
@@ -66,6 +66,7 @@ public abstract class AbstractWsBridgeSession<S extends IoSessionEx, B extends I
     protected final WsSessionTimeoutCommand sessionTimeout;
 
     protected ScheduledExecutorService scheduler;
+    protected WsScheduledCommandSweeper sweeper;
     protected ResultAwareLoginContext loginContext;
     private List<WebSocketExtension> extensions;
     private Throwable closeException;
@@ -102,6 +103,14 @@ public abstract class AbstractWsBridgeSession<S extends IoSessionEx, B extends I
         this.scheduler = scheduler;
     }
 
+    /**
+     * @param sweeper the sweeper running time-bucketed commands, or null to schedule each command
+     *                on the scheduler individually
+     */
+    public void setScheduledCommandSweeper(WsScheduledCommandSweeper sweeper) {
+        this.sweeper = sweeper;
+    }
+
     public void setLoginContext(ResultAwareLoginContext loginContext) {
         this.loginContext = loginContext;
         super.setSubject(loginContext.getSubject());
@@ -153,11 +162,21 @@ public abstract class AbstractWsBridgeSession<S extends IoSessionEx, B extends I
     }
 
     private void scheduleCommand(WsScheduledCommand command, final long delay) {
-        setAttribute(command.getScheduledFutureKey(), command.schedule(scheduler, delay, TimeUnit.SECONDS));
+        if (sweeper != null) {
+            setAttribute(command.getScheduledFutureKey(), sweeper.schedule(command, delay, TimeUnit.SECONDS));
+        } else {
+            setAttribute(command.getScheduledFutureKey(), command.schedule(scheduler, delay, TimeUnit.SECONDS));
+        }
     }
 
     private void cancelCommand(final WsScheduledCommand command) {
-        command.cancel((ScheduledFuture<?>) removeAttribute(command.getScheduledFutureKey()));
+        Object scheduled = removeAttribute(command.getScheduledFutureKey());
+        if (scheduled instanceof WsScheduledCommandSweeper.Sweep) {
+            ((WsScheduledCommandSweeper.Sweep) scheduled).cancel(command);
+            command.cancel(null);
+        } else {
+            command.cancel((ScheduledFuture<?>) scheduled);
+        }
     }
 
     public List<WebSocketExtension> getExtensions() {
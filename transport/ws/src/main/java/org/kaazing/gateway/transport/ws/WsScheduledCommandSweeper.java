@@ -0,0 +1,167 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.ws;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs {@link WsScheduledCommand}s in time-bucketed sweeps instead of scheduling one task per command.
+ * <p/>
+ * Deadlines are rounded up to the next multiple of the sweep interval, so all the commands falling due
+ * within the same interval share a single scheduled task. A command never runs before its delay has
+ * elapsed and runs at most one sweep interval late. This keeps the scheduler queue proportional to the
+ * number of distinct intervals rather than to the number of sessions, e.g. when thousands of sessions
+ * reconnect and log in at once after a gateway restart.
+ */
+public class WsScheduledCommandSweeper {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("session.scheduled");
+
+    private final ScheduledExecutorService scheduler;
+    private final long intervalMillis;
+    private final ConcurrentMap<Long, Sweep> sweeps;
+
+    public WsScheduledCommandSweeper(ScheduledExecutorService scheduler, long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Sweep interval must be positive: " + intervalMillis);
+        }
+        this.scheduler = scheduler;
+        this.intervalMillis = intervalMillis;
+        this.sweeps = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Schedule the command to run in the first sweep after the given delay.
+     *
+     * @param command the command to run
+     * @param delay the delay
+     * @param unit the time units for the delay
+     * @return the sweep the command was added to, used to cancel it
+     */
+    public Sweep schedule(WsScheduledCommand command, long delay, TimeUnit unit) {
+        long now = currentTimeMillis();
+        long deadline = now + unit.toMillis(delay);
+        long sweepTime = (deadline + intervalMillis - 1) / intervalMillis * intervalMillis;
+
+        while (true) {
+            Sweep sweep = sweeps.get(sweepTime);
+            if (sweep == null) {
+                Sweep newSweep = new Sweep(sweepTime);
+                sweep = sweeps.putIfAbsent(sweepTime, newSweep);
+                if (sweep == null) {
+                    sweep = newSweep;
+                    scheduler.schedule(sweep, Math.max(0, sweepTime - now), MILLISECONDS);
+                }
+            }
+            if (sweep.add(command)) {
+                return sweep;
+            }
+            // the sweep started running and was removed in the meantime, pick up its replacement
+        }
+    }
+
+    /**
+     * @return the number of sweeps waiting to run
+     */
+    public int getPendingSweepCount() {
+        return sweeps.size();
+    }
+
+    /**
+     * @return the number of commands waiting to run, across all pending sweeps
+     */
+    public int getPendingCommandCount() {
+        int count = 0;
+        for (Sweep sweep : sweeps.values()) {
+            count += sweep.size();
+        }
+        return count;
+    }
+
+    private static long currentTimeMillis() {
+        return NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    /**
+     * The commands falling due within one sweep interval, run together by a single scheduled task.
+     */
+    public final class Sweep implements Runnable {
+
+        private final long sweepTime;
+        private final Set<WsScheduledCommand> commands;
+        private boolean swept;
+
+        private Sweep(long sweepTime) {
+            this.sweepTime = sweepTime;
+            this.commands = new LinkedHashSet<>();
+        }
+
+        /**
+         * Remove the command from this sweep, if it has not run yet.
+         *
+         * @param command the command to remove
+         * @return true iff the command was removed before it ran
+         */
+        public synchronized boolean cancel(WsScheduledCommand command) {
+            return commands.remove(command);
+        }
+
+        @Override
+        public void run() {
+            sweeps.remove(sweepTime, this);
+
+            List<WsScheduledCommand> dueCommands;
+            synchronized (this) {
+                swept = true;
+                dueCommands = new ArrayList<>(commands);
+                commands.clear();
+            }
+
+            for (WsScheduledCommand command : dueCommands) {
+                try {
+                    command.run();
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Scheduled command failed during sweep", e);
+                }
+            }
+        }
+
+        private synchronized boolean add(WsScheduledCommand command) {
+            if (swept) {
+                return false;
+            }
+            commands.add(command);
+            return true;
+        }
+
+        private synchronized int size() {
+            return commands.size();
+        }
+    }
+}
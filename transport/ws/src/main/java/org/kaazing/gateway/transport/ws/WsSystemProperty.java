@@ -28,7 +28,17 @@ public enum WsSystemProperty {
     WS_ENABLED_TRANSPORTS("org.kaazing.gateway.transport.ws.ENABLED_TRANSPORTS"),
     // in org.kaazing.gateway.util.InternalSystemProperty:
     // WSE_IDLE_TIMEOUT("org.kaazing.gateway.server.transport.wse.IDLE_TIMEOUT", "60")
-    WSE_IDLE_TIMEOUT("org.kaazing.gateway.transport.wse.IDLE_TIMEOUT", "60");
+    WSE_IDLE_TIMEOUT("org.kaazing.gateway.transport.wse.IDLE_TIMEOUT", "60"),
+
+    // codec
+    // binary frames larger than this are delivered as they arrive, in fragments of this size (0 to disable)
+    WS_STREAMING_FRAGMENT_SIZE("org.kaazing.gateway.transport.ws.STREAMING_FRAGMENT_SIZE", "0"),
+    // unmasked payloads at least this large are written after the frame header without being copied (0 to disable)
+    WS_GATHERING_THRESHOLD("org.kaazing.gateway.transport.ws.GATHERING_THRESHOLD", "1024"),
+
+    // session
+    // sessions timing out within the same interval (in milliseconds) are closed together by one sweep (0 to disable)
+    WS_SESSION_TIMEOUT_SWEEP_INTERVAL("org.kaazing.gateway.transport.ws.SESSION_TIMEOUT_SWEEP_INTERVAL", "1000");
 
     private final String name;
     private final String defaultValue;
@@ -15,14 +15,19 @@
  */
 package org.kaazing.gateway.transport.ws.bridge.filter;
 
+import static org.kaazing.gateway.transport.bridge.CachingMessageEncoder.IO_MESSAGE_ENCODER;
+
 import org.apache.mina.core.session.IoSession;
 import org.apache.mina.filter.codec.ProtocolCodecFactory;
 import org.apache.mina.filter.codec.ProtocolDecoder;
 import org.apache.mina.filter.codec.ProtocolEncoder;
+import org.jboss.netty.channel.socket.SocketChannel;
+import org.kaazing.gateway.resource.address.ws.WsMaskingStrategy;
 import org.kaazing.gateway.transport.BridgeSession;
 import org.kaazing.mina.core.buffer.IoBufferAllocatorEx;
 import org.kaazing.mina.core.session.IoSessionEx;
 import org.kaazing.mina.filter.codec.ProtocolCodecFilter;
+import org.kaazing.mina.netty.ChannelIoSession;
 
 public class WsCodecFilter extends ProtocolCodecFilter {
 
@@ -31,16 +36,56 @@ public class WsCodecFilter extends ProtocolCodecFilter {
      * @param wsMaxMessageSize   Maximum permitted number of bytes in a message being decoded. If <0 there is no limit.
      */
     public WsCodecFilter(int wsMaxMessageSize, boolean maskSends) {
-        super(new WsCodecFactory(wsMaxMessageSize > 0 ? wsMaxMessageSize : 0, maskSends));
+        this(wsMaxMessageSize, maskSends, 0);
+    }
+
+    /**
+     * @param wsMaxMessageSize   Maximum permitted number of bytes in a message being decoded. If <0 there is no limit.
+     * @param streamingFragmentSize   Binary frames larger than this are decoded as they arrive, in fragments of
+     *                                this many bytes, rather than once the whole frame is received. If <=0 whole
+     *                                frames are always accumulated.
+     */
+    public WsCodecFilter(int wsMaxMessageSize, boolean maskSends, int streamingFragmentSize) {
+        this(wsMaxMessageSize, maskSends ? WsMaskingStrategy.SECURE : null, streamingFragmentSize);
+    }
+
+    /**
+     * @param wsMaxMessageSize   Maximum permitted number of bytes in a message being decoded. If <0 there is no limit.
+     * @param maskingStrategy   Strategy providing the masking keys of sent frames, when acting as a client. If null,
+     *                          sent frames are not masked and received frames are expected to be masked.
+     */
+    public WsCodecFilter(int wsMaxMessageSize, WsMaskingStrategy maskingStrategy) {
+        this(wsMaxMessageSize, maskingStrategy, 0);
+    }
+
+    public WsCodecFilter(int wsMaxMessageSize, WsMaskingStrategy maskingStrategy, int streamingFragmentSize) {
+        this(wsMaxMessageSize, maskingStrategy, streamingFragmentSize, 0);
+    }
+
+    /**
+     * @param gatheringThreshold   Unmasked payloads of at least this many bytes are written to a socket session using
+     *                             a gathering write of frame header and payload, rather than being copied, when there
+     *                             is no space reserved in front of them for the header. If <=0 payloads are always
+     *                             copied.
+     */
+    public WsCodecFilter(int wsMaxMessageSize, WsMaskingStrategy maskingStrategy, int streamingFragmentSize,
+                         int gatheringThreshold) {
+        super(new WsCodecFactory(wsMaxMessageSize > 0 ? wsMaxMessageSize : 0, maskingStrategy,
+                streamingFragmentSize > 0 ? streamingFragmentSize : 0, gatheringThreshold > 0 ? gatheringThreshold : 0));
     }
 
     private static class WsCodecFactory implements ProtocolCodecFactory {
         private int wsMaxMessageSize;
-        private boolean maskSends;
+        private WsMaskingStrategy maskingStrategy;
+        private int streamingFragmentSize;
+        private int gatheringThreshold;
 
-        public WsCodecFactory(int wsMaxMessageSize, boolean maskSends) {
+        public WsCodecFactory(int wsMaxMessageSize, WsMaskingStrategy maskingStrategy, int streamingFragmentSize,
+                              int gatheringThreshold) {
             this.wsMaxMessageSize = wsMaxMessageSize;
-            this.maskSends = maskSends;
+            this.maskingStrategy = maskingStrategy;
+            this.streamingFragmentSize = streamingFragmentSize;
+            this.gatheringThreshold = gatheringThreshold;
         }
 
         @Override
@@ -48,12 +93,15 @@ public class WsCodecFilter extends ProtocolCodecFilter {
             IoSessionEx sessionEx = (IoSessionEx) session;
             IoBufferAllocatorEx<?> allocator = sessionEx.getBufferAllocator();
 
+            // gathering writes are only understood by socket sessions, not by layered (e.g. ssl) sessions
+            int gatheringThreshold = isSocketSession(session) ? this.gatheringThreshold : 0;
+
             if (session instanceof BridgeSession) {
                 BridgeSession bridgeSession = (BridgeSession)session;
-                return new WsFrameEncoder(bridgeSession.getMessageEncoder(), allocator, maskSends);
+                return new WsFrameEncoder(bridgeSession.getMessageEncoder(), allocator, maskingStrategy, gatheringThreshold);
             }
 
-            return new WsFrameEncoder(allocator, maskSends);
+            return new WsFrameEncoder(IO_MESSAGE_ENCODER, allocator, maskingStrategy, gatheringThreshold);
         }
 
         @Override
@@ -61,7 +109,11 @@ public class WsCodecFilter extends ProtocolCodecFilter {
             IoSessionEx sessionEx = (IoSessionEx) session;
             IoBufferAllocatorEx<?> allocator = sessionEx.getBufferAllocator();
 
-            return new WsFrameDecoder(allocator, wsMaxMessageSize, !maskSends);
+            return new WsFrameDecoder(allocator, wsMaxMessageSize, maskingStrategy == null, streamingFragmentSize);
+        }
+
+        private static boolean isSocketSession(IoSession session) {
+            return session instanceof ChannelIoSession && ((ChannelIoSession<?>) session).getChannel() instanceof SocketChannel;
         }
     }
 }
@@ -33,6 +33,7 @@ import org.kaazing.gateway.transport.ws.WsPongMessage;
 import org.kaazing.gateway.transport.ws.WsTextMessage;
 import org.kaazing.gateway.transport.ws.bridge.filter.WsFrameEncodingSupport.Opcode;
 import org.kaazing.gateway.transport.ws.util.WSMessageTooLongException;
+import org.kaazing.gateway.util.Utf8Validator;
 import org.kaazing.mina.core.buffer.IoBufferAllocatorEx;
 import org.kaazing.mina.core.buffer.IoBufferEx;
 import org.kaazing.mina.filter.codec.CumulativeProtocolDecoderEx;
@@ -44,15 +45,35 @@ public class WsFrameDecoder extends CumulativeProtocolDecoderEx {
     private boolean prevDataFin = true;
     private long currentMessageSize;           // accumulates frame sizes of a message
     private final boolean maskingExpected;
+    private final Utf8Validator utf8Validator = new Utf8Validator();
+
+    // binary frames larger than this are decoded as they arrive instead of being accumulated (0 to disable)
+    private final int streamingFragmentSize;
+    private boolean binaryMessage;             // whether the current fragmented message is binary
+    private long streamedBytesRemaining;       // payload bytes of the streamed frame not decoded yet
+    private long streamedOffset;               // payload bytes of the streamed frame decoded so far
+    private int streamedMask;
+    private boolean streamedFin;
+    private Kind streamedKind;
 
     WsFrameDecoder(IoBufferAllocatorEx<?> allocator, int maxMessageSize, boolean maskingExpected) {
+        this(allocator, maxMessageSize, maskingExpected, 0);
+    }
+
+    WsFrameDecoder(IoBufferAllocatorEx<?> allocator, int maxMessageSize, boolean maskingExpected,
+            int streamingFragmentSize) {
         super(allocator);
         this.maxMessageSize = maxMessageSize;
         this.maskingExpected = maskingExpected;
+        this.streamingFragmentSize = streamingFragmentSize;
     }
 
     @Override
     protected boolean doDecode(IoSession session, IoBufferEx in, ProtocolDecoderOutput out) throws Exception {
+        if (streamedBytesRemaining > 0) {
+            return decodeStreamedFragment(in, out);
+        }
+
         if (in.remaining() < 2) {
             return false;
         }
@@ -115,9 +136,24 @@ public class WsFrameDecoder extends CumulativeProtocolDecoderEx {
             validateMessageSize(currentMessageSizeCandidate);
         }
 
+        if (opcode == Opcode.TEXT || opcode == Opcode.BINARY) {
+            binaryMessage = opcode == Opcode.BINARY;
+        }
+
         // actual payload length plus additional 4 bytes if masked
         long totalRemainingBytesNeeded = (masked ? 4 : 0) + frameSize;
         if (in.remaining() < totalRemainingBytesNeeded) {
+            if (isStreamable(opcode, frameSize) && in.remaining() >= (masked ? 4 : 0)) {
+                // deliver the payload as it arrives rather than holding the whole frame in the session buffer
+                streamedMask = masked ? in.getInt() : 0;
+                streamedKind = (opcode == Opcode.BINARY) ? BINARY : CONTINUATION;
+                streamedFin = fin;
+                streamedOffset = 0;
+                streamedBytesRemaining = frameSize;
+                prevDataFin = false;
+                currentMessageSize = currentMessageSizeCandidate;
+                return true;
+            }
             in.reset();
             return false;
         }
@@ -131,6 +167,9 @@ public class WsFrameDecoder extends CumulativeProtocolDecoderEx {
 
         switch (opcode) {
             case CONTINUATION:
+                if (!binaryMessage) {
+                    validateUTF8(buf, fin);
+                }
                 binaryTextDecoder.decodeWsMessage(buf, CONTINUATION, fin, out);
                 prevDataFin = fin;
                 currentMessageSize = currentMessageSizeCandidate;
@@ -141,6 +180,8 @@ public class WsFrameDecoder extends CumulativeProtocolDecoderEx {
                 currentMessageSize = currentMessageSizeCandidate;
                 break;
             case TEXT:
+                utf8Validator.reset();
+                validateUTF8(buf, fin);
                 binaryTextDecoder.decodeWsMessage(buf, TEXT, fin, out);
                 prevDataFin = fin;
                 currentMessageSize = currentMessageSizeCandidate;
@@ -168,6 +209,49 @@ public class WsFrameDecoder extends CumulativeProtocolDecoderEx {
         return true;
     }
 
+    /*
+     * Decodes the next fragment of a streamed frame once enough of its payload has been received. Text frames
+     * are never streamed as fragments could split UTF-8 sequences.
+     */
+    private boolean decodeStreamedFragment(IoBufferEx in, ProtocolDecoderOutput out) {
+        int fragmentSize = (int) Math.min(streamedBytesRemaining, streamingFragmentSize);
+        if (in.remaining() < fragmentSize) {
+            return false;
+        }
+
+        IoBufferEx buf = in.getSlice(fragmentSize);
+        if (streamedMask != 0) {
+            // realign the mask with the offset of this fragment in the frame payload
+            unmask(buf.buf(), Integer.rotateLeft(streamedMask, (int) (streamedOffset % 4) * 8));
+        }
+
+        Kind kind = (streamedOffset == 0) ? streamedKind : CONTINUATION;
+        streamedOffset += fragmentSize;
+        streamedBytesRemaining -= fragmentSize;
+
+        boolean fin = (streamedBytesRemaining == 0) && streamedFin;
+        binaryTextDecoder.decodeWsMessage(buf, kind, fin, out);
+        if (streamedBytesRemaining == 0) {
+            prevDataFin = streamedFin;
+        }
+        return true;
+    }
+
+    private boolean isStreamable(Opcode opcode, long frameSize) {
+        if (streamingFragmentSize <= 0 || frameSize <= streamingFragmentSize) {
+            return false;
+        }
+        return opcode == Opcode.BINARY || (opcode == Opcode.CONTINUATION && binaryMessage);
+    }
+
+    // Validates text payload, which may end in the middle of a character unless this is the final frame
+    private void validateUTF8(IoBufferEx payload, boolean fin) throws ProtocolDecoderException {
+        if (!utf8Validator.validate(payload.buf()) || (fin && !utf8Validator.isComplete())) {
+            throw new ProtocolDecoderException("WebSocket text frame content is not valid UTF-8: "
+                    + utf8Validator.getErrorMessage());
+        }
+    }
+
     // Validates opcode w.r.t FIN bit
     private void validateOpcodeUsingFin(Opcode opcode, boolean fin) throws ProtocolDecoderException {
         switch (opcode) {
@@ -216,47 +300,7 @@ public class WsFrameDecoder extends CumulativeProtocolDecoderEx {
      * Unmask a buffer in place
      */
     protected static void unmask(ByteBuffer buf, int mask) {
-        if (!buf.hasRemaining()) {
-            return;
-        }
-
-        byte b;
-        int start = buf.position();
-        int remainder = buf.remaining() % 4;
-        int remaining = buf.remaining() - remainder;
-        int end = remaining + buf.position();
-
-        // xor a 32bit word at a time as long as possible
-        while (buf.position() < end) {
-            int plaintext = buf.getInt(buf.position()) ^ mask;
-            buf.putInt(plaintext);
-        }
-
-        // xor the remaining 3, 2, or 1 bytes
-        switch (remainder) {
-        case 3:
-            b = (byte) (buf.get(buf.position()) ^ ((mask >> 24) & 0xff));
-            buf.put(b);
-            b = (byte) (buf.get(buf.position()) ^ ((mask >> 16) & 0xff));
-            buf.put(b);
-            b = (byte) (buf.get(buf.position()) ^ ((mask >> 8) & 0xff));
-            buf.put(b);
-            break;
-        case 2:
-            b = (byte) (buf.get(buf.position()) ^ ((mask >> 24) & 0xff));
-            buf.put(b);
-            b = (byte) (buf.get(buf.position()) ^ ((mask >> 16) & 0xff));
-            buf.put(b);
-            break;
-        case 1:
-            b = (byte) (buf.get(buf.position()) ^ (mask >> 24));
-            buf.put(b);
-            break;
-        case 0:
-        default:
-                break;
-        }
-        buf.position(start);
+        WsFrameUtils.unmask(buf, mask);
     }
 
     private void validateMessageSize(long messageSize) throws WSMessageTooLongException {
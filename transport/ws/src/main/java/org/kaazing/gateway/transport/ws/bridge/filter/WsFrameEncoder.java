@@ -16,9 +16,11 @@
 package org.kaazing.gateway.transport.ws.bridge.filter;
 
 import static org.kaazing.gateway.transport.bridge.CachingMessageEncoder.IO_MESSAGE_ENCODER;
+import static org.kaazing.mina.core.buffer.IoBufferEx.FLAG_ZERO_COPY;
 
-import java.security.SecureRandom;
-
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.filter.codec.ProtocolEncoderOutput;
+import org.kaazing.gateway.resource.address.ws.WsMaskingStrategy;
 import org.kaazing.gateway.transport.bridge.CachingMessageEncoder;
 import org.kaazing.gateway.transport.ws.WsCloseMessage;
 import org.kaazing.gateway.transport.ws.WsMessage;
@@ -27,24 +29,47 @@ import org.kaazing.mina.core.buffer.IoBufferEx;
 
 public class WsFrameEncoder extends AbstractWsFrameEncoder {
     
-    private final boolean maskSends;
-    private static SecureRandom prng;
-    
-    static {
-        // KG-3433: although native ("NativePRNG") is faster than "SHA1PRNG" (which is typically the default)
-        // we now always use the platform default, to avoid getting exception on platforms like Windows 7 
-        // which do not have NativePRNG and to give us a leeway to make it configurable in a later
-        // patch release (see KG-3403). 
-        prng = new SecureRandom();
-    }
+    private final WsMaskingStrategy maskingStrategy;
+    private final int gatheringThreshold;
     
     public WsFrameEncoder(IoBufferAllocatorEx<?> allocator, boolean maskSends) {
         this(IO_MESSAGE_ENCODER, allocator, maskSends);
     }
     
     public WsFrameEncoder(CachingMessageEncoder cachingEncoder, IoBufferAllocatorEx<?> allocator, boolean maskSends) {
+        this(cachingEncoder, allocator, maskSends ? WsMaskingStrategy.SECURE : null);
+    }
+
+    /**
+     * @param maskingStrategy   Strategy providing the masking key of each frame, or null to send unmasked frames.
+     */
+    public WsFrameEncoder(CachingMessageEncoder cachingEncoder, IoBufferAllocatorEx<?> allocator,
+                          WsMaskingStrategy maskingStrategy) {
+        this(cachingEncoder, allocator, maskingStrategy, 0);
+    }
+
+    /**
+     * @param maskingStrategy   Strategy providing the masking key of each frame, or null to send unmasked frames.
+     * @param gatheringThreshold   Unmasked payloads of at least this many bytes, with no space reserved in front of
+     *                             them for the frame header, are written after a separate header buffer instead of
+     *                             being copied. Only valid when writing directly to a socket. If <=0 payloads are
+     *                             always copied.
+     */
+    public WsFrameEncoder(CachingMessageEncoder cachingEncoder, IoBufferAllocatorEx<?> allocator,
+                          WsMaskingStrategy maskingStrategy, int gatheringThreshold) {
         super(cachingEncoder, allocator);
-        this.maskSends = maskSends; 
+        this.maskingStrategy = maskingStrategy;
+        this.gatheringThreshold = (maskingStrategy == null && gatheringThreshold > 0) ? gatheringThreshold : 0;
+    }
+
+    @Override
+    public void encode(IoSession session, Object message, ProtocolEncoderOutput out) throws Exception {
+        WsMessage wsMessage = (WsMessage) message;
+        if (gatheringThreshold > 0 && !wsMessage.hasCache()) {
+            out.write(WsFrameEncodingSupport.doGatheringEncode(allocator, FLAG_ZERO_COPY, wsMessage, gatheringThreshold));
+        } else {
+            super.encode(session, message, out);
+        }
     }
 
     @Override
@@ -68,8 +93,8 @@ public class WsFrameEncoder extends AbstractWsFrameEncoder {
     }
     
     private IoBufferEx doMessageEncode(IoBufferAllocatorEx<?> allocator, int flags, WsMessage message) {
-        if (maskSends) {
-            return WsFrameEncodingSupport.doEncode(allocator, flags, message, prng.nextInt());
+        if (maskingStrategy != null) {
+            return WsFrameEncodingSupport.doEncode(allocator, flags, message, maskingStrategy.nextMask());
         } else {
         return WsFrameEncodingSupport.doEncode(allocator, flags, message);
         }
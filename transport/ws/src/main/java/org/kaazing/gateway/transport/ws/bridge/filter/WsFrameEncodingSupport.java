@@ -24,6 +24,7 @@ import org.kaazing.gateway.transport.bridge.Message;
 import org.kaazing.gateway.transport.ws.WsCloseMessage;
 import org.kaazing.gateway.transport.ws.WsMessage;
 import org.kaazing.gateway.transport.ws.WsMessage.Kind;
+import org.kaazing.mina.core.buffer.GatheringIoBuffers;
 import org.kaazing.mina.core.buffer.IoBufferAllocatorEx;
 import org.kaazing.mina.core.buffer.IoBufferEx;
 
@@ -161,6 +162,55 @@ public class WsFrameEncodingSupport {
 	}
 
 
+    /**
+     * Encode WebSocket message as a single unmasked frame without copying its payload, when possible. The frame
+     * header is written into the space reserved in front of the payload if there is enough of it, otherwise
+     * payloads of at least gatheringThreshold bytes are sent after a separately allocated header using a gathering
+     * write. Smaller payloads are copied behind the header, as for {@link #doEncode(IoBufferAllocatorEx, int, WsMessage)}.
+     *
+     * @return either an IoBufferEx holding the whole frame or GatheringIoBuffers holding the header and payload
+     */
+    public static Object doGatheringEncode(IoBufferAllocatorEx<?> allocator, int flags, WsMessage message,
+                                           int gatheringThreshold) {
+        if (message.getKind() == Kind.CLOSE) {
+            return doEncode(allocator, flags, message);
+        }
+
+        IoBufferEx ioBuf = message.getBytes();
+        ByteBuffer buf = ioBuf.buf();
+
+        int remaining = buf.remaining();
+        int offset = 2 + calculateLengthSize(remaining);
+        boolean headroom = ((flags & FLAG_ZERO_COPY) != 0) && (buf.position() >= offset);
+        if (headroom || remaining < gatheringThreshold) {
+            return doEncode(allocator, flags, message);
+        }
+
+        if (!isCacheEmpty(message)) {
+            throw new IllegalStateException("Cache must be empty: flags = " + flags);
+        }
+
+        ByteBuffer header = allocator.allocate(offset, flags & ~FLAG_ZERO_COPY);
+        int start = header.position();
+
+        byte b1 = (byte) (message.isFin() ? 0x80 : 0x00);
+        b1 = doEncodeOpcode(b1, message);
+        header.put(b1).put(lenBits(remaining));
+
+        doEncodeLength(header, remaining);
+
+        header.limit(header.position());
+        header.position(start);
+
+        // (KG-8125) if shared, duplicate to ensure we don't affect other threads
+        ByteBuffer payload = ioBuf.isShared() ? buf.duplicate() : buf;
+
+        // gathered buffers must agree on byte order, which does not affect the bytes already written
+        header.order(payload.order());
+
+        return new GatheringIoBuffers(header, payload);
+    }
+
     protected enum Opcode {
     	CONTINUATION(0),
     	TEXT(1),
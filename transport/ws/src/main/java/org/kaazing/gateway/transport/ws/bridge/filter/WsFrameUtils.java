@@ -16,6 +16,7 @@
 package org.kaazing.gateway.transport.ws.bridge.filter;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * A utility class for managing operations on WebSocket frames.
@@ -30,40 +31,98 @@ public class WsFrameUtils {
      * @param mask  the mask to apply
      */
     public static void xor(ByteBuffer src, ByteBuffer dst, int mask) {
-    	int remainder = src.remaining() % 4;
-    	int remaining = src.remaining() - remainder;
-    	int end = remaining + src.position();
+        int length = src.remaining();
+        xor(src, src.position(), dst, dst.position(), length, mask);
+        src.position(src.position() + length);
+        dst.position(dst.position() + length);
+    }
 
-    	// xor a 32bit word at a time as long as possible
-    	while (src.position() < end) {
-    		int masked = src.getInt() ^ mask;
-    		dst.putInt(masked);
-    	}
+    /**
+     * Unmasks the readable bytes of a buffer in place, leaving its position unchanged.
+     *
+     * @param buf   the buffer containing readable bytes to be unmasked
+     * @param mask  the mask to apply
+     */
+    public static void unmask(ByteBuffer buf, int mask) {
+        xor(buf, buf.position(), buf, buf.position(), buf.remaining(), mask);
+    }
+
+    /**
+     * Masks length bytes of the source buffer into the destination buffer, 8 bytes at a time, without modifying
+     * the position of either buffer. The source and destination may be the same buffer.
+     *
+     * @param src       the buffer containing the bytes to be masked
+     * @param srcIndex  the index of the first byte to mask in the source buffer
+     * @param dst       the buffer where masked bytes are written
+     * @param dstIndex  the index where the first masked byte is written in the destination buffer
+     * @param length    the number of bytes to mask
+     * @param mask      the mask to apply, its most significant byte applying to the first byte
+     */
+    public static void xor(ByteBuffer src, int srcIndex, ByteBuffer dst, int dstIndex, int length, int mask) {
+        if (src.hasArray() && dst.hasArray()) {
+            xor(src.array(), src.arrayOffset() + srcIndex, dst.array(), dst.arrayOffset() + dstIndex, length, mask);
+        }
+        else {
+            xorWords(src, srcIndex, dst, dstIndex, length, mask);
+        }
+    }
+
+    private static void xorWords(ByteBuffer src, int srcIndex, ByteBuffer dst, int dstIndex, int length, int mask) {
+        // words are read and written in the byte order of each buffer
+        long srcMask = wordMask(src.order(), mask);
+        long dstMask = wordMask(dst.order(), mask);
+        int words = length >>> 3;
+        if (srcMask == dstMask) {
+            for (int i = 0; i < words; i++) {
+                int offset = i << 3;
+                dst.putLong(dstIndex + offset, src.getLong(srcIndex + offset) ^ srcMask);
+            }
+        }
+        else {
+            for (int i = 0; i < words; i++) {
+                int offset = i << 3;
+                dst.putLong(dstIndex + offset, Long.reverseBytes(src.getLong(srcIndex + offset) ^ srcMask));
+            }
+        }
+
+        // xor the remaining 7 bytes at most, the mask being aligned again after each 8 byte word
+        int offset = words << 3;
+        if ((length & 4) != 0) {
+            int word = src.getInt(srcIndex + offset) ^ (int) srcMask;
+            dst.putInt(dstIndex + offset, (srcMask == dstMask) ? word : Integer.reverseBytes(word));
+            offset += 4;
+        }
+        for (; offset < length; offset++) {
+            dst.put(dstIndex + offset, (byte) (src.get(srcIndex + offset) ^ (mask >>> (24 - ((offset & 3) << 3)))));
+        }
+    }
+
+    private static void xor(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length, int mask) {
+        byte mask0 = (byte) (mask >>> 24);
+        byte mask1 = (byte) (mask >>> 16);
+        byte mask2 = (byte) (mask >>> 8);
+        byte mask3 = (byte) mask;
+
+        // heap buffers assemble words from single bytes, so xor the backing arrays directly instead
+        int end = length & ~7;
+        int i = 0;
+        for (; i < end; i += 8) {
+            dst[dstOffset + i] = (byte) (src[srcOffset + i] ^ mask0);
+            dst[dstOffset + i + 1] = (byte) (src[srcOffset + i + 1] ^ mask1);
+            dst[dstOffset + i + 2] = (byte) (src[srcOffset + i + 2] ^ mask2);
+            dst[dstOffset + i + 3] = (byte) (src[srcOffset + i + 3] ^ mask3);
+            dst[dstOffset + i + 4] = (byte) (src[srcOffset + i + 4] ^ mask0);
+            dst[dstOffset + i + 5] = (byte) (src[srcOffset + i + 5] ^ mask1);
+            dst[dstOffset + i + 6] = (byte) (src[srcOffset + i + 6] ^ mask2);
+            dst[dstOffset + i + 7] = (byte) (src[srcOffset + i + 7] ^ mask3);
+        }
+        for (; i < length; i++) {
+            dst[dstOffset + i] = (byte) (src[srcOffset + i] ^ (mask >>> (24 - ((i & 3) << 3))));
+        }
+    }
 
-    	// xor the remaining 3, 2, or 1 bytes
-    	byte b;
-    	switch (remainder) {
-    	case 3:
-    		b = (byte) (src.get() ^ ((mask >> 24) & 0xff));
-    		dst.put(b);
-    		b = (byte) (src.get() ^ ((mask >> 16) & 0xff));
-    		dst.put(b);
-    		b = (byte) (src.get() ^ ((mask >> 8) & 0xff));
-    		dst.put(b);
-    		break;
-    	case 2:
-    		b = (byte) (src.get() ^ ((mask >> 24) & 0xff));
-    		dst.put(b);
-    		b = (byte) (src.get() ^ ((mask >> 16) & 0xff));
-    		dst.put(b);
-    		break;
-    	case 1:
-    		b = (byte) (src.get() ^ (mask >> 24));
-    		dst.put(b);
-    		break;
-    	case 0:
-		default:
-			break;
-    	}
+    private static long wordMask(ByteOrder order, int mask) {
+        int wordMask = (order == ByteOrder.BIG_ENDIAN) ? mask : Integer.reverseBytes(mask);
+        return ((long) wordMask << 32) | (wordMask & 0xffffffffL);
     }
 }
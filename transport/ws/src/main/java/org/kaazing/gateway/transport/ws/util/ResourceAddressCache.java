@@ -0,0 +1,118 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.ws.util;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.kaazing.gateway.resource.address.ResourceAddress;
+
+/**
+ * Cache of the addresses derived from a bound address during session setup, such as the WebSocket local address
+ * candidate derived from the local address of the HTTP session, so that the common case does no string or URI parsing.
+ * <p/>
+ * Derived addresses are keyed on their base address, the variant (scheme or path) applied to it and the next protocol.
+ * The set of bound addresses is small and fixed, however the cache is cleared if it ever grows beyond its maximum size
+ * so that it can not grow without bound.
+ */
+public final class ResourceAddressCache {
+
+    public interface AddressFactory {
+        ResourceAddress newResourceAddress(ResourceAddress baseAddress, String variant, String nextProtocol);
+    }
+
+    private static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private final ConcurrentMap<Key, ResourceAddress> addresses = new ConcurrentHashMap<>();
+    private final AddressFactory factory;
+    private final int maximumSize;
+
+    public ResourceAddressCache(AddressFactory factory) {
+        this(factory, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public ResourceAddressCache(AddressFactory factory, int maximumSize) {
+        this.factory = factory;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Method returning the address derived from the base address, creating it on first use
+     * @param baseAddress
+     * @param variant      scheme or path applied to the base address
+     * @param nextProtocol
+     * @return
+     */
+    public ResourceAddress get(ResourceAddress baseAddress, String variant, String nextProtocol) {
+        Key key = new Key(baseAddress, variant, nextProtocol);
+        ResourceAddress address = addresses.get(key);
+        if (address == null) {
+            address = factory.newResourceAddress(baseAddress, variant, nextProtocol);
+            if (addresses.size() >= maximumSize) {
+                addresses.clear();
+            }
+            ResourceAddress existing = addresses.putIfAbsent(key, address);
+            if (existing != null) {
+                address = existing;
+            }
+        }
+        return address;
+    }
+
+    public int size() {
+        return addresses.size();
+    }
+
+    public void clear() {
+        addresses.clear();
+    }
+
+    private static final class Key {
+        private final ResourceAddress baseAddress;
+        private final String variant;
+        private final String nextProtocol;
+        private final int hashCode;
+
+        Key(ResourceAddress baseAddress, String variant, String nextProtocol) {
+            this.baseAddress = baseAddress;
+            this.variant = variant;
+            this.nextProtocol = nextProtocol;
+            this.hashCode = Objects.hash(baseAddress, variant, nextProtocol);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hashCode == that.hashCode &&
+                    Objects.equals(variant, that.variant) &&
+                    Objects.equals(nextProtocol, that.nextProtocol) &&
+                    (baseAddress == that.baseAddress || baseAddress.equals(that.baseAddress));
+        }
+    }
+
+}
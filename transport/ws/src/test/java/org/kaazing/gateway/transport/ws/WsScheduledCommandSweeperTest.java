@@ -0,0 +1,122 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.ws;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import org.apache.mina.core.session.AttributeKey;
+import org.junit.After;
+import org.junit.Test;
+
+public class WsScheduledCommandSweeperTest {
+
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+
+    @After
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void shouldShareOneSweepForCommandsDueInSameInterval() throws Exception {
+        WsScheduledCommandSweeper sweeper = new WsScheduledCommandSweeper(scheduler, SECONDS.toMillis(60));
+        CountDownLatch ran = new CountDownLatch(100);
+
+        for (int i = 0; i < 100; i++) {
+            sweeper.schedule(new CountingCommand(ran), 10, MILLISECONDS);
+        }
+
+        // all deadlines round up to the same interval, unless the loop happened to straddle an interval boundary
+        assertTrue(sweeper.getPendingSweepCount() <= 2);
+        assertEquals(sweeper.getPendingSweepCount(), scheduler.getQueue().size());
+        assertEquals(100, sweeper.getPendingCommandCount());
+    }
+
+    @Test
+    public void shouldNotRunCommandBeforeItsDelay() throws Exception {
+        WsScheduledCommandSweeper sweeper = new WsScheduledCommandSweeper(scheduler, 50);
+        CountDownLatch ran = new CountDownLatch(1);
+
+        long start = System.nanoTime();
+        sweeper.schedule(new CountingCommand(ran), 120, MILLISECONDS);
+
+        assertTrue(ran.await(5, SECONDS));
+        assertTrue(MILLISECONDS.convert(System.nanoTime() - start, NANOSECONDS) >= 120);
+        assertEquals(0, sweeper.getPendingSweepCount());
+    }
+
+    @Test
+    public void shouldNotRunCancelledCommand() throws Exception {
+        WsScheduledCommandSweeper sweeper = new WsScheduledCommandSweeper(scheduler, 20);
+        CountDownLatch cancelledRan = new CountDownLatch(1);
+        CountDownLatch otherRan = new CountDownLatch(1);
+
+        CountingCommand cancelled = new CountingCommand(cancelledRan);
+        WsScheduledCommandSweeper.Sweep sweep = sweeper.schedule(cancelled, 50, MILLISECONDS);
+        sweeper.schedule(new CountingCommand(otherRan), 50, MILLISECONDS);
+
+        assertTrue(sweep.cancel(cancelled));
+        assertTrue(otherRan.await(5, SECONDS));
+        assertEquals(1, cancelledRan.getCount());
+        assertFalse(sweep.cancel(cancelled));
+    }
+
+    @Test
+    public void shouldRunCommandsScheduledWhileSweeping() throws Exception {
+        WsScheduledCommandSweeper sweeper = new WsScheduledCommandSweeper(scheduler, 1);
+        CountDownLatch ran = new CountDownLatch(10000);
+
+        for (int i = 0; i < 10000; i++) {
+            sweeper.schedule(new CountingCommand(ran), 0, MILLISECONDS);
+        }
+
+        assertTrue(ran.await(10, SECONDS));
+        assertEquals(0, sweeper.getPendingCommandCount());
+    }
+
+    private static final class CountingCommand extends WsScheduledCommand {
+
+        private static final AttributeKey FUTURE_KEY = new AttributeKey(CountingCommand.class, "future");
+
+        private final CountDownLatch ran;
+
+        CountingCommand(CountDownLatch ran) {
+            this.ran = ran;
+        }
+
+        @Override
+        public void run() {
+            ran.countDown();
+        }
+
+        @Override
+        protected void clear() {
+        }
+
+        @Override
+        public AttributeKey getScheduledFutureKey() {
+            return FUTURE_KEY;
+        }
+    }
+}
@@ -253,6 +253,182 @@ public class WsFrameDecoderTest {
         assertEquals(new WsContinuationMessage(allocator.wrap(ByteBuffer.wrap(continuationFramePayload))), out2);
     }
 
+    @Test
+    public void decodeBinaryFrameWithFragmentedPayloadWhenStreaming() throws Exception {
+        ProtocolCodecSessionEx session = new ProtocolCodecSessionEx();
+        IoBufferAllocatorEx<?> allocator = session.getBufferAllocator();
+        ProtocolDecoder decoder = new WsFrameDecoder(allocator, 0, false, 40);
+
+        byte[] binaryFramePayload = createString('a', 100).getBytes();
+
+        IoBufferEx[] array = new IoBufferEx[] { allocator.wrap(allocator.allocate(52))
+                // binary frame, opcode and payload length followed by first fragment
+                .put((byte) 0x82)
+                .put((byte) 100)
+                .put(binaryFramePayload, 0, 50)
+                .flip(),
+                allocator.wrap(allocator.allocate(50))
+                        // binary frame second fragment
+                        .put(binaryFramePayload, 50, 50)
+                        .flip()
+        };
+
+        decoder.decode(session, (IoBuffer) array[0], session.getDecoderOutput());
+
+        // only the complete 40 bytes fragment is delivered, the other 10 bytes wait for more data
+        WsMessage out1 = (WsMessage)session.getDecoderOutputQueue().poll();
+        assertEquals(new WsBinaryMessage(allocator.wrap(ByteBuffer.wrap(binaryFramePayload, 0, 40)), false), out1);
+        assertTrue(session.getDecoderOutputQueue().isEmpty());
+
+        decoder.decode(session, (IoBuffer) array[1], session.getDecoderOutput());
+
+        WsMessage out2 = (WsMessage)session.getDecoderOutputQueue().poll();
+        assertEquals(new WsContinuationMessage(allocator.wrap(ByteBuffer.wrap(binaryFramePayload, 40, 40)), false), out2);
+
+        WsMessage out3 = (WsMessage)session.getDecoderOutputQueue().poll();
+        assertEquals(new WsContinuationMessage(allocator.wrap(ByteBuffer.wrap(binaryFramePayload, 80, 20)), true), out3);
+        assertTrue(session.getDecoderOutputQueue().isEmpty());
+    }
+
+    @Test
+    public void decodeMaskedBinaryFrameWithFragmentedPayloadWhenStreaming() throws Exception {
+        ProtocolCodecSessionEx session = new ProtocolCodecSessionEx();
+        IoBufferAllocatorEx<?> allocator = session.getBufferAllocator();
+        // fragment size which is not a multiple of the mask length
+        ProtocolDecoder decoder = new WsFrameDecoder(allocator, 0, true, 7);
+
+        byte[] binaryFramePayload = new byte[20];
+        for (int i = 0; i < binaryFramePayload.length; i++) {
+            binaryFramePayload[i] = (byte) i;
+        }
+        byte[] mask = new byte[] { 0x01, 0x23, 0x45, 0x67 };
+        byte[] maskedPayload = new byte[binaryFramePayload.length];
+        for (int i = 0; i < maskedPayload.length; i++) {
+            maskedPayload[i] = (byte) (binaryFramePayload[i] ^ mask[i % 4]);
+        }
+
+        IoBufferEx[] array = new IoBufferEx[] { allocator.wrap(allocator.allocate(6))
+                // binary frame, opcode, masked payload length and mask
+                .put((byte) 0x82)
+                .put((byte) 0x94)
+                .put(mask)
+                .flip(),
+                allocator.wrap(allocator.allocate(11))
+                        .put(maskedPayload, 0, 11)
+                        .flip(),
+                allocator.wrap(allocator.allocate(9))
+                        .put(maskedPayload, 11, 9)
+                        .flip()
+        };
+
+        for (IoBufferEx buffer : array) {
+            decoder.decode(session, (IoBuffer) buffer, session.getDecoderOutput());
+        }
+
+        WsMessage out1 = (WsMessage)session.getDecoderOutputQueue().poll();
+        assertEquals(new WsBinaryMessage(allocator.wrap(ByteBuffer.wrap(binaryFramePayload, 0, 7)), false), out1);
+
+        WsMessage out2 = (WsMessage)session.getDecoderOutputQueue().poll();
+        assertEquals(new WsContinuationMessage(allocator.wrap(ByteBuffer.wrap(binaryFramePayload, 7, 7)), false), out2);
+
+        WsMessage out3 = (WsMessage)session.getDecoderOutputQueue().poll();
+        assertEquals(new WsContinuationMessage(allocator.wrap(ByteBuffer.wrap(binaryFramePayload, 14, 6)), true), out3);
+        assertTrue(session.getDecoderOutputQueue().isEmpty());
+    }
+
+    @Test
+    public void decodeTextFrameWithFragmentedPayloadWhenStreaming() throws Exception {
+        ProtocolCodecSessionEx session = new ProtocolCodecSessionEx();
+        IoBufferAllocatorEx<?> allocator = session.getBufferAllocator();
+        ProtocolDecoder decoder = new WsFrameDecoder(allocator, 0, false, 40);
+
+        String textFramePayload = createString('a', 100);
+        byte[] textFrameBytes = textFramePayload.getBytes(UTF_8);
+
+        IoBufferEx[] array = new IoBufferEx[] { allocator.wrap(allocator.allocate(52))
+                // text frame, opcode and payload length followed by first fragment
+                .put((byte) 0x81)
+                .put((byte) 100)
+                .put(textFrameBytes, 0, 50)
+                .flip(),
+                allocator.wrap(allocator.allocate(50))
+                        .put(textFrameBytes, 50, 50)
+                        .flip()
+        };
+
+        decoder.decode(session, (IoBuffer) array[0], session.getDecoderOutput());
+
+        // text frames are never streamed
+        assertTrue(session.getDecoderOutputQueue().isEmpty());
+
+        decoder.decode(session, (IoBuffer) array[1], session.getDecoderOutput());
+
+        WsMessage out = (WsMessage)session.getDecoderOutputQueue().poll();
+        assertEquals(new WsTextMessage(allocator.wrap(ByteBuffer.wrap(textFrameBytes)), true), out);
+        assertTrue(session.getDecoderOutputQueue().isEmpty());
+    }
+
+    @Test
+    public void decodeTextContinuationFrameWithCharacterSpanningFrames() throws Exception {
+        ProtocolCodecSessionEx session = new ProtocolCodecSessionEx();
+        IoBufferAllocatorEx<?> allocator = session.getBufferAllocator();
+        ProtocolDecoder decoder = new WsFrameDecoder(allocator, 0, false);
+
+        // U+00E9 is encoded as 0xc3 0xa9, split between the text frame and the continuation frame
+        IoBufferEx in = allocator.wrap(allocator.allocate(8))
+                // text frame
+                .put((byte) 0x01)
+                .put((byte) 0x02)
+                .put((byte) 'a')
+                .put((byte) 0xc3)
+                // continuation frame
+                .put((byte) 0x80)
+                .put((byte) 0x02)
+                .put((byte) 0xa9)
+                .put((byte) 'b')
+                .flip();
+
+        decoder.decode(session, (IoBuffer) in, session.getDecoderOutput());
+
+        WsMessage out1 = (WsMessage)session.getDecoderOutputQueue().poll();
+        assertEquals(new WsTextMessage(allocator.wrap(ByteBuffer.wrap(new byte[] { 'a', (byte) 0xc3 })), false), out1);
+
+        WsMessage out2 = (WsMessage)session.getDecoderOutputQueue().poll();
+        assertEquals(new WsContinuationMessage(allocator.wrap(ByteBuffer.wrap(new byte[] { (byte) 0xa9, 'b' }))), out2);
+    }
+
+    @Test(expected = ProtocolDecoderException.class)
+    public void decodeTextFrameWithInvalidUTF8() throws Exception {
+        ProtocolCodecSessionEx session = new ProtocolCodecSessionEx();
+        IoBufferAllocatorEx<?> allocator = session.getBufferAllocator();
+        ProtocolDecoder decoder = new WsFrameDecoder(allocator, 0, false);
+
+        IoBufferEx in = allocator.wrap(allocator.allocate(4))
+                .put((byte) 0x81)
+                .put((byte) 0x02)
+                .put((byte) 0xc0)
+                .put((byte) 0xaf)
+                .flip();
+
+        decoder.decode(session, (IoBuffer) in, session.getDecoderOutput());
+    }
+
+    @Test(expected = ProtocolDecoderException.class)
+    public void decodeTextFrameWithIncompleteFinalCharacter() throws Exception {
+        ProtocolCodecSessionEx session = new ProtocolCodecSessionEx();
+        IoBufferAllocatorEx<?> allocator = session.getBufferAllocator();
+        ProtocolDecoder decoder = new WsFrameDecoder(allocator, 0, false);
+
+        IoBufferEx in = allocator.wrap(allocator.allocate(4))
+                .put((byte) 0x81)
+                .put((byte) 0x02)
+                .put((byte) 'a')
+                .put((byte) 0xc3)
+                .flip();
+
+        decoder.decode(session, (IoBuffer) in, session.getDecoderOutput());
+    }
+
     @Test(expected = ProtocolDecoderException.class)
     public void decodeFragmentedContinuationFrameExceedingMaxMessageSize() throws Exception {
         ProtocolCodecSessionEx session = new ProtocolCodecSessionEx();
@@ -0,0 +1,151 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.ws.bridge.filter;
+
+import static org.kaazing.gateway.transport.bridge.CachingMessageEncoder.IO_MESSAGE_ENCODER;
+import static org.kaazing.mina.core.buffer.IoBufferEx.FLAG_ZERO_COPY;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mina.core.future.WriteFuture;
+import org.apache.mina.filter.codec.ProtocolEncoderOutput;
+import org.kaazing.gateway.transport.ws.WsBinaryMessage;
+import org.kaazing.mina.core.buffer.GatheringIoBuffers;
+import org.kaazing.mina.core.buffer.IoBufferAllocatorEx;
+import org.kaazing.mina.core.buffer.IoBufferEx;
+import org.kaazing.mina.core.buffer.SimpleBufferAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares encoding an unmasked frame by copying its payload behind the header, by writing the header into space
+ * reserved in front of the payload, and by pairing a separate header with the payload for a gathering write. Each
+ * frame is then transferred into a direct buffer, standing in for the final copy into the socket send buffer.
+ *
+ * Run with "-prof gc" to compare the allocation rate per frame.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WsFrameEncoderBM {
+
+    @Param({"1024", "65536"})
+    private int payloadSize;
+
+    private final CapturingEncoderOutput out = new CapturingEncoderOutput();
+
+    private WsFrameEncoder copyingEncoder;
+    private WsFrameEncoder gatheringEncoder;
+    private IoBufferEx payload;
+    private IoBufferEx reservedPayload;
+    private ByteBuffer socket;
+
+    @Setup
+    public void init() {
+        IoBufferAllocatorEx<?> allocator = SimpleBufferAllocator.BUFFER_ALLOCATOR;
+        copyingEncoder = new WsFrameEncoder(IO_MESSAGE_ENCODER, allocator, null, 0);
+        gatheringEncoder = new WsFrameEncoder(IO_MESSAGE_ENCODER, allocator, null, 1);
+
+        byte[] bytes = new byte[payloadSize];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        payload = allocator.wrap(allocator.allocate(payloadSize)).put(bytes).flip();
+
+        WsBufferAllocator wsAllocator = new WsBufferAllocator(allocator, false);
+        reservedPayload = wsAllocator.wrap(wsAllocator.allocate(payloadSize, FLAG_ZERO_COPY));
+        reservedPayload.mark();
+        reservedPayload.put(bytes).reset();
+
+        socket = ByteBuffer.allocateDirect(payloadSize + 14);
+    }
+
+    @Benchmark
+    public int copy() throws Exception {
+        copyingEncoder.encode(null, new WsBinaryMessage(payload), out);
+        return send(out.message);
+    }
+
+    @Benchmark
+    public int headroom() throws Exception {
+        copyingEncoder.encode(null, new WsBinaryMessage(reservedPayload), out);
+        return send(out.message);
+    }
+
+    @Benchmark
+    public int gathering() throws Exception {
+        gatheringEncoder.encode(null, new WsBinaryMessage(payload), out);
+        return send(out.message);
+    }
+
+    private int send(Object message) {
+        ByteBuffer socket = this.socket;
+        socket.clear();
+        if (message instanceof GatheringIoBuffers) {
+            for (ByteBuffer buffer : ((GatheringIoBuffers) message).buffers()) {
+                socket.put(buffer.duplicate());
+            }
+        } else {
+            socket.put(((IoBufferEx) message).buf());
+        }
+        return socket.position();
+    }
+
+    private static final class CapturingEncoderOutput implements ProtocolEncoderOutput {
+        private Object message;
+
+        @Override
+        public void write(Object encodedMessage) {
+            message = encodedMessage;
+        }
+
+        @Override
+        public void mergeAll() {
+        }
+
+        @Override
+        public WriteFuture flush() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        // Or from command line:
+        // mvn clean install
+        // java -jar target/benchmarks.jar WsFrameEncoderBM
+        Options opt = new OptionsBuilder()
+                .include(WsFrameEncoderBM.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
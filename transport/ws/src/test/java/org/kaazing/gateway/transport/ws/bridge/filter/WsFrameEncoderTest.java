@@ -19,6 +19,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.kaazing.gateway.transport.bridge.CachingMessageEncoder.IO_MESSAGE_ENCODER;
 import static org.kaazing.gateway.util.Utils.asByteBuffer;
 import static org.kaazing.mina.core.buffer.IoBufferEx.FLAG_SHARED;
 import static org.kaazing.mina.core.buffer.IoBufferEx.FLAG_ZERO_COPY;
@@ -30,6 +31,7 @@ import org.apache.mina.core.buffer.IoBuffer;
 import org.apache.mina.filter.codec.ProtocolEncoder;
 import org.apache.mina.filter.codec.ProtocolEncoderOutput;
 import org.junit.Test;
+import org.kaazing.gateway.resource.address.ws.WsMaskingStrategy;
 import org.kaazing.gateway.transport.BridgeCodecSession;
 import org.kaazing.gateway.transport.bridge.CachingMessageEncoder;
 import org.kaazing.gateway.transport.ws.WsBinaryMessage;
@@ -39,6 +41,7 @@ import org.kaazing.gateway.transport.ws.WsMessage;
 import org.kaazing.gateway.transport.ws.WsPingMessage;
 import org.kaazing.gateway.transport.ws.WsPongMessage;
 import org.kaazing.gateway.transport.ws.WsTextMessage;
+import org.kaazing.mina.core.buffer.GatheringIoBuffers;
 import org.kaazing.mina.core.buffer.IoBufferAllocatorEx;
 import org.kaazing.mina.core.buffer.IoBufferEx;
 import org.kaazing.mina.core.buffer.SimpleBufferAllocator;
@@ -445,4 +448,101 @@ public class WsFrameEncoderTest {
         assertSame(secondaryOut.array(), secondaryOut2.array());
     }
 
+    @Test
+    public void testEncodeBinaryFrameGathering() throws Exception {
+        ProtocolCodecSessionEx session = new ProtocolCodecSessionEx();
+        IoBufferAllocatorEx<?> allocator = session.getBufferAllocator();
+        ProtocolEncoder encoder = new WsFrameEncoder(IO_MESSAGE_ENCODER, allocator, null, 1024);
+
+        IoBufferEx buf = allocator.wrap(allocator.allocate(2000)).fill((byte)0x97, 2000).flip();
+        WsMessage in = new WsBinaryMessage(buf);
+
+        encoder.encode(session, in, session.getEncoderOutput());
+
+        GatheringIoBuffers out = (GatheringIoBuffers) session.getEncoderOutputQueue().poll();
+        assertEquals(2004, out.remaining());
+        ByteBuffer[] buffers = out.buffers();
+        assertEquals(2, buffers.length);
+        assertEquals(allocator.wrap(allocator.allocate(4))
+                              .put((byte) 0x82)
+                              .put((byte) 126)
+                              .put((byte) 0x07)
+                              .put((byte) 0xD0)
+                              .flip()
+                              .buf(),
+                     buffers[0]);
+        assertSame(buf.buf(), buffers[1]);
+        assertEquals(0, buf.position());
+        assertEquals(2000, buf.remaining());
+    }
+
+    @Test
+    public void testEncodeBinaryFrameSharedGathering() throws Exception {
+        ProtocolCodecSessionEx session = new ProtocolCodecSessionEx();
+        IoBufferAllocatorEx<?> allocator = session.getBufferAllocator();
+        ProtocolEncoder encoder = new WsFrameEncoder(IO_MESSAGE_ENCODER, allocator, null, 1024);
+
+        IoBufferEx buf = allocator.wrap(allocator.allocate(70000), FLAG_SHARED).fill((byte)0x97, 70000).flip();
+        WsMessage in = new WsBinaryMessage(buf);
+
+        encoder.encode(session, in, session.getEncoderOutput());
+
+        GatheringIoBuffers out = (GatheringIoBuffers) session.getEncoderOutputQueue().poll();
+        ByteBuffer[] buffers = out.buffers();
+        assertEquals(10, buffers[0].remaining());
+        assertEquals((byte) 127, buffers[0].get(1));
+        assertEquals(70000L, buffers[0].getLong(2));
+        assertNotSame(buf.buf(), buffers[1]);
+        assertSame(buf.array(), buffers[1].array());
+        assertEquals(70000, buffers[1].remaining());
+    }
+
+    @Test
+    public void testEncodeBinaryFrameZeroCopyPreferredToGathering() throws Exception {
+        ProtocolCodecSessionEx session = new ProtocolCodecSessionEx();
+        IoBufferAllocatorEx<?> allocator = session.getBufferAllocator();
+        ProtocolEncoder encoder = new WsFrameEncoder(IO_MESSAGE_ENCODER, allocator, null, 1024);
+
+        WsBufferAllocator wsAllocator = new WsBufferAllocator(allocator, false);
+        IoBufferEx buf = wsAllocator.wrap(wsAllocator.allocate(2000, FLAG_ZERO_COPY)).fillAndReset((byte)0x97, 2000);
+        WsMessage in = new WsBinaryMessage(buf);
+
+        encoder.encode(session, in, session.getEncoderOutput());
+
+        IoBufferEx out = (IoBufferEx) session.getEncoderOutputQueue().poll();
+        assertEquals(2004, out.remaining());
+        assertSame(buf.array(), out.array());
+    }
+
+    @Test
+    public void testEncodeBinaryFrameBelowGatheringThreshold() throws Exception {
+        ProtocolCodecSessionEx session = new ProtocolCodecSessionEx();
+        IoBufferAllocatorEx<?> allocator = session.getBufferAllocator();
+        ProtocolEncoder encoder = new WsFrameEncoder(IO_MESSAGE_ENCODER, allocator, null, 1024);
+
+        IoBufferEx buf = allocator.wrap(allocator.allocate(200)).fill((byte)0x97, 200).flip();
+        WsMessage in = new WsBinaryMessage(buf);
+
+        encoder.encode(session, in, session.getEncoderOutput());
+
+        IoBufferEx out = (IoBufferEx) session.getEncoderOutputQueue().poll();
+        assertEquals(204, out.remaining());
+        assertNotSame(buf.array(), out.array());
+    }
+
+    @Test
+    public void testEncodeMaskedBinaryFrameIgnoresGathering() throws Exception {
+        ProtocolCodecSessionEx session = new ProtocolCodecSessionEx();
+        IoBufferAllocatorEx<?> allocator = session.getBufferAllocator();
+        ProtocolEncoder encoder = new WsFrameEncoder(IO_MESSAGE_ENCODER, allocator, WsMaskingStrategy.SECURE, 1024);
+
+        IoBufferEx buf = allocator.wrap(allocator.allocate(2000)).fill((byte)0x97, 2000).flip();
+        WsMessage in = new WsBinaryMessage(buf);
+
+        encoder.encode(session, in, session.getEncoderOutput());
+
+        IoBufferEx out = (IoBufferEx) session.getEncoderOutputQueue().poll();
+        assertEquals(2008, out.remaining());
+    }
+
 }
@@ -0,0 +1,121 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.ws.bridge.filter;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.kaazing.gateway.resource.address.ws.WsMaskingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the masking key generation of the {@link WsMaskingStrategy} implementations under contention, and the
+ * 8 byte at a time masking of {@link WsFrameUtils} with the previous 4 byte at a time loop.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WsFrameMaskingBM {
+
+    @Param({"125", "4096"})
+    private int payloadSize;
+
+    @Param({"heap", "direct"})
+    private String bufferType;
+
+    private ByteBuffer payload;
+    private ByteBuffer frame;
+    private int mask;
+
+    @Setup
+    public void init() {
+        boolean direct = "direct".equals(bufferType);
+        payload = direct ? ByteBuffer.allocateDirect(payloadSize) : ByteBuffer.allocate(payloadSize);
+        frame = direct ? ByteBuffer.allocateDirect(payloadSize) : ByteBuffer.allocate(payloadSize);
+        byte[] bytes = new byte[payloadSize];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        payload.put(bytes).flip();
+        mask = ThreadLocalRandom.current().nextInt();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int secureMask() {
+        return WsMaskingStrategy.SECURE.nextMask();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int fastMask() {
+        return WsMaskingStrategy.FAST.nextMask();
+    }
+
+    @Benchmark
+    public ByteBuffer xorIntAtATime() {
+        ByteBuffer src = payload.duplicate();
+        ByteBuffer dst = frame.duplicate();
+        int end = src.position() + (src.remaining() & ~3);
+        while (src.position() < end) {
+            dst.putInt(src.getInt() ^ mask);
+        }
+        for (int shift = 24; src.hasRemaining(); shift -= 8) {
+            dst.put((byte) (src.get() ^ (mask >> shift)));
+        }
+        return dst;
+    }
+
+    @Benchmark
+    public ByteBuffer xorLongAtATime() {
+        ByteBuffer src = payload.duplicate();
+        ByteBuffer dst = frame.duplicate();
+        WsFrameUtils.xor(src, dst, mask);
+        return dst;
+    }
+
+    // Or from command line:
+    //
+    // mvn clean install
+    // java -jar target/benchmarks.jar WsFrameMaskingBM
+    //
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(WsFrameMaskingBM.class.getSimpleName())
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.ws.bridge.filter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class WsFrameUtilsTest {
+
+    private static final int MASK = 0x12345678;
+
+    @Test
+    public void shouldMaskHeapBuffersOfAnyLength() {
+        for (int length = 0; length < 20; length++) {
+            assertMasked(ByteBuffer.allocate(length + 3), ByteBuffer.allocate(length + 5), length);
+        }
+    }
+
+    @Test
+    public void shouldMaskDirectBuffersOfAnyLength() {
+        for (int length = 0; length < 20; length++) {
+            assertMasked(ByteBuffer.allocateDirect(length + 3), ByteBuffer.allocateDirect(length + 5), length);
+        }
+    }
+
+    @Test
+    public void shouldMaskBetweenBuffersOfDifferentByteOrder() {
+        ByteBuffer src = ByteBuffer.allocateDirect(21).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer dst = ByteBuffer.allocateDirect(23);
+        assertMasked(src, dst, 18);
+        assertMasked(ByteBuffer.allocateDirect(21), ByteBuffer.allocateDirect(23).order(ByteOrder.LITTLE_ENDIAN), 18);
+    }
+
+    @Test
+    public void shouldUnmaskInPlace() {
+        byte[] bytes = randomBytes(13);
+        ByteBuffer buf = ByteBuffer.allocateDirect(16);
+        buf.position(2);
+        buf.put(bytes).position(2);
+        WsFrameUtils.unmask(buf, MASK);
+        assertEquals(2, buf.position());
+        for (int i = 0; i < bytes.length; i++) {
+            assertEquals(maskedByte(bytes[i], i), buf.get(2 + i));
+        }
+        WsFrameUtils.unmask(buf, MASK);
+        for (int i = 0; i < bytes.length; i++) {
+            assertEquals(bytes[i], buf.get(2 + i));
+        }
+    }
+
+    private static void assertMasked(ByteBuffer src, ByteBuffer dst, int length) {
+        byte[] bytes = randomBytes(length);
+        src.position(src.capacity() - length);
+        src.put(bytes).position(src.capacity() - length);
+        dst.position(dst.capacity() - length);
+
+        WsFrameUtils.xor(src, dst, MASK);
+
+        assertEquals(src.capacity(), src.position());
+        assertEquals(dst.capacity(), dst.position());
+        for (int i = 0; i < length; i++) {
+            assertEquals("byte " + i + " of " + length, maskedByte(bytes[i], i), dst.get(dst.capacity() - length + i));
+        }
+    }
+
+    private static byte maskedByte(byte b, int index) {
+        return (byte) (b ^ (MASK >>> (24 - (index % 4) * 8)));
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.ws.util;
+
+import static org.kaazing.gateway.resource.address.ResourceAddress.NEXT_PROTOCOL;
+import static org.kaazing.gateway.resource.address.ResourceAddress.TRANSPORT;
+
+import java.util.concurrent.TimeUnit;
+
+import org.kaazing.gateway.resource.address.ResourceAddress;
+import org.kaazing.gateway.resource.address.ResourceAddressFactory;
+import org.kaazing.gateway.resource.address.ResourceOptions;
+import org.kaazing.gateway.resource.address.uri.URIUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the derivation of the WebSocket local address candidate done for every WebSocket session setup,
+ * with and without {@link ResourceAddressCache}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResourceAddressCacheBM {
+
+    private final ResourceAddressFactory resourceAddressFactory = ResourceAddressFactory.newResourceAddressFactory();
+    private final ResourceAddressCache cache = new ResourceAddressCache(this::newWsLocalAddress);
+    private ResourceAddress httpLocalAddress;
+
+    @Setup
+    public void init() throws Exception {
+        httpLocalAddress = resourceAddressFactory.newResourceAddress("http://localhost:8000/echo");
+    }
+
+    @Benchmark
+    public ResourceAddress uncached() {
+        return newWsLocalAddress(httpLocalAddress, "ws", "x-kaazing-handshake");
+    }
+
+    @Benchmark
+    public ResourceAddress cached() {
+        return cache.get(httpLocalAddress, "ws", "x-kaazing-handshake");
+    }
+
+    private ResourceAddress newWsLocalAddress(ResourceAddress httpLocalAddress, String schemeName, String nextProtocol) {
+        ResourceOptions options = ResourceOptions.FACTORY.newResourceOptions();
+        options.setOption(TRANSPORT, httpLocalAddress);
+        options.setOption(NEXT_PROTOCOL, nextProtocol);
+        String location = URIUtils.modifyURIScheme(URIUtils.uriToString(httpLocalAddress.getResource()), schemeName);
+        return resourceAddressFactory.newResourceAddress(location, options);
+    }
+
+    // Or from command line:
+    //
+    // mvn clean install
+    // java -jar target/benchmarks.jar ResourceAddressCacheBM
+    //
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ResourceAddressCacheBM.class.getSimpleName())
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.ws.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.kaazing.gateway.resource.address.ResourceAddress.NEXT_PROTOCOL;
+import static org.kaazing.gateway.resource.address.ResourceAddress.TRANSPORT;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.kaazing.gateway.resource.address.ResourceAddress;
+import org.kaazing.gateway.resource.address.ResourceAddressFactory;
+import org.kaazing.gateway.resource.address.ResourceOptions;
+import org.kaazing.gateway.resource.address.uri.URIUtils;
+
+public class ResourceAddressCacheTest {
+
+    private final ResourceAddressFactory resourceAddressFactory = ResourceAddressFactory.newResourceAddressFactory();
+    private final AtomicInteger created = new AtomicInteger();
+
+    @Test
+    public void shouldReuseDerivedAddress() throws Exception {
+        ResourceAddressCache cache = new ResourceAddressCache(this::newWsAddress);
+        ResourceAddress httpAddress = resourceAddressFactory.newResourceAddress("http://localhost:8000/echo");
+
+        ResourceAddress wsAddress = cache.get(httpAddress, "ws", "x-protocol");
+        assertEquals("ws://localhost:8000/echo", URIUtils.uriToString(wsAddress.getResource()));
+        assertSame(httpAddress, wsAddress.getOption(TRANSPORT));
+
+        // equal, but not identical, base address
+        ResourceAddress sameHttpAddress = resourceAddressFactory.newResourceAddress("http://localhost:8000/echo");
+        assertSame(wsAddress, cache.get(sameHttpAddress, "ws", "x-protocol"));
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    public void shouldKeyOnVariantAndNextProtocol() throws Exception {
+        ResourceAddressCache cache = new ResourceAddressCache(this::newWsAddress);
+        ResourceAddress httpAddress = resourceAddressFactory.newResourceAddress("http://localhost:8000/echo");
+
+        ResourceAddress wsAddress = cache.get(httpAddress, "ws", "x-protocol");
+        assertNotSame(wsAddress, cache.get(httpAddress, "ws", null));
+        assertNotSame(wsAddress, cache.get(httpAddress, "wsn", "x-protocol"));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void shouldClearWhenFull() throws Exception {
+        ResourceAddressCache cache = new ResourceAddressCache(this::newWsAddress, 2);
+        ResourceAddress httpAddress = resourceAddressFactory.newResourceAddress("http://localhost:8000/echo");
+
+        cache.get(httpAddress, "ws", "a");
+        cache.get(httpAddress, "ws", "b");
+        cache.get(httpAddress, "ws", "c");
+        assertEquals(1, cache.size());
+    }
+
+    private ResourceAddress newWsAddress(ResourceAddress httpAddress, String schemeName, String nextProtocol) {
+        created.incrementAndGet();
+        ResourceOptions options = ResourceOptions.FACTORY.newResourceOptions();
+        options.setOption(TRANSPORT, httpAddress);
+        options.setOption(NEXT_PROTOCOL, nextProtocol);
+        String location = URIUtils.modifyURIScheme(URIUtils.uriToString(httpAddress.getResource()), schemeName);
+        return resourceAddressFactory.newResourceAddress(location, options);
+    }
+}
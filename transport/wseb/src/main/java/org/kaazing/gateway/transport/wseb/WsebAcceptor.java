@@ -17,6 +17,8 @@ package org.kaazing.gateway.transport.wseb;
 
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Stream.concat;
 import static org.kaazing.gateway.resource.address.ResourceAddress.ALTERNATE;
 import static org.kaazing.gateway.resource.address.ResourceAddress.BIND_ALTERNATE;
 import static org.kaazing.gateway.resource.address.ResourceAddress.NEXT_PROTOCOL;
@@ -32,6 +34,7 @@ import static org.kaazing.gateway.transport.http.HttpHeaders.HEADER_CACHE_CONTRO
 import static org.kaazing.gateway.transport.http.HttpHeaders.HEADER_CONTENT_LENGTH;
 import static org.kaazing.gateway.transport.http.HttpHeaders.HEADER_CONTENT_TYPE;
 import static org.kaazing.gateway.transport.ws.WsSystemProperty.WSE_IDLE_TIMEOUT;
+import static org.kaazing.gateway.transport.ws.WsSystemProperty.WS_SESSION_TIMEOUT_SWEEP_INTERVAL;
 import static org.kaazing.gateway.transport.ws.bridge.filter.WsCheckAliveFilter.DISABLE_INACTIVITY_TIMEOUT;
 import static org.kaazing.gateway.util.InternalSystemProperty.WSE_SPECIFICATION;
 import static org.kaazing.mina.core.future.DefaultUnbindFuture.combineFutures;
@@ -60,6 +63,7 @@ import org.apache.mina.core.future.WriteFuture;
 import org.apache.mina.core.service.IoHandler;
 import org.apache.mina.core.service.TransportMetadata;
 import org.apache.mina.core.session.AttributeKey;
+import org.apache.mina.core.session.IdleStatus;
 import org.apache.mina.core.session.IoSession;
 import org.apache.mina.core.session.IoSessionInitializer;
 import org.kaazing.gateway.resource.address.IdentityResolver;
@@ -96,10 +100,12 @@ import org.kaazing.gateway.transport.http.HttpStatus;
 import org.kaazing.gateway.transport.http.HttpUtils;
 import org.kaazing.gateway.transport.http.bridge.filter.HttpProtocolCompatibilityFilter;
 import org.kaazing.gateway.transport.ws.WsAcceptor;
+import org.kaazing.gateway.transport.ws.WsScheduledCommandSweeper;
 import org.kaazing.gateway.transport.ws.bridge.filter.WsBuffer;
 import org.kaazing.gateway.transport.ws.extension.ExtensionHelper;
 import org.kaazing.gateway.transport.ws.extension.WebSocketExtension;
 import org.kaazing.gateway.transport.ws.extension.WebSocketExtensionFactory;
+import org.kaazing.gateway.transport.ws.util.ResourceAddressCache;
 import org.kaazing.gateway.transport.ws.util.WsHandshakeNegotiationException;
 import org.kaazing.gateway.transport.ws.util.WsUtils;
 import org.kaazing.gateway.transport.wseb.filter.WsebBufferAllocator;
@@ -153,12 +159,23 @@ public class WsebAcceptor extends AbstractBridgeAcceptor<WsebSession, Binding> {
     private static final String UPSTREAM_MIXED_TEXT_ESCAPED_SUFFIX = EMULATED_SUFFIX + "/utem";
     static final String DOWNSTREAM_MIXED_TEXT_ESCAPED_SUFFIX = EMULATED_SUFFIX + "/dtem";
 
+    private static final List<String> UPSTREAM_SUFFIXES = asList(UPSTREAM_SUFFIX, UPSTREAM_TEXT_SUFFIX,
+            UPSTREAM_TEXT_ESCAPED_SUFFIX, UPSTREAM_MIXED_SUFFIX, UPSTREAM_MIXED_TEXT_SUFFIX, UPSTREAM_MIXED_TEXT_ESCAPED_SUFFIX);
+    private static final List<String> DOWNSTREAM_SUFFIXES = asList(DOWNSTREAM_SUFFIX, DOWNSTREAM_TEXT_SUFFIX,
+            DOWNSTREAM_TEXT_ESCAPED_SUFFIX, DOWNSTREAM_MIXED_SUFFIX, DOWNSTREAM_MIXED_TEXT_SUFFIX,
+            DOWNSTREAM_MIXED_TEXT_ESCAPED_SUFFIX);
+    private static final List<String> SESSION_ROUTE_SUFFIXES =
+            concat(UPSTREAM_SUFFIXES.stream(), DOWNSTREAM_SUFFIXES.stream()).collect(toList());
+
     private static final Charset UTF_8 = Charset.forName("UTF-8");
     protected static final byte LINEFEED_BYTE = "\n".getBytes()[0];
 
     private static final TypedAttributeKey<WsebSession> SESSION_KEY =
             new TypedAttributeKey<>(WsebAcceptor.class, "wseSession");
 
+    private static final TypedAttributeKey<IoHandler> SESSION_ROUTE_HANDLER_KEY =
+            new TypedAttributeKey<>(WsebAcceptor.class, "sessionRouteHandler");
+
     private static final TypedAttributeKey<String[]> SUPPORTED_PROTOCOLS =
             new TypedAttributeKey<>(WsebAcceptor.class, "supportedProtocols");
 
@@ -175,8 +192,10 @@ public class WsebAcceptor extends AbstractBridgeAcceptor<WsebSession, Binding> {
     private boolean specCompliant;
 
     private ScheduledExecutorService scheduler;
+    private WsScheduledCommandSweeper sweeper;
     private BridgeServiceFactory bridgeServiceFactory;
     private ResourceAddressFactory resourceAddressFactory;
+    private final ResourceAddressCache wseLocalAddresses = new ResourceAddressCache(this::newWseLocalAddress);
 
     private WebSocketExtensionFactory webSocketExtensionFactory;
 
@@ -194,10 +213,30 @@ public class WsebAcceptor extends AbstractBridgeAcceptor<WsebSession, Binding> {
 
     private final IoHandler createHandler = new WsebCreateHandler();
 
+    // upstream and downstream requests are routed to their session by session id, rather than binding them per session
+    private final WsebSessionRoutes sessionRoutes = new WsebSessionRoutes();
+    private final IoHandler sessionRouteHandler = new WsebSessionRouteHandler();
+
+    // upstream and downstream requests shouldn't go through authentication/authorization as the create request
+    // already went through it, but for logging purposes we do want to set an IdentityResolver. The resolvers are shared
+    // so that the bound upstream and downstream addresses are equal from bind to unbind.
+    private final IdentityResolver upstreamResolver = new FixedIdentityResolver(WsebProtocol.NAME + "#u");
+    private final IdentityResolver downstreamResolver = new FixedIdentityResolver(WsebProtocol.NAME + "#d");
+
     public WsebAcceptor() {
         super(new DefaultIoSessionConfigEx());
     }
 
+    @Override
+    protected void init() {
+        int sweepInterval = WS_SESSION_TIMEOUT_SWEEP_INTERVAL.getIntProperty(configuration);
+        if (sweepInterval > 0) {
+            sweeper = new WsScheduledCommandSweeper(scheduler, sweepInterval);
+        }
+
+        super.init();
+    }
+
     @Override
     protected IoProcessorEx<WsebSession> initProcessor() {
         return new WsebAcceptProcessor(scheduler, logger);
@@ -283,6 +322,7 @@ public class WsebAcceptor extends AbstractBridgeAcceptor<WsebSession, Binding> {
             };
 
             bindApiPath(address);
+            bindSessionRoutes(address);
 
             BridgeAcceptor transportAcceptor = bridgeServiceFactory.newBridgeAcceptor(transportAddress);
             transportAcceptor.bind(transportAddress, createHandler, wrapperHttpInitializer);
@@ -304,6 +344,68 @@ public class WsebAcceptor extends AbstractBridgeAcceptor<WsebSession, Binding> {
         }
     }
 
+    private void bindSessionRoutes(ResourceAddress address) {
+        for (String suffix : SESSION_ROUTE_SUFFIXES) {
+            ResourceAddress routeAddress = createSessionRouteAddress(address, suffix);
+            bridgeServiceFactory.newBridgeAcceptor(routeAddress).bind(routeAddress, sessionRouteHandler, null);
+        }
+    }
+
+    private UnbindFuture unbindSessionRoutes(ResourceAddress address) {
+        UnbindFuture future = null;
+        for (String suffix : SESSION_ROUTE_SUFFIXES) {
+            ResourceAddress routeAddress = createSessionRouteAddress(address, suffix);
+            UnbindFuture newFuture = bridgeServiceFactory.newBridgeAcceptor(routeAddress).unbind(routeAddress);
+            future = (future == null) ? newFuture : combineFutures(future, newFuture);
+        }
+        return future;
+    }
+
+    private ResourceAddress createSessionRouteAddress(ResourceAddress address, String suffix) {
+        IdentityResolver resolver = UPSTREAM_SUFFIXES.contains(suffix) ? upstreamResolver : downstreamResolver;
+        ResourceAddress httpAddress = address.getTransport();
+        ResourceAddress httpxeAddress = httpAddress.getOption(ALTERNATE);
+
+        // tcp | http | httpxe | wse - apply no security to http layer
+        ResourceAddress httpxeBaseAddress = (httpxeAddress != null) ? httpxeAddressNoSecurity(httpxeAddress, resolver) : null;
+
+        // tcp | http | wse - apply no security to http layer, also sets the httpxe alternate
+        ResourceAddress httpBaseAddress = httpAddressNoSecurity(httpAddress, httpxeBaseAddress, resolver);
+
+        return httpBaseAddress.resolve(createResolvePath(httpBaseAddress.getResource(), suffix));
+    }
+
+    private ResourceAddress httpAddressNoSecurity(ResourceAddress httpAddress, ResourceAddress httpxeAddressNoSecurity, IdentityResolver resolver) {
+        ResourceOptions noSecurityOptions = new NoSecurityResourceOptions(httpAddress);
+        noSecurityOptions.setOption(ALTERNATE, httpxeAddressNoSecurity);
+
+        noSecurityOptions.setOption(ResourceAddress.IDENTITY_RESOLVER, resolver);
+        noSecurityOptions.setOption(HttpResourceAddress.REALMS, new HttpRealmInfo[0]);
+        return resourceAddressFactory.newResourceAddress(httpAddress.getExternalURI(),
+                noSecurityOptions, httpAddress.getOption(ResourceAddress.QUALIFIER));
+    }
+
+    private ResourceAddress httpxeAddressNoSecurity(ResourceAddress httpxeAddress, IdentityResolver resolver) {
+        // Remove REALM_NAME option at http layer (upstream and downstream requests shouldn't have to
+        // go through authentication/authorization)
+        ResourceAddress httpAddress = httpxeAddress.getTransport();
+        ResourceOptions noSecurityOptions = new NoSecurityResourceOptions(httpAddress);
+
+        noSecurityOptions.setOption(ResourceAddress.IDENTITY_RESOLVER, resolver);
+        ResourceAddress httpAddressNoSecurity = resourceAddressFactory.newResourceAddress(
+                httpAddress.getExternalURI(), noSecurityOptions, httpAddress.getOption(ResourceAddress.QUALIFIER));
+
+        // Remove REALM_NAME  option at httpxe layer but preserve all other options like
+        // ORIGIN_SECURITY etc. Otherwise, upstream and downstream requests will be subjected
+        // to different origin security constraints. Then finally add http as transport to httpxe
+        ResourceOptions httpxeOptions = ResourceOptions.FACTORY.newResourceOptions(httpxeAddress);
+        httpxeOptions.setOption(TRANSPORT, httpAddressNoSecurity);
+        httpxeOptions.setOption(ResourceAddress.IDENTITY_RESOLVER, resolver);
+
+        httpxeOptions = new NoSecurityResourceOptions(httpxeOptions);
+        return resourceAddressFactory.newResourceAddress(URIUtils.uriToString(httpxeAddress.getResource()), httpxeOptions);
+    }
+
     private void unbindApiPath(ResourceAddress address) {
         ResourceAddress apiHttpAddress = createApiHttpAddress(address.getTransport());
         bridgeServiceFactory.newBridgeAcceptor(apiHttpAddress).unbind(apiHttpAddress);
@@ -371,6 +473,7 @@ public class WsebAcceptor extends AbstractBridgeAcceptor<WsebSession, Binding> {
         BridgeAcceptor acceptor = bridgeServiceFactory.newBridgeAcceptor(transportAddress);
 
         UnbindFuture future = unbindCookiesHandler(address.findTransport("http[http/1.1]"));
+        future = combineFutures(future, unbindSessionRoutes(address));
         future = combineFutures(future, acceptor.unbind(transportAddress));
         return future;
     }
@@ -406,20 +509,45 @@ public class WsebAcceptor extends AbstractBridgeAcceptor<WsebSession, Binding> {
 
     };
 
+    private ResourceAddress newWseLocalAddress(ResourceAddress httpLocalAddress, String schemeName, String nextProtocol) {
+        URI resource = httpLocalAddress.getResource();
+        if (resource.getPath().endsWith(CREATE_SUFFIX)) {
+            resource = truncateURI(resource, CREATE_SUFFIX);
+        }
+        if (resource.getPath().endsWith(CREATE_TEXT_SUFFIX)) {
+            resource = truncateURI(resource, CREATE_TEXT_SUFFIX);
+        }
+        if (resource.getPath().endsWith(CREATE_TEXT_ESCAPED_SUFFIX)) {
+            resource = truncateURI(resource, CREATE_TEXT_ESCAPED_SUFFIX);
+        }
+        if (resource.getPath().endsWith(CREATE_MIXED_SUFFIX)) {
+            resource = truncateURI(resource, CREATE_MIXED_SUFFIX);
+        }
+        if (resource.getPath().endsWith(CREATE_MIXED_TEXT_SUFFIX)) {
+            resource = truncateURI(resource, CREATE_MIXED_TEXT_SUFFIX);
+        }
+        if (resource.getPath().endsWith(CREATE_MIXED_TEXT_ESCAPED_SUFFIX)) {
+            resource = truncateURI(resource, CREATE_MIXED_TEXT_ESCAPED_SUFFIX);
+        }
+
+        ResourceOptions options = ResourceOptions.FACTORY.newResourceOptions();
+        options.setOption(TRANSPORT, httpLocalAddress.resolve(resource.getPath()));
+        options.setOption(NEXT_PROTOCOL, nextProtocol);
+
+        URI wseLocalAddressLocation = modifyURIScheme(resource, schemeName);
+        return resourceAddressFactory.newResourceAddress(URIUtils.uriToString(wseLocalAddressLocation), options);
+    }
+
     final class WsebCreateHandler extends IoHandlerAdapter<HttpAcceptSession> {
 
-        private IoFutureListener<CloseFuture> getWsebCloseListener(final BridgeAcceptor upstreamAcceptor,
-                                                                   final BridgeAcceptor downstreamAcceptor,
-                                                                   final WsebSession wsebSession,
-                                                                   final ResourceAddress downstreamAddress,
-                                                                   final ResourceAddress upstreamAddress) {
+        private IoFutureListener<CloseFuture> getWsebCloseListener(final WsebSession wsebSession,
+                                                                   final String sessionId) {
             return new IoFutureListener<CloseFuture>() {
                 @Override
                 public void operationComplete(CloseFuture future) {
                     currentSessionIdleTracker.get().removeSession(wsebSession);
 
-                    downstreamAcceptor.unbind(downstreamAddress);
-                    upstreamAcceptor.unbind(upstreamAddress);
+                    sessionRoutes.remove(sessionId);
 
                     wsebSession.shutdownScheduledCommands();
                     wsebSession.logout();
@@ -653,6 +781,7 @@ public class WsebAcceptor extends AbstractBridgeAcceptor<WsebSession, Binding> {
                     newWsebSession.setBridgeServiceFactory(bridgeServiceFactory);
                     newWsebSession.setResourceAddressFactory(resourceAddressFactory);
                     newWsebSession.setScheduler(scheduler);
+                    newWsebSession.setScheduledCommandSweeper(sweeper);
                     return newWsebSession;
                 }
             });
@@ -696,48 +825,18 @@ public class WsebAcceptor extends AbstractBridgeAcceptor<WsebSession, Binding> {
                                                  URIUtils.getFragment(remoteExternalHttp11));
 
             //
-            // UP- and DOWN- STREAMS: BIND
+            // UP- and DOWN- STREAMS: ROUTE
             //
-            final ResourceAddress httpAddress = localAddress.getTransport();
-            final ResourceAddress httpxeAddress = localAddress.getTransport().getOption(ALTERNATE);
-
-            // upstream and downstream requests shouldn't go through authentication/authorization
-            // as the create request already went through it and established wseb session
-         // But for logging purposes we do want to set an IdentityResolver
-            String wsebSessionIdentity = format("%s#%d", getTransportMetadata().getName(), wsebSession.getId());
-            final IdentityResolver downstreamResolver = new FixedIdentityResolver(wsebSessionIdentity + "d");
-            // tcp | http | httpxe | wse - apply no security to http layer
-            ResourceAddress httpxeBaseAddress = httpxeAddressNoSecurity(httpxeAddress, downstreamResolver);
-
-            // tcp | http | wse - apply no security to http layer, also sets the httpxe alternate
-            ResourceAddress httpBaseAddress = httpAddressNoSecurity(httpAddress, httpxeBaseAddress, downstreamResolver);
-
-            ResourceAddress localDownstream = httpBaseAddress.resolve(createResolvePath(httpBaseAddress.getResource(), downstreamSuffix + sessionIdSuffix));
-            logger.trace("Binding "+localDownstream.getTransport()+" to downstreamHandler");
-
-            // Now repeat for upstream
-            final IdentityResolver upstreamResolver = new FixedIdentityResolver(wsebSessionIdentity + "u");
-            httpxeBaseAddress = httpxeAddressNoSecurity(httpxeAddress, upstreamResolver);
-            httpBaseAddress = httpAddressNoSecurity(httpAddress, httpxeBaseAddress, upstreamResolver);
-
-            ResourceAddress localUpstream = httpBaseAddress.resolve(createResolvePath(httpBaseAddress.getResource(), upstreamSuffix + sessionIdSuffix));
-            logger.trace("Binding "+localUpstream.getTransport()+" to upstreamHandler");
-
-            BridgeAcceptor downstreamAcceptor = bridgeServiceFactory.newBridgeAcceptor(localDownstream);
-            downstreamAcceptor.bind(localDownstream,
-                    selectDownstreamHandler(localAddress, wsebSession, downstreamSuffix),
-                    null);
-
-            BridgeAcceptor upstreamAcceptor = bridgeServiceFactory.newBridgeAcceptor(localUpstream);
-            upstreamAcceptor.bind(localUpstream,
-                selectUpstreamHandler(localAddress, wsebSession, upstreamSuffix),
-                    null);
+            // upstream and downstream paths are bound once per accept address, see bindSessionRoutes
+            sessionRoutes.add(sessionId, session.getLocalAddress().getResource(),
+                    upstreamSuffix, selectUpstreamHandler(localAddress, wsebSession, upstreamSuffix),
+                    downstreamSuffix, selectDownstreamHandler(localAddress, wsebSession, downstreamSuffix));
 
             //
             // WEBSOCKET SESSION CLOSE
             //
             CloseFuture closeFuture = wsebSession.getCloseFuture();
-            closeFuture.addListener(getWsebCloseListener(upstreamAcceptor, downstreamAcceptor, wsebSession, localDownstream, localUpstream));
+            closeFuture.addListener(getWsebCloseListener(wsebSession, sessionId));
 
 
             //
@@ -772,38 +871,6 @@ public class WsebAcceptor extends AbstractBridgeAcceptor<WsebSession, Binding> {
             wsebSession.scheduleTimeout(scheduler);
         }
 
-        private ResourceAddress httpAddressNoSecurity(ResourceAddress httpAddress, ResourceAddress httpxeAddressNoSecurity, IdentityResolver resolver) {
-            ResourceOptions noSecurityOptions = new NoSecurityResourceOptions(httpAddress);
-            noSecurityOptions.setOption(ALTERNATE, httpxeAddressNoSecurity);
-
-            noSecurityOptions.setOption(ResourceAddress.IDENTITY_RESOLVER, resolver);
-            noSecurityOptions.setOption(HttpResourceAddress.REALMS, new HttpRealmInfo[0]);
-            return resourceAddressFactory.newResourceAddress(httpAddress.getExternalURI(),
-                    noSecurityOptions, httpAddress.getOption(ResourceAddress.QUALIFIER));
-        }
-
-        private ResourceAddress httpxeAddressNoSecurity(ResourceAddress httpxeAddress, IdentityResolver resolver) {
-            // Remove REALM_NAME option at http layer (upstream and downstream requests shouldn't have to
-            // go through authentication/authorization)
-            ResourceAddress httpAddress = httpxeAddress.getTransport();
-            ResourceOptions noSecurityOptions = new NoSecurityResourceOptions(httpAddress);
-
-            noSecurityOptions.setOption(ResourceAddress.IDENTITY_RESOLVER, resolver);
-            ResourceAddress httpAddressNoSecurity = resourceAddressFactory.newResourceAddress(
-                    httpAddress.getExternalURI(), noSecurityOptions, httpAddress.getOption(ResourceAddress.QUALIFIER));
-
-            // Remove REALM_NAME  option at httpxe layer but preserve all other options like
-            // ORIGIN_SECURITY etc. Otherwise, upstream and downstream requests will be subjected
-            // to different origin security constraints. Then finally add http as transport to httpxe
-            ResourceOptions httpxeOptions = ResourceOptions.FACTORY.newResourceOptions(httpxeAddress);
-            httpxeOptions.setOption(TRANSPORT, httpAddressNoSecurity);
-
-            httpxeOptions.setOption(ResourceAddress.IDENTITY_RESOLVER, resolver);
-
-            httpxeOptions = new NoSecurityResourceOptions(httpxeOptions);
-            return resourceAddressFactory.newResourceAddress(URIUtils.uriToString(httpxeAddress.getResource()), httpxeOptions);
-        }
-
         private boolean validateAcceptCommands(HttpAcceptSession session) {
             String commands = session.getReadHeader("X-Accept-Commands");
             if (commands != null && !"ping".equals(commands)) {
@@ -955,35 +1022,7 @@ public class WsebAcceptor extends AbstractBridgeAcceptor<WsebSession, Binding> {
 
         protected ResourceAddress getWseLocalAddress(HttpAcceptSession session,
                                                      String nextProtocol) {
-
-
-            URI resource = session.getLocalAddress().getResource();
-            if (resource.getPath().endsWith(CREATE_SUFFIX)) {
-                resource = truncateURI(resource, CREATE_SUFFIX);
-            }
-            if (resource.getPath().endsWith(CREATE_TEXT_SUFFIX)) {
-                resource = truncateURI(resource, CREATE_TEXT_SUFFIX);
-            }
-            if (resource.getPath().endsWith(CREATE_TEXT_ESCAPED_SUFFIX)) {
-                resource = truncateURI(resource, CREATE_TEXT_ESCAPED_SUFFIX);
-            }
-            if (resource.getPath().endsWith(CREATE_MIXED_SUFFIX)) {
-                resource = truncateURI(resource, CREATE_MIXED_SUFFIX);
-            }
-            if (resource.getPath().endsWith(CREATE_MIXED_TEXT_SUFFIX)) {
-                resource = truncateURI(resource, CREATE_MIXED_TEXT_SUFFIX);
-            }
-            if (resource.getPath().endsWith(CREATE_MIXED_TEXT_ESCAPED_SUFFIX)) {
-                resource = truncateURI(resource, CREATE_MIXED_TEXT_ESCAPED_SUFFIX);
-            }
-
-            ResourceOptions options = ResourceOptions.FACTORY.newResourceOptions();
-            options.setOption(TRANSPORT, session.getLocalAddress().resolve(resource.getPath()));
-            options.setOption(NEXT_PROTOCOL, nextProtocol);
-
-            URI wseLocalAddressLocation = modifyURIScheme(resource, "ws");
-            ResourceAddress candidate = resourceAddressFactory.newResourceAddress(
-                    URIUtils.uriToString(wseLocalAddressLocation), options);
+            ResourceAddress candidate = wseLocalAddresses.get(session.getLocalAddress(), "ws", nextProtocol);
 
             Binding binding = bindings.getBinding(candidate);
 
@@ -1010,32 +1049,6 @@ public class WsebAcceptor extends AbstractBridgeAcceptor<WsebSession, Binding> {
 
             return binding.bindAddress();
         }
-
-        private class NoSecurityResourceOptions implements ResourceOptions {
-            private final ResourceOptions options;
-
-            public NoSecurityResourceOptions(ResourceOptions defaultsAddress) {
-                options = ResourceOptions.FACTORY.newResourceOptions(defaultsAddress);
-            }
-
-            @Override
-            public <T> T setOption(ResourceOption<T> key, T value) {
-                if (key == HttpResourceAddress.REALMS) return null;
-                return options.setOption(key,value);
-            }
-
-            @Override
-            public <T> T getOption(ResourceOption<T> key) {
-                if (key == HttpResourceAddress.REALMS) return null;
-                return options.getOption(key);
-            }
-
-            @Override
-            public <T> boolean hasOption(ResourceOption<T> key) {
-                if (key == HttpResourceAddress.REALMS) return false;
-                return options.hasOption(key);
-            }
-        }
     }
 
     private final IoHandler cookiesHandler = new IoHandlerAdapter<HttpAcceptSession>() {
@@ -1089,6 +1102,109 @@ public class WsebAcceptor extends AbstractBridgeAcceptor<WsebSession, Binding> {
         }
     };
 
+    /*
+     * Routes the upstream and downstream requests to the handler of their WsebSession, by the bound address the request
+     * was received on.
+     */
+    private final class WsebSessionRouteHandler extends IoHandlerAdapter<HttpAcceptSession> {
+
+        @Override
+        protected void doSessionCreated(HttpAcceptSession session) throws Exception {
+            String sessionId = WsebSessionRoutes.getSessionId(session.getPathInfo());
+            IoHandler handler =
+                    (sessionId != null) ? sessionRoutes.get(sessionId, session.getLocalAddress().getResource()) : null;
+            if (handler != null) {
+                SESSION_ROUTE_HANDLER_KEY.set(session, handler);
+                handler.sessionCreated(session);
+            }
+        }
+
+        @Override
+        protected void doSessionOpened(HttpAcceptSession session) throws Exception {
+            IoHandler handler = SESSION_ROUTE_HANDLER_KEY.get(session);
+            if (handler == null) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug(format("Sending HTTP status 404 as no WsebSession is found for request %s",
+                            session.getRequestURI()));
+                }
+                session.setStatus(HttpStatus.CLIENT_NOT_FOUND);
+                session.setWriteHeader(HEADER_CONTENT_LENGTH, "0");
+                session.close(false);
+                return;
+            }
+            handler.sessionOpened(session);
+        }
+
+        @Override
+        protected void doMessageReceived(HttpAcceptSession session, Object message) throws Exception {
+            IoHandler handler = SESSION_ROUTE_HANDLER_KEY.get(session);
+            if (handler != null) {
+                handler.messageReceived(session, message);
+            }
+        }
+
+        @Override
+        protected void doMessageSent(HttpAcceptSession session, Object message) throws Exception {
+            IoHandler handler = SESSION_ROUTE_HANDLER_KEY.get(session);
+            if (handler != null) {
+                handler.messageSent(session, message);
+            }
+        }
+
+        @Override
+        protected void doSessionIdle(HttpAcceptSession session, IdleStatus status) throws Exception {
+            IoHandler handler = SESSION_ROUTE_HANDLER_KEY.get(session);
+            if (handler != null) {
+                handler.sessionIdle(session, status);
+            }
+        }
+
+        @Override
+        protected void doExceptionCaught(HttpAcceptSession session, Throwable cause) throws Exception {
+            IoHandler handler = SESSION_ROUTE_HANDLER_KEY.get(session);
+            if (handler != null) {
+                handler.exceptionCaught(session, cause);
+            }
+            else {
+                session.close(true);
+            }
+        }
+
+        @Override
+        protected void doSessionClosed(HttpAcceptSession session) throws Exception {
+            IoHandler handler = SESSION_ROUTE_HANDLER_KEY.remove(session);
+            if (handler != null) {
+                handler.sessionClosed(session);
+            }
+        }
+    }
+
+    private static class NoSecurityResourceOptions implements ResourceOptions {
+        private final ResourceOptions options;
+
+        public NoSecurityResourceOptions(ResourceOptions defaultsAddress) {
+            options = ResourceOptions.FACTORY.newResourceOptions(defaultsAddress);
+        }
+
+        @Override
+        public <T> T setOption(ResourceOption<T> key, T value) {
+            if (key == HttpResourceAddress.REALMS) return null;
+            return options.setOption(key,value);
+        }
+
+        @Override
+        public <T> T getOption(ResourceOption<T> key) {
+            if (key == HttpResourceAddress.REALMS) return null;
+            return options.getOption(key);
+        }
+
+        @Override
+        public <T> boolean hasOption(ResourceOption<T> key) {
+            if (key == HttpResourceAddress.REALMS) return false;
+            return options.hasOption(key);
+        }
+    }
+
     private static class FixedIdentityResolver extends IdentityResolver {
         final String identity;
 
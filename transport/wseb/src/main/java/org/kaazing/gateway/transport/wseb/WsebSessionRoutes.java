@@ -0,0 +1,116 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.wseb;
+
+import static org.kaazing.gateway.resource.address.URLUtils.appendURI;
+import static org.kaazing.gateway.resource.address.URLUtils.ensureTrailingSlash;
+
+import java.net.URI;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.mina.core.service.IoHandler;
+
+/**
+ * Table routing the upstream and downstream requests of the emulated WebSocket sessions to their handlers by session id.
+ * <p/>
+ * The upstream and downstream paths are bound once per accept address, instead of binding (and unbinding) a pair of
+ * HTTP addresses for every session, so creating a session is a single insert and routing a request is a single hash
+ * lookup on the session id found at the end of the request path. As the table is shared by all the accept addresses,
+ * a request is only routed to a session created on the same authority and path, so that it cannot reach the session
+ * of another service, with other origin and security constraints, through its own upstream or downstream path.
+ */
+final class WsebSessionRoutes {
+
+    private final ConcurrentMap<String, Route> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Method adding the routes of a session
+     * @param sessionId
+     * @param createResource the bound resource the session was created on, for example http://localhost:8000/echo
+     * @param upstreamSuffix
+     * @param upstreamHandler
+     * @param downstreamSuffix
+     * @param downstreamHandler
+     */
+    void add(String sessionId, URI createResource, String upstreamSuffix, IoHandler upstreamHandler,
+             String downstreamSuffix, IoHandler downstreamHandler) {
+        URI base = ensureTrailingSlash(createResource);
+        routes.put(sessionId, new Route(base.getAuthority(), appendURI(base, upstreamSuffix).getPath(), upstreamHandler,
+                appendURI(base, downstreamSuffix).getPath(), downstreamHandler));
+    }
+
+    void remove(String sessionId) {
+        routes.remove(sessionId);
+    }
+
+    /**
+     * Method returning the handler of the given session for the bound upstream or downstream resource of a request
+     * @param sessionId
+     * @param routeResource the bound resource the request was received on, for example http://localhost:8000/echo/;e/ub
+     * @return the handler, or null if the session is unknown or was created on another resource or for another suffix
+     */
+    IoHandler get(String sessionId, URI routeResource) {
+        Route route = routes.get(sessionId);
+        if (route == null || !Objects.equals(route.authority, routeResource.getAuthority())) {
+            return null;
+        }
+        String path = routeResource.getPath();
+        if (route.upstreamPath.equals(path)) {
+            return route.upstreamHandler;
+        }
+        if (route.downstreamPath.equals(path)) {
+            return route.downstreamHandler;
+        }
+        return null;
+    }
+
+    int size() {
+        return routes.size();
+    }
+
+    /**
+     * Method returning the session id from the path info of an upstream or downstream request
+     * @param pathInfo path relative to the bound upstream or downstream path, for example /<session-id>
+     * @return the session id, or null if the path does not hold exactly one segment
+     */
+    static String getSessionId(URI pathInfo) {
+        String path = pathInfo == null ? null : pathInfo.getPath();
+        if (path == null || path.length() < 2 || path.charAt(0) != '/' || path.indexOf('/', 1) != -1) {
+            return null;
+        }
+        return path.substring(1);
+    }
+
+    private static final class Route {
+        private final String authority;
+        private final String upstreamPath;
+        private final IoHandler upstreamHandler;
+        private final String downstreamPath;
+        private final IoHandler downstreamHandler;
+
+        Route(String authority, String upstreamPath, IoHandler upstreamHandler, String downstreamPath,
+              IoHandler downstreamHandler) {
+            this.authority = authority;
+            this.upstreamPath = upstreamPath;
+            this.upstreamHandler = upstreamHandler;
+            this.downstreamPath = downstreamPath;
+            this.downstreamHandler = downstreamHandler;
+        }
+    }
+
+}
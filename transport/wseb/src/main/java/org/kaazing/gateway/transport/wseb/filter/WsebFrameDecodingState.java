@@ -15,8 +15,6 @@
  */
 package org.kaazing.gateway.transport.wseb.filter;
 
-import static java.lang.String.format;
-
 import java.util.Iterator;
 import java.util.List;
 
@@ -32,8 +30,7 @@ import org.kaazing.gateway.transport.ws.WsCommandMessage;
 import org.kaazing.gateway.transport.ws.WsPingMessage;
 import org.kaazing.gateway.transport.ws.WsPongMessage;
 import org.kaazing.gateway.transport.ws.WsTextMessage;
-import org.kaazing.gateway.util.ErrorHandler;
-import org.kaazing.gateway.util.Utf8Util;
+import org.kaazing.gateway.util.Utf8Validator;
 import org.kaazing.mina.core.buffer.IoBufferAllocatorEx;
 import org.kaazing.mina.core.buffer.IoBufferEx;
 import org.kaazing.mina.filter.codec.statemachine.ConsumeToTerminatorDecodingState;
@@ -55,6 +52,7 @@ public class WsebFrameDecodingState extends DecodingStateMachine {
 
     private final int maxDataSize;
     private final boolean pingEnabled;
+    private final Utf8Validator utf8Validator = new Utf8Validator();
 
     private final DecodingState READ_FRAME_TYPE = new SingleByteDecodingState() {
 
@@ -296,20 +294,10 @@ public class WsebFrameDecodingState extends DecodingStateMachine {
     }
 
     private void validateUTF8(IoBuffer buffer) throws ProtocolDecoderException {
-        final StringBuffer error = new StringBuffer("WebSocket text frame content is not valid UTF-8: ");
-        int result = Utf8Util.validateUTF8(buffer.buf(), buffer.position(), buffer.remaining(), new ErrorHandler() {
-
-            @Override
-            public void handleError(String message) {
-                error.append(message);
-
-            }
-        });
-        if (result != 0) {
-            if (result > 0) {
-                error.append(format("final character is incomplete, missing %d bytes", result));
-            }
-            throw new ProtocolDecoderException(error.toString());
+        utf8Validator.reset();
+        if (!utf8Validator.validate(buffer.buf()) || !utf8Validator.isComplete()) {
+            throw new ProtocolDecoderException("WebSocket text frame content is not valid UTF-8: "
+                    + utf8Validator.getErrorMessage());
         }
     }
 
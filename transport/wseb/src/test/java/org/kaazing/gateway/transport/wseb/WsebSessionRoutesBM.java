@@ -0,0 +1,138 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.wseb;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mina.core.service.IoHandler;
+import org.kaazing.gateway.resource.address.ResourceAddress;
+import org.kaazing.gateway.resource.address.ResourceAddressFactory;
+import org.kaazing.gateway.transport.Bindings.Binding;
+import org.kaazing.gateway.transport.IoHandlerAdapter;
+import org.kaazing.gateway.transport.http.HttpBindings;
+import org.kaazing.gateway.transport.http.HttpUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares binding the upstream and downstream addresses of every session in the HTTP bindings with routing them
+ * through the session id table, for session create and teardown and for the lookup done on every request.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WsebSessionRoutesBM {
+
+    private static final String BASE_LOCATION = "http://localhost:8000/echo";
+    private static final String UPSTREAM_SUFFIX = "/;e/ub";
+    private static final String DOWNSTREAM_SUFFIX = "/;e/db";
+    private static final URI BASE_RESOURCE = URI.create(BASE_LOCATION);
+    private static final URI DOWNSTREAM_RESOURCE = URI.create(BASE_LOCATION + DOWNSTREAM_SUFFIX);
+
+    @Param({"100", "1000", "10000"})
+    public int sessions;
+
+    private final IoHandler handler = new IoHandlerAdapter<>();
+    private ResourceAddressFactory addressFactory;
+    private HttpBindings bindings;
+    private WsebSessionRoutes routes;
+    private String[] sessionIds;
+    private ResourceAddress[] downstreamAddresses;
+    private int index;
+
+    @Setup
+    public void init() {
+        addressFactory = ResourceAddressFactory.newResourceAddressFactory();
+        bindings = new HttpBindings();
+        routes = new WsebSessionRoutes();
+        sessionIds = new String[sessions];
+        downstreamAddresses = new ResourceAddress[sessions];
+        for (int i = 0; i < sessions; i++) {
+            sessionIds[i] = HttpUtils.newSessionId();
+            downstreamAddresses[i] = newAddress(DOWNSTREAM_SUFFIX, sessionIds[i]);
+            bindings.addBinding(new Binding(newAddress(UPSTREAM_SUFFIX, sessionIds[i]), handler, null));
+            bindings.addBinding(new Binding(downstreamAddresses[i], handler, null));
+            routes.add(sessionIds[i], BASE_RESOURCE, UPSTREAM_SUFFIX, handler, DOWNSTREAM_SUFFIX, handler);
+        }
+    }
+
+    // per session binds, as done before routing by session id
+    @Benchmark
+    public boolean bindingsCreateAndTeardown() {
+        String sessionId = HttpUtils.newSessionId();
+        ResourceAddress upstream = newAddress(UPSTREAM_SUFFIX, sessionId);
+        ResourceAddress downstream = newAddress(DOWNSTREAM_SUFFIX, sessionId);
+        Binding upstreamBinding = new Binding(upstream, handler, null);
+        Binding downstreamBinding = new Binding(downstream, handler, null);
+        bindings.addBinding(upstreamBinding);
+        bindings.addBinding(downstreamBinding);
+        return bindings.removeBinding(upstream, upstreamBinding) | bindings.removeBinding(downstream, downstreamBinding);
+    }
+
+    @Benchmark
+    public int routesCreateAndTeardown() {
+        String sessionId = HttpUtils.newSessionId();
+        routes.add(sessionId, BASE_RESOURCE, UPSTREAM_SUFFIX, handler, DOWNSTREAM_SUFFIX, handler);
+        routes.remove(sessionId);
+        return routes.size();
+    }
+
+    @Benchmark
+    public Binding bindingsLookup() {
+        return bindings.getBinding(downstreamAddresses[index++ % sessions]);
+    }
+
+    @Benchmark
+    public IoHandler routesLookup() {
+        return routes.get(sessionIds[index++ % sessions], DOWNSTREAM_RESOURCE);
+    }
+
+    private ResourceAddress newAddress(String suffix, String sessionId) {
+        return addressFactory.newResourceAddress(BASE_LOCATION + suffix + "/" + sessionId);
+    }
+
+    // Or from command line:
+    //
+    // mvn clean install
+    // java -jar target/benchmarks.jar WsebSessionRoutesBM
+    //
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(WsebSessionRoutesBM.class.getSimpleName())
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.transport.wseb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.net.URI;
+
+import org.apache.mina.core.service.IoHandler;
+import org.junit.Test;
+import org.kaazing.gateway.transport.IoHandlerAdapter;
+
+public class WsebSessionRoutesTest {
+
+    @Test
+    public void shouldRouteBySessionIdAndSuffix() {
+        IoHandler upstreamHandler = new IoHandlerAdapter<>();
+        IoHandler downstreamHandler = new IoHandlerAdapter<>();
+        WsebSessionRoutes routes = new WsebSessionRoutes();
+        routes.add("abc", URI.create("http://localhost:8000/echo"), "/;e/ub", upstreamHandler, "/;e/db", downstreamHandler);
+
+        assertSame(upstreamHandler, routes.get("abc", URI.create("http://localhost:8000/echo/;e/ub")));
+        assertSame(downstreamHandler, routes.get("abc", URI.create("http://localhost:8000/echo/;e/db")));
+        // requests received on the httpxe alternate
+        assertSame(downstreamHandler, routes.get("abc", URI.create("httpxe://localhost:8000/echo/;e/db")));
+        // session was created with the binary suffixes
+        assertNull(routes.get("abc", URI.create("http://localhost:8000/echo/;e/ut")));
+        assertNull(routes.get("xyz", URI.create("http://localhost:8000/echo/;e/ub")));
+
+        routes.remove("abc");
+
+        assertNull(routes.get("abc", URI.create("http://localhost:8000/echo/;e/ub")));
+        assertEquals(0, routes.size());
+    }
+
+    @Test
+    public void shouldNotRouteToSessionOfAnotherService() {
+        IoHandler handler = new IoHandlerAdapter<>();
+        WsebSessionRoutes routes = new WsebSessionRoutes();
+        routes.add("abc", URI.create("http://localhost:8000/public"), "/;e/ub", handler, "/;e/db", handler);
+
+        assertNull(routes.get("abc", URI.create("http://localhost:8000/secure/;e/ub")));
+        assertNull(routes.get("abc", URI.create("http://localhost:8000/secure/;e/db")));
+        assertNull(routes.get("abc", URI.create("http://example.com:8000/public/;e/ub")));
+        assertNull(routes.get("abc", URI.create("http://localhost:8001/public/;e/db")));
+    }
+
+    @Test
+    public void shouldGetSessionIdFromPathInfo() {
+        assertEquals("abc", WsebSessionRoutes.getSessionId(URI.create("/abc")));
+        assertEquals("abc", WsebSessionRoutes.getSessionId(URI.create("/abc?.kn=123")));
+        assertNull(WsebSessionRoutes.getSessionId(URI.create("")));
+        assertNull(WsebSessionRoutes.getSessionId(URI.create("/")));
+        assertNull(WsebSessionRoutes.getSessionId(URI.create("/abc/def")));
+        assertNull(WsebSessionRoutes.getSessionId(null));
+    }
+
+}
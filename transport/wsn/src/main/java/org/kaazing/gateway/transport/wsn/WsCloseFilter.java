@@ -36,7 +36,7 @@ import org.kaazing.gateway.transport.ws.WsCloseMessage;
 import org.kaazing.gateway.transport.ws.WsFilterAdapter;
 import org.kaazing.gateway.transport.ws.WsMessage;
 import org.kaazing.gateway.transport.ws.util.WSMessageTooLongException;
-import org.kaazing.gateway.util.Utf8Util;
+import org.kaazing.gateway.util.Utf8Validator;
 import org.kaazing.gateway.util.Utils;
 import org.kaazing.gateway.util.ws.WebSocketWireProtocol;
 import org.kaazing.mina.core.future.DefaultWriteFutureEx;
@@ -170,7 +170,8 @@ public class WsCloseFilter
 
                 // if the message has invalid UTF-8 reason, just send back 1002 - protocol error
                 if (status == WsCloseMessage.NORMAL_CLOSE.getStatus()) {
-                    if (!Utf8Util.validBytesUTF8(reason, reason.position(), reason.limit())) {
+                    Utf8Validator utf8Validator = new Utf8Validator();
+                    if (!utf8Validator.validate(reason) || !utf8Validator.isComplete()) {
                         wsCloseResponse = WsCloseMessage.PROTOCOL_ERROR;
                     }
                 }
@@ -30,6 +30,9 @@ import static org.kaazing.gateway.resource.address.ws.WsResourceAddress.MAX_MESS
 import static org.kaazing.gateway.transport.http.HttpAcceptor.BALANCEES_KEY;
 import static org.kaazing.gateway.transport.http.bridge.filter.HttpMergeRequestFilter.DRAFT76_KEY3_BUFFER_KEY;
 import static org.kaazing.gateway.transport.http.bridge.filter.HttpSubjectSecurityFilter.AUTH_SCHEME_APPLICATION_PREFIX;
+import static org.kaazing.gateway.transport.ws.WsSystemProperty.WS_GATHERING_THRESHOLD;
+import static org.kaazing.gateway.transport.ws.WsSystemProperty.WS_SESSION_TIMEOUT_SWEEP_INTERVAL;
+import static org.kaazing.gateway.transport.ws.WsSystemProperty.WS_STREAMING_FRAGMENT_SIZE;
 import static org.kaazing.gateway.transport.ws.util.WsUtils.ACTIVE_EXTENSIONS_KEY;
 import static org.kaazing.gateway.transport.ws.util.WsUtils.HEADER_WEBSOCKET_EXTENSIONS;
 import static org.kaazing.gateway.transport.ws.util.WsUtils.HEADER_X_WEBSOCKET_EXTENSIONS;
@@ -109,6 +112,7 @@ import org.kaazing.gateway.transport.ws.WsContinuationMessage;
 import org.kaazing.gateway.transport.ws.WsMessage;
 import org.kaazing.gateway.transport.ws.WsPingMessage;
 import org.kaazing.gateway.transport.ws.WsPongMessage;
+import org.kaazing.gateway.transport.ws.WsScheduledCommandSweeper;
 import org.kaazing.gateway.transport.ws.WsTextMessage;
 import org.kaazing.gateway.transport.ws.bridge.filter.WsBuffer;
 import org.kaazing.gateway.transport.ws.bridge.filter.WsBufferAllocator;
@@ -123,6 +127,7 @@ import org.kaazing.gateway.transport.ws.bridge.filter.WsFrameUtf8Filter;
 import org.kaazing.gateway.transport.ws.extension.ExtensionHelper;
 import org.kaazing.gateway.transport.ws.extension.WebSocketExtension;
 import org.kaazing.gateway.transport.ws.extension.WebSocketExtensionFactory;
+import org.kaazing.gateway.transport.ws.util.ResourceAddressCache;
 import org.kaazing.gateway.transport.ws.util.WsHandshakeNegotiationException;
 import org.kaazing.gateway.transport.ws.util.WsUtils;
 import org.kaazing.gateway.util.Encoding;
@@ -192,8 +197,10 @@ public class WsnAcceptor extends AbstractBridgeAcceptor<WsnSession, WsnBindings.
 
     private Properties configuration =  new Properties();
     private ScheduledExecutorService scheduler;
+    private WsScheduledCommandSweeper sweeper;
     private BridgeServiceFactory bridgeServiceFactory;
     private ResourceAddressFactory resourceAddressFactory;
+    private final ResourceAddressCache wsLocalAddresses = new ResourceAddressCache(this::newWsLocalAddress);
     private WebSocketExtensionFactory webSocketExtensionFactory;
 
     private static final ExtensionHelper extensionHelper = new ExtensionHelper() {
@@ -249,6 +256,11 @@ public class WsnAcceptor extends AbstractBridgeAcceptor<WsnSession, WsnBindings.
         // from JMS Edition release 3.5.3 is used (KG-7125)
         WsCheckAliveFilter.validateSystemProperties(configuration, logger);
 
+        int sweepInterval = WS_SESSION_TIMEOUT_SWEEP_INTERVAL.getIntProperty(configuration);
+        if (sweepInterval > 0) {
+            sweeper = new WsScheduledCommandSweeper(scheduler, sweepInterval);
+        }
+
         super.init();
     }
 
@@ -555,6 +567,7 @@ public class WsnAcceptor extends AbstractBridgeAcceptor<WsnSession, WsnBindings.
                     newWsnSession.setBridgeServiceFactory(bridgeServiceFactory);
                     newWsnSession.setResourceAddressFactory(resourceAddressFactory);
                     newWsnSession.setScheduler(scheduler);
+                    newWsnSession.setScheduledCommandSweeper(sweeper);
                     return newWsnSession;
                 }
             });
@@ -734,7 +747,9 @@ public class WsnAcceptor extends AbstractBridgeAcceptor<WsnSession, WsnBindings.
 
             // TODO: don't create codec filter if not required
             if ( rfc ) {
-                codec = new WsCodecFilter(wsMaxMessageSize, false);
+                int streamingFragmentSize = WS_STREAMING_FRAGMENT_SIZE.getIntProperty(configuration);
+                int gatheringThreshold = WS_GATHERING_THRESHOLD.getIntProperty(configuration);
+                codec = new WsCodecFilter(wsMaxMessageSize, null, streamingFragmentSize, gatheringThreshold);
             } else {
                 codec = new WsDraftHixieFrameCodecFilter(wsMaxMessageSize);
             }
@@ -814,6 +829,19 @@ public class WsnAcceptor extends AbstractBridgeAcceptor<WsnSession, WsnBindings.
     };
 
 
+    private ResourceAddress newWsLocalAddress(ResourceAddress httpLocalAddress, String schemeName, String nextProtocol) {
+        ResourceOptions options = ResourceOptions.FACTORY.newResourceOptions();
+        options.setOption(TRANSPORT, httpLocalAddress);
+        options.setOption(NEXT_PROTOCOL, nextProtocol);
+
+        URI resource = httpLocalAddress.getResource();
+
+        String wsLocalAddressLocation = URIUtils.modifyURIScheme(URIUtils.uriToString(resource),
+                schemeName);
+
+        return resourceAddressFactory.newResourceAddress(wsLocalAddressLocation, options);
+    }
+
     private class WsnHttpBridgeHandler extends IoHandlerAdapter<HttpAcceptSession> {
 
 
@@ -905,17 +933,7 @@ public class WsnAcceptor extends AbstractBridgeAcceptor<WsnSession, WsnBindings.
                                                     final String schemeName,
                                                     String nextProtocol) {
 
-            ResourceOptions options = ResourceOptions.FACTORY.newResourceOptions();
-            options.setOption(TRANSPORT, session.getLocalAddress());
-            options.setOption(NEXT_PROTOCOL, nextProtocol);
-
-            URI resource = session.getLocalAddress().getResource();
-
-            String wsLocalAddressLocation = URIUtils.modifyURIScheme(URIUtils.uriToString(resource),
-                    schemeName);
-
-            ResourceAddress candidate = resourceAddressFactory.newResourceAddress(
-                    wsLocalAddressLocation, options);
+            ResourceAddress candidate = wsLocalAddresses.get(session.getLocalAddress(), schemeName, nextProtocol);
 
             Binding binding = bindings.getBinding(candidate);
 
@@ -28,6 +28,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
 
 import javax.annotation.Resource;
@@ -48,6 +50,7 @@ import org.kaazing.gateway.resource.address.Protocol;
 import org.kaazing.gateway.resource.address.ResourceAddress;
 import org.kaazing.gateway.resource.address.ResourceAddressFactory;
 import org.kaazing.gateway.resource.address.uri.URIUtils;
+import org.kaazing.gateway.resource.address.ws.WsMaskingStrategy;
 import org.kaazing.gateway.resource.address.ws.WsResourceAddress;
 import org.kaazing.gateway.security.auth.context.ResultAwareLoginContext;
 import org.kaazing.gateway.transport.AbstractBridgeConnector;
@@ -126,6 +129,7 @@ public class WsnConnector extends AbstractBridgeConnector<WsnSession> {
 
     private final HttpPostUpgradeFilter postUpgrade;
     private final WsCodecFilter codec;
+    private final ConcurrentMap<WsMaskingStrategy, WsCodecFilter> codecs;
     private final WsFrameBase64Filter base64;
     private final WsFrameTextFilter text;
 
@@ -140,7 +144,8 @@ public class WsnConnector extends AbstractBridgeConnector<WsnSession> {
 
         postUpgrade = new HttpPostUpgradeFilter();
 
-        codec = new WsCodecFilter(0, true);
+        codec = new WsCodecFilter(0, WsMaskingStrategy.SECURE);
+        codecs = new ConcurrentHashMap<>();
         base64 = new WsFrameBase64Filter();
         text = new WsFrameTextFilter();
     }
@@ -180,7 +185,8 @@ public class WsnConnector extends AbstractBridgeConnector<WsnSession> {
     public void addBridgeFilters(IoFilterChain filterChain) {
         IoSession session = filterChain.getSession();
         Encoding encoding = (Encoding) session.getAttribute(ENCODING_KEY);
-        filterChain.addLast(CODEC_FILTER, codec);
+        final ResourceAddress connectAddress = (ResourceAddress) session.removeAttribute(WSN_CONNECT_ADDRESS_KEY);
+        filterChain.addLast(CODEC_FILTER, getCodec(connectAddress.getOption(WsResourceAddress.MASKING_STRATEGY)));
         if (encoding != null) {
             switch (encoding) {
                 case BASE64:
@@ -205,7 +211,6 @@ public class WsnConnector extends AbstractBridgeConnector<WsnSession> {
         filterChain.addBefore(CODEC_FILTER, POST_UPGRADE_FILTER, postUpgrade);
 
         // (KG-7391) Use ping and pong to detect and close dead connections, if ws inactivity timeout is active
-        final ResourceAddress connectAddress = (ResourceAddress) session.removeAttribute(WSN_CONNECT_ADDRESS_KEY);
         WsCheckAliveFilter.addIfFeatureEnabled(filterChain, WsnAcceptor.CHECK_ALIVE_FILTER,
                 connectAddress.getOption(WsResourceAddress.INACTIVITY_TIMEOUT), logger);
     }
@@ -213,12 +218,21 @@ public class WsnConnector extends AbstractBridgeConnector<WsnSession> {
     @Override
     public void removeBridgeFilters(IoFilterChain filterChain) {
         removeFilter(filterChain, postUpgrade);
-        removeFilter(filterChain, codec);
+        removeFilter(filterChain, CODEC_FILTER);
         removeFilter(filterChain, base64);
         removeFilter(filterChain, text);
         removeFilter(filterChain, WsAcceptor.CLOSE_FILTER);
     }
 
+    private WsCodecFilter getCodec(String maskingStrategyName) {
+        WsMaskingStrategy maskingStrategy = WsMaskingStrategy.forName(maskingStrategyName);
+        if (maskingStrategy == WsMaskingStrategy.SECURE) {
+            return codec;
+        }
+        // codec filters are stateless, so one per masking strategy is shared by all sessions
+        return codecs.computeIfAbsent(maskingStrategy, strategy -> new WsCodecFilter(0, strategy));
+    }
+
     @Override
     protected IoProcessorEx<WsnSession> initProcessor() {
         return new WsnAcceptProcessor();
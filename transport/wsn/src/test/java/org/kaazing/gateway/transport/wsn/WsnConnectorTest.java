@@ -24,6 +24,7 @@ import static org.kaazing.gateway.util.Utils.asByteBuffer;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.CountDownLatch;
@@ -306,6 +307,47 @@ public class WsnConnectorTest {
 
     }
 
+    @Test
+    public void shouldEchoMessageMaskedWithFastMaskingStrategy() throws Exception {
+
+        String location = "wsn://localhost:8000/echo";
+        ResourceAddress bindAddress = addressFactory.newResourceAddress(location);
+        Map<String, Object> connectOptions = new HashMap<>();
+        connectOptions.put("ws.maskingStrategy", "fast");
+        ResourceAddress connectAddress = addressFactory.newResourceAddress(location, connectOptions);
+
+        IoHandler acceptHandler = new IoHandlerAdapter<IoSessionEx>() {
+            @Override
+            protected void doMessageReceived(IoSessionEx session, Object message) throws Exception {
+                // echo message
+                IoBufferEx buf = (IoBufferEx) message;
+                session.write(buf.duplicate());
+            }
+        };
+        wsnAcceptor.bind(bindAddress, acceptHandler, null);
+
+        final CountDownLatch echoReceived = new CountDownLatch(1);
+        IoHandler connectHandler = new IoHandlerAdapter<IoSessionEx>() {
+            @Override
+            protected void doSessionOpened(IoSessionEx session) throws Exception {
+                IoBufferAllocatorEx<?> allocator = session.getBufferAllocator();
+                session.write(allocator.wrap(wrap("Hello, world".getBytes())));
+            }
+
+            @Override
+            protected void doMessageReceived(IoSessionEx session, Object message) throws Exception {
+                if ("Hello, world".equals(Utils.asString(((IoBufferEx) message).buf()))) {
+                    echoReceived.countDown();
+                }
+            }
+        };
+
+        ConnectFuture connectFuture = wsnConnector.connect(connectAddress, connectHandler, null);
+        connectFuture.await(3000, TimeUnit.MILLISECONDS);
+        assertTrue("Connected", connectFuture.isConnected());
+        waitForLatch(echoReceived, NETWORK_OPERATION_WAIT_SECS, TimeUnit.SECONDS, "echo not received");
+    }
+
     @Test
     @Ignore("Failing on travis CI https://github.com/kaazing/gateway/issues/162")
     public void shouldNotHangOnToHttpConnectSessionsWhenEstablishingAndTearingDownWsnConnectorSessions() throws Exception {
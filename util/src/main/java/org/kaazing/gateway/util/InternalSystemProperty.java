@@ -96,7 +96,42 @@ public enum InternalSystemProperty {
     CONNECT_FOLLOW_REDIRECT_WITH_QUERY
             ("org.kaazing.gateway.transport.http.CONNECT_FOLLOW_REDIRECT_WITH_QUERY", "false"),
 
+    // Maximum number of idle persistent connections pooled per server across all the I/O threads,
+    // 0 only applies the per I/O thread http.keepalive.connections limit
+    HTTP_KEEPALIVE_MAX_CONNECTIONS_PER_HOST
+            ("org.kaazing.gateway.transport.http.KEEPALIVE_MAX_CONNECTIONS_PER_HOST", "0"),
+
+    // Number of persistent connections opened ahead of demand when the pool has no connection for a server
+    HTTP_KEEPALIVE_PREWARM_CONNECTIONS
+            ("org.kaazing.gateway.transport.http.KEEPALIVE_PREWARM_CONNECTIONS", "0"),
+
+    // Whether concurrent logins presenting the same credentials from the same client address to the same realm
+    // share a single run of the realm's login modules instead of each running the login module chain
+    HTTP_LOGIN_COALESCING
+            ("org.kaazing.gateway.transport.http.LOGIN_COALESCING", "false"),
+
+    // Name of the SslEngineFactorySpi creating the SSLEngines of the ssl transport, falls back to the JDK
+    // engines when no provider of that name is available
+    SSL_ENGINE_PROVIDER
+            ("org.kaazing.gateway.transport.ssl.ENGINE_PROVIDER", "jdk"),
+
+    // Whether the ssl transport holds small application writes until the next I/O loop iteration and encrypts
+    // them together, up to the maximum TLS record size, instead of writing one TLS record per message
+    SSL_GATHERING_WRITES
+            ("org.kaazing.gateway.transport.ssl.GATHERING_WRITES", "false"),
+
+    // Whether the validated and translated gateway configuration is cached in the temp directory, keyed by the
+    // content of the config file and a digest of the parameter values substituted into it, and loaded from there on
+    // later starts. Off by default, entries hold the substituted configuration and are readable by their owner only
+    CONFIG_CACHE_ENABLED
+            ("org.kaazing.gateway.server.CONFIG_CACHE_ENABLED", "false"),
+
     // services
+    // Number of threads initializing and starting services, services without dependencies on each other start in parallel
+    // when greater than 1
+    SERVICE_STARTUP_THREADS
+            ("org.kaazing.gateway.server.SERVICE_STARTUP_THREADS", "1"),
+
     BROADCAST_SERVICE_MAXIMUM_PENDING_BYTES
             ("org.kaazing.gateway.server.service.broadcast.MAXIMUM_PENDING_BYTES"),
 
@@ -135,6 +170,18 @@ public enum InternalSystemProperty {
 
     CLUSTER_BYPASS_AWS_CHECK("com.kaazing.gateway.cluster.bypass.aws.check", "false"),
 
+    // Comma separated list of the cluster maps which are near cached on every member. Near cached entries are
+    // invalidated when the entry is changed on any member.
+    CLUSTER_NEAR_CACHE_MAPS("com.kaazing.gateway.cluster.near.cache.maps", "balancerMap,memberIdBalancerMap"),
+
+    // Delay in milliseconds before the member balancer state written during service unbind is flushed to the
+    // cluster in a single batch, 0 (the default) to write it immediately
+    CLUSTER_WRITE_BEHIND_DELAY("com.kaazing.gateway.cluster.write.behind.delay", "0"),
+
+    // true to deliver the messages of topics on a dedicated thread when no cluster is configured, so publishers do not
+    // run the listeners and may publish from within a listener
+    CLUSTER_STANDALONE_TOPIC_ASYNC_DELIVERY("com.kaazing.gateway.cluster.standalone.topic.async.delivery", "false"),
+
     // TCP_IDLE_TIMEOUT will kill the session if nothing is written or read at nio level.
     // Note, the idle usage is using the mina netty idle timeout which may be set
     // by higher layers. Logic for this is in NioIdleFilter
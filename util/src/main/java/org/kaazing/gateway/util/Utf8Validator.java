@@ -0,0 +1,228 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.util;
+
+import static java.lang.String.format;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental UTF-8 validator, keeping its state between calls so that a message can be validated one fragment
+ * at a time, even when a multi-byte character spans two fragments.
+ * <p/>
+ * Runs of ASCII characters are skipped 8 bytes at a time. Validation does not allocate, the description of an error
+ * is only built when {@link #getErrorMessage()} is called. Instances are not thread safe.
+ */
+public final class Utf8Validator {
+
+    private static final long ASCII_MASK = 0x8080808080808080L;
+
+    private static final int INVALID = -1;
+
+    private int remaining;        // continuation bytes still expected for the current character
+    private int lowerBound;       // bounds of the next continuation byte, to reject overlong and surrogate encodings
+    private int upperBound;
+    private int errorByte;
+    private long errorIndex;
+    private long validatedBytes;
+
+    /**
+     * Method validating the next fragment of the message
+     * @param buffer
+     * @param offset  absolute index of the first byte of the fragment
+     * @param length  number of bytes in the fragment
+     * @return false if the fragment contains an invalid UTF-8 sequence
+     */
+    public boolean validate(ByteBuffer buffer, int offset, int length) {
+        if (remaining == INVALID) {
+            return false;
+        }
+
+        boolean valid = buffer.hasArray()
+                ? validate(buffer.array(), buffer.arrayOffset() + offset, length)
+                : validateDirect(buffer, offset, length);
+        if (valid) {
+            validatedBytes += length;
+        }
+        return valid;
+    }
+
+    /**
+     * Method validating the next fragment of the message
+     * @param buffer  fragment, between its position and limit
+     * @return false if the fragment contains an invalid UTF-8 sequence
+     */
+    public boolean validate(ByteBuffer buffer) {
+        return validate(buffer, buffer.position(), buffer.remaining());
+    }
+
+    /**
+     * Method returning whether all the bytes validated so far are valid UTF-8 and do not end in the middle of
+     * a character, as required at the end of a message
+     * @return
+     */
+    public boolean isComplete() {
+        return remaining == 0;
+    }
+
+    /**
+     * Method returning whether an invalid UTF-8 sequence has been found
+     * @return
+     */
+    public boolean isInvalid() {
+        return remaining == INVALID;
+    }
+
+    /**
+     * Method returning the reason why validation failed or is not complete, or null if the bytes validated
+     * so far are complete and valid
+     * @return
+     */
+    public String getErrorMessage() {
+        if (remaining == INVALID) {
+            return format("Invalid UTF-8 byte 0x%02x at index %d", errorByte, errorIndex);
+        }
+        if (remaining > 0) {
+            return format("final character is incomplete, missing %d bytes", remaining);
+        }
+        return null;
+    }
+
+    /**
+     * Resets the validator so that it can be used for the next message.
+     */
+    public void reset() {
+        remaining = 0;
+        validatedBytes = 0;
+    }
+
+    private boolean validate(byte[] array, int offset, int length) {
+        int index = offset;
+        int limit = offset + length;
+        while (index < limit) {
+            if (remaining == 0) {
+                // ASCII fast path, heap buffers are read directly as ByteBuffer.getLong is not intrinsified for them
+                while (index + 8 <= limit &&
+                        ((array[index] | array[index + 1] | array[index + 2] | array[index + 3] |
+                          array[index + 4] | array[index + 5] | array[index + 6] | array[index + 7]) & 0x80) == 0) {
+                    index += 8;
+                }
+                // the next non ASCII byte is within the next word, or in the last bytes
+                while (index < limit && array[index] >= 0) {
+                    index++;
+                }
+                if (index == limit) {
+                    break;
+                }
+                int leadingByte = array[index] & 0xff;
+                if (!validateLeadingByte(leadingByte)) {
+                    return invalid(leadingByte, index - offset);
+                }
+                index++;
+            }
+            while (remaining > 0 && index < limit) {
+                int continuationByte = array[index] & 0xff;
+                if (continuationByte < lowerBound || continuationByte > upperBound) {
+                    return invalid(continuationByte, index - offset);
+                }
+                lowerBound = 0x80;
+                upperBound = 0xbf;
+                remaining--;
+                index++;
+            }
+        }
+        return true;
+    }
+
+    private boolean validateDirect(ByteBuffer buffer, int offset, int length) {
+        int index = offset;
+        int limit = offset + length;
+        while (index < limit) {
+            if (remaining == 0) {
+                // ASCII fast path
+                while (index + 8 <= limit && (buffer.getLong(index) & ASCII_MASK) == 0) {
+                    index += 8;
+                }
+                // the next non ASCII byte is within the next word, or in the last bytes
+                while (index < limit && buffer.get(index) >= 0) {
+                    index++;
+                }
+                if (index == limit) {
+                    break;
+                }
+                int leadingByte = buffer.get(index) & 0xff;
+                if (!validateLeadingByte(leadingByte)) {
+                    return invalid(leadingByte, index - offset);
+                }
+                index++;
+            }
+            while (remaining > 0 && index < limit) {
+                int continuationByte = buffer.get(index) & 0xff;
+                if (continuationByte < lowerBound || continuationByte > upperBound) {
+                    return invalid(continuationByte, index - offset);
+                }
+                lowerBound = 0x80;
+                upperBound = 0xbf;
+                remaining--;
+                index++;
+            }
+        }
+        return true;
+    }
+
+    private boolean validateLeadingByte(int leadingByte) {
+        lowerBound = 0x80;
+        upperBound = 0xbf;
+        if (leadingByte >= 0xc2 && leadingByte <= 0xdf) {
+            remaining = 1;
+        }
+        else if (leadingByte >= 0xe0 && leadingByte <= 0xef) {
+            remaining = 2;
+            if (leadingByte == 0xe0) {
+                // overlong encoding
+                lowerBound = 0xa0;
+            }
+            else if (leadingByte == 0xed) {
+                // UTF-16 surrogates
+                upperBound = 0x9f;
+            }
+        }
+        else if (leadingByte >= 0xf0 && leadingByte <= 0xf4) {
+            remaining = 3;
+            if (leadingByte == 0xf0) {
+                // overlong encoding
+                lowerBound = 0x90;
+            }
+            else if (leadingByte == 0xf4) {
+                // beyond U+10FFFF
+                upperBound = 0x8f;
+            }
+        }
+        else {
+            // continuation byte, overlong 2 bytes encoding or beyond U+10FFFF
+            return false;
+        }
+        return true;
+    }
+
+    private boolean invalid(int invalidByte, int fragmentIndex) {
+        remaining = INVALID;
+        errorByte = invalidByte;
+        errorIndex = validatedBytes + fragmentIndex;
+        return false;
+    }
+
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the byte at a time validation of {@link Utf8Util#validateUTF8} with {@link Utf8Validator},
+ * for text frame sized payloads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Utf8ValidatorBM {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Param({"ascii", "mixed", "cjk"})
+    public String payload;
+
+    @Param({"64", "4096"})
+    public int length;
+
+    @Param({"false", "true"})
+    public boolean direct;
+
+    private final Utf8Validator validator = new Utf8Validator();
+    private final ErrorHandler errorHandler = new ErrorHandler() {
+        @Override
+        public void handleError(String message) {
+        }
+    };
+    private ByteBuffer buffer;
+
+    @Setup
+    public void init() throws Exception {
+        String pattern;
+        switch (payload) {
+        case "ascii":
+            pattern = "{\"id\":12345,\"name\":\"gateway\",\"tags\":[\"a\",\"b\"]}";
+            break;
+        case "mixed":
+            pattern = "{\"name\":\"café crème brûlée\",\"id\":42}";
+            break;
+        default:
+            pattern = "日本語のテキスト中文文本";
+            break;
+        }
+        StringBuilder text = new StringBuilder();
+        while (text.toString().getBytes(UTF_8).length < length) {
+            text.append(pattern);
+        }
+        byte[] bytes = text.toString().getBytes(UTF_8);
+        buffer = direct ? ByteBuffer.allocateDirect(bytes.length) : ByteBuffer.allocate(bytes.length);
+        buffer.put(bytes).flip();
+    }
+
+    @Benchmark
+    public int utf8Util() {
+        return Utf8Util.validateUTF8(buffer, buffer.position(), buffer.remaining(), errorHandler);
+    }
+
+    @Benchmark
+    public boolean utf8Validator() {
+        validator.reset();
+        return validator.validate(buffer) && validator.isComplete();
+    }
+
+    // Or from command line:
+    //
+    // mvn clean install
+    // java -jar target/benchmarks.jar Utf8ValidatorBM
+    //
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(Utf8ValidatorBM.class.getSimpleName())
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
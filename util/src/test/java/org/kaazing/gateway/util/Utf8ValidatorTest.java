@@ -0,0 +1,112 @@
+/**
+ * Copyright 2007-2016, Kaazing Corporation. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kaazing.gateway.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+public class Utf8ValidatorTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void shouldValidateAsciiMixedAndSupplementaryCharacters() throws Exception {
+        String text = "plain ascii text longer than one word, café 日本語 😀 end";
+        Utf8Validator validator = new Utf8Validator();
+
+        assertTrue(validator.validate(ByteBuffer.wrap(text.getBytes(UTF_8))));
+        assertTrue(validator.isComplete());
+        assertNull(validator.getErrorMessage());
+    }
+
+    @Test
+    public void shouldValidateCharacterSpanningFragments() throws Exception {
+        byte[] bytes = "abcdefgh😀".getBytes(UTF_8);
+        Utf8Validator validator = new Utf8Validator();
+
+        // split in the middle of the 4 bytes character
+        assertTrue(validator.validate(ByteBuffer.wrap(bytes, 0, 10)));
+        assertFalse(validator.isComplete());
+        assertEquals("final character is incomplete, missing 2 bytes", validator.getErrorMessage());
+
+        assertTrue(validator.validate(ByteBuffer.wrap(bytes, 10, 2)));
+        assertTrue(validator.isComplete());
+    }
+
+    @Test
+    public void shouldValidateFragmentAtOffset() throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { (byte) 0xff, 'a', (byte) 0xc3, (byte) 0xa9, (byte) 0xff });
+        Utf8Validator validator = new Utf8Validator();
+
+        assertTrue(validator.validate(buffer, 1, 3));
+        assertTrue(validator.isComplete());
+    }
+
+    @Test
+    public void shouldRejectInvalidSequences() throws Exception {
+        assertInvalid(0x80);                          // unexpected continuation byte
+        assertInvalid(0xc0, 0xaf);                    // overlong 2 bytes encoding
+        assertInvalid(0xe0, 0x80, 0xaf);              // overlong 3 bytes encoding
+        assertInvalid(0xf0, 0x80, 0x80, 0xaf);        // overlong 4 bytes encoding
+        assertInvalid(0xed, 0xa0, 0x80);              // UTF-16 surrogate
+        assertInvalid(0xf4, 0x90, 0x80, 0x80);        // beyond U+10FFFF
+        assertInvalid(0xf5, 0x80, 0x80, 0x80);        // invalid leading byte
+        assertInvalid(0xc3, 'a');                     // missing continuation byte
+    }
+
+    @Test
+    public void shouldReportErrorIndexAcrossFragments() throws Exception {
+        Utf8Validator validator = new Utf8Validator();
+
+        assertTrue(validator.validate(ByteBuffer.wrap("0123456789".getBytes(UTF_8))));
+        assertFalse(validator.validate(ByteBuffer.wrap(new byte[] { 'a', 'b', (byte) 0xff })));
+        assertTrue(validator.isInvalid());
+        assertEquals("Invalid UTF-8 byte 0xff at index 12", validator.getErrorMessage());
+
+        // remains invalid until reset
+        assertFalse(validator.validate(ByteBuffer.wrap("valid".getBytes(UTF_8))));
+        validator.reset();
+        assertTrue(validator.validate(ByteBuffer.wrap("valid".getBytes(UTF_8))));
+    }
+
+    @Test
+    public void shouldRejectNonAsciiByteAfterAsciiWords() throws Exception {
+        byte[] bytes = "0123456789abcdef0123".getBytes(UTF_8);
+        bytes[17] = (byte) 0xff;
+        Utf8Validator validator = new Utf8Validator();
+
+        assertFalse(validator.validate(ByteBuffer.wrap(bytes)));
+        assertEquals("Invalid UTF-8 byte 0xff at index 17", validator.getErrorMessage());
+    }
+
+    private static void assertInvalid(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        Utf8Validator validator = new Utf8Validator();
+        assertFalse(validator.validate(ByteBuffer.wrap(bytes)));
+        assertTrue(validator.isInvalid());
+    }
+
+}